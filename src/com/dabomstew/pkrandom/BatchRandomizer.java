@@ -0,0 +1,372 @@
+package com.dabomstew.pkrandom;
+
+/*----------------------------------------------------------------------------*/
+/*--  BatchRandomizer.java - randomizes many seeds of the same game,        --*/
+/*--                         spread over several worker threads.            --*/
+/*--                                                                        --*/
+/*--  Part of "Universal Pokemon Randomizer ZX" by the UPR-ZX team          --*/
+/*--  Originally part of "Universal Pokemon Randomizer" by Dabomstew        --*/
+/*--  Pokemon and any associated names and the like are                     --*/
+/*--  trademark and (C) Nintendo 1996-2020.                                 --*/
+/*--                                                                        --*/
+/*--  The custom code written here is licensed under the terms of the GPL:  --*/
+/*--                                                                        --*/
+/*--  This program is free software: you can redistribute it and/or modify  --*/
+/*--  it under the terms of the GNU General Public License as published by  --*/
+/*--  the Free Software Foundation, either version 3 of the License, or     --*/
+/*--  (at your option) any later version.                                   --*/
+/*--                                                                        --*/
+/*--  This program is distributed in the hope that it will be useful,       --*/
+/*--  but WITHOUT ANY WARRANTY; without even the implied warranty of        --*/
+/*--  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the          --*/
+/*--  GNU General Public License for more details.                          --*/
+/*--                                                                        --*/
+/*--  You should have received a copy of the GNU General Public License     --*/
+/*--  along with this program. If not, see <http://www.gnu.org/licenses/>.  --*/
+/*----------------------------------------------------------------------------*/
+
+import com.dabomstew.pkrandom.log.LogFile;
+import com.dabomstew.pkromio.graphics.packs.CustomPlayerGraphics;
+import com.dabomstew.pkromio.romhandlers.RomHandler;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Randomizes a game many times over, each time with a new seed, using a pool of worker threads.<br>
+ * Every {@link Job} gets its own {@link GameRandomizer}, run on a fresh {@link RomHandler} from the given supplier,
+ * so the output of a job is identical to that of randomizing the same seed on its own.
+ * <br><br>
+ * If the game does not support concurrent randomization
+ * (see {@link RomHandler#hasConcurrentRandomizationSupport()}), the jobs are run one at a time.
+ */
+public class BatchRandomizer {
+
+    public static class Job {
+        private final long seed;
+        private final String filename;
+        private final boolean saveLog;
+
+        public Job(long seed, String filename, boolean saveLog) {
+            this.seed = seed;
+            this.filename = filename;
+            this.saveLog = saveLog;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public String getFilename() {
+            return filename;
+        }
+
+        public boolean isSaveLog() {
+            return saveLog;
+        }
+    }
+
+    public static class JobResult {
+        private final Job job;
+        private GameRandomizer.Results results;
+        private Exception e;
+        private IOException logWriteE;
+        private long loadTime;
+        private long time;
+
+        private JobResult(Job job) {
+            this.job = job;
+        }
+
+        public Job getJob() {
+            return job;
+        }
+
+        public boolean wasSuccessful() {
+            return e == null && results.wasSaveSuccessful();
+        }
+
+        /**
+         * Returns the Exception that made the job fail, either while loading the game or while randomizing it.
+         */
+        public Exception getException() {
+            if (wasSuccessful()) {
+                throw new IllegalStateException("Job successful; no Exception to be gotten.");
+            }
+            return e != null ? e : results.getException();
+        }
+
+        /**
+         * Returns the {@link GameRandomizer.Results}, or null if the game could not be loaded.
+         */
+        public GameRandomizer.Results getResults() {
+            return results;
+        }
+
+        public boolean wasLogWriteSuccessful() {
+            return logWriteE == null;
+        }
+
+        public IOException getLogWriteException() {
+            return logWriteE;
+        }
+
+        /**
+         * Returns how long loading the game took, in milliseconds.
+         */
+        public long getLoadTime() {
+            return loadTime;
+        }
+
+        /**
+         * Returns how long the job took in total, including loading the game, in milliseconds.
+         */
+        public long getTime() {
+            return time;
+        }
+    }
+
+    public interface Listener {
+        /**
+         * Called once each job has finished, successfully or not. May be called from any of the worker threads.
+         */
+        void jobFinished(JobResult result, int finishedCount, int totalCount);
+    }
+
+    public static class Report {
+        private final List<JobResult> jobResults;
+        private final int workers;
+        private final long wallTime;
+        private final long loadTime;
+        private final Map<String, Long> stageTimes = new LinkedHashMap<>();
+
+        private Report(List<JobResult> jobResults, int workers, long wallTime) {
+            this.jobResults = Collections.unmodifiableList(jobResults);
+            this.workers = workers;
+            this.wallTime = wallTime;
+
+            long loadTime = 0;
+            for (JobResult jr : jobResults) {
+                loadTime += jr.loadTime;
+                if (jr.results != null) {
+                    jr.results.getStageTimes().forEach((stage, time) -> stageTimes.merge(stage, time, Long::sum));
+                }
+            }
+            this.loadTime = loadTime;
+        }
+
+        public List<JobResult> getJobResults() {
+            return jobResults;
+        }
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public int getSuccessfulCount() {
+            return (int) jobResults.stream().filter(JobResult::wasSuccessful).count();
+        }
+
+        /**
+         * Returns how long the whole batch took, in milliseconds.
+         */
+        public long getWallTime() {
+            return wallTime;
+        }
+
+        public double getSeedsPerMinute() {
+            return wallTime == 0 ? 0 : getSuccessfulCount() * 60000.0 / wallTime;
+        }
+
+        /**
+         * Returns the time spent in each stage, summed over all jobs (and thus all workers), in milliseconds.
+         * Loading the game for each job is included as the "load" stage.
+         */
+        public Map<String, Long> getStageTimes() {
+            Map<String, Long> all = new LinkedHashMap<>();
+            all.put("load", loadTime);
+            all.putAll(stageTimes);
+            return Collections.unmodifiableMap(all);
+        }
+
+        public void print(PrintStream ps) {
+            ps.printf("%d/%d seeds randomized successfully in %.1f s, using %d worker(s) (%.1f seeds/minute)%n",
+                    getSuccessfulCount(), jobResults.size(), wallTime / 1000.0, workers, getSeedsPerMinute());
+            int count = Math.max(1, jobResults.size());
+            for (Map.Entry<String, Long> entry : getStageTimes().entrySet()) {
+                ps.printf("  %-14s total %8d ms, avg %8.1f ms/seed%n", entry.getKey(),
+                        entry.getValue(), entry.getValue() / (double) count);
+            }
+        }
+    }
+
+    private final Settings settings;
+    private final CustomPlayerGraphics customPlayerGraphics;
+    private final Supplier<RomHandler> romHandlerSupplier;
+    private final ResourceBundle bundle;
+    private final boolean saveAsDirectory;
+    private final int workers;
+    private boolean gzipLogs;
+    private boolean saveStructuredLogs;
+    private boolean logStages;
+
+    /**
+     * @param baseline The already loaded game to be randomized. Only used to check what the game supports.
+     * @param romHandlerSupplier Supplies a freshly loaded {@link RomHandler} of the same game as the baseline,
+     *                           each time it is called. May be called from several threads at once.
+     * @param workers The number of worker threads to use, at most.
+     */
+    public BatchRandomizer(Settings settings, CustomPlayerGraphics customPlayerGraphics, RomHandler baseline,
+                           Supplier<RomHandler> romHandlerSupplier, ResourceBundle bundle, boolean saveAsDirectory,
+                           int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers must be at least 1");
+        }
+        this.settings = settings;
+        this.customPlayerGraphics = customPlayerGraphics;
+        this.romHandlerSupplier = romHandlerSupplier;
+        this.bundle = bundle;
+        this.saveAsDirectory = saveAsDirectory;
+        this.workers = baseline.hasConcurrentRandomizationSupport() ? workers : 1;
+    }
+
+    public static int defaultWorkerCount() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Sets whether logs are saved gzipped; see {@link LogFile}.
+     */
+    public void setGzipLogs(boolean gzipLogs) {
+        this.gzipLogs = gzipLogs;
+    }
+
+    /**
+     * Sets whether jobs saving a log also save a structured log, for other tools to read;
+     * see {@link com.dabomstew.pkrandom.log.RandomizationLogger}.
+     */
+    public void setSaveStructuredLogs(boolean saveStructuredLogs) {
+        this.saveStructuredLogs = saveStructuredLogs;
+    }
+
+    /**
+     * Sets whether the measured stages should also be written to the statistics section of each job's log;
+     * see {@link GameRandomizer#setLogStages(boolean)}.
+     */
+    public void setLogStages(boolean logStages) {
+        this.logStages = logStages;
+    }
+
+    /**
+     * Runs all jobs, and blocks until they are finished. The results in the {@link Report} are in the same order
+     * as the jobs.
+     */
+    public Report run(List<Job> jobs, Listener listener) throws InterruptedException {
+        int poolSize = Math.max(1, Math.min(workers, jobs.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+        long startTime = System.currentTimeMillis();
+
+        List<JobResult> jobResults = new ArrayList<>(jobs.size());
+        List<Future<?>> futures = new ArrayList<>(jobs.size());
+        int[] finishedCount = new int[1];
+        for (Job job : jobs) {
+            JobResult jr = new JobResult(job);
+            jobResults.add(jr);
+            futures.add(executor.submit(() -> {
+                runJob(jr);
+                if (listener != null) {
+                    int finished;
+                    synchronized (finishedCount) {
+                        finished = ++finishedCount[0];
+                    }
+                    listener.jobFinished(jr, finished, jobs.size());
+                }
+            }));
+        }
+        executor.shutdown();
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            // runJob() catches everything on its own, so this can only come from the listener
+            executor.shutdownNow();
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            throw e;
+        }
+
+        return new Report(jobResults, poolSize, System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Runs a single job on the calling thread, and returns its result.
+     */
+    public JobResult run(Job job) {
+        JobResult jr = new JobResult(job);
+        runJob(jr);
+        return jr;
+    }
+
+    private void runJob(JobResult jr) {
+        long startTime = System.currentTimeMillis();
+        Job job = jr.job;
+        PrintStream log = null;
+        PrintStream records = null;
+        boolean logOpened = false;
+        try {
+            RomHandler romHandler = romHandlerSupplier.get();
+            jr.loadTime = System.currentTimeMillis() - startTime;
+
+            // the log is streamed straight to its file while being written
+            log = LogFile.discarding();
+            if (job.saveLog) {
+                try {
+                    log = LogFile.open(job.filename, gzipLogs);
+                    logOpened = true;
+                    if (saveStructuredLogs) {
+                        records = LogFile.openRecords(job.filename, gzipLogs);
+                    }
+                } catch (IOException e) {
+                    jr.logWriteE = e;
+                }
+            }
+
+            GameRandomizer randomizer = new GameRandomizer(settings, customPlayerGraphics, romHandler, bundle,
+                    saveAsDirectory);
+            randomizer.setLogStages(logStages);
+            jr.results = randomizer.randomize(job.filename, log, records, job.seed);
+        } catch (Exception e) {
+            jr.e = e;
+        } finally {
+            if (log != null) {
+                log.close();
+            }
+            if (records != null) {
+                records.close();
+            }
+        }
+
+        if (logOpened) {
+            if (!jr.wasSuccessful()) {
+                LogFile.delete(job.filename, gzipLogs);
+                LogFile.deleteRecords(job.filename, gzipLogs);
+            } else if (log.checkError()) {
+                jr.logWriteE = new IOException("Could not write " + LogFile.getFilename(job.filename, gzipLogs));
+            } else if (records != null && records.checkError()) {
+                jr.logWriteE = new IOException("Could not write "
+                        + LogFile.getRecordsFilename(job.filename, gzipLogs));
+            }
+        }
+        jr.time = System.currentTimeMillis() - startTime;
+    }
+
+}
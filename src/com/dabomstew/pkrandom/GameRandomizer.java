@@ -37,6 +37,10 @@ import com.dabomstew.pkromio.romhandlers.RomHandler;
 
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
 
 /**
@@ -54,8 +58,11 @@ public class GameRandomizer {
         private Exception e;
         private Exception logE;
         private int checkValue;
+        private final StageProfiler profiler;
 
-        private Results() {}
+        private Results(StageProfiler profiler) {
+            this.profiler = profiler;
+        }
 
         public boolean wasSaveSuccessful() {
             return e == null;
@@ -82,6 +89,35 @@ public class GameRandomizer {
         public int getCheckValue() {
             return checkValue;
         }
+
+        /**
+         * Returns how long each top-level stage of the randomization took, in milliseconds, in the order they were
+         * run. Stages which were not reached (e.g. because an earlier one threw an Exception) are not included.
+         */
+        public Map<String, Long> getStageTimes() {
+            Map<String, Long> stageTimes = new LinkedHashMap<>();
+            for (StageProfiler.Stage stage : profiler.getStages()) {
+                if (stage.getDepth() == 0) {
+                    stageTimes.put(stage.getName(), stage.getMillis());
+                }
+            }
+            return Collections.unmodifiableMap(stageTimes);
+        }
+
+        /**
+         * Returns all measured stages of the randomization, including the nested ones
+         * (e.g. "randomization/randomizeEvolutions"), each before the stages nested in it.
+         */
+        public List<StageProfiler.Stage> getStages() {
+            return profiler.getStages();
+        }
+
+        /**
+         * Returns all measured stages as a JSON array; see {@link StageProfiler#toJson()}.
+         */
+        public String getStagesAsJson() {
+            return profiler.toJson();
+        }
     }
 
     private final RandomSource randomSource = new RandomSource();
@@ -92,6 +128,8 @@ public class GameRandomizer {
     private final boolean saveAsDirectory;
 
     private final RandomizationLogger logger;
+    private boolean logStages;
+    private StageProfiler profiler;
 
     private final SpeciesBaseStatUpdater speciesBSUpdater;
     private final MoveUpdater moveUpdater;
@@ -192,25 +230,44 @@ public class GameRandomizer {
     }
 
     public Results randomize(final String filename, final PrintStream log, long seed) {
-        Results results = new Results();
+        return randomize(filename, log, null, seed);
+    }
+
+    /**
+     * Randomizes the game, and writes both the text log and the structured log of it;
+     * see {@link RandomizationLogger}.
+     *
+     * @param records The stream to write the structured log to, or null to only write the text log.
+     */
+    public Results randomize(final String filename, final PrintStream log, final PrintStream records, long seed) {
+        profiler = new StageProfiler(randomSource);
+        Results results = new Results(profiler);
         try {
             final long startTime = System.currentTimeMillis();
             randomSource.seed(seed);
 
-            setupSpeciesRestrictions();
-            applyUpdaters();
-            applyRandomizers();
-            maybeSetCustomPlayerGraphics();
-
-            results.checkValue = new CheckValueCalculator(romHandler, settings).calculate();
-
-            romHandler.saveRom(filename, seed, saveAsDirectory);
-
-            try {
-                logger.logResults(log, startTime);
-            } catch (Exception e) {
-                results.logE = e;
-            }
+            profiler.run("randomization", () -> {
+                profiler.run("speciesRestrictions", this::setupSpeciesRestrictions);
+                applyUpdaters();
+                applyRandomizers();
+                profiler.run("customPlayerGraphics", this::maybeSetCustomPlayerGraphics);
+            });
+
+            profiler.run("checkValue", () ->
+                    results.checkValue = new CheckValueCalculator(romHandler, settings).calculate());
+
+            profiler.run("save", () -> {
+                romHandler.saveRom(filename, seed, saveAsDirectory);
+                romHandler.getLastSaveTimes().forEach(profiler::record);
+            });
+
+            profiler.run("log", () -> {
+                try {
+                    logger.logResults(log, records, startTime, profiler, logStages);
+                } catch (Exception e) {
+                    results.logE = e;
+                }
+            });
         } catch (Exception e) {
             results.e = e;
         }
@@ -218,6 +275,21 @@ public class GameRandomizer {
         return results;
     }
 
+    /**
+     * Sets whether the measured stages (see {@link Results#getStages()}) should also be written
+     * to the statistics section of the log.
+     */
+    public void setLogStages(boolean logStages) {
+        this.logStages = logStages;
+    }
+
+    /**
+     * Sets how many threads the log may be rendered on at once; see {@link RandomizationLogger#setRenderThreads(int)}.
+     */
+    public void setLogRenderThreads(int renderThreads) {
+        logger.setRenderThreads(renderThreads);
+    }
+
     private void setupSpeciesRestrictions() {
         romHandler.getRestrictedSpeciesService().setRestrictions(settings.getCurrentRestrictions());
         if (settings.isLimitPokemon()) {
@@ -227,13 +299,14 @@ public class GameRandomizer {
 
     private void applyUpdaters() {
         if (settings.isUpdateTypeEffectiveness()) {
-            typeEffUpdater.updateTypeEffectiveness();
+            profiler.run("updateTypeEffectiveness", typeEffUpdater::updateTypeEffectiveness);
         }
         if (settings.isUpdateMoves()) {
-            moveUpdater.updateMoves(settings.getUpdateMovesToGeneration());
+            profiler.run("updateMoves", () -> moveUpdater.updateMoves(settings.getUpdateMovesToGeneration()));
         }
         if (settings.isUpdateBaseStats()) {
-            speciesBSUpdater.updateSpeciesStats(settings.getUpdateBaseStatsToGeneration());
+            profiler.run("updateBaseStats",
+                    () -> speciesBSUpdater.updateSpeciesStats(settings.getUpdateBaseStatsToGeneration()));
         }
     }
 
@@ -251,63 +324,63 @@ public class GameRandomizer {
 
     private void applyRandomizers() {
 
-        maybeRandomizeTypeEffectiveness();
+        profiler.run("randomizeTypeEffectiveness", this::maybeRandomizeTypeEffectiveness);
 
-        maybeRandomizeMoveData();
+        profiler.run("randomizeMoveData", this::maybeRandomizeMoveData);
 
-        maybeApplyMiscTweaks();
+        profiler.run("applyMiscTweaks", this::maybeApplyMiscTweaks);
 
-        maybeStandardizeEXPCurves();
+        profiler.run("standardizeEXPCurves", this::maybeStandardizeEXPCurves);
 
         // Applied before anything that can be carried up evolutions, so the new evos are used for that.
-        maybeRandomizeEvolutions();
+        profiler.run("randomizeEvolutions", this::maybeRandomizeEvolutions);
 
-        maybeRandomizeSpeciesTypes();
-        maybeRandomizeWildHeldItems();
-        maybeRandomizeSpeciesBaseStats();
-        maybeRandomizeSpeciesAbilities();
+        profiler.run("randomizeSpeciesTypes", this::maybeRandomizeSpeciesTypes);
+        profiler.run("randomizeWildHeldItems", this::maybeRandomizeWildHeldItems);
+        profiler.run("randomizeSpeciesBaseStats", this::maybeRandomizeSpeciesBaseStats);
+        profiler.run("randomizeSpeciesAbilities", this::maybeRandomizeSpeciesAbilities);
 
-        maybeApplyEvolutionImprovements();
+        profiler.run("applyEvolutionImprovements", this::maybeApplyEvolutionImprovements);
 
         // Applied after species types both some settings and the in-game strings should depend on the new types.
-        maybeRandomizeStarters();
+        profiler.run("randomizeStarters", this::maybeRandomizeStarters);
 
-        maybeRandomizeMovesets();
+        profiler.run("randomizeMovesets", this::maybeRandomizeMovesets);
 
-        maybeRandomizeTMMoves();
-        maybeRandomizeTMHMCompatibility();
+        profiler.run("randomizeTMMoves", this::maybeRandomizeTMMoves);
+        profiler.run("randomizeTMHMCompatibility", this::maybeRandomizeTMHMCompatibility);
 
-        maybeRandomizeMoveTutorMoves();
-        maybeRandomizeMoveTutorCompatibility();
+        profiler.run("randomizeMoveTutorMoves", this::maybeRandomizeMoveTutorMoves);
+        profiler.run("randomizeMoveTutorCompatibility", this::maybeRandomizeMoveTutorCompatibility);
 
         // Applied before trainer randomization so "trainers use local pokémon"
         // may be based on new "local pokémon".
-        maybeRandomizeWildPokemon();
+        profiler.run("randomizeWildPokemon", this::maybeRandomizeWildPokemon);
 
-        maybeRandomizeTrainerPokemon();
-        maybeRandomizeTrainerMovesets();
-        maybeFixTrainerZCrystals();
+        profiler.run("randomizeTrainerPokemon", this::maybeRandomizeTrainerPokemon);
+        profiler.run("randomizeTrainerMovesets", this::maybeRandomizeTrainerMovesets);
+        profiler.run("fixTrainerZCrystals", this::maybeFixTrainerZCrystals);
 
-        maybeRandomizeTrainerHeldItems();
-        maybeRandomizeTrainerNames();
+        profiler.run("randomizeTrainerHeldItems", this::maybeRandomizeTrainerHeldItems);
+        profiler.run("randomizeTrainerNames", this::maybeRandomizeTrainerNames);
 
         // Apply metronome only mode now that trainers have been dealt with
         if (settings.getMovesetsMod() == Settings.MovesetsMod.METRONOME_ONLY) {
-            speciesMovesetRandomizer.metronomeOnlyMode();
+            profiler.run("metronomeOnlyMode", speciesMovesetRandomizer::metronomeOnlyMode);
         }
 
-        maybeRandomizeStaticPokemon();
-        maybeRandomizeTotemPokemon();
+        profiler.run("randomizeStaticPokemon", this::maybeRandomizeStaticPokemon);
+        profiler.run("randomizeTotemPokemon", this::maybeRandomizeTotemPokemon);
 
-        maybeRandomizeInGameTrades();
+        profiler.run("randomizeInGameTrades", this::maybeRandomizeInGameTrades);
 
-        maybeRandomizeFieldItems();
-        maybeRandomizeShops();
-        maybeRandomizePickupItems();
+        profiler.run("randomizeFieldItems", this::maybeRandomizeFieldItems);
+        profiler.run("randomizeShops", this::maybeRandomizeShops);
+        profiler.run("randomizePickupItems", this::maybeRandomizePickupItems);
 
-        maybeRandomizePokemonPalettes();
+        profiler.run("randomizePokemonPalettes", this::maybeRandomizePokemonPalettes);
 
-        maybeRandomizeIntroPokemon();
+        profiler.run("randomizeIntroPokemon", this::maybeRandomizeIntroPokemon);
     }
 
     private void maybeRandomizeTypeEffectiveness() {
@@ -376,7 +449,12 @@ public class GameRandomizer {
 
     private void maybeRandomizeEvolutions() {
         if (settings.getEvolutionsMod() != Settings.EvolutionsMod.UNCHANGED) {
-            evoRandomizer.randomizeEvolutions();
+            try {
+                evoRandomizer.randomizeEvolutions();
+            } finally {
+                profiler.count("tries", evoRandomizer.getTries());
+                profiler.count("backtracks", evoRandomizer.getBacktracks());
+            }
         }
     }
 
@@ -0,0 +1,223 @@
+package com.dabomstew.pkrandom;
+
+/*----------------------------------------------------------------------------*/
+/*--  StageProfiler.java - measures the stages of a randomization.          --*/
+/*--                                                                        --*/
+/*--  Part of "Universal Pokemon Randomizer ZX" by the UPR-ZX team          --*/
+/*--  Pokemon and any associated names and the like are                     --*/
+/*--  trademark and (C) Nintendo 1996-2020.                                 --*/
+/*--                                                                        --*/
+/*--  This program is free software: you can redistribute it and/or modify  --*/
+/*--  it under the terms of the GNU General Public License as published by  --*/
+/*--  the Free Software Foundation, either version 3 of the License, or     --*/
+/*--  (at your option) any later version.                                   --*/
+/*--                                                                        --*/
+/*--  This program is distributed in the hope that it will be useful,       --*/
+/*--  but WITHOUT ANY WARRANTY; without even the implied warranty of        --*/
+/*--  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the          --*/
+/*--  GNU General Public License for more details.                          --*/
+/*--                                                                        --*/
+/*--  You should have received a copy of the GNU General Public License     --*/
+/*--  along with this program. If not, see <http://www.gnu.org/licenses/>.  --*/
+/*----------------------------------------------------------------------------*/
+
+import com.dabomstew.pkrandom.random.RandomSource;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+
+/**
+ * Measures the stages of a randomization: how long each took, how many RNG calls it made,
+ * and how many bytes it allocated.<br>
+ * Stages may be nested; a stage run inside another gets the outer stage's name as a prefix,
+ * e.g. "randomization/evolutions". The outer stage's numbers include those of its inner stages.
+ * Stages may also have counters of their own, e.g. how many tries a randomizer needed; see {@link #count(String, long)}.
+ * <br><br>
+ * Allocations are counted for the current thread only, so concurrent randomizations (as in
+ * {@link BatchRandomizer}) don't count each other's. They can only be counted on JVMs which support it;
+ * elsewhere they are reported as -1.
+ * <br><br>
+ * The heap in use is sampled at the end of each stage, see {@link #getPeakHeapUsed()}.
+ */
+public class StageProfiler {
+
+    public static class Stage {
+        private final String name;
+        private final int depth;
+        private long nanos;
+        private int rngCallsNonCosmetic;
+        private int rngCallsCosmetic;
+        private long allocatedBytes = -1;
+        private final Map<String, Long> counters = new LinkedHashMap<>();
+
+        private Stage(String name, int depth) {
+            this.name = name;
+            this.depth = depth;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns how many stages this is nested in; 0 for top-level stages.
+         */
+        public int getDepth() {
+            return depth;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public long getMillis() {
+            return nanos / 1000000;
+        }
+
+        public int getRngCallsNonCosmetic() {
+            return rngCallsNonCosmetic;
+        }
+
+        public int getRngCallsCosmetic() {
+            return rngCallsCosmetic;
+        }
+
+        /**
+         * Returns how many bytes were allocated during the stage, or -1 if that could not be measured.
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        /**
+         * Returns the counters of the stage, in the order they were first counted.
+         */
+        public Map<String, Long> getCounters() {
+            return Collections.unmodifiableMap(counters);
+        }
+    }
+
+    private final RandomSource randomSource;
+    private final com.sun.management.ThreadMXBean allocationCounter;
+
+    private final List<Stage> stages = new ArrayList<>();
+    private final List<Stage> openStages = new ArrayList<>();
+
+    private long peakHeapUsed;
+
+    public StageProfiler(RandomSource randomSource) {
+        this.randomSource = randomSource;
+        this.allocationCounter = findAllocationCounter();
+    }
+
+    private static com.sun.management.ThreadMXBean findAllocationCounter() {
+        try {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+                if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+                    return sunBean;
+                }
+            }
+        } catch (LinkageError ignored) {
+            // not a HotSpot-like JVM; allocations just can't be counted
+        }
+        return null;
+    }
+
+    /**
+     * Runs a stage, and records its measurements. If the stage throws, what was measured up to then is
+     * still recorded.
+     */
+    public void run(String name, Runnable stage) {
+        Stage s = new Stage(fullName(name), openStages.size());
+        stages.add(s);
+        openStages.add(s);
+
+        int nonCosmeticBefore = randomSource.callsSinceSeedNonCosmetic();
+        int cosmeticBefore = randomSource.callsSinceSeedCosmetic();
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        try {
+            stage.run();
+        } finally {
+            s.nanos = System.nanoTime() - start;
+            s.rngCallsNonCosmetic = randomSource.callsSinceSeedNonCosmetic() - nonCosmeticBefore;
+            s.rngCallsCosmetic = randomSource.callsSinceSeedCosmetic() - cosmeticBefore;
+            if (allocatedBefore != -1) {
+                s.allocatedBytes = allocatedBytes() - allocatedBefore;
+            }
+            peakHeapUsed = Math.max(peakHeapUsed, heapUsed());
+            openStages.remove(openStages.size() - 1);
+        }
+    }
+
+    /**
+     * Records a stage which was measured elsewhere, and for which only the time is known.
+     * It is placed inside the currently running stage, if any.
+     */
+    public void record(String name, long nanos) {
+        Stage s = new Stage(fullName(name), openStages.size());
+        s.nanos = nanos;
+        stages.add(s);
+    }
+
+    /**
+     * Adds to a counter of the innermost running stage, e.g. how many tries or backtracks a randomizer needed.
+     * Does nothing if no stage is running.
+     */
+    public void count(String counter, long value) {
+        if (!openStages.isEmpty()) {
+            openStages.get(openStages.size() - 1).counters.merge(counter, value, Long::sum);
+        }
+    }
+
+    private String fullName(String name) {
+        return openStages.isEmpty() ? name : openStages.get(openStages.size() - 1).name + "/" + name;
+    }
+
+    private long allocatedBytes() {
+        return allocationCounter == null ? -1
+                : allocationCounter.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static long heapUsed() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Returns the most heap in use, in bytes, at the end of any stage so far or now. Heap use within a stage
+     * is not seen, so the real peak may be higher. This is for the whole JVM, including other threads.
+     */
+    public long getPeakHeapUsed() {
+        return Math.max(peakHeapUsed, heapUsed());
+    }
+
+    /**
+     * Returns all stages run so far, each before the stages nested in it.
+     */
+    public List<Stage> getStages() {
+        return Collections.unmodifiableList(stages);
+    }
+
+    /**
+     * Returns the stages as a JSON array, with one object per stage, for reading by other tools.
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < stages.size(); i++) {
+            Stage s = stages.get(i);
+            sb.append(i == 0 ? "\n" : ",\n");
+            sb.append("  {\"name\": ").append(Json.quote(s.name))
+                    .append(", \"depth\": ").append(s.depth)
+                    .append(", \"nanos\": ").append(s.nanos)
+                    .append(", \"rngCallsNonCosmetic\": ").append(s.rngCallsNonCosmetic)
+                    .append(", \"rngCallsCosmetic\": ").append(s.rngCallsCosmetic)
+                    .append(", \"allocatedBytes\": ").append(s.allocatedBytes)
+                    .append(", \"counters\": ").append(Json.write(s.counters))
+                    .append('}');
+        }
+        return sb.append(stages.isEmpty() ? "]" : "\n]").toString();
+    }
+}
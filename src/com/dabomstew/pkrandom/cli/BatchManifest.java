@@ -0,0 +1,254 @@
+package com.dabomstew.pkrandom.cli;
+
+import com.dabomstew.pkrandom.Json;
+import com.dabomstew.pkrandom.random.SeedPicker;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A list of randomization jobs for "cli batch", read from a JSON or CSV file.<br>
+ * Each entry has a settings file, a source ROM, a seed or seed range, an output path, and whether to save a log.
+ * <br><br>
+ * JSON manifests are either an array of objects, or one object per line, with the members
+ * "settings", "rom", "seed", "output" and "log". E.g.:<br>
+ * <code>{"settings": "a.rnqs", "rom": "Emerald.gba", "seed": "1..100", "output": "out/em{seed}.gba", "log": true}</code>
+ * <br>
+ * CSV manifests have one entry per line, with the columns in that same order, and may start with a header line.
+ * Lines starting with "#" are ignored.
+ * <br><br>
+ * The seed may be a number, a range "first..last" (inclusive), or left out to pick a random seed.
+ * If the output path contains "{seed}", it is replaced by the seed. Otherwise, for a range, the seed is put
+ * before the file extension. Relative paths are relative to the folder of the manifest.
+ */
+public class BatchManifest {
+
+    private static final long MAX_SEEDS_PER_ENTRY = 1000000;
+
+    public static class Entry {
+        private final File settingsFile;
+        private final File romFile;
+        private final Long firstSeed;
+        private final Long lastSeed;
+        private final String output;
+        private final boolean saveLog;
+
+        Entry(File settingsFile, File romFile, Long firstSeed, Long lastSeed, String output, boolean saveLog) {
+            this.settingsFile = settingsFile;
+            this.romFile = romFile;
+            this.firstSeed = firstSeed;
+            this.lastSeed = lastSeed;
+            this.output = output;
+            this.saveLog = saveLog;
+        }
+
+        public File getSettingsFile() {
+            return settingsFile;
+        }
+
+        public File getRomFile() {
+            return romFile;
+        }
+
+        public boolean isSaveLog() {
+            return saveLog;
+        }
+
+        /**
+         * Returns the seeds of this entry; a single random one if no seed was given.
+         */
+        public List<Long> getSeeds() {
+            List<Long> seeds = new ArrayList<>();
+            if (firstSeed == null) {
+                seeds.add(SeedPicker.pickSeed());
+            } else {
+                for (long seed = firstSeed; seed <= lastSeed && seed >= firstSeed; seed++) {
+                    seeds.add(seed);
+                }
+            }
+            return seeds;
+        }
+
+        public String getOutputPath(long seed) {
+            if (output.contains("{seed}")) {
+                return output.replace("{seed}", Long.toString(seed));
+            }
+            if (firstSeed == null || firstSeed.equals(lastSeed)) {
+                return output;
+            }
+            int dot = output.lastIndexOf('.');
+            if (dot <= output.lastIndexOf(File.separatorChar) || dot <= output.lastIndexOf('/')) {
+                return output + seed;
+            }
+            return output.substring(0, dot) + seed + output.substring(dot);
+        }
+    }
+
+    private final List<Entry> entries;
+
+    private BatchManifest(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Reads a manifest. Whether it is JSON or CSV is decided by its first non-blank character.
+     *
+     * @throws IllegalArgumentException if the manifest is malformed.
+     */
+    public static BatchManifest read(File file) throws IOException {
+        String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        if (!text.isEmpty() && text.charAt(0) == '\uFEFF') {
+            text = text.substring(1);
+        }
+        File baseDir = file.getAbsoluteFile().getParentFile();
+        String trimmed = text.trim();
+        List<Entry> entries = trimmed.startsWith("[") || trimmed.startsWith("{")
+                ? readJson(trimmed, baseDir) : readCsv(text, baseDir);
+        return new BatchManifest(entries);
+    }
+
+    private static List<Entry> readJson(String text, File baseDir) {
+        List<Object> objects = new ArrayList<>();
+        if (text.startsWith("[")) {
+            Object parsed = Json.parse(text);
+            objects.addAll((List<?>) parsed);
+        } else {
+            Object whole;
+            try {
+                whole = Json.parse(text);
+            } catch (IllegalArgumentException e) {
+                whole = null;
+            }
+            if (whole != null) {
+                objects.add(whole);
+            } else {
+                // one object per line
+                for (String line : text.split("\r?\n")) {
+                    if (!line.trim().isEmpty()) {
+                        objects.add(Json.parse(line));
+                    }
+                }
+            }
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < objects.size(); i++) {
+            if (!(objects.get(i) instanceof Map)) {
+                throw new IllegalArgumentException("Manifest entry " + (i + 1) + " is not a JSON object");
+            }
+            Map<?, ?> object = (Map<?, ?>) objects.get(i);
+            Object seed = object.get("seed");
+            Object log = object.get("log");
+            entries.add(createEntry(i + 1, baseDir, stringOrNull(object.get("settings")),
+                    stringOrNull(object.get("rom")), seed == null ? null : seed.toString(),
+                    stringOrNull(object.get("output")), log != null && Boolean.parseBoolean(log.toString())));
+        }
+        return entries;
+    }
+
+    private static String stringOrNull(Object o) {
+        return o == null ? null : o.toString();
+    }
+
+    private static List<Entry> readCsv(String text, File baseDir) {
+        List<Entry> entries = new ArrayList<>();
+        String[] lines = text.split("\r?\n");
+        boolean first = true;
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            List<String> columns = splitCsvLine(line);
+            if (first && columns.get(0).equalsIgnoreCase("settings")) {
+                first = false;
+                continue;
+            }
+            first = false;
+            if (columns.size() < 4) {
+                throw new IllegalArgumentException("Manifest line " + (i + 1) + " has " + columns.size()
+                        + " columns; expected settings,rom,seed,output[,log]");
+            }
+            boolean log = columns.size() > 4 && (columns.get(4).equalsIgnoreCase("true")
+                    || columns.get(4).equals("1") || columns.get(4).equalsIgnoreCase("yes"));
+            entries.add(createEntry(i + 1, baseDir, columns.get(0), columns.get(1), columns.get(2), columns.get(3),
+                    log));
+        }
+        return entries;
+    }
+
+    private static List<String> splitCsvLine(String line) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    sb.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    sb.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                columns.add(sb.toString().trim());
+                sb.setLength(0);
+            } else {
+                sb.append(c);
+            }
+        }
+        columns.add(sb.toString().trim());
+        return columns;
+    }
+
+    private static Entry createEntry(int number, File baseDir, String settings, String rom, String seed,
+                                     String output, boolean saveLog) {
+        if (settings == null || settings.isEmpty() || rom == null || rom.isEmpty()
+                || output == null || output.isEmpty()) {
+            throw new IllegalArgumentException("Manifest entry " + number + " is missing its settings, rom or output");
+        }
+        Long firstSeed = null;
+        Long lastSeed = null;
+        if (seed != null && !seed.trim().isEmpty()) {
+            try {
+                String[] range = seed.trim().split("\\.\\.", -1);
+                if (range.length > 2) {
+                    throw new NumberFormatException();
+                }
+                firstSeed = Long.parseLong(range[0].trim());
+                lastSeed = range.length == 2 ? Long.parseLong(range[1].trim()) : firstSeed;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Manifest entry " + number + " has an invalid seed \"" + seed
+                        + "\"; expected a number or a range \"first..last\"");
+            }
+            if (lastSeed < firstSeed) {
+                throw new IllegalArgumentException("Manifest entry " + number + " has an empty seed range");
+            }
+            if (lastSeed - firstSeed >= MAX_SEEDS_PER_ENTRY || lastSeed - firstSeed < 0) {
+                throw new IllegalArgumentException("Manifest entry " + number + " has more than "
+                        + MAX_SEEDS_PER_ENTRY + " seeds");
+            }
+        }
+        return new Entry(resolve(baseDir, settings), resolve(baseDir, rom), firstSeed, lastSeed,
+                resolve(baseDir, output).getPath(), saveLog);
+    }
+
+    private static File resolve(File baseDir, String path) {
+        File f = new File(path);
+        return f.isAbsolute() ? f : new File(baseDir, path);
+    }
+
+}
@@ -1,8 +1,12 @@
 package com.dabomstew.pkrandom.cli;
 
+import com.dabomstew.pkrandom.BatchRandomizer;
 import com.dabomstew.pkrandom.GameRandomizer;
+import com.dabomstew.pkrandom.Json;
 import com.dabomstew.pkrandom.Settings;
 import com.dabomstew.pkrandom.customnames.CustomNamesSet;
+import com.dabomstew.pkrandom.log.LogFile;
+import com.dabomstew.pkrandom.random.SeedPicker;
 import com.dabomstew.pkromio.FileFunctions;
 import com.dabomstew.pkromio.romhandlers.Abstract3DSRomHandler;
 import com.dabomstew.pkromio.romhandlers.AbstractDSRomHandler;
@@ -10,10 +14,9 @@ import com.dabomstew.pkromio.romhandlers.RomHandler;
 import com.dabomstew.pkromio.romio.RomOpener;
 
 import java.io.*;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.ResourceBundle;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 public class CliRandomizer {
 
@@ -25,7 +28,8 @@ public class CliRandomizer {
 
     private static boolean performDirectRandomization(String settingsFilePath, String sourceRomFilePath,
                                                       String destinationRomFilePath, boolean saveAsDirectory,
-                                                      String updateFilePath, boolean saveLog) {
+                                                      String updateFilePath, boolean saveLog, boolean gzipLog,
+                                                      boolean saveRecords, boolean profile) {
         Settings settings;
         try {
             File fh = new File(settingsFilePath);
@@ -39,16 +43,6 @@ public class CliRandomizer {
             return false;
         }
 
-        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        PrintStream log;
-        try {
-            log = new PrintStream(baos, false, "UTF-8");
-        } catch (UnsupportedEncodingException e) {
-            log = new PrintStream(baos);
-        }
-
-        final PrintStream verboseLog = log;
-
         try {
             File romFile = new File(sourceRomFilePath);
 
@@ -87,22 +81,48 @@ public class CliRandomizer {
 
                 String filename = fh.getAbsolutePath();
 
-                GameRandomizer randomizer = new GameRandomizer(settings, null, romHandler, bundle, saveAsDirectory);
-                randomizer.randomize(filename, verboseLog);
-                verboseLog.close();
-                byte[] out = baos.toByteArray();
+                // the log is streamed straight to its file while being written, rendered on all CPUs
+                PrintStream log = LogFile.discarding();
+                PrintStream records = null;
+                boolean logOpened = false;
                 if (saveLog) {
                     try {
-                        FileOutputStream fos = new FileOutputStream(filename + ".log");
-                        fos.write(0xEF);
-                        fos.write(0xBB);
-                        fos.write(0xBF);
-                        fos.write(out);
-                        fos.close();
+                        log = LogFile.open(filename, gzipLog);
+                        logOpened = true;
+                        if (saveRecords) {
+                            records = LogFile.openRecords(filename, gzipLog);
+                        }
                     } catch (IOException e) {
                         printWarning("Could not write log.");
                     }
                 }
+
+                GameRandomizer randomizer = new GameRandomizer(settings, null, romHandler, bundle, saveAsDirectory);
+                randomizer.setLogStages(profile);
+                randomizer.setLogRenderThreads(Runtime.getRuntime().availableProcessors());
+                GameRandomizer.Results randomizationResults = randomizer.randomize(filename, log, records,
+                        SeedPicker.pickSeed());
+                log.close();
+                if (records != null) {
+                    records.close();
+                }
+                if (!randomizationResults.wasSaveSuccessful()) {
+                    if (logOpened) {
+                        LogFile.delete(filename, gzipLog);
+                        LogFile.deleteRecords(filename, gzipLog);
+                    }
+                    throw randomizationResults.getException();
+                }
+                if (logOpened && (log.checkError() || records != null && records.checkError())) {
+                    printWarning("Could not write log.");
+                }
+                if (profile) {
+                    try {
+                        writeProfile(filename, randomizationResults);
+                    } catch (IOException e) {
+                        printWarning("Could not write profile.");
+                    }
+                }
                 System.out.println("Randomized successfully!");
                 // this is the only successful exit, everything else will return false at the end of the function
                 return true;
@@ -118,6 +138,315 @@ public class CliRandomizer {
         return false;
     }
 
+    /**
+     * Writes how long each stage of a randomization took etc. to &lt;filename&gt;.profile.json.
+     */
+    private static void writeProfile(String filename, GameRandomizer.Results results) throws IOException {
+        try (PrintStream ps = new PrintStream(new FileOutputStream(filename + ".profile.json"), false, "UTF-8")) {
+            ps.println(results.getStagesAsJson());
+        }
+    }
+
+    private static boolean performBatchRandomization(String settingsFilePath, String sourceRomFilePath,
+                                                     String destinationRomFilePath, boolean saveAsDirectory,
+                                                     String updateFilePath, boolean saveLog, boolean gzipLog,
+                                                     boolean saveRecords, boolean profile, int numberOfROMs,
+                                                     int workers) {
+        Settings settings;
+        try (FileInputStream fis = new FileInputStream(settingsFilePath)) {
+            settings = Settings.read(fis);
+            settings.setCustomNames(CustomNamesSet.readNamesFromFile());
+        } catch (UnsupportedOperationException | IllegalArgumentException | IOException ex) {
+            ex.printStackTrace();
+            return false;
+        }
+
+        try {
+            File romFile = new File(sourceRomFilePath);
+            RomOpener.Results results = romOpener.openRomFile(romFile);
+            if (!results.wasOpeningSuccessful()) {
+                printError("Could not load " + romFile.getAbsolutePath() + "; " + results.getFailType());
+                return false;
+            }
+            RomHandler baseline = results.getRomHandler();
+            boolean is3DS = baseline.generationOfPokemon() == 6 || baseline.generationOfPokemon() == 7;
+
+            if (updateFilePath != null && is3DS) {
+                baseline.loadGameUpdate(updateFilePath);
+                if (!saveAsDirectory) {
+                    printWarning("Forcing save as directory since a game update was supplied.");
+                }
+                saveAsDirectory = true;
+            }
+            if (saveAsDirectory && !is3DS) {
+                saveAsDirectory = false;
+                printWarning("Saving as directory does not make sense for non-3DS games, ignoring \"-d\" flag...");
+            }
+
+            CliRandomizer.displaySettingsWarnings(settings, baseline);
+
+            // each seed is written to <destination><index>, e.g. "random.gba" becomes "random0.gba", "random1.gba"...
+            File fh = new File(destinationRomFilePath);
+            String extension = "";
+            if (!saveAsDirectory) {
+                List<String> extensions = new ArrayList<>(Arrays.asList("sgb", "gbc", "gba", "nds", "cxi"));
+                extensions.remove(baseline.getDefaultExtension());
+                fh = FileFunctions.fixFilename(fh, baseline.getDefaultExtension(), extensions);
+                extension = "." + baseline.getDefaultExtension();
+            }
+            String path = fh.getAbsolutePath();
+            String prefix = path.substring(0, path.length() - extension.length());
+
+            List<BatchRandomizer.Job> jobs = new ArrayList<>(numberOfROMs);
+            for (int i = 0; i < numberOfROMs; i++) {
+                String filename = prefix + i + extension;
+                if (saveAsDirectory) {
+                    new File(filename).mkdirs();
+                } else if (filename.equals(baseline.loadedFilename())) {
+                    printError(bundle.getString("GUI.cantOverwriteDS"));
+                    return false;
+                }
+                jobs.add(new BatchRandomizer.Job(SeedPicker.pickSeed(), filename, saveLog));
+            }
+
+            // the baseline is still unmodified, so it can be used by the first job instead of loading the game again
+            AtomicReference<RomHandler> unusedBaseline = new AtomicReference<>(baseline);
+            RomHandler.Snapshot snapshot = baseline.hasSnapshotSupport() ? baseline.createSnapshot() : null;
+            Supplier<RomHandler> romHandlerSupplier = () -> {
+                RomHandler romHandler = unusedBaseline.getAndSet(null);
+                if (romHandler != null) {
+                    return romHandler;
+                }
+                return snapshot != null ? snapshot.restore()
+                        : openFreshRomHandler(romFile, is3DS ? updateFilePath : null);
+            };
+            BatchRandomizer batchRandomizer = new BatchRandomizer(settings, null, baseline, romHandlerSupplier,
+                    bundle, saveAsDirectory, workers);
+            batchRandomizer.setGzipLogs(gzipLog);
+            batchRandomizer.setSaveStructuredLogs(saveRecords);
+            batchRandomizer.setLogStages(profile);
+            BatchRandomizer.Report report = batchRandomizer.run(jobs, (jr, finished, total) -> {
+                if (jr.wasSuccessful()) {
+                    System.out.printf("[%d/%d] Randomized %s (seed %d, check value %08X) in %d ms%n",
+                            finished, total, jr.getJob().getFilename(), jr.getJob().getSeed(),
+                            jr.getResults().getCheckValue(), jr.getTime());
+                    if (!jr.wasLogWriteSuccessful()) {
+                        printWarning("Could not write log for " + jr.getJob().getFilename());
+                    }
+                    if (profile) {
+                        try {
+                            writeProfile(jr.getJob().getFilename(), jr.getResults());
+                        } catch (IOException e) {
+                            printWarning("Could not write profile for " + jr.getJob().getFilename());
+                        }
+                    }
+                } else {
+                    printError("[" + finished + "/" + total + "] Could not randomize " + jr.getJob().getFilename()
+                            + " (seed " + jr.getJob().getSeed() + ")");
+                    jr.getException().printStackTrace();
+                }
+            });
+            report.print(System.out);
+            return report.getSuccessfulCount() == jobs.size();
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Runs all jobs in a {@link BatchManifest}. Jobs of the same game share one loaded baseline, and each settings
+     * file is only read once per game. Once a job has finished, a JSON line with its result is written to
+     * stdout; everything else the randomization prints goes to stderr instead, so stdout can be read by other tools.
+     */
+    private static boolean performManifestRandomization(String manifestFilePath, int workers, boolean gzipLogs,
+                                                        boolean saveRecords) {
+        BatchManifest manifest;
+        try {
+            manifest = BatchManifest.read(new File(manifestFilePath));
+        } catch (IOException | IllegalArgumentException e) {
+            printError("Could not read manifest: " + e.getMessage());
+            return false;
+        }
+
+        // games -> settings files -> jobs, keeping the order of the manifest
+        Map<File, Map<File, List<ManifestJob>>> jobsByGame = new LinkedHashMap<>();
+        int jobCount = 0;
+        for (BatchManifest.Entry entry : manifest.getEntries()) {
+            for (long seed : entry.getSeeds()) {
+                ManifestJob job = new ManifestJob(jobCount++, entry, seed);
+                jobsByGame.computeIfAbsent(entry.getRomFile().getAbsoluteFile(), f -> new LinkedHashMap<>())
+                        .computeIfAbsent(entry.getSettingsFile().getAbsoluteFile(), f -> new ArrayList<>())
+                        .add(job);
+            }
+        }
+
+        PrintStream resultsOut = System.out;
+        System.setOut(System.err);
+        int[] successfulCount = new int[1];
+        try {
+            CustomNamesSet customNames = CustomNamesSet.readNamesFromFile();
+            for (Map.Entry<File, Map<File, List<ManifestJob>>> game : jobsByGame.entrySet()) {
+                try {
+                    runManifestGame(game.getKey(), game.getValue(), customNames, workers, gzipLogs, saveRecords,
+                            resultsOut, successfulCount);
+                } catch (RuntimeException e) {
+                    printError("Could not randomize " + game.getKey() + "; its remaining jobs are skipped");
+                    e.printStackTrace();
+                }
+            }
+        } catch (IOException e) {
+            printError("Could not read custom names: " + e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            printError("Interrupted");
+            return false;
+        } finally {
+            System.setOut(resultsOut);
+        }
+        if (successfulCount[0] != jobCount) {
+            printWarning((jobCount - successfulCount[0]) + " of " + jobCount + " jobs failed.");
+        }
+        return successfulCount[0] == jobCount;
+    }
+
+    private static class ManifestJob {
+        private final int index;
+        private final BatchManifest.Entry entry;
+        private final long seed;
+
+        ManifestJob(int index, BatchManifest.Entry entry, long seed) {
+            this.index = index;
+            this.entry = entry;
+            this.seed = seed;
+        }
+    }
+
+    private static void runManifestGame(File romFile, Map<File, List<ManifestJob>> jobsBySettings,
+                                        CustomNamesSet customNames, int workers, boolean gzipLogs,
+                                        boolean saveRecords, PrintStream resultsOut,
+                                        int[] successfulCount) throws InterruptedException {
+        RomOpener.Results results = romOpener.openRomFile(romFile);
+        if (!results.wasOpeningSuccessful()) {
+            String error = "Could not load " + romFile.getAbsolutePath() + "; " + results.getFailType();
+            for (List<ManifestJob> jobs : jobsBySettings.values()) {
+                for (ManifestJob job : jobs) {
+                    printManifestResult(resultsOut, job, job.entry.getOutputPath(job.seed), null, error);
+                }
+            }
+            return;
+        }
+        RomHandler baseline = results.getRomHandler();
+
+        // The baseline can be used by a job instead of loading the game again, but since the settings are checked
+        // against it, only once the last settings file's jobs are run.
+        AtomicReference<RomHandler> unusedBaseline = new AtomicReference<>();
+        RomHandler.Snapshot snapshot = baseline.hasSnapshotSupport() ? baseline.createSnapshot() : null;
+        Supplier<RomHandler> romHandlerSupplier = () -> {
+            RomHandler romHandler = unusedBaseline.getAndSet(null);
+            if (romHandler != null) {
+                return romHandler;
+            }
+            return snapshot != null ? snapshot.restore() : openFreshRomHandler(romFile, null);
+        };
+
+        int settingsLeft = jobsBySettings.size();
+        for (Map.Entry<File, List<ManifestJob>> settingsJobs : jobsBySettings.entrySet()) {
+            if (--settingsLeft == 0) {
+                unusedBaseline.set(baseline);
+            }
+            Settings settings;
+            try (FileInputStream fis = new FileInputStream(settingsJobs.getKey())) {
+                settings = Settings.read(fis);
+                settings.setCustomNames(customNames);
+            } catch (UnsupportedOperationException | IllegalArgumentException | IOException e) {
+                String error = "Could not read settings file " + settingsJobs.getKey() + "; " + e;
+                for (ManifestJob job : settingsJobs.getValue()) {
+                    printManifestResult(resultsOut, job, job.entry.getOutputPath(job.seed), null, error);
+                }
+                continue;
+            }
+            CliRandomizer.displaySettingsWarnings(settings, baseline);
+
+            List<BatchRandomizer.Job> batchJobs = new ArrayList<>();
+            Map<BatchRandomizer.Job, ManifestJob> manifestJobs = new IdentityHashMap<>();
+            for (ManifestJob job : settingsJobs.getValue()) {
+                File fh = new File(job.entry.getOutputPath(job.seed));
+                List<String> extensions = new ArrayList<>(Arrays.asList("sgb", "gbc", "gba", "nds", "cxi"));
+                extensions.remove(baseline.getDefaultExtension());
+                String filename = FileFunctions.fixFilename(fh, baseline.getDefaultExtension(), extensions)
+                        .getAbsolutePath();
+                if (filename.equals(baseline.loadedFilename())) {
+                    printManifestResult(resultsOut, job, filename, null, bundle.getString("GUI.cantOverwriteDS"));
+                    continue;
+                }
+                BatchRandomizer.Job batchJob = new BatchRandomizer.Job(job.seed, filename, job.entry.isSaveLog());
+                batchJobs.add(batchJob);
+                manifestJobs.put(batchJob, job);
+            }
+
+            BatchRandomizer batchRandomizer = new BatchRandomizer(settings, null, baseline, romHandlerSupplier,
+                    bundle, false, workers);
+            batchRandomizer.setGzipLogs(gzipLogs);
+            batchRandomizer.setSaveStructuredLogs(saveRecords);
+            batchRandomizer.run(batchJobs, (jr, finished, total) -> {
+                ManifestJob job = manifestJobs.get(jr.getJob());
+                String error = null;
+                if (!jr.wasSuccessful()) {
+                    error = String.valueOf(jr.getException());
+                } else if (!jr.wasLogWriteSuccessful()) {
+                    error = "Could not write log: " + jr.getLogWriteException();
+                }
+                printManifestResult(resultsOut, job, jr.getJob().getFilename(), jr, error);
+                if (jr.wasSuccessful()) {
+                    synchronized (successfulCount) {
+                        successfulCount[0]++;
+                    }
+                }
+            });
+        }
+    }
+
+    private static void printManifestResult(PrintStream resultsOut, ManifestJob job, String output,
+                                            BatchRandomizer.JobResult jr, String error) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("job", job.index);
+        line.put("settings", job.entry.getSettingsFile().getPath());
+        line.put("rom", job.entry.getRomFile().getPath());
+        line.put("seed", job.seed);
+        line.put("output", output);
+        line.put("success", jr != null && jr.wasSuccessful());
+        if (jr != null && jr.getResults() != null) {
+            line.put("checkValue", String.format("%08X", jr.getResults().getCheckValue()));
+            line.put("loadMs", jr.getLoadTime());
+            line.put("timeMs", jr.getTime());
+            line.put("stages", jr.getResults().getStageTimes());
+        }
+        if (error != null) {
+            line.put("error", error);
+        }
+        String json = Json.write(line);
+        synchronized (resultsOut) {
+            resultsOut.println(json);
+            resultsOut.flush();
+        }
+    }
+
+    private static RomHandler openFreshRomHandler(File romFile, String updateFilePath) {
+        RomOpener.Results results = romOpener.openRomFile(romFile);
+        if (!results.wasOpeningSuccessful()) {
+            throw new IllegalStateException("Could not load " + romFile.getAbsolutePath() + "; "
+                    + results.getFailType());
+        }
+        RomHandler romHandler = results.getRomHandler();
+        if (updateFilePath != null) {
+            romHandler.loadGameUpdate(updateFilePath);
+        }
+        return romHandler;
+    }
+
     private static void displaySettingsWarnings(Settings settings, RomHandler romHandler) {
         Settings.TweakForROMFeedback feedback = settings.tweakForRom(romHandler);
         if (feedback.isChangedStarter() && settings.getStartersMod() == Settings.StartersMod.CUSTOM) {
@@ -129,14 +458,30 @@ public class CliRandomizer {
     }
 
     public static int invoke(String[] args) {
+        if (args.length > 0 && args[0].equals("batch")) {
+            return invokeBatch(Arrays.copyOfRange(args, 1, args.length));
+        }
+        if (args.length > 0 && args[0].equals("serve")) {
+            return invokeServe(Arrays.copyOfRange(args, 1, args.length));
+        }
+
         String settingsFilePath = null;
         String sourceRomFilePath = null;
         String outputRomFilePath = null;
         boolean saveAsDirectory = false;
         String updateFilePath = null;
         boolean saveLog = false;
+        boolean gzipLog = false;
+        boolean saveRecords = false;
+        boolean profile = false;
+        int numberOfROMs = 0;
+        int workers = BatchRandomizer.defaultWorkerCount();
 
-        List<String> allowedFlags = Arrays.asList("-i", "-o", "-s", "-d", "-u", "-l", "--help");
+        // without the launcher's heap size, 3DS games are opened in low-memory mode
+        romOpener.setExtraMemoryAvailable(Runtime.getRuntime().maxMemory() >= RomOpener.EXTRA_MEMORY_MIN_HEAP);
+
+        List<String> allowedFlags = Arrays.asList("-i", "-o", "-s", "-d", "-u", "-l", "-z", "-j", "-p", "-n", "-w",
+                "--help");
         for (int i = 0; i < args.length; i++) {
             if (allowedFlags.contains(args[i])) {
                 switch(args[i]) {
@@ -158,6 +503,34 @@ public class CliRandomizer {
                     case "-l":
                         saveLog = true;
                         break;
+                    case "-z":
+                        gzipLog = true;
+                        break;
+                    case "-j":
+                        saveRecords = true;
+                        break;
+                    case "-p":
+                        profile = true;
+                        break;
+                    case "-n":
+                    case "-w":
+                        int value;
+                        try {
+                            value = Integer.parseInt(args[i + 1]);
+                        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                            value = 0;
+                        }
+                        if (value < 1) {
+                            printError(args[i] + " must be followed by a positive number");
+                            CliRandomizer.printUsage();
+                            return 1;
+                        }
+                        if (args[i].equals("-n")) {
+                            numberOfROMs = value;
+                        } else {
+                            workers = value;
+                        }
+                        break;
                     case "--help":
                         printUsage();
                         return 0;
@@ -195,14 +568,34 @@ public class CliRandomizer {
             return 1;
         }
 
-        boolean processResult = CliRandomizer.performDirectRandomization(
-                settingsFilePath,
-                sourceRomFilePath,
-                outputRomFilePath,
-                saveAsDirectory,
-                updateFilePath,
-                saveLog
-        );
+        boolean processResult;
+        if (numberOfROMs > 0) {
+            processResult = CliRandomizer.performBatchRandomization(
+                    settingsFilePath,
+                    sourceRomFilePath,
+                    outputRomFilePath,
+                    saveAsDirectory,
+                    updateFilePath,
+                    saveLog,
+                    gzipLog,
+                    saveRecords,
+                    profile,
+                    numberOfROMs,
+                    workers
+            );
+        } else {
+            processResult = CliRandomizer.performDirectRandomization(
+                    settingsFilePath,
+                    sourceRomFilePath,
+                    outputRomFilePath,
+                    saveAsDirectory,
+                    updateFilePath,
+                    saveLog,
+                    gzipLog,
+                    saveRecords,
+                    profile
+            );
+        }
         if (!processResult) {
             printError("Randomization failed");
             CliRandomizer.printUsage();
@@ -211,6 +604,125 @@ public class CliRandomizer {
         return 0;
     }
 
+    /**
+     * "cli batch -m &lt;manifest&gt; [-w &lt;workers&gt;] [-z] [-j]"; see {@link BatchManifest}.
+     */
+    private static int invokeBatch(String[] args) {
+        String manifestFilePath = null;
+        int workers = BatchRandomizer.defaultWorkerCount();
+        boolean gzipLogs = false;
+        boolean saveRecords = false;
+
+        romOpener.setExtraMemoryAvailable(Runtime.getRuntime().maxMemory() >= RomOpener.EXTRA_MEMORY_MIN_HEAP);
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-m":
+                    manifestFilePath = i + 1 < args.length ? args[i + 1] : null;
+                    break;
+                case "-w":
+                    int value;
+                    try {
+                        value = Integer.parseInt(args[i + 1]);
+                    } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                        value = 0;
+                    }
+                    if (value < 1) {
+                        printError("-w must be followed by a positive number");
+                        CliRandomizer.printUsage();
+                        return 1;
+                    }
+                    workers = value;
+                    break;
+                case "-z":
+                    gzipLogs = true;
+                    break;
+                case "-j":
+                    saveRecords = true;
+                    break;
+                case "--help":
+                    printUsage();
+                    return 0;
+                default:
+                    break;
+            }
+        }
+
+        if (manifestFilePath == null) {
+            printError("Missing required argument");
+            CliRandomizer.printUsage();
+            return 1;
+        }
+        if (!new File(manifestFilePath).exists()) {
+            printError("Could not read manifest file");
+            CliRandomizer.printUsage();
+            return 1;
+        }
+
+        return performManifestRandomization(manifestFilePath, workers, gzipLogs, saveRecords) ? 0 : 1;
+    }
+
+    /**
+     * "cli serve [-p &lt;port&gt;] [-w &lt;workers&gt;] [-q &lt;queue size&gt;] [-c &lt;cache size&gt;]";
+     * see {@link RandomizerServer}.
+     */
+    private static int invokeServe(String[] args) {
+        int port = RandomizerServer.DEFAULT_PORT;
+        int workers = BatchRandomizer.defaultWorkerCount();
+        int queueSize = RandomizerServer.DEFAULT_QUEUE_SIZE;
+        int cacheSize = RandomizerServer.DEFAULT_CACHE_SIZE;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-p":
+                case "-w":
+                case "-q":
+                case "-c":
+                    int value;
+                    try {
+                        value = Integer.parseInt(args[i + 1]);
+                    } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                        value = -1;
+                    }
+                    if (value < (args[i].equals("-p") ? 0 : 1)) {
+                        printError(args[i] + " must be followed by a positive number");
+                        CliRandomizer.printUsage();
+                        return 1;
+                    }
+                    if (args[i].equals("-p")) {
+                        port = value;
+                    } else if (args[i].equals("-w")) {
+                        workers = value;
+                    } else if (args[i].equals("-q")) {
+                        queueSize = value;
+                    } else {
+                        cacheSize = value;
+                    }
+                    break;
+                case "--help":
+                    printUsage();
+                    return 0;
+                default:
+                    break;
+            }
+        }
+
+        try {
+            RandomizerServer server = new RandomizerServer(port, workers, queueSize, cacheSize,
+                    CustomNamesSet.readNamesFromFile(), bundle);
+            server.start();
+            System.out.println("Listening on http://localhost:" + server.getPort() + "/");
+            server.awaitTermination();
+            return 0;
+        } catch (IOException e) {
+            printError("Could not start server: " + e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+    }
+
     private static void printError(String text) {
         System.err.println("ERROR: " + text);
     }
@@ -221,7 +733,22 @@ public class CliRandomizer {
 
     private static void printUsage() {
         System.err.println("Usage: java [-Xmx4096M] -jar PokeRandoFVX.jar cli -s <path to settings file> " +
-                "-i <path to source ROM> -o <path for new ROM> [-d][-u <path to 3DS game update>][-l]");
+                "-i <path to source ROM> -o <path for new ROM> [-d][-u <path to 3DS game update>][-l [-z][-j]][-p]" +
+                "[-n <number of ROMs> [-w <number of workers>]]");
         System.err.println("-d: Save 3DS game as directory (LayeredFS)");
+        System.err.println("-z: Save the log gzipped, as <new ROM path>.log.gz");
+        System.err.println("-j: Also save a structured log for other tools, as <new ROM path>.log.jsonl (JSON Lines)");
+        System.err.println("-p: Write how long each stage took etc. to <new ROM path>.profile.json, and to the log; " +
+                "in batch mode, one file per new ROM");
+        System.err.println("-n: Batch randomize, saving each new ROM with its index appended to the new ROM path");
+        System.err.println("-w: Number of ROMs to randomize at the same time in batch mode (default: number of CPUs)");
+        System.err.println("   or: java [-Xmx4096M] -jar PokeRandoFVX.jar cli batch -m <path to manifest> " +
+                "[-w <number of workers>] [-z] [-j]");
+        System.err.println("-m: JSON or CSV file listing jobs: settings file, source ROM, seed or seed range " +
+                "(first..last), new ROM path, log (true/false). One JSON line per finished job is written to stdout");
+        System.err.println("   or: java [-Xmx4096M] -jar PokeRandoFVX.jar cli serve [-p <port>] " +
+                "[-w <number of workers>] [-q <queue size>] [-c <number of games kept loaded>]");
+        System.err.println("serve: Take jobs over HTTP on localhost; POST /jobs, GET /jobs/<id>, GET /stats, " +
+                "POST /shutdown. POSTs must have \"Content-Type: application/json\"");
     }
 }
@@ -0,0 +1,589 @@
+package com.dabomstew.pkrandom.cli;
+
+/*----------------------------------------------------------------------------*/
+/*--  RandomizerServer.java - a local HTTP service which keeps games loaded, --*/
+/*--                          and randomizes them on request.               --*/
+/*--                                                                        --*/
+/*--  Part of "Universal Pokemon Randomizer ZX" by the UPR-ZX team          --*/
+/*--  Pokemon and any associated names and the like are                     --*/
+/*--  trademark and (C) Nintendo 1996-2020.                                 --*/
+/*--                                                                        --*/
+/*--  This program is free software: you can redistribute it and/or modify  --*/
+/*--  it under the terms of the GNU General Public License as published by  --*/
+/*--  the Free Software Foundation, either version 3 of the License, or     --*/
+/*--  (at your option) any later version.                                   --*/
+/*--                                                                        --*/
+/*--  This program is distributed in the hope that it will be useful,       --*/
+/*--  but WITHOUT ANY WARRANTY; without even the implied warranty of        --*/
+/*--  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the          --*/
+/*--  GNU General Public License for more details.                          --*/
+/*--                                                                        --*/
+/*--  You should have received a copy of the GNU General Public License     --*/
+/*--  along with this program. If not, see <http://www.gnu.org/licenses/>.  --*/
+/*----------------------------------------------------------------------------*/
+
+import com.dabomstew.pkrandom.BatchRandomizer;
+import com.dabomstew.pkrandom.Json;
+import com.dabomstew.pkrandom.Settings;
+import com.dabomstew.pkrandom.customnames.CustomNamesSet;
+import com.dabomstew.pkrandom.random.SeedPicker;
+import com.dabomstew.pkromio.FileFunctions;
+import com.dabomstew.pkromio.romhandlers.RomHandler;
+import com.dabomstew.pkromio.romio.RomOpener;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * A randomizer which stays running, and takes jobs over HTTP on localhost (only), so the cost of starting the JVM
+ * and loading each game is not paid for every seed.
+ * <br><br>
+ * Loaded games are kept as baselines, in a least-recently-used cache keyed by the CRC32 of the ROM file;
+ * each job randomizes a fresh copy restored from a baseline (see {@link RomHandler.Snapshot}).
+ * Jobs are run by a fixed number of workers. When the queue is full, new jobs are turned away with 503,
+ * so clients can back off.
+ * <br><br>
+ * Endpoints, all taking and giving JSON:
+ * <ul>
+ *     <li>POST /jobs - queues a job: {"settings": settings string (as by {@link Settings#toString()}),
+ *     "rom": path, "output": path, "seed": number (optional), "log": boolean (optional)}.
+ *     Returns the job, including its "id". With "?wait=true", returns once the job has finished.</li>
+ *     <li>GET /jobs/&lt;id&gt; - the status/result of a job.</li>
+ *     <li>GET /stats - queue depth, latency percentiles, and throughput per generation.</li>
+ *     <li>POST /shutdown - stops the server once running jobs have finished.</li>
+ * </ul>
+ * Since jobs name files to read and write, requests which a web page could have made are turned away:
+ * POSTs must have "Content-Type: application/json", no request may have an Origin, and the Host must be
+ * localhost or a loopback address.
+ */
+public class RandomizerServer {
+
+    public static final int DEFAULT_PORT = 8642;
+    public static final int DEFAULT_QUEUE_SIZE = 64;
+    public static final int DEFAULT_CACHE_SIZE = 4;
+
+    private static final int FINISHED_JOBS_KEPT = 1000;
+    private static final int LATENCIES_KEPT = 1000;
+
+    private enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    private static class Job {
+        private final long id;
+        private final String settingsString;
+        private final File romFile;
+        private final long seed;
+        private final String output;
+        private final boolean saveLog;
+        private final long submitTime = System.currentTimeMillis();
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        private volatile Status status = Status.QUEUED;
+        private volatile long startTime;
+        private volatile int generation;
+        private volatile BatchRandomizer.JobResult result;
+        private volatile String error;
+
+        Job(long id, String settingsString, File romFile, long seed, String output, boolean saveLog) {
+            this.id = id;
+            this.settingsString = settingsString;
+            this.romFile = romFile;
+            this.seed = seed;
+            this.output = output;
+            this.saveLog = saveLog;
+        }
+    }
+
+    private static class Baseline {
+        private RomHandler romHandler;
+        private RomHandler.Snapshot snapshot;
+        private String error;
+    }
+
+    private static class GenerationStats {
+        private int succeeded;
+        private int failed;
+        private long totalTime;
+    }
+
+    private final HttpServer http;
+    private final ThreadPoolExecutor executor;
+    private final RomOpener romOpener = new RomOpener();
+    private final CustomNamesSet customNames;
+    private final ResourceBundle bundle;
+    private final long startTime = System.currentTimeMillis();
+
+    private final AtomicLong nextJobId = new AtomicLong(1);
+    private final Map<Long, Job> jobs = new LinkedHashMap<>();
+    private final Map<Long, Baseline> baselines;
+    private final Map<String, Long> crcByFile = new HashMap<>();
+    private final long[] latencies = new long[LATENCIES_KEPT];
+    private int latencyCount;
+    private final Map<Integer, GenerationStats> generationStats = new TreeMap<>();
+
+    /**
+     * @param port The port to listen to on localhost, or 0 to pick any free one.
+     * @param workers How many jobs to run at the same time.
+     * @param queueSize How many jobs may wait to be run, before new ones are turned away.
+     * @param cacheSize How many games to keep loaded.
+     */
+    public RandomizerServer(int port, int workers, int queueSize, int cacheSize, CustomNamesSet customNames,
+                            ResourceBundle bundle) throws IOException {
+        if (workers < 1 || queueSize < 1 || cacheSize < 1) {
+            throw new IllegalArgumentException("workers, queueSize and cacheSize must be at least 1");
+        }
+        this.customNames = customNames;
+        this.bundle = bundle;
+        this.baselines = new LinkedHashMap<Long, Baseline>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Baseline> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize));
+        romOpener.setExtraMemoryAvailable(Runtime.getRuntime().maxMemory() >= RomOpener.EXTRA_MEMORY_MIN_HEAP);
+
+        this.http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        http.createContext("/jobs", this::handleJobs);
+        http.createContext("/stats", this::handleStats);
+        http.createContext("/shutdown", this::handleShutdown);
+        http.setExecutor(Executors.newCachedThreadPool());
+    }
+
+    public void start() {
+        http.start();
+    }
+
+    /**
+     * Stops taking jobs, and waits for the running and queued ones to finish.
+     */
+    public void stop() throws InterruptedException {
+        http.stop(0);
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        ((ExecutorService) http.getExecutor()).shutdown();
+    }
+
+    /**
+     * Blocks until the server has been stopped, e.g. through POST /shutdown.
+     */
+    public void awaitTermination() throws InterruptedException {
+        while (!executor.awaitTermination(1, TimeUnit.HOURS)) {
+            // keep waiting
+        }
+    }
+
+    public int getPort() {
+        return http.getAddress().getPort();
+    }
+
+    /**
+     * Turns away requests which a web page could have made, and returns whether the request may go on.
+     * A page can only send a JSON POST to another site if that site allows it, which this never does,
+     * browsers send an Origin with a page's requests, and a page on a site whose name resolves to
+     * localhost (DNS rebinding) still sends that site's name as the Host.
+     */
+    private boolean checkRequest(HttpExchange exchange) throws IOException {
+        Headers headers = exchange.getRequestHeaders();
+        if (!isLoopbackHost(headers.getFirst("Host"))) {
+            respond(exchange, 403, error("Only requests to localhost are taken"));
+            return false;
+        }
+        if (headers.containsKey("Origin")) {
+            respond(exchange, 403, error("Requests from web pages are not taken"));
+            return false;
+        }
+        if (exchange.getRequestMethod().equals("POST")) {
+            String contentType = headers.getFirst("Content-Type");
+            if (contentType == null || !contentType.split(";")[0].trim().equalsIgnoreCase("application/json")) {
+                respond(exchange, 415, error("POST requests must have \"Content-Type: application/json\""));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether a Host header names localhost or a loopback address, with or without a port.
+     * The name is not looked up, since a rebound name would resolve to localhost too.
+     */
+    private static boolean isLoopbackHost(String host) {
+        if (host == null) {
+            return false;
+        }
+        String name;
+        if (host.startsWith("[")) {
+            int end = host.indexOf(']');
+            name = end == -1 ? host : host.substring(1, end);
+        } else {
+            int colon = host.lastIndexOf(':');
+            name = colon == -1 ? host : host.substring(0, colon);
+        }
+        return name.equalsIgnoreCase("localhost") || name.equals("::1")
+                || name.matches("127\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}");
+    }
+
+    private void handleJobs(HttpExchange exchange) throws IOException {
+        if (!checkRequest(exchange)) {
+            return;
+        }
+        try {
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/jobs") || path.equals("/jobs/")) {
+                if (!exchange.getRequestMethod().equals("POST")) {
+                    respond(exchange, 405, error("Use POST to queue a job"));
+                    return;
+                }
+                submitJob(exchange);
+            } else {
+                if (!exchange.getRequestMethod().equals("GET")) {
+                    respond(exchange, 405, error("Use GET to see a job"));
+                    return;
+                }
+                Job job;
+                try {
+                    long id = Long.parseLong(path.substring("/jobs/".length()));
+                    synchronized (jobs) {
+                        job = jobs.get(id);
+                    }
+                } catch (NumberFormatException e) {
+                    job = null;
+                }
+                if (job == null) {
+                    respond(exchange, 404, error("No such job"));
+                } else {
+                    respond(exchange, 200, describe(job));
+                }
+            }
+        } catch (RuntimeException e) {
+            respond(exchange, 500, error(e.toString()));
+        }
+    }
+
+    private void submitJob(HttpExchange exchange) throws IOException {
+        Map<?, ?> request;
+        try {
+            Object parsed = Json.parse(readBody(exchange));
+            if (!(parsed instanceof Map)) {
+                throw new IllegalArgumentException("The job must be a JSON object");
+            }
+            request = (Map<?, ?>) parsed;
+            if (!(request.get("settings") instanceof String) || !(request.get("rom") instanceof String)
+                    || !(request.get("output") instanceof String)) {
+                throw new IllegalArgumentException("The job must have \"settings\", \"rom\" and \"output\" strings");
+            }
+            if (request.get("seed") != null && !(request.get("seed") instanceof Long)) {
+                throw new IllegalArgumentException("\"seed\" must be an integer");
+            }
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, error(e.getMessage()));
+            return;
+        }
+
+        long seed = request.get("seed") != null ? (Long) request.get("seed") : SeedPicker.pickSeed();
+        Job job = new Job(nextJobId.getAndIncrement(), (String) request.get("settings"),
+                new File((String) request.get("rom")), seed, (String) request.get("output"),
+                Boolean.TRUE.equals(request.get("log")));
+        // known before it is run, so GET /jobs/<id> finds it as soon as it could be asked for
+        synchronized (jobs) {
+            jobs.put(job.id, job);
+            forgetOldJobs();
+        }
+        try {
+            executor.execute(() -> runJob(job));
+        } catch (RejectedExecutionException e) {
+            synchronized (jobs) {
+                jobs.remove(job.id);
+            }
+            respond(exchange, 503, error(executor.isShutdown() ? "Shutting down" : "Queue full; try again later"));
+            return;
+        }
+
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null && Arrays.asList(query.split("&")).contains("wait=true")) {
+            try {
+                job.finished.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, describe(job));
+        } else {
+            respond(exchange, 202, describe(job));
+        }
+    }
+
+    private void forgetOldJobs() {
+        int finished = 0;
+        for (Job job : jobs.values()) {
+            if (job.finished.getCount() == 0) {
+                finished++;
+            }
+        }
+        Iterator<Job> iterator = jobs.values().iterator();
+        while (finished > FINISHED_JOBS_KEPT && iterator.hasNext()) {
+            if (iterator.next().finished.getCount() == 0) {
+                iterator.remove();
+                finished--;
+            }
+        }
+    }
+
+    private void runJob(Job job) {
+        job.startTime = System.currentTimeMillis();
+        job.status = Status.RUNNING;
+        try {
+            Baseline baseline = getBaseline(job.romFile);
+            if (baseline.error != null) {
+                job.error = baseline.error;
+            } else {
+                job.generation = baseline.romHandler.generationOfPokemon();
+                runOnBaseline(job, baseline);
+            }
+        } catch (Exception e) {
+            job.error = e.toString();
+        }
+        job.status = job.result != null && job.result.wasSuccessful() && job.error == null
+                ? Status.SUCCEEDED : Status.FAILED;
+        recordFinished(job);
+        job.finished.countDown();
+    }
+
+    private void runOnBaseline(Job job, Baseline baseline) throws IOException {
+        Settings settings = Settings.fromString(job.settingsString);
+        settings.setCustomNames(customNames);
+        synchronized (baseline) {
+            settings.tweakForRom(baseline.romHandler);
+        }
+
+        File fh = new File(job.output);
+        List<String> extensions = new ArrayList<>(Arrays.asList("sgb", "gbc", "gba", "nds", "cxi"));
+        extensions.remove(baseline.romHandler.getDefaultExtension());
+        String filename = FileFunctions.fixFilename(fh, baseline.romHandler.getDefaultExtension(), extensions)
+                .getAbsolutePath();
+        if (filename.equals(baseline.romHandler.loadedFilename())) {
+            job.error = bundle.getString("GUI.cantOverwriteDS");
+            return;
+        }
+
+        BatchRandomizer randomizer = new BatchRandomizer(settings, null, baseline.romHandler,
+                () -> baseline.snapshot != null ? baseline.snapshot.restore() : openRom(job.romFile),
+                bundle, false, 1);
+        BatchRandomizer.Job batchJob = new BatchRandomizer.Job(job.seed, filename, job.saveLog);
+        if (baseline.romHandler.hasConcurrentRandomizationSupport()) {
+            job.result = randomizer.run(batchJob);
+        } else {
+            // one at a time, since the game's RomHandlers share state
+            synchronized (baseline.romHandler) {
+                job.result = randomizer.run(batchJob);
+            }
+        }
+        if (!job.result.wasSuccessful()) {
+            job.error = String.valueOf(job.result.getException());
+        } else if (!job.result.wasLogWriteSuccessful()) {
+            job.error = "Could not write log: " + job.result.getLogWriteException();
+        }
+    }
+
+    private Baseline getBaseline(File romFile) throws IOException {
+        long crc = getCRC32(romFile);
+        Baseline baseline;
+        synchronized (baselines) {
+            baseline = baselines.computeIfAbsent(crc, k -> new Baseline());
+        }
+        synchronized (baseline) {
+            if (baseline.romHandler == null && baseline.error == null) {
+                RomOpener.Results results = romOpener.openRomFile(romFile);
+                if (!results.wasOpeningSuccessful()) {
+                    baseline.error = "Could not load " + romFile.getAbsolutePath() + "; " + results.getFailType();
+                    synchronized (baselines) {
+                        // so a fixed file is tried again
+                        baselines.remove(crc, baseline);
+                    }
+                } else {
+                    baseline.romHandler = results.getRomHandler();
+                    baseline.snapshot = baseline.romHandler.hasSnapshotSupport()
+                            ? baseline.romHandler.createSnapshot() : null;
+                }
+            }
+        }
+        return baseline;
+    }
+
+    private RomHandler openRom(File romFile) {
+        RomOpener.Results results = romOpener.openRomFile(romFile);
+        if (!results.wasOpeningSuccessful()) {
+            throw new IllegalStateException("Could not load " + romFile.getAbsolutePath() + "; "
+                    + results.getFailType());
+        }
+        return results.getRomHandler();
+    }
+
+    /**
+     * Returns the CRC32 of a file, only reading it again if its size or modification time has changed.
+     */
+    private long getCRC32(File file) throws IOException {
+        String key = file.getAbsolutePath() + "|" + file.length() + "|" + file.lastModified();
+        synchronized (crcByFile) {
+            Long crc = crcByFile.get(key);
+            if (crc != null) {
+                return crc;
+            }
+        }
+        if (!file.isFile()) {
+            throw new FileNotFoundException(file.getAbsolutePath());
+        }
+        CRC32 checksum = new CRC32();
+        try (InputStream is = new BufferedInputStream(new FileInputStream(file))) {
+            byte[] buf = new byte[0x10000];
+            int read;
+            while ((read = is.read(buf)) != -1) {
+                checksum.update(buf, 0, read);
+            }
+        }
+        synchronized (crcByFile) {
+            crcByFile.put(key, checksum.getValue());
+        }
+        return checksum.getValue();
+    }
+
+    private synchronized void recordFinished(Job job) {
+        long latency = System.currentTimeMillis() - job.submitTime;
+        latencies[latencyCount % LATENCIES_KEPT] = latency;
+        latencyCount++;
+        GenerationStats stats = generationStats.computeIfAbsent(job.generation, g -> new GenerationStats());
+        if (job.status == Status.SUCCEEDED) {
+            stats.succeeded++;
+        } else {
+            stats.failed++;
+        }
+        stats.totalTime += System.currentTimeMillis() - job.startTime;
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        if (!checkRequest(exchange)) {
+            return;
+        }
+        respond(exchange, 200, getStats());
+    }
+
+    /**
+     * Returns the current statistics, as given by GET /stats.
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", executor.getQueue().size());
+        stats.put("running", executor.getActiveCount());
+        stats.put("finished", latencyCount);
+        synchronized (baselines) {
+            stats.put("loadedGames", baselines.size());
+        }
+
+        long[] recent = Arrays.copyOf(latencies, Math.min(latencyCount, LATENCIES_KEPT));
+        Arrays.sort(recent);
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("p50", percentile(recent, 50));
+        latency.put("p90", percentile(recent, 90));
+        latency.put("p99", percentile(recent, 99));
+        latency.put("max", recent.length == 0 ? 0 : recent[recent.length - 1]);
+        stats.put("latencyMs", latency);
+
+        double minutes = Math.max(1, System.currentTimeMillis() - startTime) / 60000.0;
+        Map<String, Object> perGeneration = new LinkedHashMap<>();
+        for (Map.Entry<Integer, GenerationStats> entry : generationStats.entrySet()) {
+            GenerationStats gs = entry.getValue();
+            Map<String, Object> genStats = new LinkedHashMap<>();
+            genStats.put("succeeded", gs.succeeded);
+            genStats.put("failed", gs.failed);
+            genStats.put("seedsPerMinute", gs.succeeded / minutes);
+            genStats.put("avgJobMs", gs.totalTime / Math.max(1, gs.succeeded + gs.failed));
+            // generation 0 means the game could not be loaded
+            perGeneration.put(entry.getKey() == 0 ? "unknown" : "gen" + entry.getKey(), genStats);
+        }
+        stats.put("generations", perGeneration);
+        return stats;
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private void handleShutdown(HttpExchange exchange) throws IOException {
+        if (!checkRequest(exchange)) {
+            return;
+        }
+        if (!exchange.getRequestMethod().equals("POST")) {
+            respond(exchange, 405, error("Use POST to shut down"));
+            return;
+        }
+        respond(exchange, 200, Collections.singletonMap("status", "shutting down"));
+        new Thread(() -> {
+            try {
+                stop();
+            } catch (InterruptedException ignored) {
+                // stopping anyway
+            }
+        }).start();
+    }
+
+    private Map<String, Object> describe(Job job) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("id", job.id);
+        description.put("status", job.status.name().toLowerCase());
+        description.put("rom", job.romFile.getPath());
+        description.put("seed", job.seed);
+        description.put("output", job.output);
+        BatchRandomizer.JobResult result = job.result;
+        if (result != null && result.getResults() != null) {
+            description.put("checkValue", String.format("%08X", result.getResults().getCheckValue()));
+            description.put("queueMs", job.startTime - job.submitTime);
+            description.put("loadMs", result.getLoadTime());
+            description.put("timeMs", result.getTime());
+            description.put("stages", result.getResults().getStageTimes());
+        }
+        if (job.error != null) {
+            description.put("error", job.error);
+        }
+        return description;
+    }
+
+    private static Map<String, Object> error(String message) {
+        return Collections.singletonMap("error", message);
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream is = exchange.getRequestBody()) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            byte[] buf = new byte[4096];
+            int read;
+            while ((read = is.read(buf)) != -1) {
+                baos.write(buf, 0, read);
+            }
+            return new String(baos.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int code, Object body) throws IOException {
+        byte[] bytes = (Json.write(body) + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+}
@@ -57,6 +57,7 @@ import java.nio.file.Files;
 import java.text.SimpleDateFormat;
 import java.util.List;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.zip.CRC32;
 
@@ -388,6 +389,8 @@ public class RandomizerGUI {
     private ResourceBundle bundle;
     protected RomHandler.Factory[] checkHandlers;
     private RomHandler romHandler;
+    // the loaded game as it was right after loading, restored instead of loading the game again from disk
+    private RomHandler.Snapshot romHandlerSnapshot;
 
     private boolean presetMode = false;
     private boolean initialPopup = true;
@@ -1032,61 +1035,122 @@ public class RandomizerGUI {
             attemptWriteConfig();
             saveRandomizedRom(outputType, fh);
         } else if (allowed && batchRandomizationSettings.isBatchRandomizationEnabled()) {
-            int numberOfRandomizedROMs = batchRandomizationSettings.getNumberOfRandomizedROMs();
-            int startingIndex = batchRandomizationSettings.getStartingIndex();
-            int endingIndex = startingIndex + numberOfRandomizedROMs;
-            final String progressTemplate = bundle.getString("GUI.batchRandomizationProgress");
-            OperationDialog batchProgressDialog = new OperationDialog(
-                    String.format(progressTemplate, 0, numberOfRandomizedROMs), frame, true);
-            SwingWorker<Void, Void> swingWorker = new SwingWorker<Void, Void>() {
-                int i;
+            performBatchRandomization(outputType);
+        }
+    }
 
-                @Override
-                protected Void doInBackground() {
-                    frame.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-                    SwingUtilities.invokeLater(() -> batchProgressDialog.setVisible(true));
-                    for (i = startingIndex; i < endingIndex; i++) {
-                        String fileName = batchRandomizationSettings.getOutputDirectory() +
-                                File.separator +
-                                batchRandomizationSettings.getFileNamePrefix() +
-                                i;
-                        if (outputType == SaveType.FILE) {
-                            fileName += '.' + romHandler.getDefaultExtension();
-                        }
-                        File rom = new File(fileName);
-                        if (outputType == SaveType.DIRECTORY) {
-                            rom.mkdirs();
-                        }
-                        int currentRomNumber = i - startingIndex + 1;
+    private void performBatchRandomization(SaveType outputType) {
+        int numberOfRandomizedROMs = batchRandomizationSettings.getNumberOfRandomizedROMs();
+        int startingIndex = batchRandomizationSettings.getStartingIndex();
+        int endingIndex = startingIndex + numberOfRandomizedROMs;
+        boolean saveAsDirectory = outputType == SaveType.DIRECTORY;
 
-                        SwingUtilities.invokeLater(
-                                () -> batchProgressDialog.setLoadingLabelText(String.format(progressTemplate,
-                                        currentRomNumber,
-                                        numberOfRandomizedROMs)));
-                        saveRandomizedRom(outputType, rom);
-                    }
-                    return null;
+        final Settings settings;
+        try {
+            settings = createSettingsFromState(CustomNamesSet.readNamesFromFile());
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            JOptionPane.showMessageDialog(frame, bundle.getString("GUI.cantLoadCustomNames"));
+            return;
+        }
+        CustomPlayerGraphics cpg = getCPGFromGUI();
+
+        List<BatchRandomizer.Job> jobs = new ArrayList<>(numberOfRandomizedROMs);
+        for (int i = startingIndex; i < endingIndex; i++) {
+            String fileName = batchRandomizationSettings.getOutputDirectory() +
+                    File.separator +
+                    batchRandomizationSettings.getFileNamePrefix() +
+                    i;
+            if (outputType == SaveType.FILE) {
+                fileName += '.' + romHandler.getDefaultExtension();
+            }
+            File rom = new File(fileName);
+            if (saveAsDirectory) {
+                rom.mkdirs();
+            }
+            jobs.add(new BatchRandomizer.Job(SeedPicker.pickSeed(), rom.getAbsolutePath(),
+                    batchRandomizationSettings.shouldGenerateLogFile()));
+        }
+
+        // The loaded RomHandler is left untouched; each ROM is instead randomized from a freshly loaded copy.
+        RomHandler.Snapshot snapshot = getRomHandlerSnapshot();
+        File romFile = new File(romHandler.loadedFilename());
+        Supplier<RomHandler> romHandlerSupplier = snapshot != null ? snapshot::restore
+                : () -> romOpener.openRomFile(romFile).getRomHandler();
+        BatchRandomizer batchRandomizer = new BatchRandomizer(settings, cpg, romHandler, romHandlerSupplier,
+                bundle, saveAsDirectory, BatchRandomizer.defaultWorkerCount());
+
+        final String progressTemplate = bundle.getString("GUI.batchRandomizationProgress");
+        OperationDialog batchProgressDialog = new OperationDialog(
+                String.format(progressTemplate, 0, numberOfRandomizedROMs), frame, true);
+        SwingWorker<BatchRandomizer.Report, Void> swingWorker = new SwingWorker<BatchRandomizer.Report, Void>() {
+
+            @Override
+            protected BatchRandomizer.Report doInBackground() throws InterruptedException {
+                frame.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+                SwingUtilities.invokeLater(() -> batchProgressDialog.setVisible(true));
+                return batchRandomizer.run(jobs, (jr, finished, total) -> SwingUtilities.invokeLater(
+                        () -> batchProgressDialog.setLoadingLabelText(String.format(progressTemplate,
+                                finished, total))));
+            }
+
+            @Override
+            protected void done() {
+                super.done();
+                SwingUtilities.invokeLater(() -> batchProgressDialog.setVisible(false));
+                frame.setCursor(null);
+
+                BatchRandomizer.Report report;
+                try {
+                    report = get();
+                } catch (InterruptedException | java.util.concurrent.ExecutionException e) {
+                    attemptToLogException(e, "GUI.saveFailedIO", "GUI.saveFailedIONoLog",
+                            settings.toString(), null);
+                    return;
                 }
+                report.print(System.out);
 
-                @Override
-                protected void done() {
-                    super.done();
-                    if (batchRandomizationSettings.shouldAutoAdvanceStartingIndex()) {
-                        batchRandomizationSettings.setStartingIndex(i);
-                        attemptWriteConfig();
+                if (batchRandomizationSettings.shouldAutoAdvanceStartingIndex()) {
+                    batchRandomizationSettings.setStartingIndex(endingIndex);
+                    attemptWriteConfig();
+                }
+                if (cpg != null) {
+                    recordCPGAsLastUsed(cpg);
+                }
+
+                for (BatchRandomizer.JobResult jr : report.getJobResults()) {
+                    if (!jr.wasSuccessful()) {
+                        reportBatchJobFailure(jr, settings);
+                        return;
                     }
-                    SwingUtilities.invokeLater(() -> batchProgressDialog.setVisible(false));
-                    JOptionPane.showMessageDialog(frame, bundle.getString("GUI.randomizationDone"));
-                    if (unloadGameOnSuccess) {
-                        romHandler = null;
-                        initialState();
-                    } else {
-                        reinitializeRomHandler(false);
+                    if (!jr.wasLogWriteSuccessful()) {
+                        JOptionPane.showMessageDialog(frame, bundle.getString("GUI.logSaveFailed"));
+                        break;
                     }
-                    frame.setCursor(null);
                 }
-            };
-            swingWorker.execute();
+
+                JOptionPane.showMessageDialog(frame, bundle.getString("GUI.randomizationDone"));
+                if (unloadGameOnSuccess) {
+                    romHandler = null;
+                    initialState();
+                }
+            }
+        };
+        swingWorker.execute();
+    }
+
+    private void reportBatchJobFailure(BatchRandomizer.JobResult jr, Settings settings) {
+        Exception e = jr.getException();
+        String seed = Long.toString(jr.getJob().getSeed());
+        if (e instanceof RandomizationException) {
+            attemptToLogException(e, "GUI.saveFailedMessage", "GUI.saveFailedMessageNoLog", true,
+                    settings.toString(), seed);
+        } else if (e instanceof CannotWriteToLocationException) {
+            JOptionPane.showMessageDialog(mainPanel,
+                    String.format(bundle.getString("GUI.cannotWriteToLocation"), jr.getJob().getFilename()));
+        } else {
+            attemptToLogException(e, "GUI.saveFailedIO", "GUI.saveFailedIONoLog",
+                    settings.toString(), seed);
         }
     }
 
@@ -1178,7 +1242,10 @@ public class RandomizerGUI {
             boolean saveAsDirectory) {
         final Settings settings = createSettingsFromState(customNames);
         final boolean raceMode = settings.isRaceMode();
-        final boolean batchRandomization = batchRandomizationSettings.isBatchRandomizationEnabled() && !presetMode;
+        if (!unloadGameOnSuccess) {
+            // taken before randomizing, so the game can be reinitialized from it afterwards
+            getRomHandlerSnapshot();
+        }
         // Setup log
         final ByteArrayOutputStream baos = new ByteArrayOutputStream();
         final PrintStream log = getPrintStream(baos);
@@ -1186,12 +1253,8 @@ public class RandomizerGUI {
         try {
             opDialog = new OperationDialog(bundle.getString("GUI.savingText"), frame, true);
             Thread t = new Thread(() -> performRandomizationInner(
-                    filename, seed, settings, cpg, baos, log, raceMode, batchRandomization, saveAsDirectory));
+                    filename, seed, settings, cpg, baos, log, raceMode, saveAsDirectory));
             t.start();
-            if (batchRandomization) {
-                t.join();
-                reinitializeRomHandler(true);
-            }
         } catch (Exception ex) {
             attemptToLogException(ex, "GUI.saveFailed", "GUI.saveFailedNoLog", settings.toString(),
                     Long.toString(seed));
@@ -1212,8 +1275,8 @@ public class RandomizerGUI {
     private void performRandomizationInner(String filename,
             long seed, Settings settings, CustomPlayerGraphics cpg,
             ByteArrayOutputStream baos, PrintStream log,
-            boolean raceMode, boolean batchRandomization, boolean saveAsDirectory) {
-        SwingUtilities.invokeLater(() -> opDialog.setVisible(!batchRandomization));
+            boolean raceMode, boolean saveAsDirectory) {
+        SwingUtilities.invokeLater(() -> opDialog.setVisible(true));
         GameRandomizer randomizer = new GameRandomizer(settings, cpg, romHandler, bundle, saveAsDirectory);
         GameRandomizer.Results results = randomizer.randomize(filename, log, seed);
 
@@ -1223,7 +1286,7 @@ public class RandomizerGUI {
                         true, settings.toString(), Long.toString(seed));
             }
             SwingUtilities.invokeLater(() -> finishRandomization(
-                    filename, seed, cpg, baos, results.getCheckValue(), raceMode, batchRandomization));
+                    filename, seed, cpg, baos, results.getCheckValue(), raceMode));
         } else {
             Exception e = results.getException();
             if (e instanceof RandomizationException) {
@@ -1249,7 +1312,7 @@ public class RandomizerGUI {
             CustomPlayerGraphics cpg,
             ByteArrayOutputStream baos,
             int checkValue,
-            boolean raceMode, boolean batchRandomization) {
+            boolean raceMode) {
         if (cpg != null) {
             recordCPGAsLastUsed(cpg);
         }
@@ -1260,15 +1323,7 @@ public class RandomizerGUI {
         if (raceMode) {
             JOptionPane.showMessageDialog(frame,
                     String.format(bundle.getString("GUI.raceModeCheckValuePopup"), checkValue));
-        } else if (batchRandomization && batchRandomizationSettings.shouldGenerateLogFile()) {
-            try {
-                saveLogFile(filename, out);
-            } catch (IOException e) {
-                JOptionPane.showMessageDialog(frame,
-                        bundle.getString("GUI.logSaveFailed"));
-                return;
-            }
-        } else if (!batchRandomization) {
+        } else {
             int response = JOptionPane.showConfirmDialog(frame,
                     bundle.getString("GUI.saveLogDialog.text"),
                     bundle.getString("GUI.saveLogDialog.title"),
@@ -1290,7 +1345,7 @@ public class RandomizerGUI {
             JOptionPane.showMessageDialog(frame,
                     bundle.getString("GUI.randomizationDone"));
 
-        } else if (!batchRandomization) {
+        } else {
             // Compile a config string
             try {
                 String configString = getCurrentSettings().toString();
@@ -1307,7 +1362,7 @@ public class RandomizerGUI {
             romHandler = null;
             initialState();
         } else {
-            reinitializeRomHandler(false);
+            reinitializeRomHandler();
         }
 
     }
@@ -1481,6 +1536,7 @@ public class RandomizerGUI {
                             String.format(bundle.getString("GUI.encryptedRom"), fh.getAbsolutePath()));
                     return;
                 }
+                romHandlerSnapshot = null;
                 gameUpdates.put(romHandler.getROMCode(), fh.getAbsolutePath());
                 attemptWriteConfig();
                 removeGameUpdateMenuItem.setVisible(true);
@@ -1504,6 +1560,7 @@ public class RandomizerGUI {
         gameUpdates.remove(romHandler.getROMCode());
         attemptWriteConfig();
         romHandler.removeGameUpdate();
+        romHandlerSnapshot = null;
         removeGameUpdateMenuItem.setVisible(false);
         setRomNameLabel();
     }
@@ -1609,21 +1666,40 @@ public class RandomizerGUI {
     }
 
     // This is only intended to be used with the "Keep Game Loaded After
-    // Randomizing" setting or between randomization
-    // iterations when batch randomization is enabled. It assumes that the game has
+    // Randomizing" setting. It assumes that the game has
     // already been loaded once, and we just need
-    // to reload the same game to reinitialize the RomHandler. Don't use this for
+    // to reload the same game to reinitialize the RomHandler (from the snapshot
+    // taken before randomizing, if the game supports it). Don't use this for
     // other purposes unless you know what
     // you're doing.
-    private void reinitializeRomHandler(boolean batchRandomization) {
-        Thread t = openRom(new File(romHandler.loadedFilename()), true);
-        if (batchRandomization) {
+    private void reinitializeRomHandler() {
+        if (romHandlerSnapshot == null) {
+            openRom(new File(romHandler.loadedFilename()), true);
+            return;
+        }
+        RomHandler.Snapshot snapshot = romHandlerSnapshot;
+        new Thread(() -> {
             try {
-                t.join();
-            } catch (InterruptedException e) {
-                attemptToLogException(e, "GUI.loadFailed", "GUI.loadFailedNoLog", null, null);
+                RomHandler restored = snapshot.restore();
+                SwingUtilities.invokeLater(() -> romHandler = restored);
+            } catch (Exception e) {
+                SwingUtilities.invokeLater(() -> {
+                    initialState();
+                    attemptToLogException(e, "GUI.loadFailed", "GUI.loadFailedNoLog", null, null);
+                });
             }
+        }).start();
+    }
+
+    /**
+     * Returns a {@link RomHandler.Snapshot} of the loaded game, taking one first if there is none yet,
+     * or null if the game does not support snapshots. Must not be called once the loaded game has been changed.
+     */
+    private RomHandler.Snapshot getRomHandlerSnapshot() {
+        if (romHandlerSnapshot == null && romHandler.hasSnapshotSupport()) {
+            romHandlerSnapshot = romHandler.createSnapshot();
         }
+        return romHandlerSnapshot;
     }
 
     private void restoreStateFromSettings(Settings settings) {
@@ -2727,6 +2803,7 @@ public class RandomizerGUI {
 
     private void romLoaded() {
 
+        romHandlerSnapshot = null;
         try {
             int pokemonGeneration = romHandler.generationOfPokemon();
 
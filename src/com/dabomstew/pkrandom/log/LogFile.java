@@ -0,0 +1,112 @@
+package com.dabomstew.pkrandom.log;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Opens log files for writing, so logs can be streamed to them while being produced,
+ * instead of being kept in memory until randomization is done.<br>
+ * Text logs are written as UTF-8 with a BOM, same as logs saved by the GUI. Structured logs
+ * (see {@link RandomizationLogger}) are written as UTF-8 JSON Lines. Both may be gzipped.
+ */
+public class LogFile {
+
+    public static final String EXTENSION = ".log";
+    public static final String GZIP_EXTENSION = ".log.gz";
+    public static final String RECORDS_EXTENSION = ".log.jsonl";
+    public static final String RECORDS_GZIP_EXTENSION = ".log.jsonl.gz";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private LogFile() {
+    }
+
+    /**
+     * Returns the filename of the log for a randomized game.
+     */
+    public static String getFilename(String romFilename, boolean gzip) {
+        return romFilename + (gzip ? GZIP_EXTENSION : EXTENSION);
+    }
+
+    /**
+     * Returns the filename of the structured log for a randomized game.
+     */
+    public static String getRecordsFilename(String romFilename, boolean gzip) {
+        return romFilename + (gzip ? RECORDS_GZIP_EXTENSION : RECORDS_EXTENSION);
+    }
+
+    /**
+     * Opens the log file for a randomized game; see {@link #getFilename(String, boolean)}.<br>
+     * Since {@link PrintStream}s don't throw, use {@link PrintStream#checkError()} after closing it,
+     * to know whether the log was written successfully.
+     */
+    public static PrintStream open(String romFilename, boolean gzip) throws IOException {
+        return open(getFilename(romFilename, gzip), gzip, true);
+    }
+
+    /**
+     * Opens the structured log file for a randomized game; see {@link #getRecordsFilename(String, boolean)}
+     * and {@link #open(String, boolean)}.
+     */
+    public static PrintStream openRecords(String romFilename, boolean gzip) throws IOException {
+        return open(getRecordsFilename(romFilename, gzip), gzip, false);
+    }
+
+    private static PrintStream open(String filename, boolean gzip, boolean bom) throws IOException {
+        OutputStream os = new BufferedOutputStream(Files.newOutputStream(Paths.get(filename)), BUFFER_SIZE);
+        try {
+            if (gzip) {
+                os = new GZIPOutputStream(os, BUFFER_SIZE);
+            }
+            if (bom) {
+                os.write(0xEF);
+                os.write(0xBB);
+                os.write(0xBF);
+            }
+        } catch (IOException e) {
+            os.close();
+            throw e;
+        }
+        return new PrintStream(os, false, StandardCharsets.UTF_8.name());
+    }
+
+    /**
+     * Returns a stream which discards everything, for when no log is to be saved.
+     */
+    public static PrintStream discarding() {
+        return new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        });
+    }
+
+    /**
+     * Deletes the log file for a randomized game, e.g. because the game could not be saved after all.
+     */
+    public static void delete(String romFilename, boolean gzip) {
+        deleteIfExists(getFilename(romFilename, gzip));
+    }
+
+    /**
+     * Deletes the structured log file for a randomized game.
+     */
+    public static void deleteRecords(String romFilename, boolean gzip) {
+        deleteIfExists(getRecordsFilename(romFilename, gzip));
+    }
+
+    private static void deleteIfExists(String filename) {
+        try {
+            Files.deleteIfExists(Paths.get(filename));
+        } catch (IOException ignored) {
+        }
+    }
+
+}
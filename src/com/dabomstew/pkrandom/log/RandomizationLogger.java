@@ -1,6 +1,8 @@
 package com.dabomstew.pkrandom.log;
 
+import com.dabomstew.pkrandom.Json;
 import com.dabomstew.pkrandom.Settings;
+import com.dabomstew.pkrandom.StageProfiler;
 import com.dabomstew.pkrandom.SysConstants;
 import com.dabomstew.pkrandom.Version;
 import com.dabomstew.pkrandom.random.RandomSource;
@@ -11,13 +13,35 @@ import com.dabomstew.pkromio.gamedata.*;
 import com.dabomstew.pkromio.romhandlers.Gen1RomHandler;
 import com.dabomstew.pkromio.romhandlers.RomHandler;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * Writes the log of a randomization: a text log meant for people, and optionally a structured log meant for
+ * other tools, both in the same pass.
+ * <br><br>
+ * The structured log is in the JSON Lines format; one JSON object per line, a "record", each with a "type" member.
+ * It starts with a "header" record, holding the {@link #RECORDS_SCHEMA_VERSION}, and ends with an "end" record,
+ * so an incomplete log can be told apart. In between are the records of each section, in the same order as in the
+ * text log, e.g. "trainer", "encounterArea" and "moveset" records. Names of species, moves, items etc. are given as
+ * in the text log. Since "type" is taken, the type of a move is its "moveType".
+ */
 public class RandomizationLogger {
 
+    /**
+     * The version of the structured log's format. Raised whenever a record type or member is removed,
+     * or changes meaning; new record types and members may be added without raising it.
+     */
+    public static final int RECORDS_SCHEMA_VERSION = 1;
+
     private static final int TM_COMP_ROW_WIDTH = 5;
     private static final int TYPE_NAME_LEN = 8;
 
@@ -59,7 +83,13 @@ public class RandomizationLogger {
     private final PaletteRandomizer paletteRandomizer;
     private final MiscTweakRandomizer miscTweakRandomizer;
 
-    private PrintStream log;
+    // The stream the section being rendered on the current thread is written to.
+    // Thread-local, since sections may be rendered in parallel; see setRenderThreads().
+    private final ThreadLocal<PrintStream> sectionLog = new ThreadLocal<>();
+    // Likewise for the structured log; null if none is written.
+    private final ThreadLocal<PrintStream> sectionRecords = new ThreadLocal<>();
+    private StageProfiler profiler;
+    private int renderThreads = 1;
 
     public RandomizationLogger(RandomSource randomSource, Settings settings, RomHandler romHandler, ResourceBundle bundle,
                                SpeciesBaseStatUpdater speciesBSUpdater, MoveUpdater moveUpdater,
@@ -119,49 +149,129 @@ public class RandomizationLogger {
         return bundle.getString(key);
     }
 
+    /**
+     * Sets how many threads the larger sections of the log (trainers, wild Pokémon, movesets, etc.) may be
+     * rendered on at once. With a single thread, the default, every section is written straight to the log
+     * as it is produced.<br>
+     * With more threads, each section is rendered into its own buffer, and the buffers are written to the log
+     * in order, as soon as all earlier sections are written. What the sections read from the {@link RomHandler}
+     * is still read on the logging thread, before rendering, since RomHandlers are not thread-safe.
+     */
+    public void setRenderThreads(int renderThreads) {
+        if (renderThreads < 1) {
+            throw new IllegalArgumentException("renderThreads must be at least 1");
+        }
+        this.renderThreads = renderThreads;
+    }
+
     public void logResults(PrintStream log, long startTime) {
-        this.log = log;
+        logResults(log, startTime, new StageProfiler(randomSource), false);
+    }
+
+    /**
+     * Logs the results, measuring each section as a stage of the given {@link StageProfiler}.
+     *
+     * @param logStages Whether to also log the stages measured so far in the statistics section.
+     *                  Since the log is still being written then, the stages of the later log sections
+     *                  are not included.
+     */
+    public void logResults(PrintStream log, long startTime, StageProfiler profiler, boolean logStages) {
+        logResults(log, null, startTime, profiler, logStages);
+    }
+
+    /**
+     * Logs the results, and writes them to a structured log at the same time; see {@link RandomizationLogger}.
+     *
+     * @param records The stream to write the structured log to, or null to only write the text log.
+     */
+    public void logResults(PrintStream log, PrintStream records, long startTime, StageProfiler profiler,
+                           boolean logStages) {
+        this.profiler = profiler;
+        sectionLog.set(log);
+        sectionRecords.set(records);
+        try {
+            profiler.run("head", this::logHead);
+            profiler.run("tableOfContents", this::logTableOfContents);
+            profiler.run("overview", this::logOverview);
+            logOptionalSections(log, records);
+            profiler.run("statistics", () -> logStatistics(startTime, logStages));
+            profiler.run("diagnostics", this::logDiagnostics);
+            record("end");
+        } finally {
+            sectionLog.remove();
+            sectionRecords.remove();
+        }
+    }
+
+    private PrintStream log() {
+        return sectionLog.get();
+    }
 
-        logHead();
-        logTableOfContents();
-        logOverview();
-        logOptionalSections();
-        logStatistics(startTime);
-        logDiagnostics();
+    private boolean isRecording() {
+        return sectionRecords.get() != null;
+    }
+
+    /**
+     * Writes a record to the structured log, if one is being written.
+     *
+     * @param members The members of the record after its type, as alternating names and values.
+     */
+    private void record(String type, Object... members) {
+        PrintStream records = sectionRecords.get();
+        if (records == null) {
+            return;
+        }
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("type", type);
+        for (int i = 0; i < members.length; i += 2) {
+            record.put((String) members[i], members[i + 1]);
+        }
+        records.println(Json.write(record));
+    }
+
+    private static String nameOf(Species pk) {
+        return pk == null ? null : pk.getFullName();
+    }
+
+    private static String nameOf(Item item) {
+        return item == null ? null : item.getName();
     }
 
     private void printSectionTitle(String bundleSectionID) {
-        log.printf(getBS("Log.sectionTitle"),
+        log().printf(getBS("Log.sectionTitle"),
                 getBS("Log." + bundleSectionID + ".title"),
                 getBS("Log." + bundleSectionID + ".shortcut"));
     }
 
     private void printSectionSeparator() {
-        log.printf(getBS("Log.sectionSeparator"));
+        log().printf(getBS("Log.sectionSeparator"));
     }
 
     private void logHead() {
-        log.printf(getBS("Log.logo"), Version.VERSION_STRING);
-        log.printf(getBS("Log.title"));
+        log().printf(getBS("Log.logo"), Version.VERSION_STRING);
+        log().printf(getBS("Log.title"));
         String gameName = romHandler.getROMName();
         if (romHandler.hasGameUpdateLoaded()) {
             gameName = gameName + " (" + romHandler.getGameUpdateVersion() + ")";
         }
-        log.printf(getBS("Log.baseGame"), gameName);
-        log.printf(getBS("Log.version"), Version.LATEST_VERSION.branchName, Version.VERSION_STRING);
-        log.printf(getBS("Log.seed"), randomSource.getSeed());
-        log.printf(getBS("Log.settings"), Version.VERSION + settings.toString());
-        log.println();
-        log.printf(getBS("Log.problems"));
-        log.println();
-        log.printf(getBS("Log.wikiLink"), SysConstants.WIKI_URL);
-        log.printf(getBS("Log.githubIssuesLink"), SysConstants.ISSUES_URL);
+        log().printf(getBS("Log.baseGame"), gameName);
+        log().printf(getBS("Log.version"), Version.LATEST_VERSION.branchName, Version.VERSION_STRING);
+        log().printf(getBS("Log.seed"), randomSource.getSeed());
+        log().printf(getBS("Log.settings"), Version.VERSION + settings.toString());
+        record("header", "schemaVersion", RECORDS_SCHEMA_VERSION, "randomizerVersion", Version.VERSION_STRING,
+                "game", gameName, "romCode", romHandler.getROMCode(), "generation", romHandler.generationOfPokemon(),
+                "seed", randomSource.getSeed(), "settings", Version.VERSION + settings.toString());
+        log().println();
+        log().printf(getBS("Log.problems"));
+        log().println();
+        log().printf(getBS("Log.wikiLink"), SysConstants.WIKI_URL);
+        log().printf(getBS("Log.githubIssuesLink"), SysConstants.ISSUES_URL);
         printSectionSeparator();
     }
 
     private void logTableOfContents() {
         printSectionTitle("toc");
-        log.printf(getBS("Log.toc.instruction"));
+        log().printf(getBS("Log.toc.instruction"));
         printContentsRow("toc");
         printContentsRow("overview");
         printOptionalContentsRows();
@@ -177,13 +287,13 @@ public class RandomizationLogger {
     }
 
     private void printContentsRow(String title, String shortcut) {
-        log.print(" " + title);
-        log.print(new String(new char[49 - title.length()]).replace('\0', '-'));
-        log.println("{" + shortcut + "}");
+        log().print(" " + title);
+        log().print(new String(new char[49 - title.length()]).replace('\0', '-'));
+        log().println("{" + shortcut + "}");
     }
 
     private void printOptionalContentsRows() {
-        log.println();
+        log().println();
         if (shouldLogBaseStatUpdates())
             printContentsRow("bsu");
         if (shouldLogSpeciesTraits())
@@ -194,7 +304,7 @@ public class RandomizationLogger {
             printContentsRow("pei");
         if (shouldLogBaseStatUpdates() || shouldLogSpeciesTraits() || shouldLogEvolutions()
                 || shouldLogEvolutionImprovements())
-            log.println();
+            log().println();
         if (shouldLogStarters())
             printContentsRow("sp");
         if (shouldLogStaticPokemon())
@@ -202,7 +312,7 @@ public class RandomizationLogger {
         if (shouldLogInGameTrades())
             printContentsRow("igt");
         if (shouldLogStarters() || shouldLogStaticPokemon() || shouldLogInGameTrades())
-            log.println();
+            log().println();
         if (shouldLogMoveUpdates())
             printContentsRow("mu");
         if (shouldLogMoveData())
@@ -210,16 +320,16 @@ public class RandomizationLogger {
         if (shouldLogMovesets())
             printContentsRow("pms");
         if (shouldLogMoveUpdates() || shouldLogMoveData() || shouldLogMovesets())
-            log.println();
+            log().println();
         if (shouldLogTrainers())
             printContentsRow("tp");
         if (shouldLogTotemPokemon())
             printContentsRow("totp");
         if (shouldLogTrainers() || shouldLogTotemPokemon())
-            log.println();
+            log().println();
         if (shouldLogWildPokemon()) {
             printContentsRow("wp");
-            log.println();
+            log().println();
         }
         if (shouldLogTMMoves())
             printContentsRow("tm");
@@ -231,19 +341,19 @@ public class RandomizationLogger {
             printContentsRow("mtc");
         if (shouldLogTMMoves() || shouldLogTMHMCompatibility()
                 || shouldLogMoveTutorMoves() || shouldLogMoveTutorCompatibility())
-            log.println();
+            log().println();
         if (shouldLogShopItems())
             printContentsRow("sh");
         if (shouldLogPickupItems())
             printContentsRow("pu");
         if (shouldLogShopItems() || shouldLogPickupItems())
-            log.println();
+            log().println();
         if (shouldLogTypeEffectivenessUpdates())
             printContentsRow("teu");
         if (shouldLogTypeEffectiveness())
             printContentsRow("te");
         if (shouldLogTypeEffectivenessUpdates() || shouldLogTypeEffectiveness())
-            log.println();
+            log().println();
     }
 
     private void logOverview() {
@@ -287,51 +397,107 @@ public class RandomizationLogger {
                 romHandler.hasTypeEffectivenessSupport());
         logOverviewLine(getBS("GUI.ppalPanel.title"), paletteRandomizer != null && paletteRandomizer.isChangesMade(),
                 romHandler.hasPokemonPaletteSupport());
-        log.println();
+        log().println();
 
         if (miscTweakRandomizer.isChangesMade()) {
-            log.printf(getBS("Log.overview.miscTweaks"));
+            log().printf(getBS("Log.overview.miscTweaks"));
             int miscTweaks = settings.getCurrentMiscTweaks();
             for (MiscTweak mt : MiscTweak.allTweaks) {
                 if ((miscTweaks & mt.getValue()) != 0) {
-                    log.println(mt.getTweakName());
+                    log().println(mt.getTweakName());
+                    record("miscTweak", "name", mt.getTweakName());
                 }
             }
         } else {
-            log.printf(getBS("Log.overview.noMiscTweaks"));
+            log().printf(getBS("Log.overview.noMiscTweaks"));
         }
-        log.println();
+        log().println();
 
         if (introPokeRandomizer.isChangesMade()) {
-            log.printf(getBS("Log.overview.introPokemon"), introPokeRandomizer.getIntroSpecies().getFullName());
+            log().printf(getBS("Log.overview.introPokemon"), introPokeRandomizer.getIntroSpecies().getFullName());
+            record("introPokemon", "species", introPokeRandomizer.getIntroSpecies().getFullName());
         }
         printSectionSeparator();
     }
 
     private void logOverviewLine(String line, boolean changed, boolean relevant) {
         if (relevant) {
-            log.print(line + ": ");
-            log.println(changed ?
+            log().print(line + ": ");
+            log().println(changed ?
                     getBS("Log.overview.changed") :
                     getBS("Log.overview.unchanged"));
+            record("overview", "name", line, "changed", changed);
         }
     }
 
-    private void logStatistics(long startTime) {
+    private void logStatistics(long startTime, boolean logStages) {
         printSectionTitle("stat");
-        log.printf(getBS("Log.stat.time"), System.currentTimeMillis() - startTime);
-        log.printf(getBS("Log.stat.callsNonCosmetic"), randomSource.callsSinceSeedNonCosmetic());
-        log.printf(getBS("Log.stat.callsCosmetic"), randomSource.callsSinceSeedCosmetic());
-        log.printf(getBS("Log.stat.callsTotal"), randomSource.callsSinceSeed());
+        log().printf(getBS("Log.stat.time"), System.currentTimeMillis() - startTime);
+        log().printf(getBS("Log.stat.callsNonCosmetic"), randomSource.callsSinceSeedNonCosmetic());
+        log().printf(getBS("Log.stat.callsCosmetic"), randomSource.callsSinceSeedCosmetic());
+        log().printf(getBS("Log.stat.callsTotal"), randomSource.callsSinceSeed());
+        long peakHeapUsed = profiler.getPeakHeapUsed();
+        log().printf(getBS("Log.stat.peakHeap"), peakHeapUsed >> 20);
+        record("statistics", "timeMillis", System.currentTimeMillis() - startTime,
+                "rngCallsNonCosmetic", randomSource.callsSinceSeedNonCosmetic(),
+                "rngCallsCosmetic", randomSource.callsSinceSeedCosmetic(), "peakHeapBytes", peakHeapUsed);
+        if (logStages) {
+            logStages();
+            logRewrittenArchives();
+        }
         printSectionSeparator();
     }
 
+    private void logStages() {
+        log().printf(getBS("Log.stat.stagesHeader"));
+        for (StageProfiler.Stage stage : profiler.getStages()) {
+            String name = stage.getName().substring(stage.getName().lastIndexOf('/') + 1);
+            String indented = new String(new char[stage.getDepth() * 2]).replace('\0', ' ') + name;
+            log().printf(getBS("Log.stat.stage"), indented, stage.getNanos() / 1000000.0,
+                    stage.getRngCallsNonCosmetic(), stage.getRngCallsCosmetic(),
+                    stage.getAllocatedBytes() < 0 ? "?" : String.valueOf(stage.getAllocatedBytes() / 1024));
+            for (Map.Entry<String, Long> counter : stage.getCounters().entrySet()) {
+                String counterIndented = new String(new char[stage.getDepth() * 2 + 2]).replace('\0', ' ')
+                        + counter.getKey();
+                log().printf(getBS("Log.stat.stageCounter"), counterIndented, counter.getValue());
+            }
+        }
+    }
+
+    private void logRewrittenArchives() {
+        List<String> archives = romHandler.getLastSaveRewrittenArchives();
+        log().printf(getBS("Log.stat.archivesHeader"), archives.size());
+        for (String archive : archives) {
+            log().printf(getBS("Log.stat.archive"), archive);
+        }
+        record("rewrittenArchives", "archives", archives);
+    }
+
     private void logDiagnostics() {
         printSectionTitle("dg");
-        if (!romHandler.isRomValid(null)) {
-            log.printf(getBS("Log.dg.invalidRomLoaded"));
+        boolean romValid = romHandler.isRomValid(null);
+        if (!romValid) {
+            log().printf(getBS("Log.dg.invalidRomLoaded"));
+        }
+        record("diagnostics", "romValid", romValid);
+        romHandler.printRomDiagnostics(log());
+    }
+
+    /**
+     * An optional section of the log. Preparing it reads what it needs from the {@link RomHandler},
+     * and returns what renders it. For parallel sections, rendering only formats what was read,
+     * without calling the RomHandler, so it may be done on another thread.
+     */
+    private static class Section {
+        final String name;
+        final Supplier<Runnable> preparer;
+        final boolean parallel;
+
+        Section(String name, Supplier<Runnable> preparer, boolean parallel) {
+            this.name = name;
+            this.preparer = preparer;
+            this.parallel = parallel;
         }
-        romHandler.printRomDiagnostics(log);
     }
 
     /**
@@ -339,57 +505,167 @@ public class RandomizationLogger {
      * other than the overview. They are optional because e.g. the Trainer Pokémon section
      * won't show up if they weren't randomized.
      */
-    private void logOptionalSections() {
+    private void logOptionalSections(PrintStream log, PrintStream records) {
+        List<Section> sections = getOptionalSections();
+        if (renderThreads == 1 || sections.stream().noneMatch(section -> section.parallel)) {
+            for (Section section : sections) {
+                profiler.run(section.name, () -> section.preparer.get().run());
+            }
+            return;
+        }
+
+        // Only the time of each section can be measured here, since the StageProfiler is not thread-safe.
+        ExecutorService executor = Executors.newFixedThreadPool(renderThreads);
+        try {
+            List<Future<RenderedSection>> rendered = new ArrayList<>(sections.size());
+            long[] nanos = new long[sections.size()];
+            int written = 0;
+            for (int i = 0; i < sections.size(); i++) {
+                Section section = sections.get(i);
+                long start = System.nanoTime();
+                if (section.parallel) {
+                    Runnable renderer = section.preparer.get();
+                    nanos[i] = System.nanoTime() - start;
+                    int index = i;
+                    rendered.add(executor.submit(() -> {
+                        long renderStart = System.nanoTime();
+                        RenderedSection text = render(renderer, records != null);
+                        nanos[index] += System.nanoTime() - renderStart;
+                        return text;
+                    }));
+                } else {
+                    rendered.add(CompletableFuture.completedFuture(render(section.preparer.get(), records != null)));
+                    nanos[i] = System.nanoTime() - start;
+                }
+                // write what is already done, so it need not be kept until the end
+                while (written < rendered.size() && rendered.get(written).isDone()) {
+                    writeRendered(log, records, sections.get(written), rendered.get(written), nanos[written]);
+                    written++;
+                }
+            }
+            for (; written < rendered.size(); written++) {
+                writeRendered(log, records, sections.get(written), rendered.get(written), nanos[written]);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Section> getOptionalSections() {
+        List<Section> sections = new ArrayList<>();
         if (shouldLogBaseStatUpdates())
-            logBaseStatsUpdates();
+            sections.add(new Section("baseStatsUpdates", () -> this::logBaseStatsUpdates, false));
         if (shouldLogSpeciesTraits())
-            logSpeciesTraits();
+            sections.add(new Section("speciesTraits", this::prepareSpeciesTraits, true));
         if (shouldLogEvolutions())
-            logEvolutions();
+            sections.add(new Section("evolutions", () -> this::logEvolutions, false));
         if (shouldLogEvolutionImprovements())
-            logEvolutionImprovements();
+            sections.add(new Section("evolutionImprovements", () -> this::logEvolutionImprovements, false));
 
         if (shouldLogStarters())
-            logStarters();
+            sections.add(new Section("starters", () -> this::logStarters, false));
         if (shouldLogStaticPokemon())
-            logStaticPokemon(originalStatics);
+            sections.add(new Section("staticPokemon", () -> () -> logStaticPokemon(originalStatics), false));
         if (shouldLogInGameTrades())
-            logInGameTrades(originalTrades);
+            sections.add(new Section("inGameTrades", () -> () -> logInGameTrades(originalTrades), false));
 
         if (shouldLogMoveUpdates())
-            logMoveUpdates();
+            sections.add(new Section("moveUpdates", () -> this::logMoveUpdates, false));
         if (shouldLogMoveData())
-            logMoveData();
+            sections.add(new Section("moveData", () -> this::logMoveData, false));
         if (shouldLogMovesets())
-            logMovesets();
+            sections.add(new Section("movesets", this::prepareMovesets, true));
 
         if (shouldLogTrainers())
-            logTrainers(originalTrainerNames);
+            sections.add(new Section("trainers", () -> prepareTrainers(originalTrainerNames), true));
         if (shouldLogTotemPokemon())
-            logTotemPokemon(originalTotems);
+            sections.add(new Section("totemPokemon", () -> () -> logTotemPokemon(originalTotems), false));
 
         if (shouldLogWildPokemon())
-            logWildPokemon();
+            sections.add(new Section("wildPokemon", this::prepareWildPokemon, true));
 
         if (shouldLogTMMoves())
-            logTMMoves();
+            sections.add(new Section("tmMoves", () -> this::logTMMoves, false));
         if (shouldLogTMHMCompatibility())
-            logTMHMCompatibility();
+            sections.add(new Section("tmhmCompatibility", this::prepareTMHMCompatibility, true));
         if (shouldLogMoveTutorMoves())
-            logMoveTutorMoves(originalMTMoves);
+            sections.add(new Section("moveTutorMoves", () -> () -> logMoveTutorMoves(originalMTMoves), false));
         if (shouldLogMoveTutorCompatibility())
-            logMoveTutorCompatibility();
+            sections.add(new Section("moveTutorCompatibility", this::prepareMoveTutorCompatibility, true));
 
         // TODO: log field items
         if (shouldLogShopItems())
-            logShopItems();
+            sections.add(new Section("shopItems", () -> this::logShopItems, false));
         if (shouldLogPickupItems())
-            logPickupItems();
+            sections.add(new Section("pickupItems", () -> this::logPickupItems, false));
 
         if (shouldLogTypeEffectivenessUpdates())
-            logTypeEffectivenessUpdates();
+            sections.add(new Section("typeEffectivenessUpdates", () -> this::logTypeEffectivenessUpdates, false));
         if (shouldLogTypeEffectiveness())
-            logTypeEffectiveness();
+            sections.add(new Section("typeEffectiveness", () -> this::logTypeEffectiveness, false));
+        return sections;
+    }
+
+    private static class RenderedSection {
+        final String text;
+        final String records;
+
+        RenderedSection(String text, String records) {
+            this.text = text;
+            this.records = records;
+        }
+    }
+
+    private RenderedSection render(Runnable renderer, boolean recording) {
+        ByteArrayOutputStream textBuffer = new ByteArrayOutputStream();
+        ByteArrayOutputStream recordsBuffer = new ByteArrayOutputStream();
+        PrintStream text = newUTF8PrintStream(textBuffer);
+        PrintStream records = recording ? newUTF8PrintStream(recordsBuffer) : null;
+
+        PrintStream previousText = sectionLog.get();
+        PrintStream previousRecords = sectionRecords.get();
+        sectionLog.set(text);
+        sectionRecords.set(records);
+        try {
+            renderer.run();
+        } finally {
+            sectionLog.set(previousText);
+            sectionRecords.set(previousRecords);
+        }
+        text.flush();
+        if (records != null) {
+            records.flush();
+        }
+        return new RenderedSection(new String(textBuffer.toByteArray(), StandardCharsets.UTF_8),
+                new String(recordsBuffer.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static PrintStream newUTF8PrintStream(OutputStream os) {
+        try {
+            return new PrintStream(os, false, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e); // should not happen, UTF-8 is always supported
+        }
+    }
+
+    private void writeRendered(PrintStream log, PrintStream records, Section section,
+                               Future<RenderedSection> rendered, long nanos) {
+        try {
+            RenderedSection r = rendered.get();
+            log.print(r.text);
+            if (records != null) {
+                records.print(r.records);
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        profiler.record(section.name, nanos);
     }
 
     private boolean shouldLogTypeEffectiveness() {
@@ -402,12 +678,19 @@ public class RandomizationLogger {
         String[] effSymbols = getBS("Log.te.effectivenessSymbols").split(",");
         String[] effNames = getBS("Log.te.effectivenessNames").split(",");
 
-        log.print(romHandler.getTypeTable().toBigString(effSymbols));
-        log.printf(getBS("Log.te.orientation"));
-        log.printf(getBS("Log.te.legend"), effSymbols[2], effNames[2]);
-        log.printf(getBS("Log.te.legend"), effSymbols[3], effNames[3]);
-        log.printf(getBS("Log.te.legend"), effSymbols[1], effNames[1]);
-        log.printf(getBS("Log.te.legend"), effSymbols[0], effNames[0]);
+        TypeTable typeTable = romHandler.getTypeTable();
+        log().print(typeTable.toBigString(effSymbols));
+        for (Type attacker : typeTable.getTypes()) {
+            record("typeEffectiveness", "attacker", attacker,
+                    "superEffective", typeTable.superEffectiveWhenAttacking(attacker),
+                    "notVeryEffective", typeTable.notVeryEffectiveWhenAttacking(attacker),
+                    "immune", typeTable.immuneWhenAttacking(attacker));
+        }
+        log().printf(getBS("Log.te.orientation"));
+        log().printf(getBS("Log.te.legend"), effSymbols[2], effNames[2]);
+        log().printf(getBS("Log.te.legend"), effSymbols[3], effNames[3]);
+        log().printf(getBS("Log.te.legend"), effSymbols[1], effNames[1]);
+        log().printf(getBS("Log.te.legend"), effSymbols[0], effNames[0]);
 
         printSectionSeparator();
     }
@@ -422,7 +705,7 @@ public class RandomizationLogger {
         int nameLen = getMaxSpeciesNameLength(allSpecies);
 
         // Table head
-        log.printf("%-" + nameLen + "s|%-" + nameLen + "s|%s%n",
+        log().printf("%-" + nameLen + "s|%-" + nameLen + "s|%s%n",
                 getBS("Log.pe.from"), getBS("Log.pe.to"), getBS("Log.pe.method"));
 
         // Table body
@@ -436,8 +719,9 @@ public class RandomizationLogger {
                 String from = i == 0 ? pk.getFullName() : "";
                 String to = evo.getTo().getFullName();
                 String method = evolutionMethodToString(evo);
-                log.printf("%-" + nameLen + "s|%-" + nameLen + "s|%s%n",
+                log().printf("%-" + nameLen + "s|%-" + nameLen + "s|%s%n",
                         from, to, method);
+                record("evolution", "from", pk.getFullName(), "to", to, "method", method);
             }
 
         }
@@ -451,21 +735,21 @@ public class RandomizationLogger {
     private void logEvolutionImprovements() {
         printSectionTitle("pei");
 
-        log.printf(getBS("Log.pei.listHead"));
+        log().printf(getBS("Log.pei.listHead"));
         if (settings.isChangeImpossibleEvolutions()) {
-            log.printf(getBS("Log.pei.listImpossible"));
+            log().printf(getBS("Log.pei.listImpossible"));
         }
         if (settings.isMakeEvolutionsEasier()) {
-            log.printf(getBS("Log.pei.listEasier"));
+            log().printf(getBS("Log.pei.listEasier"));
         }
         if (settings.isRemoveTimeBasedEvolutions()) {
-            log.printf(getBS("Log.pei.listTimeBased"));
+            log().printf(getBS("Log.pei.listTimeBased"));
         }
-        log.println();
+        log().println();
         if (settings.isMakeEvolutionsEasier() && romHandler.generationOfPokemon() != 1) {
-            log.printf(getBS("Log.pei.happiness"));
+            log().printf(getBS("Log.pei.happiness"));
         }
-        log.println();
+        log().println();
 
         TextTable table = new TextTable(4);
         table.addRow(Arrays.asList(
@@ -505,11 +789,19 @@ public class RandomizationLogger {
                     }
                 }
                 table.evenOut();
+                if (isRecording()) {
+                    record("evolutionImprovement", "from", entry.getKey().getFullName(),
+                            "to", toEntry.getKey().getFullName(),
+                            "oldMethods", oldEvos.stream().map(this::evolutionMethodToString)
+                                    .collect(Collectors.toList()),
+                            "newMethods", newEvos.stream().map(this::evolutionMethodToString)
+                                    .collect(Collectors.toList()));
+                }
             }
             table.evenOut();
         }
 
-        log.print(table);
+        table.print(log());
 
         printSectionSeparator();
     }
@@ -550,41 +842,60 @@ public class RandomizationLogger {
                 || encHeldItemRandomizer.isChangesMade());
     }
 
-    private void logSpeciesTraits() {
+    private Runnable prepareSpeciesTraits() {
+        List<Species> allSpecies = romHandler.getSpeciesInclFormes();
+        int abilityLen = getAbilityNameLength();
+        boolean gen1 = romHandler.generationOfPokemon() == 1;
+        int abilitiesPerSpecies = romHandler.abilitiesPerSpecies();
+        // the names of each species' abilities, with null for those which are the same as the first
+        Map<Species, List<String>> abilityNames = new HashMap<>();
+        for (Species pk : allSpecies) {
+            if (pk != null && !pk.isActuallyCosmetic()) {
+                List<String> names = new ArrayList<>();
+                int[] abilityNumbers = {pk.getAbility1(), pk.getAbility2(), pk.getAbility3()};
+                for (int i = 0; i < abilitiesPerSpecies; i++) {
+                    names.add(i != 0 && abilityNumbers[i] == abilityNumbers[0] ? null
+                            : romHandler.abilityName(abilityNumbers[i]));
+                }
+                abilityNames.put(pk, names);
+            }
+        }
+        return () -> logSpeciesTraits(allSpecies, abilityLen, gen1, abilityNames, abilitiesPerSpecies);
+    }
+
+    private void logSpeciesTraits(List<Species> allSpecies, int abilityLen, boolean gen1,
+                                  Map<Species, List<String>> abilityNames, int abilitiesPerSpecies) {
         // Log base stats, types, abilities, and wild held items
         printSectionTitle("psta");
 
-        List<Species> allSpecies = romHandler.getSpeciesInclFormes();
-
         // TODO: This puts the alt forms at the end. It would be nice to have them near their base forms.
 
         int numLen = Integer.toString(allSpecies.size()).length();
         int nameLen = getMaxSpeciesNameLength(allSpecies);
         int typeLen = TYPE_NAME_LEN * 2 + 1; // two types and a '/' between
-        int abilityLen = getAbilityNameLength();
 
         // Table head
-        log.printf("%" + numLen + "s", getBS("Log.psta.num"));
-        log.printf("|%-" + nameLen + "s", getBS("Log.psta.name"));
-        log.printf("|%-" + typeLen + "s", getBS("Log.psta.type"));
-        if (romHandler.generationOfPokemon() == 1) {
-            log.printf("|%4s|%4s|%4s|%4s|%4s",
+        log().printf("%" + numLen + "s", getBS("Log.psta.num"));
+        log().printf("|%-" + nameLen + "s", getBS("Log.psta.name"));
+        log().printf("|%-" + typeLen + "s", getBS("Log.psta.type"));
+        if (gen1) {
+            log().printf("|%4s|%4s|%4s|%4s|%4s",
                     getBS("Log.psta.hp"), getBS("Log.psta.attack"),
                     getBS("Log.psta.defense"), getBS("Log.psta.speed"),
                     getBS("Log.psta.special"));
         } else {
-            log.printf("|%4s|%4s|%4s|%4s|%4s|%4s",
+            log().printf("|%4s|%4s|%4s|%4s|%4s|%4s",
                     getBS("Log.psta.hp"), getBS("Log.psta.attack"),
                     getBS("Log.psta.defense"), getBS("Log.psta.spatk"),
                     getBS("Log.psta.spdef"), getBS("Log.psta.speed"));
         }
-        for (int i = 0; i < romHandler.abilitiesPerSpecies(); i++) {
-            log.printf("|%-" + abilityLen + "s", getBS("Log.psta.ability" + (i + 1)));
+        for (int i = 0; i < abilitiesPerSpecies; i++) {
+            log().printf("|%-" + abilityLen + "s", getBS("Log.psta.ability" + (i + 1)));
         }
-        if (romHandler.generationOfPokemon() != 1) {// i.e. wild pokes have held items
-            log.print("|" + getBS("Log.psta.item"));
+        if (!gen1) {// i.e. wild pokes have held items
+            log().print("|" + getBS("Log.psta.item"));
         }
-        log.println();
+        log().println();
 
         // Rows for each species
         for (Species pk : allSpecies) {
@@ -592,35 +903,28 @@ public class RandomizationLogger {
                 continue;
             }
 
-            log.printf("%" + numLen + "d", pk.getBaseNumber());
-            log.printf("|%-" + nameLen + "s", pk.getFullName());
-            log.printf("|%-" + typeLen + "s",
+            log().printf("%" + numLen + "d", pk.getBaseNumber());
+            log().printf("|%-" + nameLen + "s", pk.getFullName());
+            log().printf("|%-" + typeLen + "s",
                     pk.getPrimaryType(false)
                             + (pk.hasSecondaryType(false) ? "/" + pk.getSecondaryType(false) : ""));
-            if (romHandler.generationOfPokemon() == 1) {
-                log.printf("|%4d|%4d|%4d|%4d|%4d",
+            if (gen1) {
+                log().printf("|%4d|%4d|%4d|%4d|%4d",
                         pk.getHp(), pk.getAttack(),
                         pk.getDefense(), pk.getSpeed(),
                         pk.getSpecial());
             } else {
-                log.printf("|%4s|%4s|%4s|%4s|%4s|%4s",
+                log().printf("|%4s|%4s|%4s|%4s|%4s|%4s",
                         pk.getHp(), pk.getAttack(),
                         pk.getDefense(), pk.getSpatk(),
                         pk.getSpdef(), pk.getSpeed());
             }
-            if (romHandler.abilitiesPerSpecies() >= 1) {
-                log.printf("|%-" + abilityLen + "s", romHandler.abilityName(pk.getAbility1()));
+            List<String> abilities = abilityNames.get(pk);
+            for (String ability : abilities) {
+                log().printf("|%-" + abilityLen + "s", ability == null ? "--" : ability);
             }
-            if (romHandler.abilitiesPerSpecies() >= 2) {
-                log.printf("|%-" + abilityLen + "s",
-                        pk.getAbility2() == pk.getAbility1() ? "--" : romHandler.abilityName(pk.getAbility2()));
-            }
-            if (romHandler.abilitiesPerSpecies() >= 3) {
-                log.printf("|%-" + abilityLen + "s",
-                        pk.getAbility3() == pk.getAbility1() ? "--" : romHandler.abilityName(pk.getAbility3()));
-            }
-            if (romHandler.generationOfPokemon() != 1) {// i.e. wild pokes have held items
-                log.print("|");
+            if (!gen1) {// i.e. wild pokes have held items
+                log().print("|");
                 List<String> itemStrings = new ArrayList<>();
                 if (pk.getGuaranteedHeldItem() != null) {
                     itemStrings.add(pk.getGuaranteedHeldItem().getName() + getBS("Log.psta.itemGuaranteed"));
@@ -635,14 +939,45 @@ public class RandomizationLogger {
                         itemStrings.add(pk.getDarkGrassHeldItem().getName() + getBS("Log.psta.itemDarkGrass"));
                     }
                 }
-                log.print(String.join(", ", itemStrings));
+                log().print(String.join(", ", itemStrings));
+            }
+            log().println();
+            if (isRecording()) {
+                recordSpeciesTraits(pk, gen1, abilities);
             }
-            log.println();
         }
 
         printSectionSeparator();
     }
 
+    private void recordSpeciesTraits(Species pk, boolean gen1, List<String> abilities) {
+        List<Type> types = new ArrayList<>();
+        types.add(pk.getPrimaryType(false));
+        if (pk.hasSecondaryType(false)) {
+            types.add(pk.getSecondaryType(false));
+        }
+        Map<String, Integer> stats = new LinkedHashMap<>();
+        stats.put("hp", pk.getHp());
+        stats.put("attack", pk.getAttack());
+        stats.put("defense", pk.getDefense());
+        if (gen1) {
+            stats.put("special", pk.getSpecial());
+        } else {
+            stats.put("spatk", pk.getSpatk());
+            stats.put("spdef", pk.getSpdef());
+        }
+        stats.put("speed", pk.getSpeed());
+        Map<String, String> heldItems = new LinkedHashMap<>();
+        if (!gen1) {
+            heldItems.put("guaranteed", nameOf(pk.getGuaranteedHeldItem()));
+            heldItems.put("common", nameOf(pk.getCommonHeldItem()));
+            heldItems.put("rare", nameOf(pk.getRareHeldItem()));
+            heldItems.put("darkGrass", nameOf(pk.getDarkGrassHeldItem()));
+        }
+        record("species", "number", pk.getBaseNumber(), "name", pk.getFullName(), "types", types,
+                "stats", stats, "abilities", abilities, "heldItems", heldItems);
+    }
+
     private int getMaxSpeciesNameLength(Collection<Species> allSpecies) {
         return allSpecies.stream()
                 .filter(Objects::nonNull)
@@ -682,23 +1017,26 @@ public class RandomizationLogger {
             case RANDOM_WITH_TWO_EVOLUTIONS:
                 mode = getBS("Log.sp.random2Evolution");
         }
-        log.printf(getBS("Log.sp.mode"), mode);
+        log().printf(getBS("Log.sp.mode"), mode);
 
         List<Species> starters = romHandler.getStarters();
         List<Item> heldItems = romHandler.getStarterHeldItems();
 
         for (int i = 0; i < starters.size(); i++) {
             if (heldItems.size() == 1 && heldItems.get(0) != null) {
-                log.printf(getBS("Log.sp.setWithItem"), i + 1, starters.get(i).getFullName(),
+                log().printf(getBS("Log.sp.setWithItem"), i + 1, starters.get(i).getFullName(),
                         heldItems.get(0).getName());
             } else if (heldItems.size() == starters.size() && heldItems.get(i) != null) {
-                log.printf(getBS("Log.sp.setWithItem"), i + 1, starters.get(i).getFullName(),
+                log().printf(getBS("Log.sp.setWithItem"), i + 1, starters.get(i).getFullName(),
                         heldItems.get(i).getName());
             } else {
-                log.printf(getBS("Log.sp.setNoItem"), i + 1, starters.get(i).getFullName());
+                log().printf(getBS("Log.sp.setNoItem"), i + 1, starters.get(i).getFullName());
             }
+            Item heldItem = heldItems.size() == 1 ? heldItems.get(0)
+                    : heldItems.size() == starters.size() ? heldItems.get(i) : null;
+            record("starter", "slot", i + 1, "species", starters.get(i).getFullName(), "heldItem", nameOf(heldItem));
             if (!heldItems.isEmpty() && heldItems.size() != 1 && heldItems.size() != starters.size()) {
-                log.println("Something went weird with the held items. Please report this as a GitHub issue.");
+                log().println("Something went weird with the held items. Please report this as a GitHub issue.");
             }
         }
         printSectionSeparator();
@@ -737,9 +1075,12 @@ public class RandomizationLogger {
                 row.add(mv.category.toString());
             }
             table.addRow(row);
+            record("move", "number", mv.internalId, "name", mv.name, "moveType", mv.type, "power", mv.power,
+                    "accuracy", mv.hitratio, "pp", mv.pp,
+                    "category", romHandler.hasPhysicalSpecialSplit() ? mv.category : null);
         }
 
-        log.print(table);
+        table.print(log());
 
         printSectionSeparator();
     }
@@ -748,36 +1089,45 @@ public class RandomizationLogger {
         return speciesMovesetRandomizer.isChangesMade() || settings.getMovesetsMod() == Settings.MovesetsMod.METRONOME_ONLY;
     }
 
-    private void logMovesets() {
-        printSectionTitle("pms");
+    private Runnable prepareMovesets() {
         if (settings.getMovesetsMod() == Settings.MovesetsMod.METRONOME_ONLY) {
-            log.println("Metronome only mode - every Pokémon learns only Metronome.");
-            printSectionSeparator();
-            return;
+            return this::logMetronomeMovesets;
         }
-
         Map<Integer, List<MoveLearnt>> moveData = romHandler.getMovesLearnt();
         Map<Integer, List<Integer>> eggMoves = romHandler.getEggMoves();
         List<Move> moves = romHandler.getMoves();
-        for (Species pk : romHandler.getSpeciesInclFormes()) {
+        List<Species> allSpecies = romHandler.getSpeciesInclFormes();
+        return () -> logMovesets(moveData, eggMoves, moves, allSpecies);
+    }
+
+    private void logMetronomeMovesets() {
+        printSectionTitle("pms");
+        log().println("Metronome only mode - every Pokémon learns only Metronome.");
+        printSectionSeparator();
+    }
+
+    private void logMovesets(Map<Integer, List<MoveLearnt>> moveData, Map<Integer, List<Integer>> eggMoves,
+                             List<Move> moves, List<Species> allSpecies) {
+        printSectionTitle("pms");
+        for (Species pk : allSpecies) {
             if (pk == null || pk.isActuallyCosmetic()) {
                 continue;
             }
 
-            log.printf(String.format("%03d %s -> ", pk.getBaseNumber(), pk.getFullName()));
+            log().printf(String.format("%03d %s -> ", pk.getBaseNumber(), pk.getFullName()));
 
             SpeciesSet evos = pk.getEvolvedSpecies(false);
             if (evos.isEmpty()) {
-                log.println(" (no evolution)");
+                log().println(" (no evolution)");
             } else {
-                log.println(evos.stream().sorted().map(Species::getFullName).collect(Collectors.joining(", ")));
+                log().println(evos.stream().sorted().map(Species::getFullName).collect(Collectors.joining(", ")));
             }
 
             if (romHandler instanceof Gen1RomHandler) {
-                log.printf("  HP| ATK| DEF|SPEC| SPD %n%4d|%4d|%4d|%4d|%4d %n",
+                log().printf("  HP| ATK| DEF|SPEC| SPD %n%4d|%4d|%4d|%4d|%4d %n",
                         pk.getHp(), pk.getAttack(), pk.getDefense(), pk.getSpecial(), pk.getSpeed());
             } else {
-                log.printf("  HP| ATK| DEF|SATK|SDEF| SPD %n%4d|%4d|%4d|%4d|%4d|%4d %n",
+                log().printf("  HP| ATK| DEF|SATK|SDEF| SPD %n%4d|%4d|%4d|%4d|%4d|%4d %n",
                         pk.getHp(), pk.getAttack(), pk.getDefense(), pk.getSpatk(), pk.getSpdef(), pk.getSpeed());
             }
 
@@ -785,27 +1135,51 @@ public class RandomizationLogger {
             for (MoveLearnt ml : data) {
                 try {
                     if (ml.level == 0) {
-                        log.print("Learnt upon evolution: ");
+                        log().print("Learnt upon evolution: ");
                     } else {
-                        log.printf("Level %-2d: ", ml.level);
+                        log().printf("Level %-2d: ", ml.level);
                     }
-                    log.println(formatMovesetMove(moves.get(ml.move), pk));
+                    log().println(formatMovesetMove(moves.get(ml.move), pk));
                 } catch (NullPointerException ex) {
-                    log.printf("invalid move at level %-2d %n", ml.level);
+                    log().printf("invalid move at level %-2d %n", ml.level);
                 }
             }
             List<Integer> eggMove = eggMoves.get(pk.getNumber());
             if (eggMove != null && !eggMove.isEmpty()) {
-                log.println("Egg Moves:");
+                log().println("Egg Moves:");
                 for (Integer move : eggMove) {
-                    log.println(" - " + formatMovesetMove(moves.get(move), pk));
+                    log().println(" - " + formatMovesetMove(moves.get(move), pk));
                 }
             }
-            log.println();
+            log().println();
+            if (isRecording()) {
+                recordMoveset(pk, evos, data, eggMove, moves);
+            }
         }
         printSectionSeparator();
     }
 
+    private void recordMoveset(Species pk, SpeciesSet evos, List<MoveLearnt> data, List<Integer> eggMove,
+                               List<Move> moves) {
+        List<Map<String, Object>> levelUp = new ArrayList<>();
+        for (MoveLearnt ml : data) {
+            Map<String, Object> learnt = new LinkedHashMap<>();
+            learnt.put("level", ml.level);
+            Move mv = ml.move < moves.size() ? moves.get(ml.move) : null;
+            learnt.put("move", mv == null ? null : mv.name);
+            levelUp.add(learnt);
+        }
+        List<String> eggMoveNames = new ArrayList<>();
+        if (eggMove != null) {
+            for (Integer move : eggMove) {
+                eggMoveNames.add(moves.get(move).name);
+            }
+        }
+        record("moveset", "number", pk.getBaseNumber(), "species", pk.getFullName(),
+                "evolvesTo", evos.stream().sorted().map(Species::getFullName).collect(Collectors.toList()),
+                "levelUp", levelUp, "eggMoves", eggMoveNames);
+    }
+
     private String formatMovesetMove(Move mv, Species learner) {
         StringBuilder sb = new StringBuilder();
         sb.append(String.format("%-12s| %-8s | %-8s | POW=%3s | PP=%2d | ACC=%3.0f%%",
@@ -826,12 +1200,13 @@ public class RandomizationLogger {
         printSectionTitle("tm");
 
         if (settings.getMovesetsMod() == Settings.MovesetsMod.METRONOME_ONLY) {
-            log.printf(getBS("Log.tm.metronomeMode"));
+            log().printf(getBS("Log.tm.metronomeMode"));
         } else {
             List<Integer> tmMoves = romHandler.getTMMoves();
             List<Move> moves = romHandler.getMoves();
             for (int i = 0; i < tmMoves.size(); i++) {
-                log.printf("TM%02d %s%n", i + 1, moves.get(tmMoves.get(i)).name);
+                log().printf("TM%02d %s%n", i + 1, moves.get(tmMoves.get(i)).name);
+                record("tm", "number", i + 1, "move", moves.get(tmMoves.get(i)).name);
             }
         }
         printSectionSeparator();
@@ -841,18 +1216,30 @@ public class RandomizationLogger {
         return tmhmtCompRandomizer.isTMHMChangesMade();
     }
 
-    private void logTMHMCompatibility() {
+    private Runnable prepareTMHMCompatibility() {
+        Settings.TMsHMsCompatibilityMod mod = settings.getTmsHmsCompatibilityMod();
+        if (mod == Settings.TMsHMsCompatibilityMod.FULL || mod == Settings.TMsHMsCompatibilityMod.UNCHANGED) {
+            return () -> logTMHMCompatibility(null, null, 0);
+        }
+        Map<Species, boolean[]> compat = romHandler.getTMHMCompatibility();
+        List<Move> tmHMs = getTMHMs();
+        int tmCount = romHandler.getTMCount();
+        return () -> logTMHMCompatibility(compat, tmHMs, tmCount);
+    }
+
+    /**
+     * @param compat Null if the compatibility is full or unchanged, and thus not listed.
+     */
+    private void logTMHMCompatibility(Map<Species, boolean[]> compat, List<Move> tmHMs, int tmCount) {
         printSectionTitle("tmc");
         if (settings.isFullHMCompat()) {
-            log.printf(getBS("Log.tmc.fullHM"));
+            log().printf(getBS("Log.tmc.fullHM"));
         }
         if (settings.getTmsHmsCompatibilityMod() == Settings.TMsHMsCompatibilityMod.FULL) {
-            log.printf(getBS("Log.tmc.full"));
-        } else if (settings.getTmsHmsCompatibilityMod() != Settings.TMsHMsCompatibilityMod.UNCHANGED) {
-            Map<Species, boolean[]> compat = romHandler.getTMHMCompatibility();
-            List<Move> tmHMs = getTMHMs();
-
-            logCompatibility(compat, tmHMs, getBS("Log.tmc.byTMHM"), this::logCompTMHM);
+            log().printf(getBS("Log.tmc.full"));
+        } else if (compat != null) {
+            logCompatibility(compat, tmHMs, getBS("Log.tmc.byTMHM"), (i, moves) -> logCompTMHM(i, moves, tmCount),
+                    "tmhmCompatibility");
         }
 
         printSectionSeparator();
@@ -872,30 +1259,34 @@ public class RandomizationLogger {
     }
 
     private void logCompatibility(Map<Species, boolean[]> compat, List<Move> moves,
-                                  String byMoveString, BiConsumer<Integer, List<Move>> logCompMoveFun) {
-        log.printf(getBS("Log.tmc.bySpecies"));
+                                  String byMoveString, BiConsumer<Integer, List<Move>> logCompMoveFun,
+                                  String recordType) {
+        log().printf(getBS("Log.tmc.bySpecies"));
         for (Map.Entry<Species, boolean[]> entry : compat.entrySet()) {
 
             logCompSpecies(entry.getKey());
 
             int j = 0;
+            List<String> compatibleMoves = new ArrayList<>();
             for (int i = 0; i < moves.size(); i++) {
                 if (entry.getValue()[i + 1]) {
+                    compatibleMoves.add(moves.get(i).name);
                     if (j != 0) {
-                        log.print(", ");
+                        log().print(", ");
                     }
                     if (j % TM_COMP_ROW_WIDTH == 0) {
-                        log.printf("%n\t");
+                        log().printf("%n\t");
                     }
                     logCompMoveFun.accept(i, moves);
                     j++;
                 }
             }
-            log.println();
+            log().println();
+            record(recordType, "species", entry.getKey().getFullName(), "moves", compatibleMoves);
         }
 
-        log.println();
-        log.printf(byMoveString);
+        log().println();
+        log().printf(byMoveString);
         for (int i = 0; i < moves.size(); i++) {
 
             logCompMoveFun.accept(i, moves);
@@ -904,34 +1295,33 @@ public class RandomizationLogger {
             for (Map.Entry<Species, boolean[]> entry : compat.entrySet()) {
                 if (entry.getValue()[i + 1]) {
                     if (j != 0) {
-                        log.print(", ");
+                        log().print(", ");
                     }
                     if (j % TM_COMP_ROW_WIDTH == 0) {
-                        log.printf("%n\t");
+                        log().printf("%n\t");
                     }
                     logCompSpecies(entry.getKey());
                     j++;
                 }
             }
-            log.println();
+            log().println();
         }
     }
 
     private void logCompSpecies(Species pk) {
-        log.printf("#%03d %s", pk.getBaseNumber(), pk.getFullName());
+        log().printf("#%03d %s", pk.getBaseNumber(), pk.getFullName());
     }
 
-    private void logCompTMHM(int i, List<Move> tmHMs) {
-        int tmCount = romHandler.getTMCount();
+    private void logCompTMHM(int i, List<Move> tmHMs, int tmCount) {
         if (i < tmCount) {
-            log.printf(getBS("Log.tmc.tm"), i + 1, tmHMs.get(i).name);
+            log().printf(getBS("Log.tmc.tm"), i + 1, tmHMs.get(i).name);
         } else {
-            log.printf(getBS("Log.tmc.hm"), i + 1 - tmCount, tmHMs.get(i).name);
+            log().printf(getBS("Log.tmc.hm"), i + 1 - tmCount, tmHMs.get(i).name);
         }
     }
 
     private void logCompTutorMove(int i, List<Move> tutorMoves) {
-        log.print(tutorMoves.get(i).name);
+        log().print(tutorMoves.get(i).name);
     }
 
     private boolean shouldLogMoveTutorMoves() {
@@ -943,13 +1333,15 @@ public class RandomizationLogger {
         printSectionTitle("mt");
 
         if (settings.getMovesetsMod() == Settings.MovesetsMod.METRONOME_ONLY) {
-            log.printf(getBS("Log.mt.metronomeMode"));
+            log().printf(getBS("Log.mt.metronomeMode"));
         } else {
             List<Integer> newMtMoves = romHandler.getMoveTutorMoves();
             List<Move> moves = romHandler.getMoves();
             for (int i = 0; i < newMtMoves.size(); i++) {
-                log.printf("%-10s -> %-10s%n", moves.get(oldMtMoves.get(i)).name,
+                log().printf("%-10s -> %-10s%n", moves.get(oldMtMoves.get(i)).name,
                         moves.get(newMtMoves.get(i)).name);
+                record("moveTutor", "number", i + 1, "before", moves.get(oldMtMoves.get(i)).name,
+                        "after", moves.get(newMtMoves.get(i)).name);
             }
         }
         printSectionSeparator();
@@ -959,18 +1351,28 @@ public class RandomizationLogger {
         return romHandler.hasMoveTutors() && tmhmtCompRandomizer.isTutorChangesMade();
     }
 
-    private void logMoveTutorCompatibility() {
-        printSectionTitle("mtc");
+    private Runnable prepareMoveTutorCompatibility() {
         if (settings.getMoveTutorsCompatibilityMod() == Settings.MoveTutorsCompatibilityMod.FULL) {
-            log.printf(getBS("Log.mtc.full"));
-        } else {
-            Map<Species, boolean[]> compat = romHandler.getMoveTutorCompatibility();
-            List<Move> moveData = romHandler.getMoves();
-            List<Move> tutorMoves = romHandler.getMoveTutorMoves()
-                    .stream().map(moveData::get)
-                    .collect(Collectors.toList());
+            return () -> logMoveTutorCompatibility(null, null);
+        }
+        Map<Species, boolean[]> compat = romHandler.getMoveTutorCompatibility();
+        List<Move> moveData = romHandler.getMoves();
+        List<Move> tutorMoves = romHandler.getMoveTutorMoves()
+                .stream().map(moveData::get)
+                .collect(Collectors.toList());
+        return () -> logMoveTutorCompatibility(compat, tutorMoves);
+    }
 
-            logCompatibility(compat, tutorMoves, getBS("Log.mtc.byTutorMove"), this::logCompTutorMove);
+    /**
+     * @param compat Null if the compatibility is full, and thus not listed.
+     */
+    private void logMoveTutorCompatibility(Map<Species, boolean[]> compat, List<Move> tutorMoves) {
+        printSectionTitle("mtc");
+        if (compat == null) {
+            log().printf(getBS("Log.mtc.full"));
+        } else {
+            logCompatibility(compat, tutorMoves, getBS("Log.mtc.byTutorMove"), this::logCompTutorMove,
+                    "tutorCompatibility");
         }
         printSectionSeparator();
     }
@@ -980,12 +1382,27 @@ public class RandomizationLogger {
                 || trainerNameRandomizer.isChangesMade();
     }
 
-    private void logTrainers(List<String> originalTrainerNames) {
-        printSectionTitle("tp");
+    private Runnable prepareTrainers(List<String> originalTrainerNames) {
         List<Trainer> trainers = romHandler.getTrainers();
+        List<Move> moves = romHandler.getMoves();
+        // the ability of each trainer Pokemon, only logged along with its moves
+        Map<TrainerPokemon, String> abilityNames = new IdentityHashMap<>();
+        if (trainerMovesetRandomizer.isChangesMade()) {
+            for (Trainer t : trainers) {
+                for (TrainerPokemon tpk : t.pokemon) {
+                    abilityNames.put(tpk, romHandler.abilityName(romHandler.getAbilityForTrainerPokemon(tpk)));
+                }
+            }
+        }
+        return () -> logTrainers(originalTrainerNames, trainers, moves, abilityNames);
+    }
+
+    private void logTrainers(List<String> originalTrainerNames, List<Trainer> trainers, List<Move> moves,
+                             Map<TrainerPokemon, String> abilityNames) {
+        printSectionTitle("tp");
         String[] battleStyleNames = getBS("Log.tp.battleStyleNames").split(",");
         for (Trainer t : trainers) {
-            log.print("#" + t.index + " ");
+            log().print("#" + t.index + " ");
             String originalTrainerName = originalTrainerNames.get(t.index);
             String currentTrainerName = "";
             if (t.fullDisplayName != null) {
@@ -995,54 +1412,81 @@ public class RandomizationLogger {
             }
             if (!currentTrainerName.isEmpty()) {
                 if (trainerNameRandomizer.isChangesMade()) {
-                    log.printf("(%s => %s)", originalTrainerName, currentTrainerName);
+                    log().printf("(%s => %s)", originalTrainerName, currentTrainerName);
                 } else {
-                    log.printf("(%s)", currentTrainerName);
+                    log().printf("(%s)", currentTrainerName);
                 }
             }
             if (t.offset != 0) {
-                log.printf("@%X", t.offset);
+                log().printf("@%X", t.offset);
             }
 
             if (trainerMovesetRandomizer.isChangesMade()) {
-                log.println();
+                log().println();
                 for (TrainerPokemon tpk : t.pokemon) {
-                    List<Move> moves = romHandler.getMoves();
-                    log.print(tpk.toString());
-                    log.print(", " + getBS("Log.tp.ability") + ": "
-                            + romHandler.abilityName(romHandler.getAbilityForTrainerPokemon(tpk)));
-                    log.print(" - ");
+                    log().print(tpk.toString());
+                    log().print(", " + getBS("Log.tp.ability") + ": " + abilityNames.get(tpk));
+                    log().print(" - ");
                     boolean first = true;
                     for (int move : tpk.getMoves()) {
                         if (move != 0) {
                             if (!first) {
-                                log.print(", ");
+                                log().print(", ");
                             }
-                            log.print(moves.get(move).name);
+                            log().print(moves.get(move).name);
                             first = false;
                         }
                     }
-                    log.println();
+                    log().println();
                 }
             } else {
-                log.print(" - ");
+                log().print(" - ");
                 boolean first = true;
                 for (TrainerPokemon tpk : t.pokemon) {
                     if (!first) {
-                        log.print(", ");
+                        log().print(", ");
                     }
-                    log.print(tpk.toString());
+                    log().print(tpk.toString());
                     first = false;
                 }
             }
             if (settings.getBattleStyle().isBattleStyleChanged()) {
-                log.printf(" (Battle Style: %s)", battleStyleNames[t.currBattleStyle.getStyle().ordinal()]);
+                log().printf(" (Battle Style: %s)", battleStyleNames[t.currBattleStyle.getStyle().ordinal()]);
+            }
+            log().println();
+            if (isRecording()) {
+                recordTrainer(t, originalTrainerName, currentTrainerName, moves, abilityNames);
             }
-            log.println();
         }
         printSectionSeparator();
     }
 
+    private void recordTrainer(Trainer t, String originalName, String name, List<Move> moves,
+                               Map<TrainerPokemon, String> abilityNames) {
+        List<Map<String, Object>> pokemon = new ArrayList<>();
+        for (TrainerPokemon tpk : t.pokemon) {
+            Map<String, Object> tp = new LinkedHashMap<>();
+            tp.put("species", nameOf(tpk.getSpecies()));
+            tp.put("level", tpk.getLevel());
+            tp.put("heldItem", nameOf(tpk.getHeldItem()));
+            if (trainerMovesetRandomizer.isChangesMade()) {
+                tp.put("ability", abilityNames.get(tpk));
+                List<String> moveNames = new ArrayList<>();
+                for (int move : tpk.getMoves()) {
+                    if (move != 0) {
+                        moveNames.add(moves.get(move).name);
+                    }
+                }
+                tp.put("moves", moveNames);
+            }
+            pokemon.add(tp);
+        }
+        record("trainer", "index", t.index, "name", name, "originalName", originalName, "offset", t.offset,
+                "battleStyle", settings.getBattleStyle().isBattleStyleChanged()
+                        ? t.currBattleStyle.getStyle().toString() : null,
+                "pokemon", pokemon);
+    }
+
     private boolean shouldLogStaticPokemon() {
         return romHandler.canChangeStaticPokemon() && staticPokeRandomizer.isStaticChangesMade();
     }
@@ -1056,15 +1500,16 @@ public class RandomizationLogger {
             StaticEncounter oldP = oldStatics.get(i);
             StaticEncounter newP = newStatics.get(i);
             String oldStaticString = oldP.toString(settings.isStaticLevelModified());
-            log.print(oldStaticString);
+            log().print(oldStaticString);
             if (seenPokemon.containsKey(oldStaticString)) {
                 int amount = seenPokemon.get(oldStaticString);
-                log.print("(" + (++amount) + ")");
+                log().print("(" + (++amount) + ")");
                 seenPokemon.put(oldStaticString, amount);
             } else {
                 seenPokemon.put(oldStaticString, 1);
             }
-            log.println(" => " + newP.toString(settings.isStaticLevelModified()));
+            log().println(" => " + newP.toString(settings.isStaticLevelModified()));
+            record("staticPokemon", "old", oldStaticString, "new", newP.toString(settings.isStaticLevelModified()));
         }
         printSectionSeparator();
     }
@@ -1080,8 +1525,9 @@ public class RandomizationLogger {
         for (int i = 0; i < oldTotems.size(); i++) {
             TotemPokemon oldP = oldTotems.get(i);
             TotemPokemon newP = newTotems.get(i);
-            log.println(oldP.getSpecies().getFullName() + " =>");
-            log.print(newP.toString());
+            log().println(oldP.getSpecies().getFullName() + " =>");
+            log().print(newP.toString());
+            record("totemPokemon", "old", oldP.getSpecies().getFullName(), "new", newP.toString());
         }
         printSectionSeparator();
     }
@@ -1090,12 +1536,15 @@ public class RandomizationLogger {
         return wildEncounterRandomizer.isChangesMade();
     }
 
-    private void logWildPokemon() {
-        printSectionTitle("wp");
-
+    private Runnable prepareWildPokemon() {
         boolean useTimeBasedEncounters = settings.isUseTimeBasedEncounters() ||
                 (!settings.isRandomizeWildPokemon() && settings.isWildLevelsModified());
         List<EncounterArea> encounterAreas = romHandler.getSortedEncounters(useTimeBasedEncounters);
+        return () -> logWildPokemon(encounterAreas);
+    }
+
+    private void logWildPokemon(List<EncounterArea> encounterAreas) {
+        printSectionTitle("wp");
 
         int i = 0;
         for (EncounterArea area : encounterAreas) {
@@ -1106,22 +1555,33 @@ public class RandomizationLogger {
             i++;
 
             if (area.getDisplayName() == null) {
-                log.printf(getBS("Log.wp.areaNoDisplayName"), i, area.getRate());
+                log().printf(getBS("Log.wp.areaNoDisplayName"), i, area.getRate());
             } else {
-                log.printf(getBS("Log.wp.areaWithDisplayName"), i, area.getDisplayName(), area.getRate());
+                log().printf(getBS("Log.wp.areaWithDisplayName"), i, area.getDisplayName(), area.getRate());
             }
+            List<Map<String, Object>> encounters = isRecording() ? new ArrayList<>() : null;
             for (Encounter e : area) {
                 if (e.isSOS()) {
-                    log.printf(getBS("Log.wp.sos"), getSOSString(e));
+                    log().printf(getBS("Log.wp.sos"), getSOSString(e));
                 }
                 if (e.getMaxLevel() > 0 && e.getMaxLevel() != e.getLevel()) {
-                    log.printf(getBS("Log.wp.encMultiLevel"), e.getSpecies().getFullName(),
+                    log().printf(getBS("Log.wp.encMultiLevel"), e.getSpecies().getFullName(),
                             e.getLevel(), e.getMaxLevel());
                 } else {
-                    log.printf(getBS("Log.wp.encSingleLevel"), e.getSpecies().getFullName(), e.getLevel());
+                    log().printf(getBS("Log.wp.encSingleLevel"), e.getSpecies().getFullName(), e.getLevel());
+                }
+                if (encounters != null) {
+                    Map<String, Object> encounter = new LinkedHashMap<>();
+                    encounter.put("species", e.getSpecies().getFullName());
+                    encounter.put("level", e.getLevel());
+                    encounter.put("maxLevel", Math.max(e.getLevel(), e.getMaxLevel()));
+                    encounter.put("sos", e.isSOS() ? e.getSosType().toString() : null);
+                    encounters.add(encounter);
                 }
             }
-            log.println();
+            log().println();
+            record("encounterArea", "number", i, "name", area.getDisplayName(), "rate", area.getRate(),
+                    "encounterType", area.getEncounterType(), "encounters", encounters);
         }
         printSectionSeparator();
     }
@@ -1163,8 +1623,12 @@ public class RandomizationLogger {
                     newT.getRequestedSpecies() == null ? getBS("Log.igt.any") : newT.getRequestedSpecies().getFullName(),
                     newT.getGivenSpecies().getFullName(), newT.getNickname()
             );
+            record("inGameTrade", "oldRequested", nameOf(oldT.getRequestedSpecies()),
+                    "oldGiven", oldT.getGivenSpecies().getFullName(), "oldNickname", oldT.getNickname(),
+                    "newRequested", nameOf(newT.getRequestedSpecies()),
+                    "newGiven", newT.getGivenSpecies().getFullName(), "newNickname", newT.getNickname());
         }
-        log.print(table);
+        table.print(log());
 
         printSectionSeparator();
     }
@@ -1176,24 +1640,28 @@ public class RandomizationLogger {
     private void logShopItems() {
         printSectionTitle("sh");
         if (settings.isAddCheapRareCandiesToShops()) {
-            log.printf(getBS("Log.sh.addedRareCandies"));
+            log().printf(getBS("Log.sh.addedRareCandies"));
         }
         if (settings.getShopItemsMod() != Settings.ShopItemsMod.UNCHANGED) {
-            log.printf(getBS("Log.sh.specialShops"));
+            log().printf(getBS("Log.sh.specialShops"));
             List<Shop> shops = romHandler.getShops();
             for (Shop shop : shops) {
                 if (!shop.isSpecialShop()) {
                     continue;
                 }
-                log.printf("%s", shop.getName());
-                log.println();
+                log().printf("%s", shop.getName());
+                log().println();
                 List<Item> shopItems = shop.getItems();
                 for (Item shopItem : shopItems) {
-                    log.printf("- %5s", shopItem.getName());
-                    log.println();
+                    log().printf("- %5s", shopItem.getName());
+                    log().println();
+                }
+                if (isRecording()) {
+                    record("shop", "name", shop.getName(),
+                            "items", shopItems.stream().map(RandomizationLogger::nameOf).collect(Collectors.toList()));
                 }
 
-                log.println();
+                log().println();
             }
         }
         printSectionSeparator();
@@ -1206,10 +1674,19 @@ public class RandomizationLogger {
     private void logPickupItems() {
         printSectionTitle("pu");
         List<PickupItem> pickupItems = romHandler.getPickupItems();
+        if (isRecording()) {
+            for (PickupItem pickupItem : pickupItems) {
+                List<Integer> probabilities = new ArrayList<>();
+                for (int probability : pickupItem.getProbabilities()) {
+                    probabilities.add(probability);
+                }
+                record("pickupItem", "item", nameOf(pickupItem.getItem()), "probabilities", probabilities);
+            }
+        }
         for (int levelRange = 0; levelRange < 10; levelRange++) {
             int startingLevel = (levelRange * 10) + 1;
             int endingLevel = (levelRange + 1) * 10;
-            log.printf(getBS("Log.pu.level"), startingLevel, endingLevel);
+            log().printf(getBS("Log.pu.level"), startingLevel, endingLevel);
             TreeMap<Integer, List<String>> itemListPerProbability = new TreeMap<>();
             for (PickupItem pickupItem : pickupItems) {
                 int probability = pickupItem.getProbabilities()[levelRange];
@@ -1225,10 +1702,10 @@ public class RandomizationLogger {
                 int probability = itemListPerProbabilityEntry.getKey();
                 List<String> itemList = itemListPerProbabilityEntry.getValue();
                 String itemsString = String.join(", ", itemList);
-                log.printf("%d%%: %s", probability, itemsString);
-                log.println();
+                log().printf("%d%%: %s", probability, itemsString);
+                log().println();
             }
-            log.println();
+            log().println();
         }
         printSectionSeparator();
     }
@@ -1239,30 +1716,32 @@ public class RandomizationLogger {
 
     private void logMoveUpdates() {
         printSectionTitle("mu");
-        log.printf(getBS("Log.mu.description"), settings.getUpdateMovesToGeneration());
+        log().printf(getBS("Log.mu.description"), settings.getUpdateMovesToGeneration());
 
         Map<Move, Map<MoveUpdateType, Update<Object>>> updates = moveUpdater.getUpdates();
         for (Map.Entry<Move, Map<MoveUpdateType, Update<Object>>> outer : updates.entrySet()) {
-            log.println(outer.getKey().name + ":");
+            log().println(outer.getKey().name + ":");
             for (Map.Entry<MoveUpdateType, Update<Object>> inner : outer.getValue().entrySet()) {
 
-                log.printf("\t%-8s: ", inner.getKey());
+                log().printf("\t%-8s: ", inner.getKey());
+                record("moveUpdate", "move", outer.getKey().name, "field", inner.getKey(),
+                        "before", inner.getValue().getBefore(), "after", inner.getValue().getAfter());
                 switch (inner.getKey()) {
                     case POWER:
                     case PP:
-                        log.printf("%4d -> %4d%n",
+                        log().printf("%4d -> %4d%n",
                                 (Integer) inner.getValue().getBefore(),
                                 (Integer) inner.getValue().getAfter());
                         break;
                     case ACCURACY:
-                        log.printf("%3.0f%% -> %3.0f%%%n",
+                        log().printf("%3.0f%% -> %3.0f%%%n",
                                 (Double) inner.getValue().getBefore(),
                                 (Double) inner.getValue().getAfter());
                         break;
                     case TYPE:
                     case CATEGORY:
                         Object before = inner.getValue().getBefore() == null ? "???" : inner.getValue().getBefore();
-                        log.printf(" %s -> %s%n", before, inner.getValue().getAfter());
+                        log().printf(" %s -> %s%n", before, inner.getValue().getAfter());
                         break;
                 }
             }
@@ -1276,15 +1755,17 @@ public class RandomizationLogger {
 
     private void logBaseStatsUpdates() {
         printSectionTitle("bsu");
-        log.printf(getBS("Log.bsu.description"), settings.getUpdateBaseStatsToGeneration());
+        log().printf(getBS("Log.bsu.description"), settings.getUpdateBaseStatsToGeneration());
 
         Map<Species, Map<BSUpdateType, Update<Integer>>> updates = speciesBSUpdater.getUpdates();
         for (Map.Entry<Species, Map<BSUpdateType, Update<Integer>>> outer : updates.entrySet()) {
-            log.println(outer.getKey().getFullName() + ":");
+            log().println(outer.getKey().getFullName() + ":");
             for (Map.Entry<BSUpdateType, Update<Integer>> inner : outer.getValue().entrySet()) {
-                log.printf("\t%-7s: %3d -> %3d%n",
+                log().printf("\t%-7s: %3d -> %3d%n",
                         inner.getKey(),
                         inner.getValue().getBefore(), inner.getValue().getAfter());
+                record("baseStatUpdate", "species", outer.getKey().getFullName(), "stat", inner.getKey(),
+                        "before", inner.getValue().getBefore(), "after", inner.getValue().getAfter());
             }
         }
         printSectionSeparator();
@@ -1296,18 +1777,20 @@ public class RandomizationLogger {
 
     private void logTypeEffectivenessUpdates() {
         printSectionTitle("teu");
-        log.printf(getBS("Log.teu.description"), romHandler.generationOfPokemon() == 1 ? 2 : 6);
+        log().printf(getBS("Log.teu.description"), romHandler.generationOfPokemon() == 1 ? 2 : 6);
 
         String[] effNames = getBS("Log.te.effectivenessNames").split(",");
 
         Map<Type, Map<Type, Update<Effectiveness>>> updates = typeEffUpdater.getUpdates();
         for (Map.Entry<Type, Map<Type, Update<Effectiveness>>> outer : updates.entrySet()) {
-            log.printf(getBS("Log.teu.against"), outer.getKey());
+            log().printf(getBS("Log.teu.against"), outer.getKey());
             for (Map.Entry<Type, Update<Effectiveness>> inner : outer.getValue().entrySet()) {
-                log.printf("\t%-8s:   %-18s -> %-18s%n",
+                log().printf("\t%-8s:   %-18s -> %-18s%n",
                         inner.getKey(),
                         effNames[inner.getValue().getBefore().ordinal()],
                         effNames[inner.getValue().getAfter().ordinal()]);
+                record("typeEffectivenessUpdate", "attacker", outer.getKey(), "defender", inner.getKey(),
+                        "before", inner.getValue().getBefore(), "after", inner.getValue().getAfter());
             }
         }
         printSectionSeparator();
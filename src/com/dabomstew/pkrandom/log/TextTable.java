@@ -1,5 +1,6 @@
 package com.dabomstew.pkrandom.log;
 
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -7,7 +8,7 @@ import java.util.stream.Collectors;
 
 /**
  * Represents a table made out of text characters.<br>
- * To print it, use its {@link #toString()} method.
+ * To print it, use its {@link #print(PrintStream)} method, or its {@link #toString()} method.
  */
 public class TextTable {
 
@@ -33,9 +34,12 @@ public class TextTable {
     private final int columns;
     private final List<List<Cell>> data = new ArrayList<>();
     private final List<Alignment> colAlignments;
+    // the first row with a null cell in each column, i.e. where addCell() puts the next cell
+    private final int[] nextCellRows;
 
     public TextTable(int columns) {
         this.columns = columns;
+        nextCellRows = new int[columns];
         colAlignments = new ArrayList<>(columns);
         for (int col = 0; col < columns; col++) {
             colAlignments.add(Alignment.LEFT);
@@ -52,6 +56,7 @@ public class TextTable {
             cellRow.add(new Cell(row.get(col), colAlignments.get(col)));
         }
         data.add(cellRow);
+        Arrays.fill(nextCellRows, data.size());
     }
 
     public void addRow(String... row) {
@@ -62,10 +67,7 @@ public class TextTable {
      * Adds a cell to the bottom of column col.
      */
     public void addCell(int col, String cell) {
-        int row = 0;
-        while (row < data.size() && data.get(row).get(col) != NULL_CELL) {
-            row++;
-        }
+        int row = nextCellRows[col]++;
         if (row == data.size()) {
             Cell[] arr = new Cell[columns];
             Arrays.fill(arr, NULL_CELL);
@@ -85,6 +87,7 @@ public class TextTable {
                 }
             }
         }
+        Arrays.fill(nextCellRows, data.size());
     }
 
     /**
@@ -96,29 +99,60 @@ public class TextTable {
         }
     }
 
+    /**
+     * Prints the table row by row, without building it as a whole String first.
+     */
+    public void print(PrintStream ps) {
+        int[] colLengths = getColumnLengths();
+        StringBuilder sb = new StringBuilder();
+        for (List<Cell> row : data) {
+            sb.setLength(0);
+            appendRow(sb, row, colLengths);
+            ps.print(sb);
+        }
+    }
+
     @Override
     public String toString() {
-        int[] colLengths = new int[columns];
-        for (int col = 0; col < columns; col++) {
-            int max = 0;
-            for (List<Cell> row : data) {
-                max = Math.max(max, row.get(col).s.length());
-            }
-            colLengths[col] = max;
+        int[] colLengths = getColumnLengths();
+        StringBuilder sb = new StringBuilder();
+        for (List<Cell> row : data) {
+            appendRow(sb, row, colLengths);
         }
+        return sb.toString();
+    }
 
-        StringBuilder sb = new StringBuilder();
+    private int[] getColumnLengths() {
+        int[] colLengths = new int[columns];
         for (List<Cell> row : data) {
             for (int col = 0; col < columns; col++) {
-                Cell c = row.get(col);
-                String fString = "%" + (c.a == Alignment.LEFT ? "-" : "") + colLengths[col] + "s";
-                sb.append(String.format(fString, row.get(col).s));
-                if (col != columns - 1) {
-                    sb.append(COLUMN_SEPARATOR);
-                }
+                colLengths[col] = Math.max(colLengths[col], row.get(col).s.length());
             }
-            sb.append(System.lineSeparator());
         }
-        return sb.toString();
+        return colLengths;
+    }
+
+    private void appendRow(StringBuilder sb, List<Cell> row, int[] colLengths) {
+        for (int col = 0; col < columns; col++) {
+            Cell c = row.get(col);
+            int padding = colLengths[col] - c.s.length();
+            if (c.a == Alignment.RIGHT) {
+                appendSpaces(sb, padding);
+            }
+            sb.append(c.s);
+            if (c.a == Alignment.LEFT) {
+                appendSpaces(sb, padding);
+            }
+            if (col != columns - 1) {
+                sb.append(COLUMN_SEPARATOR);
+            }
+        }
+        sb.append(System.lineSeparator());
+    }
+
+    private static void appendSpaces(StringBuilder sb, int count) {
+        for (int i = 0; i < count; i++) {
+            sb.append(' ');
+        }
     }
 }
@@ -0,0 +1,76 @@
+package com.dabomstew.pkrandom.random;
+
+import java.util.Random;
+
+/**
+ * Picks indices with probabilities proportional to their weights, using Walker's alias method.
+ * Setting it up takes time linear in the number of weights, and then each pick takes constant time,
+ * using one {@link Random#nextInt(int)} and one {@link Random#nextDouble()}.
+ */
+public class AliasSampler {
+
+    private final double[] probability;
+    private final int[] alias;
+
+    /**
+     * @param weights The weights; only the first count are used. Must not be negative, and not all zero.
+     * @param count The number of weights to pick from.
+     */
+    public AliasSampler(double[] weights, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Can't pick from no weights.");
+        }
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            if (weights[i] < 0) {
+                throw new IllegalArgumentException("Weights must not be negative.");
+            }
+            total += weights[i];
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Weights must not all be zero.");
+        }
+
+        probability = new double[count];
+        alias = new int[count];
+        // the weights scaled so their average is 1; those below 1 are "small", the rest "large"
+        double[] scaled = new double[count];
+        int[] small = new int[count];
+        int[] large = new int[count];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < count; i++) {
+            scaled[i] = weights[i] * count / total;
+            if (scaled[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        // each small index gets topped up to 1 by a large one, which is its alias
+        while (smallCount > 0 && largeCount > 0) {
+            int s = small[--smallCount];
+            int l = large[largeCount - 1];
+            probability[s] = scaled[s];
+            alias[s] = l;
+            scaled[l] -= 1 - scaled[s];
+            if (scaled[l] < 1) {
+                largeCount--;
+                small[smallCount++] = l;
+            }
+        }
+        // what is left is 1, give or take rounding errors
+        while (largeCount > 0) {
+            probability[large[--largeCount]] = 1;
+        }
+        while (smallCount > 0) {
+            probability[small[--smallCount]] = 1;
+        }
+    }
+
+    public int sample(Random random) {
+        int i = random.nextInt(probability.length);
+        return random.nextDouble() < probability[i] ? i : alias[i];
+    }
+
+}
@@ -4,6 +4,7 @@ import com.dabomstew.pkrandom.Settings;
 import com.dabomstew.pkrandom.exceptions.RandomizationException;
 import com.dabomstew.pkromio.constants.SpeciesIDs;
 import com.dabomstew.pkromio.gamedata.Evolution;
+import com.dabomstew.pkromio.gamedata.EvolutionGraph;
 import com.dabomstew.pkromio.gamedata.EvolutionType;
 import com.dabomstew.pkromio.gamedata.Species;
 import com.dabomstew.pkromio.gamedata.SpeciesSet;
@@ -15,10 +16,29 @@ import java.util.stream.Collectors;
 
 public class EvolutionRandomizer extends Randomizer {
 
+    private int tries;
+    private int backtracks;
+
     public EvolutionRandomizer(RomHandler romHandler, Settings settings, Random random) {
         super(romHandler, settings, random);
     }
 
+    /**
+     * Returns how many times the last {@link #randomizeEvolutions()} had to start over, plus one for the
+     * first try.
+     */
+    public int getTries() {
+        return tries;
+    }
+
+    /**
+     * Returns how many picked evolutions the last {@link #randomizeEvolutions()} undid and picked again,
+     * over all tries.
+     */
+    public int getBacktracks() {
+        return backtracks;
+    }
+
     public void randomizeEvolutions() {
         boolean similarStrength = settings.isEvosSimilarStrength();
         boolean sameType = settings.isEvosSameTyping();
@@ -59,6 +79,7 @@ public class EvolutionRandomizer extends Randomizer {
     private class InnerRandomizer {
 
         private static final int MAX_TRIES = 1000;
+        private static final int MAX_BACKTRACKS_PER_TRY = 100;
         private static final int DEFAULT_STAGE_LIMIT = 10;
 
         private final boolean similarStrength;
@@ -73,6 +94,8 @@ public class EvolutionRandomizer extends Randomizer {
         private final SpeciesSet banned;
 
         private Map<Species, List<Evolution>> allOriginalEvos;
+        // null with evolveEveryLevel, since the evolutions are then meant to form cycles
+        private EvolutionGraph graph;
 
         public InnerRandomizer(SpeciesSet pokemonPool, SpeciesSet banned,
                                boolean similarStrength, boolean sameType,
@@ -103,12 +126,13 @@ public class EvolutionRandomizer extends Randomizer {
             allOriginalEvos = cacheOriginalEvolutions();
 
             boolean succeeded = false;
-            int tries = 0;
+            tries = 0;
+            backtracks = 0;
             while (!succeeded && tries < MAX_TRIES) {
                 succeeded = randomizeEvolutionsInner();
                 tries++;
             }
-            if (tries == MAX_TRIES) {
+            if (!succeeded) {
                 if (settings.isStandardizeEXPCurves()) {
                     throw new RandomizationException("Could not randomize Evolutions in " + MAX_TRIES + " tries.");
                 } else {
@@ -118,28 +142,72 @@ public class EvolutionRandomizer extends Randomizer {
             }
         }
 
+        /**
+         * Picks the new evolutions one by one. When there is nothing to pick for one, the one picked before it is
+         * undone and picked again, but not as what it was; if that runs out too, the one before that, and so on.
+         * Only after too many of those does it give up, so the caller can start over.
+         */
         private boolean randomizeEvolutionsInner() {
             clearEvolutions();
+            graph = evolveEveryLevel ? null : new EvolutionGraph(pokemonPool,
+                    pk -> !allOriginalEvos.get(pk).isEmpty());
 
             // TODO: iterating through this in a random order would be better
+            List<EvolutionSlot> slots = new ArrayList<>();
             for (Species from : pokemonPool) {
-                List<Evolution> originalEvos = getOriginalEvos(from);
-                for (Evolution evo : originalEvos) {
-                    SpeciesSet possible = findPossibleReplacements(from, evo);
-                    if (possible.isEmpty()) {
+                for (Evolution evo : getOriginalEvos(from)) {
+                    slots.add(new EvolutionSlot(from, evo));
+                }
+            }
+
+            int backtracksThisTry = 0;
+            int i = 0;
+            while (i < slots.size()) {
+                EvolutionSlot slot = slots.get(i);
+                SpeciesSet possible = findPossibleReplacements(slot.from, slot.evo);
+                possible.removeAll(slot.rejected);
+                if (possible.isEmpty()) {
+                    slot.rejected.clear();
+                    if (i == 0 || backtracksThisTry == MAX_BACKTRACKS_PER_TRY) {
                         return false;
                     }
-                    Species picked = similarStrength ? possible.getRandomSimilarStrengthSpecies(evo.getTo(), random)
-                            : possible.getRandomSpecies(random);
-
-                    Evolution newEvo = prepareNewEvolution(from, evo, picked);
-                    from.getEvolutionsFrom().add(newEvo);
-                    picked.getEvolutionsTo().add(newEvo);
+                    backtracksThisTry++;
+                    backtracks++;
+                    i--;
+                    EvolutionSlot previous = slots.get(i);
+                    previous.rejected.add(previous.newEvo.getTo());
+                    removeEvolution(previous.newEvo);
+                    previous.newEvo = null;
+                    continue;
                 }
+                Species picked = similarStrength ? possible.getRandomSimilarStrengthSpecies(slot.evo.getTo(), random)
+                        : possible.getRandomSpecies(random);
+
+                slot.newEvo = prepareNewEvolution(slot.from, slot.evo, picked);
+                addEvolution(slot.newEvo);
+                i++;
             }
             return true;
         }
 
+        private void addEvolution(Evolution evo) {
+            if (graph != null) {
+                graph.add(evo);
+            } else {
+                evo.getFrom().getEvolutionsFrom().add(evo);
+                evo.getTo().getEvolutionsTo().add(evo);
+            }
+        }
+
+        private void removeEvolution(Evolution evo) {
+            if (graph != null) {
+                graph.remove(evo);
+            } else {
+                evo.getFrom().getEvolutionsFrom().remove(evo);
+                evo.getTo().getEvolutionsTo().remove(evo);
+            }
+        }
+
         private Map<Species, List<Evolution>> cacheOriginalEvolutions() {
             Map<Species, List<Evolution>> originalEvos = new HashMap<>();
             for (Species pk : pokemonPool) {
@@ -221,82 +289,12 @@ public class EvolutionRandomizer extends Randomizer {
             return from.getEvolutionsFrom().stream().map(Evolution::getTo).collect(Collectors.toList()).contains(to);
         }
 
-        /**
-         * Check whether adding an evolution from one Pokemon to another will cause
-         * an evolution cycle.
-         *
-         * @param from Pokemon that is evolving
-         * @param to   Pokemon to evolve to
-         * @return True if there is an evolution cycle, else false
-         */
         private boolean createsCycle(Species from, Species to) {
-            Evolution tempEvo = new Evolution(from, to, EvolutionType.NONE, 0);
-            from.getEvolutionsFrom().add(tempEvo);
-            Set<Species> visited = new HashSet<>();
-            Set<Species> recStack = new HashSet<>();
-            boolean recur = isCyclic(from, visited, recStack);
-            from.getEvolutionsFrom().remove(tempEvo);
-            return recur;
-        }
-
-        private boolean isCyclic(Species pk, Set<Species> visited, Set<Species> recStack) {
-            if (!visited.contains(pk)) {
-                visited.add(pk);
-                recStack.add(pk);
-                for (Evolution ev : pk.getEvolutionsFrom()) {
-                    if (!visited.contains(ev.getTo()) && isCyclic(ev.getTo(), visited, recStack)) {
-                        return true;
-                    } else if (recStack.contains(ev.getTo())) {
-                        return true;
-                    }
-                }
-            }
-            recStack.remove(pk);
-            return false;
+            return graph.createsCycle(from, to);
         }
 
         private boolean breaksStageLimit(Species from, Species to) {
-            int maxFrom = numPreEvolutions(from, stageLimit);
-            int maxTo = numEvolutions(to, stageLimit);
-            return maxFrom + maxTo + 2 > stageLimit;
-        }
-
-        // Return the max depth of pre-evolutions a Pokemon has
-        private int numPreEvolutions(Species pk, int maxInterested) {
-            return numPreEvolutions(pk, 0, maxInterested);
-        }
-
-        private int numPreEvolutions(Species pk, int depth, int maxInterested) {
-            if (pk.getEvolutionsTo().isEmpty()) {
-                return 0;
-            }
-            if (depth == maxInterested - 1) {
-                return 1;
-            }
-            int maxPreEvos = 0;
-            for (Evolution ev : pk.getEvolutionsTo()) {
-                maxPreEvos = Math.max(maxPreEvos, numPreEvolutions(ev.getFrom(), depth + 1, maxInterested) + 1);
-            }
-            return maxPreEvos;
-        }
-
-        private int numEvolutions(Species pk, int maxInterested) {
-            return numEvolutions(pk, 0, maxInterested);
-        }
-
-        private int numEvolutions(Species pk, int depth, int maxInterested) {
-            if (pk.getEvolutionsFrom().isEmpty()) {
-                // looks ahead to see if an evo MUST be given to this Pokemon in the future
-                return allOriginalEvos.get(pk).isEmpty() ? 0 : 1;
-            }
-            if (depth == maxInterested - 1) {
-                return 1;
-            }
-            int maxEvos = 0;
-            for (Evolution ev : pk.getEvolutionsFrom()) {
-                maxEvos = Math.max(maxEvos, numEvolutions(ev.getTo(), depth + 1, maxInterested) + 1);
-            }
-            return maxEvos;
+            return graph.getPreEvolutionStages(from) + graph.getEvolutionStages(to) + 2 > stageLimit;
         }
 
         private boolean isAnOriginalEvo(Species from, Species to) {
@@ -304,4 +302,20 @@ public class EvolutionRandomizer extends Randomizer {
         }
     }
 
+    /**
+     * One evolution to pick, and what has been picked for it.
+     */
+    private static class EvolutionSlot {
+        private final Species from;
+        private final Evolution evo;
+        private Evolution newEvo;
+        // what has already been picked and undone, since the current evolutions before it were picked
+        private final SpeciesSet rejected = new SpeciesSet();
+
+        EvolutionSlot(Species from, Evolution evo) {
+            this.from = from;
+            this.evo = evo;
+        }
+    }
+
 }
\ No newline at end of file
@@ -30,8 +30,10 @@ import com.dabomstew.pkromio.graphics.palettes.*;
 import com.dabomstew.pkromio.romhandlers.RomHandler;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A {@link PaletteRandomizer} for Gen 3, Gen 4, and Gen 5 games (R/S/E/FR/LG,
@@ -54,6 +56,17 @@ public class Gen3to5PaletteRandomizer extends PaletteRandomizer {
 	 */
 	private final static boolean COMPILED = true;
 
+	private static final PalettePartDescription[] BLANK_PART_DESCRIPTIONS =
+			PalettePartDescription.allFrom(PaletteDescription.BLANK);
+
+	/**
+	 * The parsed descriptions of each compiled palette description resource, by resource address, so they are
+	 * only read and parsed once per process instead of once per randomization (e.g. once per seed of a batch).
+	 * {@link PalettePartDescription}s can't be changed once made, so they can be shared by all randomizers.
+	 */
+	private static final Map<String, List<PalettePartDescription[]>> partDescriptionCache =
+			new ConcurrentHashMap<>();
+
 	/**
 	 * An identifier for the related resource files. ROMs that share a
 	 * paletteFilesID also share all resources. If they shouldn't, different ROMs
@@ -96,12 +109,11 @@ public class Gen3to5PaletteRandomizer extends PaletteRandomizer {
 
 		copyUpEvolutionsHelper.apply(evolutionSanity, true, new BasicSpeciesPaletteAction(),
 				new EvolvedSpeciesPaletteAction());
-		List<PaletteDescription> paletteDescriptions = getPaletteDescriptions("pokePalettes");
-		populatePokemonPalettes(paletteDescriptions);
+		populatePokemonPalettes(getAllPalettePartDescriptions("pokePalettes"));
 
 	}
 
-	private void populatePokemonPalettes(List<PaletteDescription> paletteDescriptions) {
+	private void populatePokemonPalettes(List<PalettePartDescription[]> allPalettePartDescriptions) {
 
 		PalettePopulator pp = new PalettePopulator(random);
 
@@ -110,7 +122,8 @@ public class Gen3to5PaletteRandomizer extends PaletteRandomizer {
 			Species pk = entry.getKey();
 			Palette palette = pk.getNormalPalette();
 			TypeBaseColorList typeBaseColorList = entry.getValue();
-			PalettePartDescription[] palettePartDescriptions = getPalettePartDescriptions(pk, paletteDescriptions);
+			PalettePartDescription[] palettePartDescriptions = getPalettePartDescriptions(pk,
+					allPalettePartDescriptions);
 
 			populatePalette(palette, pp, typeBaseColorList, palettePartDescriptions);
 
@@ -135,11 +148,34 @@ public class Gen3to5PaletteRandomizer extends PaletteRandomizer {
 	}
 
 	public PalettePartDescription[] getPalettePartDescriptions(Species pk,
-                                                               List<PaletteDescription> paletteDescriptions) {
+			List<PalettePartDescription[]> allPalettePartDescriptions) {
 		int paletteIndex = pk.getNumber() - 1;
-		boolean validIndex = paletteIndex <= paletteDescriptions.size();
-		return PalettePartDescription
-				.allFrom(validIndex ? paletteDescriptions.get(paletteIndex) : PaletteDescription.BLANK);
+		boolean validIndex = paletteIndex < allPalettePartDescriptions.size();
+		return validIndex ? allPalettePartDescriptions.get(paletteIndex) : BLANK_PART_DESCRIPTIONS;
+	}
+
+	/**
+	 * Gets the {@link PalettePartDescription}s of each line of a resource/file, parsed from its
+	 * {@link PaletteDescription}s. Those of compiled resources are cached, and shared between all randomizers.
+	 *
+	 * @param fileKey         The key to this particular kind of file, e.g.
+	 *                        "pokePalettes".
+	 */
+	public List<PalettePartDescription[]> getAllPalettePartDescriptions(String fileKey) {
+		if (!COMPILED) {
+			return parsePaletteDescriptions(getPaletteDescriptions(fileKey));
+		}
+		return partDescriptionCache.computeIfAbsent(getResourceAddress(fileKey),
+				address -> Collections.unmodifiableList(parsePaletteDescriptions(getPaletteDescriptions(fileKey))));
+	}
+
+	private static List<PalettePartDescription[]> parsePaletteDescriptions(
+			List<PaletteDescription> paletteDescriptions) {
+		List<PalettePartDescription[]> allPalettePartDescriptions = new ArrayList<>(paletteDescriptions.size());
+		for (PaletteDescription paletteDescription : paletteDescriptions) {
+			allPalettePartDescriptions.add(PalettePartDescription.allFrom(paletteDescription));
+		}
+		return allPalettePartDescriptions;
 	}
 
 	/**
@@ -155,7 +191,7 @@ public class Gen3to5PaletteRandomizer extends PaletteRandomizer {
 		if (COMPILED) {
 			try {
 				InputStream infi = getClass().getResourceAsStream(getResourceAddress(fileKey));
-				reader = new InputStreamReader(infi);
+				reader = new InputStreamReader(infi, StandardCharsets.UTF_8);
 			} catch (NullPointerException e) {
 				throw new RuntimeException(new RuntimeException("Could not find resource " + getResourceAddress(fileKey), e));
 			}
@@ -166,10 +202,8 @@ public class Gen3to5PaletteRandomizer extends PaletteRandomizer {
 				throw new RuntimeException(e);
 			}
 		}
-		BufferedReader br = new BufferedReader(reader);
-
 		String line;
-		try {
+		try (BufferedReader br = new BufferedReader(reader)) {
 			while ((line = br.readLine()) != null) {
 				paletteDescriptions.add(new PaletteDescription(line));
 			}
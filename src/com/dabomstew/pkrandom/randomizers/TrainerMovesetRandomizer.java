@@ -1,12 +1,14 @@
 package com.dabomstew.pkrandom.randomizers;
 
 import com.dabomstew.pkrandom.Settings;
+import com.dabomstew.pkrandom.random.AliasSampler;
 import com.dabomstew.pkromio.constants.AbilityIDs;
 import com.dabomstew.pkromio.constants.GlobalConstants;
 import com.dabomstew.pkromio.gamedata.*;
 import com.dabomstew.pkromio.romhandlers.RomHandler;
 
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class TrainerMovesetRandomizer extends Randomizer {
@@ -21,10 +23,10 @@ public class TrainerMovesetRandomizer extends Randomizer {
         return generation >= 3;
     }
 
-    private Map<Integer, List<MoveLearnt>> allLevelUpMoves;
     private Map<Integer, List<Integer>> allEggMoves;
-    private Map<Species, boolean[]> allTMCompat, allTutorCompat;
     private List<Integer> allTMMoves, allTutorMoves;
+    private LearnsetIndex learnsetIndex;
+    private MoveSynergyIndex synergyIndex;
 
     public TrainerMovesetRandomizer(RomHandler romHandler, Settings settings, Random random) {
         super(romHandler, settings, random);
@@ -34,6 +36,16 @@ public class TrainerMovesetRandomizer extends Randomizer {
         boolean isCyclicEvolutions = settings.getEvolutionsMod() == Settings.EvolutionsMod.RANDOM_EVERY_LEVEL;
         boolean isOnlyMultiBattles = settings.getBattleStyle().isOnlyMultiBattles();
 
+        // the move data, types and stats are final by now, so the synergies between them won't change
+        synergyIndex = new MoveSynergyIndex(romHandler.getMoves(), romHandler.generationOfPokemon(),
+                romHandler.getPerfectAccuracy(), romHandler.getTypeTable());
+        // and so are the movesets, TMs/tutors and evolutions
+        allEggMoves = romHandler.getEggMoves();
+        allTMMoves = romHandler.getTMMoves();
+        allTutorMoves = romHandler.getMoveTutorMoves();
+        learnsetIndex = new LearnsetIndex(romHandler.getMovesLearnt(), romHandler.getTMHMCompatibility(), allTMMoves,
+                romHandler.hasMoveTutors() ? romHandler.getMoveTutorCompatibility() : null, allTutorMoves);
+
         List<Trainer> trainers = romHandler.getTrainers();
 
         for (Trainer t : trainers) {
@@ -50,299 +62,179 @@ public class TrainerMovesetRandomizer extends Randomizer {
                     continue;
                 }
 
-                double trainerTypeModifier = 1;
-                if (t.isImportant()) {
-                    trainerTypeModifier = 1.5;
-                } else if (t.isBoss()) {
-                    trainerTypeModifier = 2;
-                }
-                double movePoolSizeModifier = movesAtLevel.size() / 10.0;
-                double bonusModifier = trainerTypeModifier * movePoolSizeModifier;
-
-                double atkSpatkRatioModifier = 0.75;
-                double stabMoveBias = 0.25 * bonusModifier;
-                double hardAbilityMoveBias = 1 * bonusModifier;
-                double softAbilityMoveBias = 0.5 * bonusModifier;
-                double statBias = 0.5 * bonusModifier;
-                double softMoveBias = 0.25 * bonusModifier;
-                double hardMoveBias = 1 * bonusModifier;
-                double softMoveAntiBias = 0.5;
-
-                // Add bias for STAB
+                pickMoves(t, tp, new MovePool(movesAtLevel));
+            }
+        }
+        romHandler.setTrainers(trainers);
+        changesMade = true;
+    }
 
-                Species pk = romHandler.getAltFormeOfSpecies(tp.getSpecies(), tp.getForme());
+    private void pickMoves(Trainer t, TrainerPokemon tp, MovePool pool) {
+        double trainerTypeModifier = 1;
+        if (t.isImportant()) {
+            trainerTypeModifier = 1.5;
+        } else if (t.isBoss()) {
+            trainerTypeModifier = 2;
+        }
+        double movePoolSizeModifier = pool.size() / 10.0;
+        double bonusModifier = trainerTypeModifier * movePoolSizeModifier;
+
+        double atkSpatkRatioModifier = 0.75;
+        double stabMoveBias = 0.25 * bonusModifier;
+        double hardAbilityMoveBias = 1 * bonusModifier;
+        double softAbilityMoveBias = 0.5 * bonusModifier;
+        double statBias = 0.5 * bonusModifier;
+        double softMoveBias = 0.25 * bonusModifier;
+        double hardMoveBias = 1 * bonusModifier;
+        double softMoveAntiBias = 0.5;
+
+        Species pk = romHandler.getAltFormeOfSpecies(tp.getSpecies(), tp.getForme());
+        Type primaryType = pk.getPrimaryType(false);
+        Type secondaryType = pk.getSecondaryType(false);
+        int ability = romHandler.getAbilityForTrainerPokemon(tp);
+
+        // Add bias for STAB
+
+        pool.addBias(mv -> mv.type == primaryType && mv.category != MoveCategory.STATUS, stabMoveBias);
+        if (secondaryType != null) {
+            pool.addBias(mv -> mv.type == secondaryType && mv.category != MoveCategory.STATUS, stabMoveBias);
+        }
 
-                List<Move> stabMoves = new ArrayList<>(movesAtLevel)
-                        .stream()
-                        .filter(mv -> mv.type == pk.getPrimaryType(false) && mv.category != MoveCategory.STATUS)
-                        .collect(Collectors.toList());
-                Collections.shuffle(stabMoves, random);
+        // Hard and soft ability/move synergy
 
-                for (int i = 0; i < stabMoveBias * stabMoves.size(); i++) {
-                    int j = i % stabMoves.size();
-                    movesAtLevel.add(stabMoves.get(j));
-                }
+        byte[] abilityRow = synergyIndex.getAbilityRow(ability, primaryType, secondaryType);
+        pool.addBias(mv -> MoveSynergyIndex.has(abilityRow, mv, MoveSynergyIndex.HARD_SYNERGY), hardAbilityMoveBias);
+        pool.addBias(mv -> MoveSynergyIndex.has(abilityRow, mv, MoveSynergyIndex.SOFT_SYNERGY), softAbilityMoveBias);
 
-                if (pk.getSecondaryType(false) != null) {
-                    stabMoves = new ArrayList<>(movesAtLevel)
-                            .stream()
-                            .filter(mv -> mv.type == pk.getSecondaryType(false) && mv.category != MoveCategory.STATUS)
-                            .collect(Collectors.toList());
-                    Collections.shuffle(stabMoves, random);
+        // Soft ability/move anti-synergy
 
-                    for (int i = 0; i < stabMoveBias * stabMoves.size(); i++) {
-                        int j = i % stabMoves.size();
-                        movesAtLevel.add(stabMoves.get(j));
-                    }
-                }
+        pool.lowerByOne(mv -> MoveSynergyIndex.has(abilityRow, mv, MoveSynergyIndex.SOFT_ANTI_SYNERGY));
 
-                // Hard ability/move synergy
-
-                List<Move> abilityMoveSynergyList = MoveSynergy.getHardAbilityMoveSynergy(
-                        romHandler.getAbilityForTrainerPokemon(tp),
-                        pk.getPrimaryType(false),
-                        pk.getSecondaryType(false),
-                        movesAtLevel,
-                        romHandler.generationOfPokemon(),
-                        romHandler.getPerfectAccuracy());
-                Collections.shuffle(abilityMoveSynergyList, random);
-                for (int i = 0; i < hardAbilityMoveBias * abilityMoveSynergyList.size(); i++) {
-                    int j = i % abilityMoveSynergyList.size();
-                    movesAtLevel.add(abilityMoveSynergyList.get(j));
-                }
+        if (pool.size() <= 4) {
+            setMoves(tp, pool.getMoves());
+            return;
+        }
 
-                // Soft ability/move synergy
+        // Stat/move synergy and anti-synergy
 
-                List<Move> softAbilityMoveSynergyList = MoveSynergy.getSoftAbilityMoveSynergy(
-                        romHandler.getAbilityForTrainerPokemon(tp),
-                        movesAtLevel,
-                        pk.getPrimaryType(false),
-                        pk.getSecondaryType(false));
+        byte[] statRow = synergyIndex.getStatRow(pk);
+        pool.addBias(mv -> MoveSynergyIndex.has(statRow, mv, MoveSynergyIndex.SOFT_SYNERGY), statBias);
+        pool.lowerByOne(mv -> MoveSynergyIndex.has(statRow, mv, MoveSynergyIndex.SOFT_ANTI_SYNERGY));
 
-                Collections.shuffle(softAbilityMoveSynergyList, random);
-                for (int i = 0; i < softAbilityMoveBias * softAbilityMoveSynergyList.size(); i++) {
-                    int j = i % softAbilityMoveSynergyList.size();
-                    movesAtLevel.add(softAbilityMoveSynergyList.get(j));
-                }
+        if (pool.size() <= 4) {
+            setMoves(tp, pool.getMoves());
+            return;
+        }
 
-                // Soft ability/move anti-synergy
+        // Add bias for atk/spatk ratio
+
+        double atkSpatkRatio = (double) pk.getAttack() / (double) pk.getSpatk();
+        switch (ability) {
+            case AbilityIDs.hugePower:
+            case AbilityIDs.purePower:
+                atkSpatkRatio *= 2;
+                break;
+            case AbilityIDs.hustle:
+            case AbilityIDs.gorillaTactics:
+                atkSpatkRatio *= 1.5;
+                break;
+            case AbilityIDs.moxie:
+                atkSpatkRatio *= 1.1;
+                break;
+            case AbilityIDs.soulHeart:
+                atkSpatkRatio *= 0.9;
+                break;
+        }
 
-                List<Move> softAbilityMoveAntiSynergyList = MoveSynergy.getSoftAbilityMoveAntiSynergy(
-                        romHandler.getAbilityForTrainerPokemon(tp), movesAtLevel);
-                List<Move> withoutSoftAntiSynergy = new ArrayList<>(movesAtLevel);
-                for (Move mv : softAbilityMoveAntiSynergyList) {
-                    withoutSoftAntiSynergy.remove(mv);
-                }
-                if (!withoutSoftAntiSynergy.isEmpty()) {
-                    movesAtLevel = withoutSoftAntiSynergy;
-                }
+        Predicate<Move> isPhysical = mv -> mv.category == MoveCategory.PHYSICAL;
+        Predicate<Move> isSpecial = mv -> mv.category == MoveCategory.SPECIAL;
+        double physicalWeight = pool.getWeight(isPhysical);
+        double specialWeight = pool.getWeight(isSpecial);
+
+        if (atkSpatkRatio < 1 && specialWeight > 0) {
+            atkSpatkRatio = 1 / atkSpatkRatio;
+            double acceptedRatio = atkSpatkRatioModifier * atkSpatkRatio;
+            double additionalWeight = Math.floor(physicalWeight * acceptedRatio) - specialWeight;
+            if (additionalWeight > 0) {
+                pool.scaleWeights(isSpecial, (specialWeight + additionalWeight) / specialWeight);
+            }
+        } else if (physicalWeight > 0) {
+            double acceptedRatio = atkSpatkRatioModifier * atkSpatkRatio;
+            double additionalWeight = Math.floor(specialWeight * acceptedRatio) - physicalWeight;
+            if (additionalWeight > 0) {
+                pool.scaleWeights(isPhysical, (physicalWeight + additionalWeight) / physicalWeight);
+            }
+        }
 
-                List<Move> distinctMoveList = movesAtLevel.stream().distinct().collect(Collectors.toList());
-                int movesLeft = distinctMoveList.size();
+        // Pick moves
 
-                if (movesLeft <= 4) {
+        int perfectAccuracy = romHandler.getPerfectAccuracy();
+        List<Move> pickedMoves = new ArrayList<>();
 
-                    for (int i = 0; i < 4; i++) {
-                        if (i < movesLeft) {
-                            tp.getMoves()[i] = distinctMoveList.get(i).number;
-                        } else {
-                            tp.getMoves()[i] = 0;
-                        }
+        for (int i = 1; i <= 4; i++) {
+            if (i == 4) {
+                List<Move> poolMoves = pool.getMoves();
+                for (Move dependentMove : poolMoves) {
+                    if (!GlobalConstants.requiresOtherMove.contains(dependentMove.number)) {
+                        continue;
                     }
-                    continue;
-                }
-
-                // Stat/move synergy
-
-                List<Move> statSynergyList = MoveSynergy.getStatMoveSynergy(pk, movesAtLevel);
-                Collections.shuffle(statSynergyList, random);
-                for (int i = 0; i < statBias * statSynergyList.size(); i++) {
-                    int j = i % statSynergyList.size();
-                    movesAtLevel.add(statSynergyList.get(j));
-                }
-
-                // Stat/move anti-synergy
-
-                List<Move> statAntiSynergyList = MoveSynergy.getStatMoveAntiSynergy(pk, movesAtLevel);
-                List<Move> withoutStatAntiSynergy = new ArrayList<>(movesAtLevel);
-                for (Move mv : statAntiSynergyList) {
-                    withoutStatAntiSynergy.remove(mv);
-                }
-                if (!withoutStatAntiSynergy.isEmpty()) {
-                    movesAtLevel = withoutStatAntiSynergy;
-                }
-
-                distinctMoveList = movesAtLevel.stream().distinct().collect(Collectors.toList());
-                movesLeft = distinctMoveList.size();
-
-                if (movesLeft <= 4) {
-
-                    for (int i = 0; i < 4; i++) {
-                        if (i < movesLeft) {
-                            tp.getMoves()[i] = distinctMoveList.get(i).number;
-                        } else {
-                            tp.getMoves()[i] = 0;
+                    boolean hasRequiredMove = false;
+                    for (Move requiredMove : MoveSynergy.requiresOtherMove(dependentMove, poolMoves)) {
+                        if (pickedMoves.contains(requiredMove)) {
+                            hasRequiredMove = true;
+                            break;
                         }
                     }
-                    continue;
-                }
-
-                // Add bias for atk/spatk ratio
-
-                double atkSpatkRatio = (double) pk.getAttack() / (double) pk.getSpatk();
-                switch (romHandler.getAbilityForTrainerPokemon(tp)) {
-                    case AbilityIDs.hugePower:
-                    case AbilityIDs.purePower:
-                        atkSpatkRatio *= 2;
-                        break;
-                    case AbilityIDs.hustle:
-                    case AbilityIDs.gorillaTactics:
-                        atkSpatkRatio *= 1.5;
-                        break;
-                    case AbilityIDs.moxie:
-                        atkSpatkRatio *= 1.1;
-                        break;
-                    case AbilityIDs.soulHeart:
-                        atkSpatkRatio *= 0.9;
-                        break;
-                }
-
-                List<Move> physicalMoves = new ArrayList<>(movesAtLevel)
-                        .stream()
-                        .filter(mv -> mv.category == MoveCategory.PHYSICAL).collect(Collectors.toList());
-                List<Move> specialMoves = new ArrayList<>(movesAtLevel)
-                        .stream()
-                        .filter(mv -> mv.category == MoveCategory.SPECIAL).collect(Collectors.toList());
-
-                if (atkSpatkRatio < 1 && !specialMoves.isEmpty()) {
-                    atkSpatkRatio = 1 / atkSpatkRatio;
-                    double acceptedRatio = atkSpatkRatioModifier * atkSpatkRatio;
-                    int additionalMoves = (int) (physicalMoves.size() * acceptedRatio) - specialMoves.size();
-                    for (int i = 0; i < additionalMoves; i++) {
-                        Move mv = specialMoves.get(random.nextInt(specialMoves.size()));
-                        movesAtLevel.add(mv);
-                    }
-                } else if (!physicalMoves.isEmpty()) {
-                    double acceptedRatio = atkSpatkRatioModifier * atkSpatkRatio;
-                    int additionalMoves = (int) (specialMoves.size() * acceptedRatio) - physicalMoves.size();
-                    for (int i = 0; i < additionalMoves; i++) {
-                        Move mv = physicalMoves.get(random.nextInt(physicalMoves.size()));
-                        movesAtLevel.add(mv);
+                    if (!hasRequiredMove) {
+                        pool.remove(dependentMove);
                     }
                 }
+                if (pool.size() == 0) {
+                    break;
+                }
+            }
 
-                // Pick moves
-
-                List<Move> pickedMoves = new ArrayList<>();
-
-                for (int i = 1; i <= 4; i++) {
-                    Move move;
-                    List<Move> pickFrom;
-
-                    if (i == 1) {
-                        pickFrom = movesAtLevel
-                                .stream()
-                                .filter(mv -> mv.isGoodDamaging(romHandler.getPerfectAccuracy()))
-                                .collect(Collectors.toList());
-                        if (pickFrom.isEmpty()) {
-                            pickFrom = movesAtLevel;
-                        }
-                    } else {
-                        pickFrom = movesAtLevel;
-                    }
-
-                    if (i == 4) {
-                        List<Move> requiresOtherMove = movesAtLevel
-                                .stream()
-                                .filter(mv -> GlobalConstants.requiresOtherMove.contains(mv.number))
-                                .distinct().collect(Collectors.toList());
-
-                        for (Move dependentMove : requiresOtherMove) {
-                            boolean hasRequiredMove = false;
-                            for (Move requiredMove : MoveSynergy.requiresOtherMove(dependentMove, movesAtLevel)) {
-                                if (pickedMoves.contains(requiredMove)) {
-                                    hasRequiredMove = true;
-                                    break;
-                                }
-                            }
-                            if (!hasRequiredMove) {
-                                movesAtLevel.removeAll(Collections.singletonList(dependentMove));
-                            }
-                        }
-                    }
-
-                    move = pickFrom.get(random.nextInt(pickFrom.size()));
-                    pickedMoves.add(move);
-
-                    if (i == 4) {
-                        break;
-                    }
-
-                    movesAtLevel.removeAll(Collections.singletonList(move));
-
-                    movesAtLevel.removeAll(MoveSynergy.getHardMoveAntiSynergy(move, movesAtLevel));
-
-                    distinctMoveList = movesAtLevel.stream().distinct().collect(Collectors.toList());
-                    movesLeft = distinctMoveList.size();
+            Move move = i == 1 ?
+                    pool.pick(random, mv -> mv.isGoodDamaging(perfectAccuracy)) :
+                    pool.pick(random, mv -> true);
+            pickedMoves.add(move);
 
-                    if (movesLeft <= (4 - i)) {
-                        pickedMoves.addAll(distinctMoveList);
-                        break;
-                    }
+            if (i == 4) {
+                break;
+            }
 
-                    List<Move> hardMoveSynergyList = MoveSynergy.getMoveSynergy(
-                            move,
-                            movesAtLevel,
-                            romHandler.generationOfPokemon());
-                    Collections.shuffle(hardMoveSynergyList, random);
-                    for (int j = 0; j < hardMoveBias * hardMoveSynergyList.size(); j++) {
-                        int k = j % hardMoveSynergyList.size();
-                        movesAtLevel.add(hardMoveSynergyList.get(k));
-                    }
+            pool.remove(move);
 
-                    List<Move> softMoveSynergyList = MoveSynergy.getSoftMoveSynergy(
-                            move,
-                            movesAtLevel,
-                            romHandler.getTypeTable());
-                    Collections.shuffle(softMoveSynergyList, random);
-                    for (int j = 0; j < softMoveBias * softMoveSynergyList.size(); j++) {
-                        int k = j % softMoveSynergyList.size();
-                        movesAtLevel.add(softMoveSynergyList.get(k));
-                    }
+            byte[] moveRow = synergyIndex.getMoveRow(move);
+            pool.removeIf(mv -> MoveSynergyIndex.has(moveRow, mv, MoveSynergyIndex.HARD_ANTI_SYNERGY));
 
-                    List<Move> softMoveAntiSynergyList = MoveSynergy.getSoftMoveAntiSynergy(move, movesAtLevel);
-                    Collections.shuffle(softMoveAntiSynergyList, random);
-                    for (int j = 0; j < softMoveAntiBias * softMoveAntiSynergyList.size(); j++) {
-                        distinctMoveList = movesAtLevel.stream().distinct().collect(Collectors.toList());
-                        if (distinctMoveList.size() <= (4 - i)) {
-                            break;
-                        }
-                        int k = j % softMoveAntiSynergyList.size();
-                        movesAtLevel.remove(softMoveAntiSynergyList.get(k));
-                    }
+            if (pool.size() <= (4 - i)) {
+                pickedMoves.addAll(pool.getMoves());
+                break;
+            }
 
-                    distinctMoveList = movesAtLevel.stream().distinct().collect(Collectors.toList());
-                    movesLeft = distinctMoveList.size();
+            pool.addBias(mv -> MoveSynergyIndex.has(moveRow, mv, MoveSynergyIndex.HARD_SYNERGY), hardMoveBias);
+            pool.addBias(mv -> MoveSynergyIndex.has(moveRow, mv, MoveSynergyIndex.SOFT_SYNERGY), softMoveBias);
+            pool.lowerBias(mv -> MoveSynergyIndex.has(moveRow, mv, MoveSynergyIndex.SOFT_ANTI_SYNERGY),
+                    softMoveAntiBias, 4 - i);
 
-                    if (movesLeft <= (4 - i)) {
-                        pickedMoves.addAll(distinctMoveList);
-                        break;
-                    }
-                }
+            if (pool.size() <= (4 - i)) {
+                pickedMoves.addAll(pool.getMoves());
+                break;
+            }
+        }
 
-                int movesPicked = pickedMoves.size();
+        setMoves(tp, pickedMoves);
+    }
 
-                for (int i = 0; i < 4; i++) {
-                    if (i < movesPicked) {
-                        tp.getMoves()[i] = pickedMoves.get(i).number;
-                    } else {
-                        tp.getMoves()[i] = 0;
-                    }
-                }
+    private void setMoves(TrainerPokemon tp, List<Move> moves) {
+        for (int i = 0; i < 4; i++) {
+            if (i < moves.size()) {
+                tp.getMoves()[i] = moves.get(i).number;
+            } else {
+                tp.getMoves()[i] = 0;
             }
         }
-        romHandler.setTrainers(trainers);
-        changesMade = true;
     }
 
     private List<Move> trimMoveList(TrainerPokemon tp, List<Move> movesAtLevel, boolean isMultiBattlesOnly) {
@@ -382,7 +274,7 @@ public class TrainerMovesetRandomizer extends Randomizer {
 
         // Remove obsoleted moves
 
-        movesAtLevel.removeAll(obsoletedMoves);
+        movesAtLevel.removeAll(new HashSet<>(obsoletedMoves));
 
         movesLeft = movesAtLevel.size();
 
@@ -422,10 +314,10 @@ public class TrainerMovesetRandomizer extends Randomizer {
 
         // Remove hard ability anti-synergy moves
 
+        byte[] abilityRow = synergyIndex.getAbilityRow(romHandler.getAbilityForTrainerPokemon(tp));
         List<Move> withoutHardAntiSynergy = new ArrayList<>(movesAtLevel);
-        withoutHardAntiSynergy.removeAll(MoveSynergy.getHardAbilityMoveAntiSynergy(
-                romHandler.getAbilityForTrainerPokemon(tp),
-                movesAtLevel));
+        withoutHardAntiSynergy.removeIf(mv ->
+                MoveSynergyIndex.has(abilityRow, mv, MoveSynergyIndex.HARD_ANTI_SYNERGY));
 
         if (!withoutHardAntiSynergy.isEmpty()) {
             movesAtLevel = withoutHardAntiSynergy;
@@ -555,108 +447,228 @@ public class TrainerMovesetRandomizer extends Randomizer {
         double tmMoveProbability = 0.6;
         double tutorMoveProbability = 0.6;
 
-        if (allLevelUpMoves == null) {
-            allLevelUpMoves = romHandler.getMovesLearnt();
+        Species altForme = romHandler.getAltFormeOfSpecies(tp.getSpecies(), tp.getForme());
+        int level = tp.getLevel();
+
+        // Level-up Moves
+        List<Move> moveSelectionPoolAtLevel = new ArrayList<>();
+        for (int move : learnsetIndex.getLevelUpMoves(altForme.getNumber(), level, level >= 30)) {
+            moveSelectionPoolAtLevel.add(moves.get(move));
         }
 
-        if (allEggMoves == null) {
-            allEggMoves = romHandler.getEggMoves();
+        // the random draws below must stay in the same order, for the same seed to give the same movesets
+        Species baseForme = romHandler.altFormesCanHaveDifferentEvolutions() ? altForme : tp.getSpecies();
+        Species[] preEvos = cyclicEvolutions ? new Species[0] : learnsetIndex.getPreEvolutions(baseForme);
+
+        // Pre-Evo Moves
+        for (Species preEvo : preEvos) {
+            for (int move : learnsetIndex.getLevelUpMoves(preEvo.getNumber(), level, true)) {
+                if (this.random.nextDouble() < preEvoMoveProbability) {
+                    moveSelectionPoolAtLevel.add(moves.get(move));
+                }
+            }
         }
 
-        if (allTMCompat == null) {
-            allTMCompat = romHandler.getTMHMCompatibility();
+        // TM Moves
+        BitSet tmCompat = learnsetIndex.getTMCompatibility(altForme);
+        for (int i = tmCompat.nextSetBit(0); i >= 0; i = tmCompat.nextSetBit(i + 1)) {
+            addIfLearntByTrainer(moveSelectionPoolAtLevel, moves.get(allTMMoves.get(i)), level, tmMoveProbability);
         }
 
-        if (allTMMoves == null) {
-            allTMMoves = romHandler.getTMMoves();
+        // Move Tutor Moves
+        if (romHandler.hasMoveTutors()) {
+            BitSet tutorCompat = learnsetIndex.getTutorCompatibility(altForme);
+            for (int i = tutorCompat.nextSetBit(0); i >= 0; i = tutorCompat.nextSetBit(i + 1)) {
+                addIfLearntByTrainer(moveSelectionPoolAtLevel, moves.get(allTutorMoves.get(i)), level,
+                        tutorMoveProbability);
+            }
         }
 
-        if (allTutorCompat == null && romHandler.hasMoveTutors()) {
-            allTutorCompat = romHandler.getMoveTutorCompatibility();
+        // Egg Moves
+        if (!cyclicEvolutions) {
+            Species firstEvo = preEvos.length == 0 ? baseForme : preEvos[preEvos.length - 1];
+            List<Integer> eggMoves = allEggMoves.get(firstEvo.getNumber());
+            if (eggMoves != null) {
+                for (int eggMove : eggMoves) {
+                    if (this.random.nextDouble() < eggMoveProbability) {
+                        moveSelectionPoolAtLevel.add(moves.get(eggMove));
+                    }
+                }
+            }
         }
 
-        if (allTutorMoves == null) {
-            allTutorMoves = romHandler.getMoveTutorMoves();
+        return moveSelectionPoolAtLevel.stream().distinct().collect(Collectors.toList());
+    }
+
+    private void addIfLearntByTrainer(List<Move> moveSelectionPool, Move thisMove, int level, double probability) {
+        if (thisMove.power > 1 && level * 3 > thisMove.power * thisMove.hitCount &&
+                this.random.nextDouble() < probability) {
+            moveSelectionPool.add(thisMove);
+        } else if ((thisMove.power <= 1 && this.random.nextInt(100) < level) ||
+                this.random.nextInt(200) < level) {
+            moveSelectionPool.add(thisMove);
         }
+    }
 
-        // Level-up Moves
-        List<Move> moveSelectionPoolAtLevel = allLevelUpMoves.get(romHandler.getAltFormeOfSpecies(tp.getSpecies(), tp.getForme()).getNumber())
-                .stream()
-                .filter(ml -> (ml.level <= tp.getLevel() && ml.level != 0) || (ml.level == 0 && tp.getLevel() >= 30))
-                .map(ml -> moves.get(ml.move))
-                .distinct()
-                .collect(Collectors.toList());
+    /**
+     * The moves a trainer Pokemon can get, each with a weight for how likely it is to be picked.<br>
+     * Biasing towards moves adds to their weights, rather than adding copies of them, so the pool doesn't grow,
+     * and removing a move doesn't mean searching through all the copies. The moves stay in the order they
+     * were added.
+     */
+    private static class MovePool {
+
+        private final Move[] moves;
+        // 0 for moves which have been removed
+        private final double[] weights;
+        private int size;
+
+        MovePool(List<Move> moves) {
+            this.moves = moves.toArray(new Move[0]);
+            this.weights = new double[this.moves.length];
+            Arrays.fill(weights, 1);
+            this.size = this.moves.length;
+        }
 
-        // Pre-Evo Moves
-        if (!cyclicEvolutions) {
-            Species preEvo;
-            if (romHandler.altFormesCanHaveDifferentEvolutions()) {
-                preEvo = romHandler.getAltFormeOfSpecies(tp.getSpecies(), tp.getForme());
-            } else {
-                preEvo = tp.getSpecies();
+        /**
+         * Returns the number of moves left in the pool.
+         */
+        int size() {
+            return size;
+        }
+
+        List<Move> getMoves() {
+            List<Move> left = new ArrayList<>(size);
+            for (int i = 0; i < moves.length; i++) {
+                if (weights[i] > 0) {
+                    left.add(moves[i]);
+                }
             }
-            while (!preEvo.getEvolutionsTo().isEmpty()) {
-                preEvo = preEvo.getEvolutionsTo().get(0).getFrom();
-                moveSelectionPoolAtLevel.addAll(allLevelUpMoves.get(preEvo.getNumber())
-                        .stream()
-                        .filter(ml -> ml.level <= tp.getLevel())
-                        .filter(ml -> this.random.nextDouble() < preEvoMoveProbability)
-                        .map(ml -> moves.get(ml.move))
-                        .distinct().collect(Collectors.toList()));
+            return left;
+        }
+
+        double getWeight(Predicate<Move> filter) {
+            double weight = 0;
+            for (int i = 0; i < moves.length; i++) {
+                if (weights[i] > 0 && filter.test(moves[i])) {
+                    weight += weights[i];
+                }
             }
+            return weight;
         }
 
-        // TM Moves
-        boolean[] tmCompat = allTMCompat.get(romHandler.getAltFormeOfSpecies(tp.getSpecies(), tp.getForme()));
-        for (int tmMove: allTMMoves) {
-            if (tmCompat[allTMMoves.indexOf(tmMove) + 1]) {
-                Move thisMove = moves.get(tmMove);
-                if (thisMove.power > 1 && tp.getLevel() * 3 > thisMove.power * thisMove.hitCount &&
-                        this.random.nextDouble() < tmMoveProbability) {
-                    moveSelectionPoolAtLevel.add(thisMove);
-                } else if ((thisMove.power <= 1 && this.random.nextInt(100) < tp.getLevel()) ||
-                        this.random.nextInt(200) < tp.getLevel()) {
-                    moveSelectionPoolAtLevel.add(thisMove);
+        /**
+         * Biases the pool towards the moves matching the filter. As much weight is added as
+         * bias * (number of matching moves), rounded up, spread evenly between them.
+         */
+        void addBias(Predicate<Move> filter, double bias) {
+            changeWeights(filter, bias, 1);
+        }
+
+        /**
+         * Biases the pool against the moves matching the filter, the opposite of {@link #addBias(Predicate, double)}.
+         * Moves whose weights reach zero are removed, but only as long as more than keep moves are left.
+         */
+        void lowerBias(Predicate<Move> filter, double bias, int keep) {
+            int matching = countMatching(filter);
+            if (matching == 0) {
+                return;
+            }
+            double removed = Math.ceil(bias * matching) / matching;
+            for (int i = 0; i < moves.length && size > keep; i++) {
+                if (weights[i] > 0 && filter.test(moves[i])) {
+                    lowerWeight(i, removed);
                 }
             }
         }
 
-        // Move Tutor Moves
-        if (romHandler.hasMoveTutors()) {
-            boolean[] tutorCompat = allTutorCompat.get(romHandler.getAltFormeOfSpecies(tp.getSpecies(), tp.getForme()));
-            for (int tutorMove: allTutorMoves) {
-                if (tutorCompat[allTutorMoves.indexOf(tutorMove) + 1]) {
-                    Move thisMove = moves.get(tutorMove);
-                    if (thisMove.power > 1 && tp.getLevel() * 3 > thisMove.power * thisMove.hitCount &&
-                            this.random.nextDouble() < tutorMoveProbability) {
-                        moveSelectionPoolAtLevel.add(thisMove);
-                    } else if ((thisMove.power <= 1 && this.random.nextInt(100) < tp.getLevel()) ||
-                            this.random.nextInt(200) < tp.getLevel()) {
-                        moveSelectionPoolAtLevel.add(thisMove);
-                    }
+        /**
+         * Lowers the weights of the moves matching the filter by one, removing those whose weights reach zero.
+         * If that would remove all moves, nothing is lowered.
+         */
+        void lowerByOne(Predicate<Move> filter) {
+            boolean anyLeft = false;
+            for (int i = 0; i < moves.length && !anyLeft; i++) {
+                anyLeft = weights[i] > 0 && (weights[i] > 1 || !filter.test(moves[i]));
+            }
+            if (!anyLeft) {
+                return;
+            }
+            for (int i = 0; i < moves.length; i++) {
+                if (weights[i] > 0 && filter.test(moves[i])) {
+                    lowerWeight(i, 1);
                 }
             }
         }
 
-        // Egg Moves
-        if (!cyclicEvolutions) {
-            Species firstEvo;
-            if (romHandler.altFormesCanHaveDifferentEvolutions()) {
-                firstEvo = romHandler.getAltFormeOfSpecies(tp.getSpecies(), tp.getForme());
-            } else {
-                firstEvo = tp.getSpecies();
+        void scaleWeights(Predicate<Move> filter, double factor) {
+            changeWeights(filter, 0, factor);
+        }
+
+        void remove(Move move) {
+            removeIf(mv -> mv == move);
+        }
+
+        void removeIf(Predicate<Move> filter) {
+            for (int i = 0; i < moves.length; i++) {
+                if (weights[i] > 0 && filter.test(moves[i])) {
+                    weights[i] = 0;
+                    size--;
+                }
             }
-            while (!firstEvo.getEvolutionsTo().isEmpty()) {
-                firstEvo = firstEvo.getEvolutionsTo().get(0).getFrom();
+        }
+
+        /**
+         * Picks a move by weight, from those matching the filter; or from all moves left if none do.
+         */
+        Move pick(Random random, Predicate<Move> preferred) {
+            int[] indices = new int[size];
+            double[] pickWeights = new double[size];
+            int count = 0;
+            for (int i = 0; i < moves.length; i++) {
+                if (weights[i] > 0 && preferred.test(moves[i])) {
+                    indices[count] = i;
+                    pickWeights[count++] = weights[i];
+                }
             }
-            if (allEggMoves.get(firstEvo.getNumber()) != null) {
-                moveSelectionPoolAtLevel.addAll(allEggMoves.get(firstEvo.getNumber())
-                        .stream()
-                        .filter(egm -> this.random.nextDouble() < eggMoveProbability)
-                        .map(moves::get).collect(Collectors.toList()));
+            if (count == 0) {
+                if (size == 0) {
+                    throw new IllegalStateException("No moves left to pick from.");
+                }
+                return pick(random, mv -> true);
             }
+            return moves[indices[new AliasSampler(pickWeights, count).sample(random)]];
         }
 
-        return moveSelectionPoolAtLevel.stream().distinct().collect(Collectors.toList());
+        private void changeWeights(Predicate<Move> filter, double bias, double factor) {
+            int matching = countMatching(filter);
+            if (matching == 0) {
+                return;
+            }
+            double added = Math.ceil(bias * matching) / matching;
+            for (int i = 0; i < moves.length; i++) {
+                if (weights[i] > 0 && filter.test(moves[i])) {
+                    weights[i] = weights[i] * factor + added;
+                }
+            }
+        }
+
+        private void lowerWeight(int i, double amount) {
+            weights[i] -= amount;
+            if (weights[i] <= 0) {
+                weights[i] = 0;
+                size--;
+            }
+        }
+
+        private int countMatching(Predicate<Move> filter) {
+            int matching = 0;
+            for (int i = 0; i < moves.length; i++) {
+                if (weights[i] > 0 && filter.test(moves[i])) {
+                    matching++;
+                }
+            }
+            return matching;
+        }
     }
 }
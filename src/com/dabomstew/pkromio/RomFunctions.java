@@ -101,40 +101,6 @@ public class RomFunctions {
         return new String(string);
     }
 
-    @Deprecated
-    public static int freeSpaceFinder(byte[] rom, byte freeSpace, int amount, int offset) {
-        System.out.print("RomFunctions.freeSpaceFinder() is deprecated, " +
-                "use AbstractGBRomHandler.findAndUnfreeSpace() instead.");
-        // by default align to 4 bytes to make sure things don't break
-        return freeSpaceFinder(rom, freeSpace, amount, offset, true);
-    }
-
-    @Deprecated
-    public static int freeSpaceFinder(byte[] rom, byte freeSpace, int amount, int offset, boolean longAligned) {
-        System.out.print("RomFunctions.freeSpaceFinder() is deprecated, " +
-                "use AbstractGBRomHandler.findAndUnfreeSpace() instead.");
-        if (!longAligned) {
-            // Find 2 more than necessary and return 2 into it,
-            // to preserve stuff like FF terminators for strings
-            // 161: and FFFF terminators for movesets
-            byte[] searchNeedle = new byte[amount + 2];
-            for (int i = 0; i < amount + 2; i++) {
-                searchNeedle[i] = freeSpace;
-            }
-            return searchForFirst(rom, offset, searchNeedle) + 2;
-        } else {
-            // Find 5 more than necessary and return into it as necessary for
-            // 4-alignment,
-            // to preserve stuff like FF terminators for strings
-            // 161: and FFFF terminators for movesets
-            byte[] searchNeedle = new byte[amount + 5];
-            for (int i = 0; i < amount + 5; i++) {
-                searchNeedle[i] = freeSpace;
-            }
-            return (searchForFirst(rom, offset, searchNeedle) + 5) & ~3;
-        }
-    }
-
     public static List<Integer> search(byte[] haystack, byte[] needle) {
         return search(haystack, 0, haystack.length, needle);
     }
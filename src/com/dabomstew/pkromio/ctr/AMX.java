@@ -23,15 +23,12 @@ package com.dabomstew.pkromio.ctr;
 /*----------------------------------------------------------------------------*/
 
 import com.dabomstew.pkromio.FileFunctions;
-import com.dabomstew.pkromio.exceptions.RomIOException;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 
 public class AMX {
 
@@ -155,20 +152,19 @@ public class AMX {
 
         ByteArrayOutputStream out = new ByteArrayOutputStream(compLength);
 
-        try {
-            while (inBuf.position() < data.length) {
-                compressBytes(inBuf, out);
-            }
-        } catch (IOException e) {
-            throw new RomIOException(e);
+        byte[] bytes = new byte[5];
+        while (inBuf.position() < data.length) {
+            compressBytes(inBuf, out, bytes);
         }
 
         return out.toByteArray();
     }
 
     // Modified version of the AMX script compression algorithm from pkNX
-    private void compressBytes(ByteBuffer inBuf, ByteArrayOutputStream out) throws IOException {
-        List<Byte> bytes = new ArrayList<>();
+    private void compressBytes(ByteBuffer inBuf, ByteArrayOutputStream out, byte[] bytes) {
+        // Values are at most 5 bytes, so they're put in a reused buffer, lowest byte last,
+        // instead of being collected in a list and reversed.
+        int count = 0;
         int instructionTemp = inBuf.getInt(inBuf.position());
         long instruction = Integer.toUnsignedLong(instructionTemp);
         boolean sign = (instruction & 0x80000000) > 0;
@@ -184,20 +180,20 @@ public class AMX {
             long least7 = instruction & 0b01111111;
             byte byteVal = (byte)least7;
 
-            if (!bytes.isEmpty())
+            if (count != 0)
             {
                 // Continuation bit on all but the lowest byte
                 byteVal |= 0x80;
             }
 
-            bytes.add(byteVal);
+            bytes[bytes.length - ++count] = byteVal;
 
             instruction >>= 7;
             shadow >>= 7;
         }
         while (shadow != 0);
 
-        if (bytes.size() < 5)
+        if (count < 5)
         {
             // Ensure "sign bit" (bit just to the right of highest continuation bit) is
             // correct. Add an extra empty continuation byte if we need to. Values can't
@@ -205,23 +201,11 @@ public class AMX {
 
             int signBit = sign ? 0x40 : 0x00;
 
-            if ((bytes.get(bytes.size() - 1) & 0x40) != signBit)
-                bytes.add((byte)(sign ? 0xFF : 0x80));
-        }
-
-        // Reverse for endianess
-        for (int i = 0; i < bytes.size() / 2; i++) {
-            byte temp = bytes.get(i);
-            bytes.set(i, bytes.get(bytes.size() - i - 1));
-            bytes.set(bytes.size() - i - 1,  temp);
-        }
-
-        byte[] ret = new byte[bytes.size()];
-        for (int i = 0; i < ret.length; i++) {
-            ret[i] = bytes.get(i);
+            if ((bytes[bytes.length - count] & 0x40) != signBit)
+                bytes[bytes.length - ++count] = (byte)(sign ? 0xFF : 0x80);
         }
 
         inBuf.position(inBuf.position() + 4);
-        out.write(ret);
+        out.write(bytes, bytes.length - count, count);
     }
 }
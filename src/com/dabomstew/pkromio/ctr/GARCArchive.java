@@ -21,17 +21,23 @@ package com.dabomstew.pkromio.ctr;
 /*--  along with this program. If not, see <http://www.gnu.org/licenses/>.  --*/
 /*----------------------------------------------------------------------------*/
 
+import com.dabomstew.pkromio.exceptions.RomIOException;
 import cuecompressors.BLZCoder;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
-
+import java.util.*;
+
+/**
+ * A GARC archive, as used by the 3DS games.<br>
+ * Reading one only parses the FATO/FATB tables; the sub-files stay in the archive data until they are first
+ * gotten, and are only decompressed then. Sub-files which were never gotten, or are unchanged since, are written
+ * back by {@link #getBytes()} just as they were read, without being compressed again.<br>
+ * The archive data can be moved out of the Java heap with {@link #storeOffHeap()}, for large GARCs which are
+ * kept around.
+ */
 public class GARCArchive {
 
     private final int VER_4 = 0x0400;
@@ -49,6 +55,9 @@ public class GARCArchive {
     private Map<Integer,Boolean> isCompressed = new TreeMap<>();
     private List<Boolean> compressThese = null;
 
+    // the archive data, which the sub-files are sliced from
+    private ByteBuffer source;
+
     private GARCFrame garc;
     private FATOFrame fato;
     private FATBFrame fatb;
@@ -170,37 +179,65 @@ public class GARCArchive {
         fimb.files = new ArrayList<>();
         for (int i = 0; i < fatb.fileCount; i++) {
             FATBEntry entry = fatb.entries[i];
-            Map<Integer,byte[]> files = new TreeMap<>();
+            LazyDirectory files = new LazyDirectory(i);
             for (int k: entry.subEntries.keySet()) {
                 FATBSubEntry subEntry = entry.subEntries.get(k);
-                bbuf.position(garc.dataOffset + subEntry.start);
-                byte[] file = new byte[subEntry.length];
-                boolean compressed = compressThese == null ?
-                        bbuf.get(bbuf.position()) == 0x11 && !skipDecompression :
-                        bbuf.get(bbuf.position()) == 0x11 && compressThese.get(i);
-                bbuf.get(file);
-                if (compressed) {
-                    try {
-                        files.put(k,new BLZCoder(null).BLZ_DecodePub(file,"GARC"));
-                        isCompressed.put(i,true);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                        return false;
-                    }
-                } else {
-                    files.put(k,file);
-                    isCompressed.put(i,false);
+                int offset = garc.dataOffset + subEntry.start;
+                if (offset < 0 || offset + subEntry.length > data.length) {
+                    return false;
                 }
+                boolean startsLikeBLZ = subEntry.length > 0 && data[offset] == 0x11;
+                boolean compressed = compressThese == null ?
+                        startsLikeBLZ && !skipDecompression :
+                        startsLikeBLZ && compressThese.get(i);
+                files.putSlice(k, offset, subEntry.length, compressed);
+                isCompressed.put(i,compressed);
             }
             fimb.files.add(files);
         }
+        source = ByteBuffer.wrap(data);
         return true;
     }
 
+    /**
+     * Moves the archive data, which sub-files not yet gotten are read from, out of the Java heap.
+     * Sub-files which have been gotten stay on the heap.
+     */
+    public void storeOffHeap() {
+        if (source != null && !source.isDirect()) {
+            ByteBuffer direct = ByteBuffer.allocateDirect(source.capacity());
+            direct.put(source.duplicate());
+            direct.clear();
+            source = direct;
+        }
+    }
+
     public void updateFiles(List<Map<Integer,byte[]>> files) {
         fimb.files = files;
     }
 
+    /**
+     * Returns whether any sub-file differs from the one this GARC was read from, i.e. whether it needs to be
+     * written back. Sub-files are compared by content, since they are often edited in place.
+     * A GARC which was not read from data always counts as changed.
+     */
+    public boolean isChanged() {
+        if (source == null || fimb.files.size() != fatb.fileCount) {
+            return true;
+        }
+        for (int i = 0; i < fimb.files.size(); i++) {
+            Map<Integer, byte[]> directory = fimb.files.get(i);
+            if (!isOriginalDirectory(directory, i) || ((LazyDirectory) directory).isChanged()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isOriginalDirectory(Map<Integer, byte[]> directory, int index) {
+        return directory instanceof LazyDirectory && ((LazyDirectory) directory).isOriginal(this, index);
+    }
+
     public byte[] getBytes() throws IOException {
         int garcHeaderSize = garc.version == VER_4 ? garcHeaderSize_4 : garcHeaderSize_6;
         ByteBuffer garcBuf = ByteBuffer.allocate(garcHeaderSize);
@@ -240,6 +277,11 @@ public class GARCArchive {
             int totalLength = 0;
             for (int k: directory.keySet()) {
                 bitVector |= (1 << k);
+                if (isOriginalDirectory(directory, i) && ((LazyDirectory) directory).isUnchanged(k)) {
+                    // copy it straight from the original data, instead of compressing it again
+                    totalLength += ((LazyDirectory) directory).writeOriginal(k, fimbPayloadStream);
+                    continue;
+                }
                 byte[] file = directory.get(k);
                 if (isCompressed.get(i)) {
                     file = new BLZCoder(null).BLZ_EncodePub(file,false,false,"GARC");
@@ -341,6 +383,227 @@ public class GARCArchive {
         return fimb.files.get(index);
     }
 
+    /**
+     * A sub-file in a {@link LazyDirectory}; either a part of the archive data, or contents set later.
+     */
+    private static class Slice {
+        final int offset;
+        final int length;
+        final boolean compressed;
+        // whether this is a part of the archive data, rather than contents set later
+        final boolean original;
+        byte[] contents;
+        // for a compressed sub-file which has been gotten, a copy of what it decompressed to
+        byte[] decompressed;
+
+        Slice(int offset, int length, boolean compressed) {
+            this.offset = offset;
+            this.length = length;
+            this.compressed = compressed;
+            this.original = true;
+        }
+
+        Slice(byte[] contents) {
+            this.offset = 0;
+            this.length = 0;
+            this.compressed = false;
+            this.original = false;
+            this.contents = contents;
+        }
+    }
+
+    /**
+     * A directory of sub-files, which are sliced out of the archive data (and decompressed)
+     * the first time they are gotten.
+     */
+    private class LazyDirectory extends AbstractMap<Integer, byte[]> {
+
+        private final TreeMap<Integer, Slice> slices = new TreeMap<>();
+        private final int index;
+        private boolean removedAny;
+
+        LazyDirectory(int index) {
+            this.index = index;
+        }
+
+        /**
+         * Whether this is the directory at the index of the archive, as it was read.
+         */
+        boolean isOriginal(GARCArchive archive, int index) {
+            return GARCArchive.this == archive && this.index == index;
+        }
+
+        void putSlice(int key, int offset, int length, boolean compressed) {
+            slices.put(key, new Slice(offset, length, compressed));
+        }
+
+        /**
+         * Whether the sub-file is still the original one, and has the same contents as when it was read.
+         */
+        boolean isUnchanged(int key) {
+            Slice slice = slices.get(key);
+            return slice != null && !isChanged(slice);
+        }
+
+        boolean isChanged() {
+            if (removedAny) {
+                return true;
+            }
+            for (Slice slice : slices.values()) {
+                if (isChanged(slice)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isChanged(Slice slice) {
+            if (!slice.original) {
+                return true;
+            }
+            if (slice.contents == null) {
+                return false;
+            }
+            if (slice.compressed) {
+                return !Arrays.equals(slice.contents, slice.decompressed);
+            }
+            if (slice.contents.length != slice.length) {
+                return true;
+            }
+            ByteBuffer view = source.duplicate();
+            view.position(slice.offset);
+            for (byte b : slice.contents) {
+                if (b != view.get()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Writes the original, still compressed, data of an unchanged sub-file, and returns its length.
+         */
+        int writeOriginal(int key, ByteArrayOutputStream out) {
+            Slice slice = slices.get(key);
+            if (source.hasArray()) {
+                out.write(source.array(), slice.offset, slice.length);
+            } else {
+                byte[] original = new byte[slice.length];
+                readSource(slice, original);
+                out.write(original, 0, original.length);
+            }
+            return slice.length;
+        }
+
+        private byte[] contentsOf(Slice slice) {
+            if (slice.contents == null) {
+                byte[] file = new byte[slice.length];
+                readSource(slice, file);
+                if (slice.compressed) {
+                    try {
+                        file = new BLZCoder(null).BLZ_DecodePub(file, "GARC");
+                    } catch (Exception e) {
+                        throw new RomIOException("Could not decompress GARC sub-file", e);
+                    }
+                    slice.decompressed = file.clone();
+                }
+                slice.contents = file;
+            }
+            return slice.contents;
+        }
+
+        private void readSource(Slice slice, byte[] dest) {
+            ByteBuffer view = source.duplicate();
+            view.position(slice.offset);
+            view.get(dest);
+        }
+
+        @Override
+        public byte[] get(Object key) {
+            Slice slice = slices.get(key);
+            return slice == null ? null : contentsOf(slice);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return slices.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return slices.size();
+        }
+
+        @Override
+        public byte[] put(Integer key, byte[] value) {
+            Slice old = slices.put(key, new Slice(value));
+            // an untouched sub-file is not decompressed just to be returned here
+            return old == null ? null : old.contents;
+        }
+
+        @Override
+        public byte[] remove(Object key) {
+            Slice old = slices.remove(key);
+            removedAny |= old != null;
+            return old == null ? null : old.contents;
+        }
+
+        @Override
+        public Set<Integer> keySet() {
+            return slices.keySet();
+        }
+
+        @Override
+        public Set<Entry<Integer, byte[]>> entrySet() {
+            return new AbstractSet<Entry<Integer, byte[]>>() {
+                @Override
+                public Iterator<Entry<Integer, byte[]>> iterator() {
+                    Iterator<Entry<Integer, Slice>> it = slices.entrySet().iterator();
+                    return new Iterator<Entry<Integer, byte[]>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+
+                        @Override
+                        public Entry<Integer, byte[]> next() {
+                            Entry<Integer, Slice> entry = it.next();
+                            return new Entry<Integer, byte[]>() {
+                                @Override
+                                public Integer getKey() {
+                                    return entry.getKey();
+                                }
+
+                                @Override
+                                public byte[] getValue() {
+                                    return contentsOf(entry.getValue());
+                                }
+
+                                @Override
+                                public byte[] setValue(byte[] value) {
+                                    byte[] old = getValue();
+                                    entry.setValue(new Slice(value));
+                                    return old;
+                                }
+                            };
+                        }
+
+                        @Override
+                        public void remove() {
+                            it.remove();
+                            removedAny = true;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return slices.size();
+                }
+            };
+        }
+    }
+
     private class GARCFrame {
         int headerSize;
         int endianness;
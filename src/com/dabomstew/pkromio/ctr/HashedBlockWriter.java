@@ -0,0 +1,186 @@
+package com.dabomstew.pkromio.ctr;
+
+/*----------------------------------------------------------------------------*/
+/*--  HashedBlockWriter.java - writes data to a file while computing the    --*/
+/*--                           SHA-256 hashes of its blocks, for the romfs  --*/
+/*--                           hash tree.                                   --*/
+/*--                                                                        --*/
+/*--  Part of "Universal Pokemon Randomizer ZX" by the UPR-ZX team          --*/
+/*--  Pokemon and any associated names and the like are                     --*/
+/*--  trademark and (C) Nintendo 1996-2020.                                 --*/
+/*--                                                                        --*/
+/*--  This program is free software: you can redistribute it and/or modify  --*/
+/*--  it under the terms of the GNU General Public License as published by  --*/
+/*--  the Free Software Foundation, either version 3 of the License, or     --*/
+/*--  (at your option) any later version.                                   --*/
+/*--                                                                        --*/
+/*--  This program is distributed in the hope that it will be useful,       --*/
+/*--  but WITHOUT ANY WARRANTY; without even the implied warranty of        --*/
+/*--  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the          --*/
+/*--  GNU General Public License for more details.                          --*/
+/*--                                                                        --*/
+/*--  You should have received a copy of the GNU General Public License     --*/
+/*--  along with this program. If not, see <http://www.gnu.org/licenses/>.  --*/
+/*----------------------------------------------------------------------------*/
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Writes data sequentially to a file, and computes the SHA-256 hash of each block of it as it goes,
+ * so nothing has to be read back from the file to hash it.<br>
+ * The data is buffered in batches of blocks; each batch is written in one go, and its blocks are hashed in parallel.
+ */
+public class HashedBlockWriter {
+
+    public static final int HASH_SIZE = 0x20;
+
+    private static final int MIN_BATCH_SIZE = 4 * 1024 * 1024;
+    private static final byte[] ZEROS = new byte[64 * 1024];
+
+    private static final ThreadLocal<MessageDigest> DIGESTS = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final RandomAccessFile out;
+    private final int blockSize;
+    private final byte[] batch;
+    private int batchFill;
+    private long position;
+    private byte[] hashes = new byte[HASH_SIZE * 1024];
+    private int hashCount;
+
+    /**
+     * @param out The file to write to. Writing starts at its current file pointer.
+     * @param blockSize The size of each hashed block, in bytes.
+     */
+    public HashedBlockWriter(RandomAccessFile out, int blockSize) throws NoSuchAlgorithmException {
+        MessageDigest.getInstance("SHA-256"); // fail early if it's not available
+        this.out = out;
+        this.blockSize = blockSize;
+        int blocksPerBatch = Math.max(1, MIN_BATCH_SIZE / blockSize);
+        this.batch = new byte[blocksPerBatch * blockSize];
+    }
+
+    /**
+     * Returns how many bytes have been written so far.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    public void write(byte[] data) throws IOException {
+        int offset = 0;
+        while (offset < data.length) {
+            int length = Math.min(data.length - offset, batch.length - batchFill);
+            System.arraycopy(data, offset, batch, batchFill, length);
+            advance(length);
+            offset += length;
+        }
+    }
+
+    /**
+     * Copies data straight from another file, without it going through any array but the batch buffer.
+     */
+    public void copyFrom(RandomAccessFile source, long sourceOffset, long length) throws IOException {
+        source.seek(sourceOffset);
+        while (length > 0) {
+            int chunk = (int) Math.min(length, batch.length - batchFill);
+            source.readFully(batch, batchFill, chunk);
+            advance(chunk);
+            length -= chunk;
+        }
+    }
+
+    /**
+     * Writes zeros up to the given position, which must not be before the current one.
+     */
+    public void padTo(long newPosition) throws IOException {
+        if (newPosition < position) {
+            throw new IllegalArgumentException("Can't pad backwards, from " + position + " to " + newPosition);
+        }
+        while (position < newPosition) {
+            int length = (int) Math.min(newPosition - position, batch.length - batchFill);
+            Arrays.fill(batch, batchFill, batchFill + length, (byte) 0);
+            advance(length);
+        }
+    }
+
+    /**
+     * Pads the last block with zeros, writes out everything left, and returns the hashes of all blocks,
+     * concatenated in order.
+     */
+    public byte[] finish() throws IOException {
+        padTo(NCCH.alignLong(position, blockSize));
+        flush();
+        return Arrays.copyOf(hashes, hashCount * HASH_SIZE);
+    }
+
+    private void advance(int length) throws IOException {
+        batchFill += length;
+        position += length;
+        if (batchFill == batch.length) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        if (batchFill == 0) {
+            return;
+        }
+        out.write(batch, 0, batchFill);
+        int blockCount = batchFill / blockSize;
+        if (hashes.length < (hashCount + blockCount) * HASH_SIZE) {
+            hashes = Arrays.copyOf(hashes, Math.max(hashes.length * 2, (hashCount + blockCount) * HASH_SIZE));
+        }
+        hashBlocks(batch, blockCount, blockSize, hashes, hashCount * HASH_SIZE);
+        hashCount += blockCount;
+        batchFill = 0;
+    }
+
+    /**
+     * Returns the hashes of each block of the given data, concatenated in order.
+     * The last block is padded with zeros if the data doesn't fill it.
+     */
+    public static byte[] hashBlocks(byte[] data, int blockSize) {
+        int blockCount = (int) (NCCH.alignLong(data.length, blockSize) / blockSize);
+        byte[] padded = data.length == blockCount * blockSize ? data : Arrays.copyOf(data, blockCount * blockSize);
+        byte[] hashes = new byte[blockCount * HASH_SIZE];
+        hashBlocks(padded, blockCount, blockSize, hashes, 0);
+        return hashes;
+    }
+
+    private static void hashBlocks(byte[] data, int blockCount, int blockSize, byte[] hashes, int hashesOffset) {
+        // the blocks are independent of each other, so they can be hashed on all cores
+        IntStream.range(0, blockCount).parallel().forEach(i -> {
+            MessageDigest digest = DIGESTS.get();
+            digest.update(data, i * blockSize, blockSize);
+            try {
+                digest.digest(hashes, hashesOffset + i * HASH_SIZE, HASH_SIZE);
+            } catch (DigestException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    /**
+     * Writes the given number of zeros to a file, at its current file pointer.
+     */
+    public static void writeZeros(RandomAccessFile out, long count) throws IOException {
+        while (count > 0) {
+            int length = (int) Math.min(count, ZEROS.length);
+            out.write(ZEROS, 0, length);
+            count -= length;
+        }
+    }
+
+}
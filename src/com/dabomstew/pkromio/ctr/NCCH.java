@@ -34,6 +34,7 @@ import java.nio.file.Paths;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class NCCH {
     private String romFilename;
@@ -51,8 +52,11 @@ public class NCCH {
     private boolean romOpen;
     private String tmpFolder;
     private boolean writingEnabled;
+    private boolean lowMemoryMode;
     private boolean codeCompressed, codeOpen, codeChanged;
     private byte[] codeRamstored;
+    // the original contents of romfs files, by path, shared between all copies of the same NCCH (see NCCH(NCCH))
+    private Map<String, byte[]> originalContents;
 
     // Public so the base game can read it from the game update NCCH
     public long originalCodeCRC, originalRomfsHeaderCRC;
@@ -114,6 +118,46 @@ public class NCCH {
         }
     }
 
+    /**
+     * Creates a copy of an NCCH, which shares its parsed exefs/romfs but none of its changes.
+     * The copy keeps its changes in RAM rather than in the tmp folder, so it can be used alongside the original and
+     * other copies. Romfs files read by one copy of an NCCH are cached, so other copies of it don't read them from
+     * disk again.<br>
+     * Should be made before any changes are made to the original.
+     */
+    public NCCH(NCCH original) {
+        this.romFilename = original.romFilename;
+        this.ncchStartingOffset = original.ncchStartingOffset;
+        this.productCode = original.productCode;
+        this.titleId = original.titleId;
+        this.version = original.version;
+        this.romOpen = false; // opened on the first read
+        this.writingEnabled = false;
+        this.originalContents = original.originalContents != null ? original.originalContents
+                : new ConcurrentHashMap<>();
+
+        this.exefsOffset = original.exefsOffset;
+        this.romfsOffset = original.romfsOffset;
+        this.fileDataOffset = original.fileDataOffset;
+        this.codeCompressed = original.codeCompressed;
+        this.codeFileHeader = original.codeFileHeader;
+        this.extraExefsFiles = original.extraExefsFiles;
+        // the SMDH is changed when saving, so each copy needs its own
+        this.smdh = original.smdh == null ? null : new SMDH(original.smdh.getBytes().clone());
+        this.originalRomfsHeaderCRC = original.originalRomfsHeaderCRC;
+        this.originalCodeCRC = original.originalCodeCRC;
+
+        if (original.fileMetadataList != null) {
+            this.fileMetadataList = new ArrayList<>();
+            this.romfsFiles = new TreeMap<>();
+            for (FileMetadata originalMetadata : original.fileMetadataList) {
+                RomfsFile file = new RomfsFile(this, originalMetadata.file);
+                fileMetadataList.add(new FileMetadata(originalMetadata, file));
+                romfsFiles.put(file.fullPath, file);
+            }
+        }
+    }
+
     public void reopenROM() throws IOException {
         if (!this.romOpen) {
             baseRom = new RandomAccessFile(this.romFilename, "r");
@@ -428,11 +472,10 @@ public class NCCH {
 
         // Copy the level 3 header straight from the original ROM. Since we're not adding or
         // removing any files, the File/Directory tables should have the same offsets and lengths
+        long startTime = System.currentTimeMillis();
         byte[] level3HeaderData = new byte[level3_header_size];
         baseRom.seek(level3Offset);
         baseRom.readFully(level3HeaderData);
-        fNew.seek(newLevel3Offset);
-        fNew.write(level3HeaderData);
 
         // Write out both hash tables and the directory metadata table. Since we're not adding or removing
         // any files/directories, we can just use what's in the base ROM for this.
@@ -445,46 +488,46 @@ public class NCCH {
         byte[] directoryHashTable = new byte[directoryHashTableLength];
         baseRom.seek(level3Offset + directoryHashTableOffset);
         baseRom.readFully(directoryHashTable);
-        fNew.seek(newLevel3Offset + directoryHashTableOffset);
-        fNew.write(directoryHashTable);
         byte[] directoryMetadataTable = new byte[directoryMetadataTableLength];
         baseRom.seek(level3Offset + directoryMetadataTableOffset);
         baseRom.readFully(directoryMetadataTable);
-        fNew.seek(newLevel3Offset + directoryMetadataTableOffset);
-        fNew.write(directoryMetadataTable);
         byte[] fileHashTable = new byte[fileHashTableLength];
         baseRom.seek(level3Offset + fileHashTableOffset);
         baseRom.readFully(fileHashTable);
-        fNew.seek(newLevel3Offset + fileHashTableOffset);
-        fNew.write(fileHashTable);
 
         // Now reconstruct the file metadata table. It may need to be changed if any file grew or shrunk
         int fileMetadataTableOffset = FileFunctions.readFullInt(level3HeaderData, 0x1C);
         int fileMetadataTableLength = FileFunctions.readFullInt(level3HeaderData, 0x20);
         byte[] newFileMetadataTable = updateFileMetadataTable(fileMetadataTableLength);
-        fNew.seek(newLevel3Offset + fileMetadataTableOffset);
-        fNew.write(newFileMetadataTable);
+
+        // Level 3 is written front to back in one pass, so its blocks can be hashed as they are written,
+        // instead of being read back afterwards. The tables are written in the order they appear in.
+        TreeMap<Integer, byte[]> level3Tables = new TreeMap<>();
+        level3Tables.put(0, level3HeaderData);
+        level3Tables.put(directoryHashTableOffset, directoryHashTable);
+        level3Tables.put(directoryMetadataTableOffset, directoryMetadataTable);
+        level3Tables.put(fileHashTableOffset, fileHashTable);
+        level3Tables.put(fileMetadataTableOffset, newFileMetadataTable);
+        fNew.seek(newLevel3Offset);
+        HashedBlockWriter level3Writer = new HashedBlockWriter(fNew, level3HashBlockSize);
+        for (Map.Entry<Integer, byte[]> table : level3Tables.entrySet()) {
+            level3Writer.padTo(table.getKey());
+            level3Writer.write(table.getValue());
+        }
 
         // Using the new file metadata table, output the file data
         int fileDataOffset = FileFunctions.readFullInt(level3HeaderData, 0x24);
-        long endOfFileDataOffset = 0;
         for (FileMetadata metadata : fileMetadataList) {
             System.out.println("NCCH: Writing file " + metadata.file.fullPath + " to romfs");
             // Users have sent us bug reports with really bizarre errors here that seem to indicate
             // broken metadata; do this in a try-catch solely so we can log the metadata if we fail
             try {
-                byte[] fileData;
+                level3Writer.padTo(fileDataOffset + metadata.fileDataOffset);
                 if (metadata.file.fileChanged) {
-                    fileData = metadata.file.getOverrideContents();
+                    level3Writer.write(metadata.file.getOverrideContents());
                 } else {
-                    fileData = new byte[metadata.file.size];
-                    baseRom.seek(metadata.file.offset);
-                    baseRom.readFully(fileData);
+                    level3Writer.copyFrom(baseRom, metadata.file.offset, metadata.file.size);
                 }
-                long currentDataOffset = newLevel3Offset + fileDataOffset + metadata.fileDataOffset;
-                fNew.seek(currentDataOffset);
-                fNew.write(fileData);
-                endOfFileDataOffset = currentDataOffset + fileData.length;
             } catch (Exception e) {
                 String message = String.format("Error when building romfs: File: %s, offset: %s, size: %s",
                         metadata.file.fullPath, metadata.offset, metadata.file.size);
@@ -495,49 +538,32 @@ public class NCCH {
         // Now that level 3 (file data) is done, construct level 2 (hashes of file data)
         // Note that in the ROM, level 1 comes *before* level 2, so we need to calculate
         // level 1 length and offset as well.
-        long newLevel3EndingOffset = endOfFileDataOffset;
-        long newLevel3HashdataSize = newLevel3EndingOffset - newLevel3Offset;
+        long newLevel3HashdataSize = level3Writer.getPosition();
+        // pads the last block with zeros, up to where level 1 starts
+        byte[] level2Data = level3Writer.finish();
         long numberOfLevel3HashBlocks = alignLong(newLevel3HashdataSize, level3HashBlockSize) / level3HashBlockSize;
         int level2HashBlockSize = 1 << FileFunctions.readFullInt(romfsHeaderData, 0x34);
         long newLevel2HashdataSize = numberOfLevel3HashBlocks * 0x20;
-        long numberOfLevel2HashBlocks = alignLong(newLevel2HashdataSize, level2HashBlockSize) / level2HashBlockSize;
         int level1HashBlockSize = 1 << FileFunctions.readFullInt(romfsHeaderData, 0x1C);
-        long newLevel1HashdataSize = numberOfLevel2HashBlocks * 0x20;
+        byte[] level1Data = HashedBlockWriter.hashBlocks(level2Data, level2HashBlockSize);
+        long newLevel1HashdataSize = level1Data.length;
         long newLevel1Offset = newLevel3Offset + alignLong(newLevel3HashdataSize, level3HashBlockSize);
         long newLevel2Offset = newLevel1Offset + alignLong(newLevel1HashdataSize, level1HashBlockSize);
         long newFileEndingOffset = alignLong(newLevel2Offset + newLevel2HashdataSize, level2HashBlockSize);
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        byte[] dataToHash = new byte[level3HashBlockSize];
-        for (long i = 0; i < numberOfLevel3HashBlocks; i++) {
-            fNew.seek(newLevel3Offset + (i * level3HashBlockSize));
-            fNew.readFully(dataToHash);
-            byte[] hash = digest.digest(dataToHash);
-            fNew.seek(newLevel2Offset + (i * 0x20));
-            fNew.write(hash);
-        }
-        while (fNew.getFilePointer() != newFileEndingOffset) {
-            fNew.writeByte(0);
-        }
 
-        // Now that level 2 (hashes of file data) is done, construct level 1 (hashes of
-        // hashes of file data) and the master hash/level 0 (hashes of level 1)
-        dataToHash = new byte[level2HashBlockSize];
-        for (long i = 0; i < numberOfLevel2HashBlocks; i++) {
-            fNew.seek(newLevel2Offset + (i * level2HashBlockSize));
-            fNew.readFully(dataToHash);
-            byte[] hash = digest.digest(dataToHash);
-            fNew.seek(newLevel1Offset + (i * 0x20));
-            fNew.write(hash);
-        }
-        long numberOfLevel1HashBlocks = alignLong(newLevel1HashdataSize, level1HashBlockSize) / level1HashBlockSize;
-        dataToHash = new byte[level1HashBlockSize];
-        for (long i = 0; i < numberOfLevel1HashBlocks; i++) {
-            fNew.seek(newLevel1Offset + (i * level1HashBlockSize));
-            fNew.readFully(dataToHash);
-            byte[] hash = digest.digest(dataToHash);
-            fNew.seek(newRomfsOffset + 0x60 + (i * 0x20));
-            fNew.write(hash);
-        }
+        // Level 1 (hashes of hashes of file data) and level 2 are small enough to be hashed in memory,
+        // and then written out along with their zero padding
+        fNew.seek(newLevel1Offset);
+        fNew.write(level1Data);
+        HashedBlockWriter.writeZeros(fNew, newLevel2Offset - newLevel1Offset - newLevel1HashdataSize);
+        fNew.write(level2Data);
+        HashedBlockWriter.writeZeros(fNew, newFileEndingOffset - newLevel2Offset - newLevel2HashdataSize);
+
+        // Lastly, the master hash/level 0 (hashes of level 1)
+        byte[] masterHash = HashedBlockWriter.hashBlocks(level1Data, level1HashBlockSize);
+        long numberOfLevel1HashBlocks = masterHash.length / 0x20;
+        fNew.seek(newRomfsOffset + 0x60);
+        fNew.write(masterHash);
 
         // Lastly, update the header and return the size of the new romfs
         long level1LogicalOffset = 0;
@@ -555,11 +581,11 @@ public class NCCH {
         long currentLength = newFileEndingOffset - newRomfsOffset;
         long newRomfsLength = alignLong(currentLength, media_unit_size);
         fNew.seek(newFileEndingOffset);
-        while (fNew.getFilePointer() < newRomfsOffset + newRomfsLength) {
-            fNew.writeByte(0);
-        }
+        HashedBlockWriter.writeZeros(fNew, newRomfsOffset + newRomfsLength - newFileEndingOffset);
 
-        System.out.println("NCCH: Done rebuilding romfs");
+        long time = Math.max(1, System.currentTimeMillis() - startTime);
+        System.out.printf("NCCH: Done rebuilding romfs (%d MB in %d ms, %.1f MB/s)%n", newRomfsLength >> 20, time,
+                newRomfsLength / 1048576.0 / (time / 1000.0));
         return newRomfsLength;
     }
 
@@ -663,6 +689,7 @@ public class NCCH {
     public byte[] getCode() throws IOException {
         if (!codeOpen) {
             codeOpen = true;
+            this.reopenROM();
             byte[] code = new byte[codeFileHeader.size];
 
             // File header offsets are from the start of the exefs but *exclude* the
@@ -787,6 +814,27 @@ public class NCCH {
         return fileDiagnostics;
     }
 
+    /**
+     * Reads the original contents of a romfs file from the ROM, or from the cache shared with other copies
+     * of this NCCH. Always returns a new array.
+     */
+    byte[] readOriginalContents(String fullPath, long offset, int size) throws IOException {
+        if (originalContents != null) {
+            byte[] cached = originalContents.get(fullPath);
+            if (cached != null) {
+                return Arrays.copyOf(cached, cached.length);
+            }
+        }
+        reopenROM();
+        byte[] buf = new byte[size];
+        baseRom.seek(offset);
+        baseRom.readFully(buf);
+        if (originalContents != null) {
+            originalContents.putIfAbsent(fullPath, Arrays.copyOf(buf, buf.length));
+        }
+        return buf;
+    }
+
     public String getTmpFolder() {
         return tmpFolder;
     }
@@ -799,6 +847,21 @@ public class NCCH {
         return writingEnabled;
     }
 
+    /**
+     * Returns whether this NCCH keeps as little as possible in RAM, see {@link #setLowMemoryMode(boolean)}.
+     */
+    public boolean isLowMemoryMode() {
+        return lowMemoryMode;
+    }
+
+    /**
+     * Sets whether this NCCH should keep as little as possible in RAM. If so, romfs files which have been read
+     * but not changed are not kept in RAM even if there is no tmp folder, but read from the ROM again each time.
+     */
+    public void setLowMemoryMode(boolean lowMemoryMode) {
+        this.lowMemoryMode = lowMemoryMode;
+    }
+
     public String getProductCode() {
         return productCode;
     }
@@ -1006,6 +1069,18 @@ public class NCCH {
             }
         }
 
+        public FileMetadata(FileMetadata original, RomfsFile file) {
+            this.offset = original.offset;
+            this.parentDirectoryOffset = original.parentDirectoryOffset;
+            this.siblingFileOffset = original.siblingFileOffset;
+            this.fileDataOffset = original.fileDataOffset;
+            this.fileDataLength = original.fileDataLength;
+            this.nextFileInHashBucketOffset = original.nextFileInHashBucketOffset;
+            this.nameLength = original.nameLength;
+            this.name = original.name;
+            this.file = file;
+        }
+
         public byte[] asBytes() {
             int metadataLength = 0x20;
             if (nameLength != metadata_unused) {
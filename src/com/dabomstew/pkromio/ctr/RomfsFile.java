@@ -26,7 +26,6 @@ import com.dabomstew.pkromio.FileFunctions;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.RandomAccessFile;
 
 public class RomfsFile {
 
@@ -44,14 +43,22 @@ public class RomfsFile {
         this.parent = parent;
     }
 
+    /**
+     * Copies the location (and original CRC, for the diagnostics) of a file into another {@link NCCH},
+     * but not its contents.
+     */
+    public RomfsFile(NCCH parent, RomfsFile original) {
+        this.parent = parent;
+        this.offset = original.offset;
+        this.size = original.size;
+        this.fullPath = original.fullPath;
+        this.originalCRC = original.originalCRC;
+    }
+
     public byte[] getContents() throws IOException {
         if (this.status == Extracted.NOT) {
             // extract file
-            parent.reopenROM();
-            RandomAccessFile rom = parent.getBaseRom();
-            byte[] buf = new byte[this.size];
-            rom.seek(this.offset);
-            rom.readFully(buf);
+            byte[] buf = parent.readOriginalContents(this.fullPath, this.offset, this.size);
             originalCRC = FileFunctions.getCRC32(buf);
             if (parent.isWritingEnabled()) {
                 // make a file
@@ -65,6 +72,9 @@ public class RomfsFile {
                 this.status = Extracted.TO_FILE;
                 this.data = null;
                 return buf;
+            } else if (parent.isLowMemoryMode()) {
+                // only changed files are kept in RAM; unchanged ones are read from the ROM again when needed
+                return buf;
             } else {
                 this.status = Extracted.TO_RAM;
                 this.data = buf;
@@ -95,7 +105,8 @@ public class RomfsFile {
             fos.write(data);
             fos.close();
         } else {
-            if (this.data.length == data.length) {
+            status = Extracted.TO_RAM;
+            if (this.data != null && this.data.length == data.length) {
                 // copy new in
                 System.arraycopy(data, 0, this.data, 0, data.length);
             } else {
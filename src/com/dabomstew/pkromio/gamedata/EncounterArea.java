@@ -62,6 +62,22 @@ public class EncounterArea extends ArrayList<Encounter> {
         super(collection);
     }
 
+    /**
+     * Creates a copy of the given area, with the given {@link Encounter}s instead of the original's.
+     */
+    public EncounterArea(EncounterArea original, Collection<? extends Encounter> encounters) {
+        super(encounters);
+        this.rate = original.rate;
+        this.bannedSpecies.addAll(original.bannedSpecies);
+        this.displayName = original.displayName;
+        this.mapIndex = original.mapIndex;
+        this.locationTag = original.locationTag;
+        this.encounterType = original.encounterType;
+        this.postGame = original.postGame;
+        this.partiallyPostGameCutoff = original.partiallyPostGameCutoff;
+        this.forceMultipleSpecies = original.forceMultipleSpecies;
+    }
+
     public int getRate() {
         return rate;
     }
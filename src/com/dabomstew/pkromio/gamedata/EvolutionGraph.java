@@ -0,0 +1,138 @@
+package com.dabomstew.pkromio.gamedata;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * The evolutions between a set of species, with what is reachable from each species and how many stages come
+ * before and after it kept up to date as evolutions are added and removed. This makes checking whether a new
+ * evolution would create a cycle, or a chain with too many stages, a lookup instead of a walk through the
+ * evolutions.<br>
+ * Evolutions must only be added and removed through the graph, and must never form a cycle.
+ */
+public class EvolutionGraph {
+
+    private final Map<Species, Integer> indices = new HashMap<>();
+    private final Species[] species;
+    private final Predicate<Species> evolvesLater;
+
+    // for each species, the indices of all species it can evolve into, directly or through other ones
+    private final BitSet[] descendants;
+    // the most stages before/after each species, i.e. its depth from the start/end of its longest chain
+    private final int[] preEvolutionStages;
+    private final int[] evolutionStages;
+
+    /**
+     * @param species The species; they must have no evolutions to or from them yet.
+     * @param evolvesLater Whether a species which has no evolutions yet will get one later. Such species count
+     *                     as having one stage after them, so chains into them leave room for it.
+     */
+    public EvolutionGraph(Collection<Species> species, Predicate<Species> evolvesLater) {
+        this.species = species.toArray(new Species[0]);
+        for (int i = 0; i < this.species.length; i++) {
+            indices.put(this.species[i], i);
+        }
+        this.evolvesLater = evolvesLater;
+        this.descendants = new BitSet[this.species.length];
+        this.preEvolutionStages = new int[this.species.length];
+        this.evolutionStages = new int[this.species.length];
+        for (int i = 0; i < this.species.length; i++) {
+            descendants[i] = new BitSet(this.species.length);
+            evolutionStages[i] = evolvesLater.test(this.species[i]) ? 1 : 0;
+        }
+    }
+
+    /**
+     * Adds the evolution to both its species.
+     */
+    public void add(Evolution evo) {
+        evo.getFrom().getEvolutionsFrom().add(evo);
+        evo.getTo().getEvolutionsTo().add(evo);
+        update(evo);
+    }
+
+    /**
+     * Removes the evolution from both its species.
+     */
+    public void remove(Evolution evo) {
+        evo.getFrom().getEvolutionsFrom().remove(evo);
+        evo.getTo().getEvolutionsTo().remove(evo);
+        update(evo);
+    }
+
+    /**
+     * Returns whether an evolution from one species to the other would create a cycle.
+     */
+    public boolean createsCycle(Species from, Species to) {
+        return from.equals(to) || descendants[index(to)].get(index(from));
+    }
+
+    /**
+     * Returns the most pre-evolution stages before the species; 0 if it does not evolve from anything.
+     */
+    public int getPreEvolutionStages(Species sp) {
+        return preEvolutionStages[index(sp)];
+    }
+
+    /**
+     * Returns the most evolution stages after the species, counting a species which
+     * {@link #EvolutionGraph(Collection, Predicate) evolves later} as having one.
+     */
+    public int getEvolutionStages(Species sp) {
+        return evolutionStages[index(sp)];
+    }
+
+    private int index(Species sp) {
+        Integer index = indices.get(sp);
+        if (index == null) {
+            throw new IllegalArgumentException(sp + " is not in the evolution graph.");
+        }
+        return index;
+    }
+
+    /**
+     * Updates what changed with the evolution being added or removed: the stages before the species it evolves
+     * into and all after that, and the stages after/species reachable from the species it evolves from and all
+     * before that. Each species is updated from its neighbours, and its own neighbours are queued up if that
+     * changed anything; since the evolutions form no cycles, this settles on the right values.
+     */
+    private void update(Evolution evo) {
+        Deque<Species> queue = new ArrayDeque<>();
+        queue.add(evo.getTo());
+        while (!queue.isEmpty()) {
+            Species sp = queue.poll();
+            int stages = 0;
+            for (Evolution preEvo : sp.getEvolutionsTo()) {
+                stages = Math.max(stages, preEvolutionStages[index(preEvo.getFrom())] + 1);
+            }
+            int i = index(sp);
+            if (stages != preEvolutionStages[i]) {
+                preEvolutionStages[i] = stages;
+                for (Evolution ev : sp.getEvolutionsFrom()) {
+                    queue.add(ev.getTo());
+                }
+            }
+        }
+
+        queue.add(evo.getFrom());
+        while (!queue.isEmpty()) {
+            Species sp = queue.poll();
+            int stages = sp.getEvolutionsFrom().isEmpty() && evolvesLater.test(sp) ? 1 : 0;
+            BitSet reachable = new BitSet(species.length);
+            for (Evolution ev : sp.getEvolutionsFrom()) {
+                int to = index(ev.getTo());
+                stages = Math.max(stages, evolutionStages[to] + 1);
+                reachable.set(to);
+                reachable.or(descendants[to]);
+            }
+            int i = index(sp);
+            if (stages != evolutionStages[i] || !reachable.equals(descendants[i])) {
+                evolutionStages[i] = stages;
+                descendants[i] = reachable;
+                for (Evolution preEvo : sp.getEvolutionsTo()) {
+                    queue.add(preEvo.getFrom());
+                }
+            }
+        }
+    }
+}
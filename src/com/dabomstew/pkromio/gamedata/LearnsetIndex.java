@@ -0,0 +1,170 @@
+package com.dabomstew.pkromio.gamedata;
+
+import java.util.*;
+
+/**
+ * The level-up movesets, TM/tutor compatibilities and pre-evolutions of all species, laid out so the moves a species
+ * can know at a level are quick to find. Made once the movesets, TMs/tutors and evolutions are final, e.g. for
+ * picking the moves of each trainer Pokemon.
+ * <br><br>
+ * Moves are always given in the order of the original lists, so picking randomly from them works out
+ * the same as picking from the original lists.
+ */
+public class LearnsetIndex {
+
+    private static final int[] NO_MOVES = new int[0];
+
+    private final Map<Integer, int[]> levelUpLevels = new HashMap<>();
+    private final Map<Integer, int[]> levelUpMoves = new HashMap<>();
+    // species whose level-up moves are sorted by level, so the ones up to a level can be found by binary search
+    private final Set<Integer> sortedLevelUpMoves = new HashSet<>();
+
+    private final Map<Species, boolean[]> tmCompat;
+    private final int[] tmCompatIndices;
+    private final Map<Species, boolean[]> tutorCompat;
+    private final int[] tutorCompatIndices;
+    private final Map<Species, BitSet> tmCompatBits = new HashMap<>();
+    private final Map<Species, BitSet> tutorCompatBits = new HashMap<>();
+
+    private final Map<Species, Species[]> preEvolutions = new HashMap<>();
+
+    /**
+     * @param movesLearnt The level-up moves of each species, by species number.
+     * @param tmCompat The TM/HM compatibility of each species; index 0 is unused, index i+1 is the TM at index i.
+     * @param tmMoves The moves of the TMs/HMs, in the order of the compatibility arrays.
+     * @param tutorCompat The tutor compatibility of each species, like tmCompat; may be null if there are no tutors.
+     * @param tutorMoves The moves of the tutors, in the order of the compatibility arrays.
+     */
+    public LearnsetIndex(Map<Integer, List<MoveLearnt>> movesLearnt, Map<Species, boolean[]> tmCompat,
+                         List<Integer> tmMoves, Map<Species, boolean[]> tutorCompat, List<Integer> tutorMoves) {
+        for (Map.Entry<Integer, List<MoveLearnt>> entry : movesLearnt.entrySet()) {
+            List<MoveLearnt> learnt = entry.getValue();
+            int[] levels = new int[learnt.size()];
+            int[] moves = new int[learnt.size()];
+            boolean sorted = true;
+            for (int i = 0; i < learnt.size(); i++) {
+                levels[i] = learnt.get(i).level;
+                moves[i] = learnt.get(i).move;
+                sorted &= i == 0 || levels[i - 1] <= levels[i];
+            }
+            levelUpLevels.put(entry.getKey(), levels);
+            levelUpMoves.put(entry.getKey(), moves);
+            if (sorted) {
+                sortedLevelUpMoves.add(entry.getKey());
+            }
+        }
+        this.tmCompat = tmCompat;
+        this.tmCompatIndices = compatIndices(tmMoves);
+        this.tutorCompat = tutorCompat;
+        this.tutorCompatIndices = tutorMoves == null ? NO_MOVES : compatIndices(tutorMoves);
+    }
+
+    /**
+     * The compatibility of a TM/tutor has always been looked up at the first index of its move,
+     * so a move which is on two TMs uses the compatibility of the first one for both.
+     */
+    private static int[] compatIndices(List<Integer> moves) {
+        Map<Integer, Integer> firstIndices = new HashMap<>();
+        int[] indices = new int[moves.size()];
+        for (int i = 0; i < moves.size(); i++) {
+            firstIndices.putIfAbsent(moves.get(i), i);
+            indices[i] = firstIndices.get(moves.get(i)) + 1;
+        }
+        return indices;
+    }
+
+    /**
+     * Returns the level-up moves of the species which are learnt from level 1 to maxLevel, in the order of
+     * {@link com.dabomstew.pkromio.romhandlers.RomHandler#getMovesLearnt()}; possibly with duplicates.
+     *
+     * @param withLevelZero Whether to also include the moves learnt at level 0, i.e. when evolving or by relearning.
+     */
+    public int[] getLevelUpMoves(int speciesNumber, int maxLevel, boolean withLevelZero) {
+        int[] levels = levelUpLevels.get(speciesNumber);
+        if (levels == null) {
+            return NO_MOVES;
+        }
+        int[] moves = levelUpMoves.get(speciesNumber);
+        if (sortedLevelUpMoves.contains(speciesNumber)) {
+            int start = withLevelZero ? 0 : upperBound(levels, 0);
+            int end = upperBound(levels, maxLevel);
+            return start >= end ? NO_MOVES : Arrays.copyOfRange(moves, start, end);
+        }
+        int[] found = new int[moves.length];
+        int count = 0;
+        for (int i = 0; i < moves.length; i++) {
+            if (levels[i] <= maxLevel && (levels[i] != 0 || withLevelZero)) {
+                found[count++] = moves[i];
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Returns the index of the first value greater than the given one, or the length if there is none.
+     */
+    private static int upperBound(int[] sorted, int value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the indices (into the TM moves) of the TMs the species is compatible with, with the compatibility
+     * of a move on two TMs being that of its first one.
+     */
+    public BitSet getTMCompatibility(Species sp) {
+        return getCompatibility(sp, tmCompat, tmCompatIndices, tmCompatBits);
+    }
+
+    /**
+     * Returns the indices (into the tutor moves) of the tutors the species is compatible with,
+     * like {@link #getTMCompatibility(Species)}.
+     */
+    public BitSet getTutorCompatibility(Species sp) {
+        return getCompatibility(sp, tutorCompat, tutorCompatIndices, tutorCompatBits);
+    }
+
+    private static BitSet getCompatibility(Species sp, Map<Species, boolean[]> compat, int[] compatIndices,
+                                           Map<Species, BitSet> bitsBySpecies) {
+        BitSet bits = bitsBySpecies.get(sp);
+        if (bits == null) {
+            boolean[] flags = compat.get(sp);
+            bits = new BitSet(compatIndices.length);
+            for (int i = 0; i < compatIndices.length; i++) {
+                if (flags[compatIndices[i]]) {
+                    bits.set(i);
+                }
+            }
+            bitsBySpecies.put(sp, bits);
+        }
+        return bits;
+    }
+
+    /**
+     * Returns the pre-evolutions of the species, nearest first, following the first evolution into each one.
+     * Empty for species which don't evolve from anything. Must not be used with cyclic evolutions.
+     */
+    public Species[] getPreEvolutions(Species sp) {
+        Species[] chain = preEvolutions.get(sp);
+        if (chain == null) {
+            List<Species> found = new ArrayList<>();
+            Species preEvo = sp;
+            while (!preEvo.getEvolutionsTo().isEmpty()) {
+                preEvo = preEvo.getEvolutionsTo().get(0).getFrom();
+                found.add(preEvo);
+            }
+            chain = found.toArray(new Species[0]);
+            preEvolutions.put(sp, chain);
+        }
+        return chain;
+    }
+}
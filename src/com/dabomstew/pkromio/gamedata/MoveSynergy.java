@@ -28,9 +28,7 @@ package com.dabomstew.pkromio.gamedata;
 import com.dabomstew.pkromio.constants.AbilityIDs;
 import com.dabomstew.pkromio.constants.MoveIDs;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.toCollection;
@@ -149,11 +147,7 @@ public class MoveSynergy {
                 break;
         }
 
-        return moveList
-                .stream()
-                .filter(mv -> synergisticMoves.contains(mv.number))
-                .distinct()
-                .collect(toCollection(ArrayList::new));
+        return filterByNumber(moveList, synergisticMoves);
     }
 
     public static List<Move> getSoftAbilityMoveAntiSynergy(int ability, List<Move> moveList) {
@@ -183,11 +177,7 @@ public class MoveSynergy {
                 break;
         }
 
-        return moveList
-                .stream()
-                .filter(mv -> antiSynergisticMoves.contains(mv.number))
-                .distinct()
-                .collect(toCollection(ArrayList::new));
+        return filterByNumber(moveList, antiSynergisticMoves);
     }
 
     public static List<Move> getHardAbilityMoveSynergy(int ability, Type pkType1, Type pkType2, List<Move> moveList,
@@ -562,11 +552,7 @@ public class MoveSynergy {
                 break;
         }
 
-        return moveList
-                .stream()
-                .filter(mv -> synergisticMoves.contains(mv.number))
-                .distinct()
-                .collect(toCollection(ArrayList::new));
+        return filterByNumber(moveList, synergisticMoves);
     }
 
     public static List<Move> getHardAbilityMoveAntiSynergy(int ability, List<Move> moveList) {
@@ -713,11 +699,7 @@ public class MoveSynergy {
 
         }
 
-        return moveList
-                .stream()
-                .filter(mv -> antiSynergisticMoves.contains(mv.number))
-                .distinct()
-                .collect(toCollection(ArrayList::new));
+        return filterByNumber(moveList, antiSynergisticMoves);
     }
 
     public static List<Move> getStatMoveSynergy(Species sp, List<Move> moveList) {
@@ -755,11 +737,7 @@ public class MoveSynergy {
             synergisticMoves.add(MoveIDs.electroBall);
         }
 
-        return moveList
-                .stream()
-                .filter(mv -> synergisticMoves.contains(mv.number))
-                .distinct()
-                .collect(toCollection(ArrayList::new));
+        return filterByNumber(moveList, synergisticMoves);
     }
 
     public static List<Move> getStatMoveAntiSynergy(Species sp, List<Move> moveList) {
@@ -790,11 +768,7 @@ public class MoveSynergy {
             antiSynergisticMoves.add(MoveIDs.electroBall);
         }
 
-        return moveList
-                .stream()
-                .filter(mv -> antiSynergisticMoves.contains(mv.number))
-                .distinct()
-                .collect(toCollection(ArrayList::new));
+        return filterByNumber(moveList, antiSynergisticMoves);
     }
 
     public static List<Move> getMoveSynergy(Move mv1, List<Move> moveList, int generation) {
@@ -1019,11 +993,7 @@ public class MoveSynergy {
                 break;
         }
 
-        return moveList
-                .stream()
-                .filter(mv -> synergisticMoves.contains(mv.number))
-                .distinct()
-                .collect(toCollection(ArrayList::new));
+        return filterByNumber(moveList, synergisticMoves);
     }
 
     public static List<Move> getSoftMoveSynergy(Move mv1, List<Move> moveList, TypeTable typeTable) {
@@ -1068,11 +1038,7 @@ public class MoveSynergy {
                 break;
         }
 
-        return moveList
-                .stream()
-                .filter(mv -> synergisticMoves.contains(mv.number))
-                .distinct()
-                .collect(toCollection(ArrayList::new));
+        return filterByNumber(moveList, synergisticMoves);
     }
 
     public static List<Move> getHardMoveAntiSynergy(Move mv1, List<Move> moveList) {
@@ -1145,11 +1111,7 @@ public class MoveSynergy {
             }
         }
 
-        return moveList
-                .stream()
-                .filter(mv -> antiSynergisticMoves.contains(mv.number))
-                .distinct()
-                .collect(toCollection(ArrayList::new));
+        return filterByNumber(moveList, antiSynergisticMoves);
     }
 
     public static List<Move> getSoftMoveAntiSynergy(Move mv1, List<Move> moveList) {
@@ -1181,11 +1143,7 @@ public class MoveSynergy {
                 break;
         }
 
-        return moveList
-                .stream()
-                .filter(mv -> antiSynergisticMoves.contains(mv.number))
-                .distinct()
-                .collect(toCollection(ArrayList::new));
+        return filterByNumber(moveList, antiSynergisticMoves);
     }
 
     public static List<Move> requiresOtherMove(Move mv1, List<Move> moveList) {
@@ -1208,9 +1166,17 @@ public class MoveSynergy {
                 requiresMove.add(MoveIDs.rest);
                 break;
         }
+        return filterByNumber(moveList, requiresMove);
+    }
+
+    /**
+     * Returns the moves in the list with one of the given numbers, without duplicates, in the order of the list.
+     */
+    private static List<Move> filterByNumber(List<Move> moveList, Collection<Integer> numbers) {
+        Set<Integer> numberSet = new HashSet<>(numbers);
         return moveList
                 .stream()
-                .filter(mv -> requiresMove.contains(mv.number))
+                .filter(mv -> numberSet.contains(mv.number))
                 .distinct()
                 .collect(toCollection(ArrayList::new));
     }
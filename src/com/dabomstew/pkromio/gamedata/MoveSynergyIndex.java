@@ -0,0 +1,133 @@
+package com.dabomstew.pkromio.gamedata;
+
+import java.util.*;
+
+/**
+ * The synergies of {@link MoveSynergy}, worked out once per move/ability/species against all moves, instead of
+ * once per move pool. Each synergy only depends on the two things it is between, so which moves of a pool
+ * have it is just a lookup for each move of the pool.<br>
+ * The rows are worked out the first time they are needed, so the index must only be made once the move data,
+ * types, and base stats are final.
+ */
+public class MoveSynergyIndex {
+
+    public static final int HARD_SYNERGY = 1;
+    public static final int SOFT_SYNERGY = 1 << 1;
+    public static final int HARD_ANTI_SYNERGY = 1 << 2;
+    public static final int SOFT_ANTI_SYNERGY = 1 << 3;
+
+    private final List<Move> allMoves;
+    private final int moveCount;
+    private final int generation;
+    private final int perfectAccuracy;
+    private final TypeTable typeTable;
+
+    // the move x move matrix; for each move, the synergy flags of each other move (by number) with it
+    private final byte[][] moveRows;
+    // the ability x move matrices, keyed by ability (and the types of the Pokemon, for the synergies using them)
+    private final Map<Integer, byte[]> abilityRows = new HashMap<>();
+    private final Map<Integer, byte[]> typedAbilityRows = new HashMap<>();
+    private final Map<Species, byte[]> statRows = new IdentityHashMap<>();
+
+    /**
+     * @param moves All moves, by number, as from {@link com.dabomstew.pkromio.romhandlers.RomHandler#getMoves()};
+     *              may have null entries.
+     */
+    public MoveSynergyIndex(List<Move> moves, int generation, int perfectAccuracy, TypeTable typeTable) {
+        this.allMoves = new ArrayList<>();
+        int maxNumber = 0;
+        for (Move mv : moves) {
+            if (mv != null) {
+                allMoves.add(mv);
+                maxNumber = Math.max(maxNumber, mv.number);
+            }
+        }
+        this.moveCount = maxNumber + 1;
+        this.generation = generation;
+        this.perfectAccuracy = perfectAccuracy;
+        this.typeTable = typeTable;
+        this.moveRows = new byte[moveCount][];
+    }
+
+    /**
+     * Returns the synergy flags of each move (by number) with the given one, e.g. {@link #HARD_SYNERGY} for the
+     * moves {@link MoveSynergy#getMoveSynergy(Move, List, int)} would return.
+     */
+    public byte[] getMoveRow(Move mv1) {
+        byte[] row = moveRows[mv1.number];
+        if (row == null) {
+            row = new byte[moveCount];
+            mark(row, MoveSynergy.getMoveSynergy(mv1, allMoves, generation), HARD_SYNERGY);
+            mark(row, MoveSynergy.getSoftMoveSynergy(mv1, allMoves, typeTable), SOFT_SYNERGY);
+            mark(row, MoveSynergy.getHardMoveAntiSynergy(mv1, allMoves), HARD_ANTI_SYNERGY);
+            mark(row, MoveSynergy.getSoftMoveAntiSynergy(mv1, allMoves), SOFT_ANTI_SYNERGY);
+            moveRows[mv1.number] = row;
+        }
+        return row;
+    }
+
+    /**
+     * Returns the synergy flags of each move (by number) with the ability, when on a Pokemon of the given types.
+     * Only {@link #HARD_SYNERGY} and {@link #SOFT_SYNERGY} depend on the types; the anti-synergy flags are the
+     * same as those of {@link #getAbilityRow(int)}.
+     */
+    public byte[] getAbilityRow(int ability, Type pkType1, Type pkType2) {
+        int key = ability << 10 | typeKey(pkType1) << 5 | typeKey(pkType2);
+        byte[] row = typedAbilityRows.get(key);
+        if (row == null) {
+            row = getAbilityRow(ability).clone();
+            mark(row, MoveSynergy.getHardAbilityMoveSynergy(ability, pkType1, pkType2, allMoves, generation,
+                    perfectAccuracy), HARD_SYNERGY);
+            mark(row, MoveSynergy.getSoftAbilityMoveSynergy(ability, allMoves, pkType1, pkType2), SOFT_SYNERGY);
+            typedAbilityRows.put(key, row);
+        }
+        return row;
+    }
+
+    /**
+     * Returns the anti-synergy flags of each move (by number) with the ability.
+     */
+    public byte[] getAbilityRow(int ability) {
+        byte[] row = abilityRows.get(ability);
+        if (row == null) {
+            row = new byte[moveCount];
+            mark(row, MoveSynergy.getHardAbilityMoveAntiSynergy(ability, allMoves), HARD_ANTI_SYNERGY);
+            mark(row, MoveSynergy.getSoftAbilityMoveAntiSynergy(ability, allMoves), SOFT_ANTI_SYNERGY);
+            abilityRows.put(ability, row);
+        }
+        return row;
+    }
+
+    /**
+     * Returns the synergy flags of each move (by number) with the stats of the species; only {@link #SOFT_SYNERGY}
+     * and {@link #SOFT_ANTI_SYNERGY}, as from {@link MoveSynergy#getStatMoveSynergy(Species, List)} and
+     * {@link MoveSynergy#getStatMoveAntiSynergy(Species, List)}.
+     */
+    public byte[] getStatRow(Species sp) {
+        byte[] row = statRows.get(sp);
+        if (row == null) {
+            row = new byte[moveCount];
+            mark(row, MoveSynergy.getStatMoveSynergy(sp, allMoves), SOFT_SYNERGY);
+            mark(row, MoveSynergy.getStatMoveAntiSynergy(sp, allMoves), SOFT_ANTI_SYNERGY);
+            statRows.put(sp, row);
+        }
+        return row;
+    }
+
+    /**
+     * Returns whether the move has the synergy flag in the row.
+     */
+    public static boolean has(byte[] row, Move mv, int flag) {
+        return mv.number < row.length && (row[mv.number] & flag) != 0;
+    }
+
+    private static int typeKey(Type type) {
+        return type == null ? 0 : type.ordinal() + 1;
+    }
+
+    private static void mark(byte[] row, List<Move> moves, int flag) {
+        for (Move mv : moves) {
+            row[mv.number] |= flag;
+        }
+    }
+}
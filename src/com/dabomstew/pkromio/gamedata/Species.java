@@ -38,6 +38,8 @@ public class Species implements Comparable<Species> {
 
     private String name;
     private final int number;
+    // Counts changes to the base stats of this Species, so caches of BSTs (see SpeciesSet) can tell when to rebuild.
+    private int baseStatChanges;
 
     private String formeSuffix = "";
     private Species baseForme = null;
@@ -108,6 +110,14 @@ public class Species implements Comparable<Species> {
         return hp + attack + defense + spatk + spdef + speed;
     }
 
+    /**
+     * Returns how many times the base stats of this Species have been changed. If this hasn't changed,
+     * neither has its BST.
+     */
+    public int getBaseStatChanges() {
+        return baseStatChanges;
+    }
+
     public int getBSTForPowerLevels() {
         // Take into account Shedinja's purposefully nerfed HP
         if (number == SpeciesIDs.shedinja) {
@@ -439,6 +449,7 @@ public class Species implements Comparable<Species> {
     }
 
     public void copyBaseFormeBaseStats(Species baseForme) {
+        baseStatChanges++;
         hp = baseForme.hp;
         attack = baseForme.attack;
         defense = baseForme.defense;
@@ -766,6 +777,7 @@ public class Species implements Comparable<Species> {
 
     public void setHp(int hp) {
         this.hp = hp;
+        baseStatChanges++;
     }
 
     public int getAttack() {
@@ -774,6 +786,7 @@ public class Species implements Comparable<Species> {
 
     public void setAttack(int attack) {
         this.attack = attack;
+        baseStatChanges++;
     }
 
     public int getDefense() {
@@ -782,6 +795,7 @@ public class Species implements Comparable<Species> {
 
     public void setDefense(int defense) {
         this.defense = defense;
+        baseStatChanges++;
     }
 
     public int getSpatk() {
@@ -790,6 +804,7 @@ public class Species implements Comparable<Species> {
 
     public void setSpatk(int spatk) {
         this.spatk = spatk;
+        baseStatChanges++;
     }
 
     public int getSpdef() {
@@ -798,6 +813,7 @@ public class Species implements Comparable<Species> {
 
     public void setSpdef(int spdef) {
         this.spdef = spdef;
+        baseStatChanges++;
     }
 
     public int getSpeed() {
@@ -806,6 +822,7 @@ public class Species implements Comparable<Species> {
 
     public void setSpeed(int speed) {
         this.speed = speed;
+        baseStatChanges++;
     }
 
     public int getSpecial() {
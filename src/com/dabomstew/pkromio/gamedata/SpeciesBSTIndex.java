@@ -0,0 +1,110 @@
+package com.dabomstew.pkromio.gamedata;
+
+import java.util.Arrays;
+
+/**
+ * An index of the {@link Species} in a {@link SpeciesSet}, sorted by BST (for power levels),
+ * so the Species within a BST range can be found by binary search instead of going through the whole set.<br>
+ * Only valid as long as the set isn't changed, and none of its Species' base stats are changed;
+ * see {@link #isValid()}.
+ */
+class SpeciesBSTIndex {
+
+    private final int[] bsts;
+    private final Species[] species;
+    // where each Species comes when iterating over a copy of the set, which is the order they were
+    // checked against the BST range in before there was an index, and must still be added to results in
+    private final int[] copyOrder;
+    // the base stat changes of each Species when its BST was read
+    private final int[] baseStatChanges;
+
+    SpeciesBSTIndex(SpeciesSet set) {
+        int size = set.size();
+        long[] sortKeys = new long[size];
+        Species[] inCopyOrder = new Species[size];
+        int[] changesBefore = new int[size];
+        int i = 0;
+        for (Species sp : new SpeciesSet(set)) {
+            inCopyOrder[i] = sp;
+            changesBefore[i] = sp.getBaseStatChanges();
+            sortKeys[i] = (long) sp.getBSTForPowerLevels() << 32 | i;
+            i++;
+        }
+        Arrays.sort(sortKeys);
+
+        this.bsts = new int[size];
+        this.species = new Species[size];
+        this.copyOrder = new int[size];
+        this.baseStatChanges = new int[size];
+        for (i = 0; i < size; i++) {
+            int order = (int) sortKeys[i];
+            bsts[i] = (int) (sortKeys[i] >> 32);
+            species[i] = inCopyOrder[order];
+            copyOrder[i] = order;
+            baseStatChanges[i] = changesBefore[order];
+        }
+    }
+
+    /**
+     * Whether none of the indexed Species have had their base stats changed since this index was made.
+     * Only these Species are checked, so changes in other sets, or in other ROMs, don't matter.
+     */
+    boolean isValid() {
+        for (int i = 0; i < species.length; i++) {
+            if (species[i].getBaseStatChanges() != baseStatChanges[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the position of the first Species with a BST of at least the given value.
+     */
+    int lowerBound(int bst) {
+        int low = 0;
+        int high = bsts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bsts[mid] < bst) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the position of the first Species with a BST greater than the given value.
+     */
+    int upperBound(int bst) {
+        return bst == Integer.MAX_VALUE ? bsts.length : lowerBound(bst + 1);
+    }
+
+    /**
+     * Adds the Species in the positions [from1, to1) and [from2, to2) to the given set, except for the excluded one,
+     * in the order they come in a copy of the indexed set.
+     */
+    void addInCopyOrder(SpeciesSet addTo, int from1, int to1, int from2, int to2, Species excluded) {
+        int count = (to1 - from1) + (to2 - from2);
+        if (count == 0) {
+            return;
+        }
+        long[] sortKeys = new long[count];
+        int i = 0;
+        for (int pos = from1; pos < to1; pos++) {
+            sortKeys[i++] = (long) copyOrder[pos] << 32 | pos;
+        }
+        for (int pos = from2; pos < to2; pos++) {
+            sortKeys[i++] = (long) copyOrder[pos] << 32 | pos;
+        }
+        Arrays.sort(sortKeys);
+        for (long key : sortKeys) {
+            Species sp = species[(int) key];
+            if (!sp.equals(excluded)) {
+                addTo.add(sp);
+            }
+        }
+    }
+}
@@ -44,6 +44,9 @@ public class SpeciesSet extends HashSet<Species> {
     //MINIMUM_POOL or total_pool / MINIMUM_POOL_FACTOR
     final int SS_MINIMUM_POOL = 5;
     final int SS_MINIMUM_POOL_FACTOR = 4;
+    //getRandomSimilarStrengthSpecies is called a lot on the same sets, so they keep an index of their Species by BST,
+    //until they're modified
+    private SpeciesBSTIndex bstIndex = null;
 
     //How much of the cache must consist of removed Species before resetting
 
@@ -55,6 +58,7 @@ public class SpeciesSet extends HashSet<Species> {
             return false;
         }
         randomCache = null;
+        bstIndex = null;
         super.add(species);
 
         return true;
@@ -74,10 +78,44 @@ public class SpeciesSet extends HashSet<Species> {
         return changed;
     }
 
+    @Override
+    public boolean remove(Object o) {
+        boolean removed = super.remove(o);
+        if (removed) {
+            bstIndex = null;
+        }
+        return removed;
+    }
+
     @Override
     public void clear() {
         super.clear();
         randomCache = null;
+        bstIndex = null;
+    }
+
+    // overridden so removing through the iterator (which removeIf, retainAll etc. may do) also resets the index
+    @Override
+    public Iterator<Species> iterator() {
+        return new Iterator<Species>() {
+            private final Iterator<Species> inner = SpeciesSet.super.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return inner.hasNext();
+            }
+
+            @Override
+            public Species next() {
+                return inner.next();
+            }
+
+            @Override
+            public void remove() {
+                inner.remove();
+                bstIndex = null;
+            }
+        };
     }
 
     /**
@@ -884,9 +922,12 @@ public class SpeciesSet extends HashSet<Species> {
         if(randomCache == null) {
             randomCache = new ArrayList<>(this);
         }
-        if((double) this.size() / (double) randomCache.size() > CACHE_RESET_FACTOR)
+        // adding clears the cache, so it only differs from the set if Species were removed since; dropping those
+        // leaves the same list as copying the set again
+        if(randomCache.size() != this.size()
+                && (double) this.size() / (double) randomCache.size() > CACHE_RESET_FACTOR)
         {
-            randomCache = new ArrayList<>(this);
+            randomCache.removeIf(sp -> !this.contains(sp));
         }
 
         //ok, we should be good to randomize
@@ -966,27 +1007,29 @@ public class SpeciesSet extends HashSet<Species> {
      */
     public Species getRandomSimilarStrengthSpecies(Species match, boolean notSameSpecies,
                                                    int overrideBST, Random random) {
-        SpeciesSet availablePool = new SpeciesSet(this); //clone for draining
-        if(notSameSpecies) {
-            availablePool.remove(match);
-        }
+        boolean excludeMatch = notSameSpecies && this.contains(match);
+        int availableSize = excludeMatch ? this.size() - 1 : this.size();
 
-        if(availablePool.isEmpty()) {
+        if(availableSize == 0) {
             if(this.isEmpty()) {
                 throw new IllegalStateException("Attempted to choose a Pokemon Species from an empty set!");
             } else {
-                //if availablePool is empty, but this set isn't, match must be the only Species in the set.
+                //if there are no available Species, but this set isn't empty, match must be the only Species in the set.
                 return match;
             }
         }
 
-        int minimumPool = Math.min(SS_MINIMUM_POOL, availablePool.size() / SS_MINIMUM_POOL_FACTOR);
+        int minimumPool = Math.min(SS_MINIMUM_POOL, availableSize / SS_MINIMUM_POOL_FACTOR);
         if(minimumPool < 1) {
             minimumPool = 1;
         }
-        if (minimumPool >= availablePool.size()) {
+        if (minimumPool >= availableSize) {
             //must use the whole pool
             //(I think this only happens if there's exactly one Species to choose.)
+            SpeciesSet availablePool = new SpeciesSet(this);
+            if(excludeMatch) {
+                availablePool.remove(match);
+            }
             return availablePool.getRandomSpecies(random);
         }
 
@@ -998,22 +1041,32 @@ public class SpeciesSet extends HashSet<Species> {
             matchBST = overrideBST;
         }
 
+        if(bstIndex == null || !bstIndex.isValid()) {
+            bstIndex = new SpeciesBSTIndex(this);
+        }
+        // Species within each widening of the range are added in the same order as when they were found by
+        // going through a copy of this set, so canPick iterates, and thus picks, exactly the same as then
         int minTarget = matchBST - matchBST / 10;
         int maxTarget = matchBST + matchBST / 10;
+        int from = bstIndex.lowerBound(minTarget);
+        int to = from;
         SpeciesSet canPick = new SpeciesSet();
         while (canPick.size() < minimumPool) {
-            Iterator<Species> itor = availablePool.iterator();
-            while (itor.hasNext()) {
-                Species spec = itor.next();
-                if(spec.getBSTForPowerLevels() >= minTarget && spec.getBSTForPowerLevels() <= maxTarget) {
-                    canPick.add(spec);
-                    itor.remove();
-                }
-            }
+            int newFrom = bstIndex.lowerBound(minTarget);
+            int newTo = bstIndex.upperBound(maxTarget);
+            bstIndex.addInCopyOrder(canPick, newFrom, from, to, newTo, excludeMatch ? match : null);
+            from = newFrom;
+            to = newTo;
             minTarget -= matchBST / 20;
             maxTarget += matchBST / 20;
         }
-        return canPick.getRandomSpecies(random);
+        // same as canPick.getRandomSpecies(random), without copying canPick to a list first
+        int choice = random.nextInt(canPick.size());
+        Iterator<Species> itor = canPick.iterator();
+        for (int i = 0; i < choice; i++) {
+            itor.next();
+        }
+        return itor.next();
     }
 
     //end randoms
@@ -1,7 +1,5 @@
 package com.dabomstew.pkromio.gbspace;
 
-import java.util.ListIterator;
-
 /**
  * A {@link FreedSpace} with bank functionality.<br>
  * Assumes there is data which must be in certain banks, and data which can be placed anywhere. It would be a problem
@@ -19,6 +17,11 @@ public class BankDividedFreedSpace extends FreedSpace {
     private final boolean[] reservedBanks;
 
     public BankDividedFreedSpace(int bankSize, int numberOfBanks, int[] reservedBanks) {
+        this(bankSize, numberOfBanks, reservedBanks, Policy.FIRST_FIT);
+    }
+
+    public BankDividedFreedSpace(int bankSize, int numberOfBanks, int[] reservedBanks, Policy policy) {
+        super(policy);
         if (bankSize <= 0) {
             throw new IllegalArgumentException("bankSize must be positive.");
         }
@@ -32,14 +35,11 @@ public class BankDividedFreedSpace extends FreedSpace {
 
     @Override
     public void free(int start, int length) {
-        //System.out.printf("freeing %d bytes starting from 0x%x.%n", length, start);
         if (freedChunkWouldCrossBankBoundary(start, length)) {
             throw new RuntimeException("Can't free a space spanning over multiple banks. This is a safety measure " +
                     "to prevent bad usage of free().");
         }
         super.free(start, length);
-        splitFreedChunksAtBankBoundaries();
-        //System.out.println("after:\t" + this);
     }
 
     private boolean freedChunkWouldCrossBankBoundary(int start, int length) {
@@ -48,24 +48,12 @@ public class BankDividedFreedSpace extends FreedSpace {
         return startBank != endBank;
     }
 
-    private void splitFreedChunksAtBankBoundaries() {
-        int bank = 0;
-
-        ListIterator<FreedChunk> iterator = freedChunks.listIterator();
-        while (iterator.hasNext()) {
-            FreedChunk fs = iterator.next();
-            while (freedChunkStartBank(fs) > bank) {
-                bank++;
-            }
-
-            int startOfNextBank = (bank + 1) * bankSize;
-            if (fs.end >= startOfNextBank) {
-                FreedChunk splitOff = new FreedChunk(startOfNextBank, fs.end);
-                fs.end = startOfNextBank - 1;
-                iterator.add(splitOff);
-                iterator.previous();
-            }
-        }
+    /**
+     * Freed chunks are never merged over bank boundaries.
+     */
+    @Override
+    protected boolean canMerge(int leftEnd, int rightStart) {
+        return leftEnd / bankSize == rightStart / bankSize;
     }
 
     private int freedChunkStartBank(FreedChunk fc) {
@@ -77,19 +65,20 @@ public class BankDividedFreedSpace extends FreedSpace {
      */
     @Override
     public int findAndUnfree(int length) {
-        for (int i = 0; i < numberOfBanks; i++) {
-            if (!isBankReserved(i)) {
-                int offset = findAndUnfreeInBank(length, i);
-                if (offset != -1) {
-                    return offset;
-                }
-            }
+        if (length < 1) {
+            throw new IllegalArgumentException("length must be at least 1");
+        }
+        FreedChunk found = find(length, fc -> !isBankReserved(freedChunkStartBank(fc)));
+        if (found == null) {
+            return -1;
         }
-        return -1;
+        int offset = found.start;
+        unfree(found, length);
+        return offset;
     }
 
     private boolean isBankReserved(int bank) {
-        return reservedBanks[bank];
+        return bank >= numberOfBanks || reservedBanks[bank];
     }
 
     public int findAndUnfreeInBank(int length, int bank) {
@@ -108,12 +97,7 @@ public class BankDividedFreedSpace extends FreedSpace {
     }
 
     private FreedChunk findInBank(int length, int bank) {
-        for (FreedChunk fc : freedChunks) {
-            if (fc.getLength() >= length && freedChunkStartBank(fc) == bank) {
-                return fc;
-            }
-        }
-        return null;
+        return findBetween(length, bank * bankSize, (bank + 1) * bankSize);
     }
 
     public String toString() {
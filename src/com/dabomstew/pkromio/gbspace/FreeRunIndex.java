@@ -0,0 +1,183 @@
+package com.dabomstew.pkromio.gbspace;
+
+/*----------------------------------------------------------------------------*/
+/*--  FreeRunIndex.java - indexes the runs of free-space bytes in a ROM.    --*/
+/*--                                                                        --*/
+/*--  Part of "Universal Pokemon Randomizer ZX" by the UPR-ZX team          --*/
+/*--  Pokemon and any associated names and the like are                     --*/
+/*--  trademark and (C) Nintendo 1996-2020.                                 --*/
+/*--                                                                        --*/
+/*--  This program is free software: you can redistribute it and/or modify  --*/
+/*--  it under the terms of the GNU General Public License as published by  --*/
+/*--  the Free Software Foundation, either version 3 of the License, or     --*/
+/*--  (at your option) any later version.                                   --*/
+/*--                                                                        --*/
+/*--  This program is distributed in the hope that it will be useful,       --*/
+/*--  but WITHOUT ANY WARRANTY; without even the implied warranty of        --*/
+/*--  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the          --*/
+/*--  GNU General Public License for more details.                          --*/
+/*--                                                                        --*/
+/*--  You should have received a copy of the GNU General Public License     --*/
+/*--  along with this program. If not, see <http://www.gnu.org/licenses/>.  --*/
+/*----------------------------------------------------------------------------*/
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An index of the runs of the free-space byte (0xFF, or 0x00 in Gen 1/2) in a ROM, built by scanning it once.<br>
+ * Finding where a number of free bytes in a row are then doesn't need to scan the ROM again; it gives the same
+ * offset as searching for a "needle" of that many free-space bytes would, as long as the index is kept up to date
+ * with {@link #consume(int, int)} and {@link #release(int, int)}.
+ * <br><br>
+ * This only knows which bytes look free, not which are actually unused; for handing out space to write to,
+ * use {@link FreedSpace}.
+ */
+public class FreeRunIndex {
+
+    /**
+     * Start -> end (inclusive).
+     */
+    private final TreeMap<Integer, Integer> runsByStart = new TreeMap<>();
+    /**
+     * The same runs, to find the first long enough one.
+     */
+    private final RunTree runTree = new RunTree();
+
+    public FreeRunIndex(byte[] rom, byte freeSpaceByte) {
+        int i = 0;
+        while (i < rom.length) {
+            if (rom[i] != freeSpaceByte) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < rom.length && rom[i] == freeSpaceByte) {
+                i++;
+            }
+            addRun(start, i - 1);
+        }
+    }
+
+    /**
+     * Returns the first offset at or after from, where there are at least length free bytes in a row,
+     * or -1 if there is none.
+     */
+    public int findFirst(int length, int from) {
+        return findFirst(length, from, 1);
+    }
+
+    /**
+     * Returns the first offset at or after from, which is a multiple of alignment, and where there are
+     * at least length free bytes in a row. Returns -1 if there is none.
+     * <br><br>
+     * Takes O(log n) steps, plus O(log n) for each run before the one found which is long enough,
+     * but too short once its start is aligned. With an alignment of 1, there are no such runs.
+     */
+    public int findFirst(int length, int from, int alignment) {
+        if (length < 1) {
+            throw new IllegalArgumentException("length must be at least 1");
+        }
+        if (alignment < 1) {
+            throw new IllegalArgumentException("alignment must be at least 1");
+        }
+
+        // a run going through from is always the first candidate
+        Map.Entry<Integer, Integer> through = runsByStart.floorEntry(from);
+        if (through != null && through.getValue() >= from) {
+            int aligned = alignUp(from, alignment);
+            if (aligned + length - 1 <= through.getValue()) {
+                return aligned;
+            }
+        }
+
+        int start = runTree.findFirst(length, from + 1, Integer.MAX_VALUE);
+        while (start != -1) {
+            int aligned = alignUp(start, alignment);
+            if (aligned + length - 1 <= runsByStart.get(start)) {
+                return aligned;
+            }
+            start = runTree.findFirst(length, start + 1, Integer.MAX_VALUE);
+        }
+        return -1;
+    }
+
+    private static int alignUp(int offset, int alignment) {
+        int remainder = offset % alignment;
+        return remainder == 0 ? offset : offset + alignment - remainder;
+    }
+
+    /**
+     * Returns the first offset of the run the given offset is in, or -1 if the byte there is not free.
+     */
+    public int getRunStart(int offset) {
+        Map.Entry<Integer, Integer> run = runsByStart.floorEntry(offset);
+        return run != null && run.getValue() >= offset ? run.getKey() : -1;
+    }
+
+    /**
+     * Returns the last offset of the run the given offset is in, or -1 if the byte there is not free.
+     */
+    public int getRunEnd(int offset) {
+        Map.Entry<Integer, Integer> run = runsByStart.floorEntry(offset);
+        return run != null && run.getValue() >= offset ? run.getValue() : -1;
+    }
+
+    /**
+     * Returns whether all bytes in the range are free.
+     */
+    public boolean isFree(int offset, int length) {
+        return getRunEnd(offset) >= offset + length - 1;
+    }
+
+    public int getRunCount() {
+        return runsByStart.size();
+    }
+
+    /**
+     * Marks a range as no longer free, e.g. because data has been written there.
+     */
+    public void consume(int offset, int length) {
+        int end = offset + length - 1;
+        Map.Entry<Integer, Integer> run = runsByStart.floorEntry(end);
+        while (run != null && run.getValue() >= offset) {
+            int runStart = run.getKey();
+            int runEnd = run.getValue();
+            removeRun(runStart);
+            if (runStart < offset) {
+                addRun(runStart, offset - 1);
+            }
+            if (runEnd > end) {
+                addRun(end + 1, runEnd);
+            }
+            run = runsByStart.lowerEntry(runStart);
+        }
+    }
+
+    /**
+     * Marks a range as free, e.g. because it has been filled with the free-space byte.
+     */
+    public void release(int offset, int length) {
+        int start = offset;
+        int end = offset + length - 1;
+        Map.Entry<Integer, Integer> run = runsByStart.floorEntry(end + 1);
+        while (run != null && run.getValue() >= start - 1) {
+            start = Math.min(start, run.getKey());
+            end = Math.max(end, run.getValue());
+            removeRun(run.getKey());
+            run = runsByStart.floorEntry(end + 1);
+        }
+        addRun(start, end);
+    }
+
+    private void addRun(int start, int end) {
+        runsByStart.put(start, end);
+        runTree.add(start, end);
+    }
+
+    private void removeRun(int start) {
+        runsByStart.remove(start);
+        runTree.remove(start);
+    }
+
+}
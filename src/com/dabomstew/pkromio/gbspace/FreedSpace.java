@@ -22,12 +22,22 @@ package com.dabomstew.pkromio.gbspace;
 /*--  along with this program. If not, see <http://www.gnu.org/licenses/>.  --*/
 /*----------------------------------------------------------------------------*/
 
-import java.util.LinkedList;
-import java.util.ListIterator;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
 
 /**
  * Represents/handles all the manually freed bytes in a ROM. If bytes are manually freed (using free())
  * we know they should be available for writing at a later time, at which point we can findAndUnfree() them.
+ * <br><br>
+ * The freed chunks are indexed by where they start, to find the neighbors to merge with when freeing,
+ * and so a fitting chunk is found without going through all of them: by length for {@link Policy#BEST_FIT},
+ * and in a {@link RunTree} for {@link Policy#FIRST_FIT}, which finds the first fitting chunk in O(log n).
+ * Which of the fitting chunks is used depends on the {@link Policy}.
+ * <br><br>
+ * {@link #setTrace(PrintStream)} logs each free and find, so the allocations of a real randomization can be
+ * replayed, e.g. by FreedSpaceBenchmark.
  **/
 public class FreedSpace {
 
@@ -35,6 +45,18 @@ public class FreedSpace {
             "This is a safety measure to prevent bad usage of free()." +
             "\n%s overlaps with existing freed chunk %s";
 
+    public enum Policy {
+        /**
+         * Use the fitting chunk which starts first.
+         */
+        FIRST_FIT,
+        /**
+         * Use the shortest fitting chunk, so long chunks are kept for long data. Among equally short chunks,
+         * the one which starts first is used.
+         */
+        BEST_FIT
+    }
+
     protected static class FreedChunk {
 
         public int start, end;
@@ -55,115 +77,201 @@ public class FreedSpace {
 
     }
 
-    protected final LinkedList<FreedChunk> freedChunks = new LinkedList<>();
+    private final Policy policy;
 
-    public void free(int start, int length) {
-        // System.out.printf("freeing %d bytes starting from 0x%x.%n", length, start);
-        if (length < 1) {
-            throw new IllegalArgumentException("length must be at least 1");
-        }
+    private final TreeMap<Integer, FreedChunk> chunksByStart = new TreeMap<>();
+    /**
+     * Length -> (start -> chunk).
+     */
+    private final TreeMap<Integer, TreeMap<Integer, FreedChunk>> chunksByLength = new TreeMap<>();
+    private final RunTree chunkTree = new RunTree();
 
-        int end = start + length - 1;
-        FreedChunk toFree = new FreedChunk(start, end);
+    private int lengthSum;
+    private long totalFreed;
+    private long totalUnfreed;
 
-        boolean freedChunkAdded = false;
-        ListIterator<FreedChunk> iterator = freedChunks.listIterator();
-        while (iterator.hasNext() && !freedChunkAdded) {
-            FreedChunk neighbor = iterator.next();
+    // not part of the state of the freed space, so it is not copied along with it
+    private transient PrintStream trace;
 
-            if (toFree.start < neighbor.start) {
-                addChunkBeforeOrMergeWithRightNeighbor(toFree, neighbor, iterator);
-                freedChunkAdded = true;
+    public FreedSpace() {
+        this(Policy.FIRST_FIT);
+    }
 
-            } else if (neighbor.end == toFree.start - 1) {
-                mergeChunkWithLeftOrBothNeighbors(toFree, neighbor, iterator);
-                freedChunkAdded = true;
+    public FreedSpace(Policy policy) {
+        this.policy = policy;
+    }
 
-            } else if (neighbor.end >= toFree.start) {
-                throw new RuntimeException(String.format(ALREADY_FREED_EXCEPTION_MESSAGE, toFree, neighbor));
-            }
-        }
+    public Policy getPolicy() {
+        return policy;
+    }
 
-        if (!freedChunkAdded) {
-            freedChunks.add(toFree);
-        }
-        // System.out.println("after:\t" + this);
+    /**
+     * Logs every call to {@link #free(int, int)} and {@link #findAndUnfree(int)} from now on to the given stream,
+     * one per line: "free &lt;start&gt; &lt;length&gt;", and "find &lt;length&gt; &lt;offset found, or -1&gt;".
+     * Null stops logging. Finds of a {@link BankDividedFreedSpace}, which has its own, are not logged.
+     */
+    public void setTrace(PrintStream trace) {
+        this.trace = trace;
     }
 
-    protected final void addChunkBeforeOrMergeWithRightNeighbor(FreedChunk toFree, FreedChunk rightNeighbor,
-                                                                ListIterator<FreedChunk> iterator) {
-        if (toFree.end >= rightNeighbor.start) {
-            throw new RuntimeException(String.format(ALREADY_FREED_EXCEPTION_MESSAGE, toFree, rightNeighbor));
+    public void free(int start, int length) {
+        if (length < 1) {
+            throw new IllegalArgumentException("length must be at least 1");
         }
 
-        if (toFree.end == rightNeighbor.start - 1) {
-            rightNeighbor.start = toFree.start;
-        } else {
-            iterator.previous();
-            iterator.add(toFree);
+        if (trace != null) {
+            trace.println("free " + start + " " + length);
         }
-    }
 
-    protected final void mergeChunkWithLeftOrBothNeighbors(FreedChunk toFree, FreedChunk leftNeighbor,
-                                                           ListIterator<FreedChunk> iterator) {
-        if (iterator.hasNext()) {
-            FreedChunk rightNeighbor = iterator.next();
+        int end = start + length - 1;
+        FreedChunk toFree = new FreedChunk(start, end);
 
-            if (toFree.end >= rightNeighbor.start) {
-                throw new RuntimeException(String.format(ALREADY_FREED_EXCEPTION_MESSAGE, toFree, rightNeighbor));
-            } else if (toFree.end == rightNeighbor.start - 1) {
-                leftNeighbor.end = rightNeighbor.end;
-                iterator.remove();
-            } else {
-                leftNeighbor.end = toFree.end;
-            }
-            iterator.previous();
+        Map.Entry<Integer, FreedChunk> left = chunksByStart.floorEntry(start);
+        if (left != null && left.getValue().end >= start) {
+            throw new RuntimeException(String.format(ALREADY_FREED_EXCEPTION_MESSAGE, toFree, left.getValue()));
+        }
+        Map.Entry<Integer, FreedChunk> right = chunksByStart.higherEntry(start);
+        if (right != null && right.getValue().start <= end) {
+            throw new RuntimeException(String.format(ALREADY_FREED_EXCEPTION_MESSAGE, toFree, right.getValue()));
+        }
 
-        } else {
-            leftNeighbor.end = toFree.end;
+        if (left != null && left.getValue().end == start - 1 && canMerge(left.getValue().end, start)) {
+            FreedChunk leftNeighbor = left.getValue();
+            removeChunk(leftNeighbor);
+            toFree.start = leftNeighbor.start;
+        }
+        if (right != null && right.getValue().start == end + 1 && canMerge(end, right.getValue().start)) {
+            FreedChunk rightNeighbor = right.getValue();
+            removeChunk(rightNeighbor);
+            toFree.end = rightNeighbor.end;
         }
+        addChunk(toFree);
+        totalFreed += length;
+    }
+
+    /**
+     * Returns whether a chunk ending at leftEnd may be merged with one starting right after it, at rightStart.
+     */
+    protected boolean canMerge(int leftEnd, int rightStart) {
+        return true;
     }
 
     public int findAndUnfree(int length) {
-        // System.out.println("looking for " + length + " bytes");
         FreedChunk found = find(length);
-        if (found == null) {
-            return -1;
+        int offset = found == null ? -1 : found.start;
+        if (trace != null) {
+            trace.println("find " + length + " " + offset);
+        }
+        if (found != null) {
+            unfree(found, length);
         }
-        int offset = found.start;
-        unfree(found, length);
-        // System.out.println("after:\t" + this);
         return offset;
     }
 
     protected final FreedChunk find(int length) {
-        for (FreedChunk fc : freedChunks) {
-            if (fc.getLength() >= length) {
-                return fc;
+        return find(length, fc -> true);
+    }
+
+    /**
+     * Finds a chunk of at least the given length, among those the filter accepts, according to the {@link Policy}.
+     * Takes O(log n) steps for each fitting chunk the filter rejects, and one more to find the accepted one.
+     *
+     * @return The chunk, or null if there is none.
+     */
+    protected final FreedChunk find(int length, Predicate<FreedChunk> filter) {
+        if (policy == Policy.FIRST_FIT) {
+            int start = chunkTree.findFirst(length, Integer.MIN_VALUE, Integer.MAX_VALUE);
+            while (start != -1 && !filter.test(chunksByStart.get(start))) {
+                start = chunkTree.findFirst(length, start + 1, Integer.MAX_VALUE);
+            }
+            return start == -1 ? null : chunksByStart.get(start);
+        }
+        for (TreeMap<Integer, FreedChunk> sameLength : chunksByLength.tailMap(length).values()) {
+            for (FreedChunk fc : sameLength.values()) {
+                if (filter.test(fc)) {
+                    return fc;
+                }
             }
         }
         return null;
     }
 
+    /**
+     * Finds a chunk of at least the given length, starting in [from, to), according to the {@link Policy}.
+     *
+     * @return The chunk, or null if there is none.
+     */
+    protected final FreedChunk findBetween(int length, int from, int to) {
+        if (policy == Policy.FIRST_FIT) {
+            int start = chunkTree.findFirst(length, from, to);
+            return start == -1 ? null : chunksByStart.get(start);
+        }
+        FreedChunk found = null;
+        for (FreedChunk fc : chunksByStart.subMap(from, to).values()) {
+            if (fc.getLength() >= length && (found == null || fc.getLength() < found.getLength())) {
+                found = fc;
+            }
+        }
+        return found;
+    }
+
     protected final void unfree(FreedChunk toUnfree, int length) {
-        // System.out.println("unfreeing " + length + " bytes starting from 0x" + Integer.toHexString(toUnfree.start));
+        removeChunk(toUnfree);
         toUnfree.start += length;
-        if (toUnfree.start > toUnfree.end) {
-            freedChunks.remove(toUnfree);
+        if (toUnfree.start <= toUnfree.end) {
+            addChunk(toUnfree);
         }
+        totalUnfreed += length;
     }
 
-    public int getLengthSum() {
-        int sum = 0;
-        for (FreedChunk fs : freedChunks) {
-            sum += fs.getLength();
+    private void addChunk(FreedChunk fc) {
+        chunksByStart.put(fc.start, fc);
+        chunkTree.add(fc.start, fc.end);
+        chunksByLength.computeIfAbsent(fc.getLength(), length -> new TreeMap<>()).put(fc.start, fc);
+        lengthSum += fc.getLength();
+    }
+
+    private void removeChunk(FreedChunk fc) {
+        chunksByStart.remove(fc.start);
+        chunkTree.remove(fc.start);
+        TreeMap<Integer, FreedChunk> sameLength = chunksByLength.get(fc.getLength());
+        sameLength.remove(fc.start);
+        if (sameLength.isEmpty()) {
+            chunksByLength.remove(fc.getLength());
         }
-        return sum;
+        lengthSum -= fc.getLength();
+    }
+
+    public int getLengthSum() {
+        return lengthSum;
+    }
+
+    public int getChunkCount() {
+        return chunksByStart.size();
+    }
+
+    public int getLargestChunkLength() {
+        return chunksByLength.isEmpty() ? 0 : chunksByLength.lastKey();
+    }
+
+    /**
+     * Returns how fragmented the freed space is, from 0 (all in one chunk, or none at all) towards 1
+     * (spread over many small chunks). This is 1 - (largest chunk length / total length).
+     */
+    public double getFragmentation() {
+        return lengthSum == 0 ? 0 : 1 - (double) getLargestChunkLength() / lengthSum;
+    }
+
+    /**
+     * Returns how much of all space ever freed has been unfreed again, from 0 to 1.
+     */
+    public double getUtilization() {
+        return totalFreed == 0 ? 0 : (double) totalUnfreed / totalFreed;
     }
 
     @Override
     public String toString() {
-		return getLengthSum() + " bytes, " + freedChunks.size() + " chunks, " + freedChunks;
+		return getLengthSum() + " bytes, " + getChunkCount() + " chunks, " + chunksByStart.values();
 	}
 
 }
@@ -0,0 +1,147 @@
+package com.dabomstew.pkromio.gbspace;
+
+/**
+ * Runs of bytes (a start and an inclusive end), in a tree ordered by where they start, where each node also knows
+ * the length of the longest run below it. So the first run of at least some length, within a range of starts,
+ * is found in O(log n) steps, by only going down into subtrees with a run long enough.<br>
+ * The tree is a treap; each run's place in the heap order comes from a hash of where it starts, so the shape
+ * of the tree (and the time taken) does not depend on the order runs were added in.
+ * <br><br>
+ * Used by {@link FreedSpace} for its freed chunks, and by {@link FreeRunIndex} for the runs of free-space bytes.
+ */
+class RunTree {
+
+    private static class Node {
+        private final int start, end;
+        private final int priority;
+        private Node left, right;
+        private int maxLength;
+
+        Node(int start, int end) {
+            this.start = start;
+            this.end = end;
+            this.priority = hash(start);
+            this.maxLength = getLength();
+        }
+
+        int getLength() {
+            return end - start + 1;
+        }
+
+        void update() {
+            maxLength = getLength();
+            if (left != null) {
+                maxLength = Math.max(maxLength, left.maxLength);
+            }
+            if (right != null) {
+                maxLength = Math.max(maxLength, right.maxLength);
+            }
+        }
+    }
+
+    private Node root;
+
+    /**
+     * Adds a run; no other run may start at the same place.
+     */
+    void add(int start, int end) {
+        Node[] parts = split(root, start);
+        root = merge(merge(parts[0], new Node(start, end)), parts[1]);
+    }
+
+    /**
+     * Removes the run starting at the given start, if there is one.
+     */
+    void remove(int start) {
+        root = remove(root, start);
+    }
+
+    /**
+     * Returns where the run starting first in [from, to) which is at least the given length starts,
+     * or -1 if there is none.
+     */
+    int findFirst(int length, int from, int to) {
+        return findFirst(root, length, from, to);
+    }
+
+    private static int findFirst(Node node, int length, int from, int to) {
+        while (node != null && node.maxLength >= length) {
+            if (node.start >= from) {
+                int found = findFirst(node.left, length, from, to);
+                if (found != -1) {
+                    return found;
+                }
+                if (node.start >= to) {
+                    return -1;
+                }
+                if (node.getLength() >= length) {
+                    return node.start;
+                }
+            }
+            node = node.right;
+        }
+        return -1;
+    }
+
+    /**
+     * Splits the subtree into the nodes starting before the given start, and the rest.
+     */
+    private static Node[] split(Node node, int start) {
+        if (node == null) {
+            return new Node[2];
+        }
+        Node[] parts;
+        if (node.start < start) {
+            parts = split(node.right, start);
+            node.right = parts[0];
+            parts[0] = node;
+        } else {
+            parts = split(node.left, start);
+            node.left = parts[1];
+            parts[1] = node;
+        }
+        node.update();
+        return parts;
+    }
+
+    /**
+     * Merges two subtrees, where all nodes of the left one start before all nodes of the right one.
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        } else {
+            right.left = merge(left, right.left);
+            right.update();
+            return right;
+        }
+    }
+
+    private static Node remove(Node node, int start) {
+        if (node == null) {
+            return null;
+        }
+        if (start < node.start) {
+            node.left = remove(node.left, start);
+        } else if (start > node.start) {
+            node.right = remove(node.right, start);
+        } else {
+            return merge(node.left, node.right);
+        }
+        node.update();
+        return node;
+    }
+
+    private static int hash(int start) {
+        int h = start * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -71,12 +71,12 @@ public class Gen2TypeColors {
 	private static RandomColorSelector darkColorSelector = new RandomColorSelector(new Random(),
 	RandomColorSelector.Mode.HSV, hsv -> hsv[1] / 2, new double[] { 0, 0, 0.5 }, new double[] { 360, 1, 0.8 });
 
-	public static TypeColor getRandomBrightColor(Random random) {
+	public static synchronized TypeColor getRandomBrightColor(Random random) {
 		brightColorSelector.setRandom(random);
 		return new TypeColor(brightColorSelector.getRandomColor(), null);
 	}
 
-	public static TypeColor getRandomDarkColor(Random random) {
+	public static synchronized TypeColor getRandomDarkColor(Random random) {
 		darkColorSelector.setRandom(random);
 		return new TypeColor(darkColorSelector.getRandomColor(), null);
 	}
@@ -53,7 +53,7 @@ public class Gen3to5TypeColors {
 	}, new double[] { 0, 0, 0.6 }, new double[] { 360, 1, 1 });
 
 	// TODO: something about too similar colors being chosen for the same mon?
-	public static TypeColor getRandomTypeColor(Random random) {
+	public static synchronized TypeColor getRandomTypeColor(Random random) {
 		randomColorSelector.setRandom(random);
 		return new TypeColor(randomColorSelector.getRandomColor(), null);
 	}
@@ -76,7 +76,8 @@ public class PalettePopulator {
 
 	private Palette palette;
 	private PalettePartDescription description;
-	private Color baseColor;
+	// colors are handled as {r, g, b} ints; a list of shades is all of their components after each other
+	private int[] baseColor;
 	private LightDarkMode lightDarkMode;
 
 	private double[] leftShift;
@@ -93,73 +94,84 @@ public class PalettePopulator {
 
 		this.description = description;
 
-		this.baseColor = new Color(baseColor);
+		this.baseColor = baseColor.toInts();
 
 		this.lightDarkMode = description.correctLightDarkMode(lightDarkMode);
 
 		if (description.length() != 0) {
-			Color[] shades = makeShades();
-			fillWithShades(shades);
+			int[] shades = makeShades();
+			fillWithShades(shades, description.getSlots());
 		}
 
 		if (description.hasSibling() && description.siblingLength() != 0) {
-			Color sharedColor = getSiblingColor(palette, baseColor);
+			int[] sharedColor = getSiblingColor(palette, baseColor);
 			// TODO: refactor so makeSiblingShades and makeShades have similar parameters,
 			// or are merged into one method
-			Color[] siblingShades = makeSiblingShades(sharedColor, description.getSiblingSlots(),
+			int[] siblingShades = makeSiblingShades(sharedColor, description.getSiblingSlots(),
 					description.getSharedSlot());
 
-			fillWithShades(siblingShades);
+			fillWithShades(siblingShades, description.getSiblingSlots());
 		}
 	}
 
-	private Color getSiblingColor(Palette palette, Color baseColor) {
-		Color sharedColor = new Color(palette.get(description.getSharedSlot()));
+	private int[] getSiblingColor(Palette palette, Color baseColor) {
+		int[] sharedColor = palette.get(description.getSharedSlot()).toInts();
 
-		if (sharedColor.getComp(0) <= 3 && sharedColor.getComp(1) <= 3 && sharedColor.getComp(2) <= 3) {
-			sharedColor.setComps((orig, i) -> (int) (baseColor.getComp(i) * 0.15));
-		} else if (sharedColor.getComp(0) >= 252 && sharedColor.getComp(1) >= 252 && sharedColor.getComp(2) >= 252) {
-			sharedColor.setComps((orig, i) -> (int) (baseColor.getComp(i) * 0.85));
+		if (sharedColor[0] <= 3 && sharedColor[1] <= 3 && sharedColor[2] <= 3) {
+			for (int i = 0; i < 3; i++) {
+				sharedColor[i] = clamp((int) (baseColor.getComp(i) * 0.15));
+			}
+		} else if (sharedColor[0] >= 252 && sharedColor[1] >= 252 && sharedColor[2] >= 252) {
+			for (int i = 0; i < 3; i++) {
+				sharedColor[i] = clamp((int) (baseColor.getComp(i) * 0.85));
+			}
 		}
 		return sharedColor;
 	}
 
-	private void fillWithShades(Color[] shades) {
-		for (int i = 0; i < shades.length; i++) {
-			if (shades[i] != null) {
-				palette.set(i, shades[i]);
+	/**
+	 * Sets the palette slots to the shades, in order. Only here are the shades turned into {@link Color}s.
+	 */
+	private void fillWithShades(int[] sorted, int[] slots) {
+		for (int i = 0; i < slots.length; i++) {
+			if (slots[i] != -1) { // permits the "0"-trick in PalettePartDescriptions
+				palette.set(slots[i], new Color(sorted[i * 3], sorted[i * 3 + 1], sorted[i * 3 + 2]));
 			}
 		}
 	}
 
-	private Color[] makeShades() {
-		Color[] sorted = new Color[description.length()];
-		for (int i = 0; i < sorted.length; i++) {
-			sorted[i] = new Color();
-		}
+	private static int[] newShades(int length) {
+		int[] shades = new int[length * 3];
+		Arrays.fill(shades, 255);
+		return shades;
+	}
+
+	private static int clamp(int value) {
+		return Math.min(Math.max(value, 0), 255);
+	}
+
+	private int[] makeShades() {
+		int[] sorted = newShades(description.length());
 
 		initializeLeftRightShift();
 
 		makeBaseColorLightOrDark();
 
+		int length = description.length();
 		makeMiddleShadeOrShades(sorted);
-		makeLeftShades(sorted, sorted.length / 2 - (isSlotsEven() ? 2 : 1));
-		makeRightShades(sorted, sorted.length / 2 + 1);
+		makeLeftShades(sorted, length / 2 - (isSlotsEven() ? 2 : 1));
+		makeRightShades(sorted, length, length / 2 + 1);
 
 		if (description.isEndDarkened()) {
-			makeEndShadeDarkened(sorted);
+			makeEndShadeDarkened(sorted, length);
 		}
 
-		Color[] out = fitShadesInSlots(sorted, description.getSlots());
-		return out;
+		return sorted;
 	}
 
-	private Color[] makeSiblingShades(Color sharedCol, int[] slots, int shared) {
+	private int[] makeSiblingShades(int[] sharedCol, int[] slots, int shared) {
 		int sharedLoc = indexOf(slots, shared);
-		Color[] sorted = new Color[slots.length];
-		for (int i = 0; i < sorted.length; i++) {
-			sorted[i] = new Color();
-		}
+		int[] sorted = newShades(slots.length);
 
 		double[] variation = {
 				(random.nextInt(VARIA) + random.nextInt(VARIA) + random.nextInt(VARIA) + VARIABASE) * 0.01
@@ -168,31 +180,31 @@ public class PalettePopulator {
 						* (Math.pow(-1, (random.nextInt(2)))),
 				(random.nextInt(VARIA) + random.nextInt(VARIA) + random.nextInt(VARIA) + VARIABASE) * 0.01
 						* (Math.pow(-1, (random.nextInt(2)))) };
-		leftShift = new double[] { getLeftColorChange(sharedLoc, sharedCol.getComp(0)),
-				getLeftColorChange(sharedLoc, sharedCol.getComp(1)),
-				getLeftColorChange(sharedLoc, sharedCol.getComp(2)) };
-		rightShift = new double[] { getRightColorChange((slots.length - sharedLoc - 1), sharedCol.getComp(0)),
-				getRightColorChange((slots.length - sharedLoc - 1), sharedCol.getComp(1)),
-				getRightColorChange((slots.length - sharedLoc - 1), sharedCol.getComp(2)) };
+		leftShift = new double[] { getLeftColorChange(sharedLoc, sharedCol[0]),
+				getLeftColorChange(sharedLoc, sharedCol[1]),
+				getLeftColorChange(sharedLoc, sharedCol[2]) };
+		rightShift = new double[] { getRightColorChange((slots.length - sharedLoc - 1), sharedCol[0]),
+				getRightColorChange((slots.length - sharedLoc - 1), sharedCol[1]),
+				getRightColorChange((slots.length - sharedLoc - 1), sharedCol[2]) };
 
 		// place shared color first
-		sorted[sharedLoc] = sharedCol;
+		System.arraycopy(sharedCol, 0, sorted, sharedLoc * 3, 3);
 
 		// place shade left and right of shared
-		if (sharedLoc - 1 >= 0) {
-			sorted[sharedLoc - 1]
-					.setComps((orig, i) -> (int) (sorted[sharedLoc].getComp(i) + leftShift[i] * (1 + variation[i])));
-		}
-		if (sharedLoc + 1 < sorted.length) {
-			sorted[sharedLoc + 1]
-					.setComps((orig, i) -> (int) (sorted[sharedLoc].getComp(i) - rightShift[i] * (1 + variation[i])));
+		for (int i = 0; i < 3; i++) {
+			int sharedComp = sorted[sharedLoc * 3 + i];
+			if (sharedLoc - 1 >= 0) {
+				sorted[(sharedLoc - 1) * 3 + i] = clamp((int) (sharedComp + leftShift[i] * (1 + variation[i])));
+			}
+			if (sharedLoc + 1 < slots.length) {
+				sorted[(sharedLoc + 1) * 3 + i] = clamp((int) (sharedComp - rightShift[i] * (1 + variation[i])));
+			}
 		}
 
 		makeLeftShades(sorted, sharedLoc - 2);
-		makeRightShades(sorted, sharedLoc + 2);
+		makeRightShades(sorted, slots.length, sharedLoc + 2);
 
-		Color[] out = fitShadesInSlots(sorted, description.getSiblingSlots());
-		return out;
+		return sorted;
 	}
 
 	private void makeBaseColorLightOrDark() {
@@ -221,16 +233,18 @@ public class PalettePopulator {
 		} else {
 			mod = 0.5;
 		}
-		baseColor.setComps((orig, i) -> (int) (orig.getComp(i) - rightShift[i] * (description.length() / 2 + 1) * mod));
+		for (int i = 0; i < 3; i++) {
+			baseColor[i] = clamp((int) (baseColor[i] - rightShift[i] * (description.length() / 2 + 1) * mod));
+		}
 	}
 
 	private void darkenLeftRightShift() {
-		leftShift[0] = getRightColorChange(getMiddleSlotID(), baseColor.getComp(0));
-		leftShift[1] = getRightColorChange(getMiddleSlotID(), baseColor.getComp(1));
-		leftShift[2] = getRightColorChange(getMiddleSlotID(), baseColor.getComp(2));
-		rightShift[0] = getRightColorChange(getMiddleSlotID(), baseColor.getComp(0));
-		rightShift[1] = getRightColorChange(getMiddleSlotID(), baseColor.getComp(1));
-		rightShift[2] = getRightColorChange(getMiddleSlotID(), baseColor.getComp(2));
+		leftShift[0] = getRightColorChange(getMiddleSlotID(), baseColor[0]);
+		leftShift[1] = getRightColorChange(getMiddleSlotID(), baseColor[1]);
+		leftShift[2] = getRightColorChange(getMiddleSlotID(), baseColor[2]);
+		rightShift[0] = getRightColorChange(getMiddleSlotID(), baseColor[0]);
+		rightShift[1] = getRightColorChange(getMiddleSlotID(), baseColor[1]);
+		rightShift[2] = getRightColorChange(getMiddleSlotID(), baseColor[2]);
 	}
 
 	private void lightenBaseColor(boolean rndcha) {
@@ -240,31 +254,33 @@ public class PalettePopulator {
 		} else {
 			mod = 0.5;
 		}
-		baseColor.setComps((orig, i) -> (int) (orig.getComp(i) + leftShift[i] * (description.length() / 2 + 1) * mod));
+		for (int i = 0; i < 3; i++) {
+			baseColor[i] = clamp((int) (baseColor[i] + leftShift[i] * (description.length() / 2 + 1) * mod));
+		}
 	}
 
 	private void lightenLeftRightShift() {
-		leftShift[0] = getLeftColorChange(getMiddleSlotID(), baseColor.getComp(0));
-		leftShift[1] = getLeftColorChange(getMiddleSlotID(), baseColor.getComp(1));
-		leftShift[2] = getLeftColorChange(getMiddleSlotID(), baseColor.getComp(2));
-		rightShift[0] = getLeftColorChange(getMiddleSlotID(), baseColor.getComp(0));
-		rightShift[1] = getLeftColorChange(getMiddleSlotID(), baseColor.getComp(1));
-		rightShift[2] = getLeftColorChange(getMiddleSlotID(), baseColor.getComp(2));
+		leftShift[0] = getLeftColorChange(getMiddleSlotID(), baseColor[0]);
+		leftShift[1] = getLeftColorChange(getMiddleSlotID(), baseColor[1]);
+		leftShift[2] = getLeftColorChange(getMiddleSlotID(), baseColor[2]);
+		rightShift[0] = getLeftColorChange(getMiddleSlotID(), baseColor[0]);
+		rightShift[1] = getLeftColorChange(getMiddleSlotID(), baseColor[1]);
+		rightShift[2] = getLeftColorChange(getMiddleSlotID(), baseColor[2]);
 
 		double mod = lightDarkenCoeff();
 		for (int i = 0; i < rightShift.length; i++) {
-			rightShift[i] += mod * getLeftColorChange(getMiddleSlotID(), baseColor.getComp(i));
+			rightShift[i] += mod * getLeftColorChange(getMiddleSlotID(), baseColor[i]);
 		}
 	}
 
 	private double lightDarkenCoeff() {
-		int[] bc = baseColor.toInts();
+		int[] bc = baseColor.clone();
 		Arrays.sort(bc);
 		double avg = (bc[1] + bc[2]) / 2.0;
 
-		if (baseColor.getComp(1) >= 225 && baseColor.getComp(0) < 200 && baseColor.getComp(2) < 200)
+		if (baseColor[1] >= 225 && baseColor[0] < 200 && baseColor[2] < 200)
 			avg += 75; // 45
-		if (baseColor.getComp(1) >= 225)
+		if (baseColor[1] >= 225)
 			avg += 75;
 		if (avg > 255)
 			avg = 255;
@@ -277,72 +293,66 @@ public class PalettePopulator {
 
 	private void initializeLeftRightShift() {
 		leftShift = new double[3];
-		leftShift[0] = getLeftColorChange(getMiddleSlotID(), baseColor.getComp(0));
-		leftShift[1] = getLeftColorChange(getMiddleSlotID(), baseColor.getComp(1));
-		leftShift[2] = getLeftColorChange(getMiddleSlotID(), baseColor.getComp(2));
+		leftShift[0] = getLeftColorChange(getMiddleSlotID(), baseColor[0]);
+		leftShift[1] = getLeftColorChange(getMiddleSlotID(), baseColor[1]);
+		leftShift[2] = getLeftColorChange(getMiddleSlotID(), baseColor[2]);
 		rightShift = new double[3];
-		rightShift[0] = getRightColorChange(getMiddleSlotID(), baseColor.getComp(0));
-		rightShift[1] = getRightColorChange(getMiddleSlotID(), baseColor.getComp(1));
-		rightShift[2] = getRightColorChange(getMiddleSlotID(), baseColor.getComp(2));
+		rightShift[0] = getRightColorChange(getMiddleSlotID(), baseColor[0]);
+		rightShift[1] = getRightColorChange(getMiddleSlotID(), baseColor[1]);
+		rightShift[2] = getRightColorChange(getMiddleSlotID(), baseColor[2]);
 	}
 
 	private int getMiddleSlotID() {
 		return (description.length() - (isSlotsEven() ? 0 : 1)) / 2;
 	}
 
-	private Color[] fitShadesInSlots(Color[] sorted, int[] slots) {
-		Color[] out = new Color[palette.size()];
-		for (int i = 0; i < slots.length; i++) {
-			if (slots[i] != -1) { // permits the "0"-trick in PalettePartDescriptions
-				out[slots[i]] = sorted[i];
-			}
-		}
-		return out;
-	}
-
-	private void makeMiddleShadeOrShades(Color[] sorted) {
+	private void makeMiddleShadeOrShades(int[] sorted) {
+		int middle = description.length() / 2;
 		if (isSlotsEven()) {
 			for (int totalChange = 0, r = 0; totalChange < TOTAL_CHANGE_THRESHOLD && r < 5; r++) {
 				totalChange = 0;
 				for (int p = 0; p < 3; p++) {
 
-					int leftValue = (int) (baseColor.getComp(p) + leftShift[p] * 0.5);
+					int leftValue = (int) (baseColor[p] + leftShift[p] * 0.5);
 					leftValue = Math.min(leftValue, 255);
-					sorted[sorted.length / 2 - 1].setComp(p, leftValue);
+					sorted[(middle - 1) * 3 + p] = leftValue;
 
-					int rightValue = (int) (baseColor.getComp(p) - rightShift[p] * 0.5);
+					int rightValue = (int) (baseColor[p] - rightShift[p] * 0.5);
 					rightValue = Math.max(rightValue, 0);
-					sorted[sorted.length / 2].setComp(p, rightValue);
+					sorted[middle * 3 + p] = rightValue;
 
-					totalChange += (sorted[sorted.length / 2].getComp(p) >> 2)
-							- (sorted[sorted.length / 2 - 1].getComp(p) >> 2);
+					totalChange += (sorted[middle * 3 + p] >> 2) - (sorted[(middle - 1) * 3 + p] >> 2);
 				}
 			}
 		} else {
-			sorted[sorted.length / 2] = baseColor;
+			System.arraycopy(baseColor, 0, sorted, middle * 3, 3);
 		}
 	}
 
-	private void makeLeftShades(Color[] sorted, int rightBound) {
+	private void makeLeftShades(int[] sorted, int rightBound) {
 		// make all colors left of middle
 		for (int ptr = rightBound; ptr >= 0; ptr--) {
-			int right = ptr + 1;
-			sorted[ptr].setComps((orig, i) -> (int) (sorted[right].getComp(i) + leftShift[i]));
+			for (int i = 0; i < 3; i++) {
+				sorted[ptr * 3 + i] = clamp((int) (sorted[(ptr + 1) * 3 + i] + leftShift[i]));
+			}
 		}
 	}
 
-	private void makeRightShades(Color[] sorted, int leftBound) {
+	private void makeRightShades(int[] sorted, int length, int leftBound) {
 		// make all colors right of middle
-		for (int ptr = leftBound; ptr < sorted.length; ptr++) {
-			int left = ptr - 1;
-			sorted[ptr].setComps((orig, i) -> (int) (sorted[left].getComp(i) - rightShift[i]));
+		for (int ptr = leftBound; ptr < length; ptr++) {
+			for (int i = 0; i < 3; i++) {
+				sorted[ptr * 3 + i] = clamp((int) (sorted[(ptr - 1) * 3 + i] - rightShift[i]));
+			}
 		}
 	}
 
-	private void makeEndShadeDarkened(Color[] sorted) {
-		int ptr = sorted.length - 1;
+	private void makeEndShadeDarkened(int[] sorted, int length) {
+		int ptr = length - 1;
 		for (int j = 0; j < 1; j++) { // can be adjusted to darken more
-			sorted[ptr].setComps((orig, i) -> (int) (orig.getComp(i) - rightShift[i]));
+			for (int i = 0; i < 3; i++) {
+				sorted[ptr * 3 + i] = clamp((int) (sorted[ptr * 3 + i] - rightShift[i]));
+			}
 		}
 	}
 
@@ -38,6 +38,11 @@ public class NARCArchive {
 
     private boolean hasFilenames = false;
 
+    // the FIMG frame the files were read from, and where each file was in it, so isChanged() can compare to them
+    private byte[] originalFiles;
+    private int[] originalStarts;
+    private int[] originalEnds;
+
     public NARCArchive() {
         // creates a new empty NARC with no filenames by default
     }
@@ -52,6 +57,9 @@ public class NARCArchive {
         byte[] fatbframe = frames.get("FATB");
         byte[] fimgframe = frames.get("FIMG");
         int fileCount = readLong(fatbframe, 0);
+        originalFiles = fimgframe;
+        originalStarts = new int[fileCount];
+        originalEnds = new int[fileCount];
         for (int i = 0; i < fileCount; i++) {
             int startOffset = readLong(fatbframe, 4 + i * 8);
             int endOffset = readLong(fatbframe, 8 + i * 8);
@@ -59,6 +67,8 @@ public class NARCArchive {
             byte[] thisFile = new byte[length];
             System.arraycopy(fimgframe, startOffset, thisFile, 0, length);
             files.add(thisFile);
+            originalStarts[i] = startOffset;
+            originalEnds[i] = endOffset;
         }
 
         // Filenames?
@@ -84,6 +94,30 @@ public class NARCArchive {
         }
     }
 
+    /**
+     * Returns whether the files differ from the ones this NARC was read from, i.e. whether it needs to be
+     * written back. The files are compared by content, since they are often edited in place.
+     * A NARC which was not read from data always counts as changed.
+     */
+    public boolean isChanged() {
+        if (originalFiles == null || files.size() != originalStarts.length) {
+            return true;
+        }
+        for (int i = 0; i < files.size(); i++) {
+            byte[] file = files.get(i);
+            if (file.length != originalEnds[i] - originalStarts[i]) {
+                return true;
+            }
+            int start = originalStarts[i];
+            for (int j = 0; j < file.length; j++) {
+                if (file[j] != originalFiles[start + j]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     public byte[] getBytes() throws IOException {
         // Get bytes required for FIMG frame
         int bytesRequired = 0;
@@ -2,10 +2,7 @@ package com.dabomstew.pkromio.newnds;
 
 import com.dabomstew.pkromio.FileFunctions;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.RandomAccessFile;
 
 /*----------------------------------------------------------------------------*/
 /*--  NDSFile.java - an entry in the FAT/FNT filesystem                     --*/
@@ -34,86 +31,65 @@ public class NDSFile {
     public int offset, size;
     public int fileID;
     public String fullPath;
-    private Extracted status = Extracted.NOT;
-    private String extFilename;
-    public byte[] data;
+    private boolean originalRead;
+    public byte[] data; // null until changed; the original contents are read from the ROM each time
     public long originalCRC;
 
     public NDSFile(NDSRom parent) {
         this.parent = parent;
     }
 
+    /**
+     * Copies the location (and original CRC, for the diagnostics) of a file into another {@link NDSRom},
+     * but not its contents.
+     */
+    public NDSFile(NDSRom parent, NDSFile original) {
+        this.parent = parent;
+        this.offset = original.offset;
+        this.size = original.size;
+        this.fileID = original.fileID;
+        this.fullPath = original.fullPath;
+        this.originalRead = original.originalRead;
+        this.originalCRC = original.originalCRC;
+    }
+
     public byte[] getContents() throws IOException {
-        if (this.status == Extracted.NOT) {
-            // extract file
-            parent.reopenROM();
-            RandomAccessFile rom = parent.getBaseRom();
-            byte[] buf = new byte[this.size];
-            rom.seek(this.offset);
-            rom.readFully(buf);
-            originalCRC = FileFunctions.getCRC32(buf);
-            if (parent.isWritingEnabled()) {
-                // make a file
-                String tmpDir = parent.getTmpFolder();
-                this.extFilename = fullPath.replaceAll("[^A-Za-z0-9_]+", "");
-                File tmpFile = new File(tmpDir + extFilename);
-                FileOutputStream fos = new FileOutputStream(tmpFile);
-                fos.write(buf);
-                fos.close();
-                tmpFile.deleteOnExit();
-                this.status = Extracted.TO_FILE;
-                this.data = null;
-                return buf;
-            } else {
-                this.status = Extracted.TO_RAM;
-                this.data = buf;
-                byte[] newcopy = new byte[buf.length];
-                System.arraycopy(buf, 0, newcopy, 0, buf.length);
-                return newcopy;
+        if (this.data == null) {
+            // unchanged, so read straight from the ROM
+            byte[] buf = parent.readOriginalContents(this.offset, this.size);
+            if (!originalRead) {
+                originalCRC = FileFunctions.getCRC32(buf);
+                originalRead = true;
             }
-        } else if (this.status == Extracted.TO_RAM) {
+            return buf;
+        } else {
             byte[] newcopy = new byte[this.data.length];
             System.arraycopy(this.data, 0, newcopy, 0, this.data.length);
             return newcopy;
-        } else {
-            String tmpDir = parent.getTmpFolder();
-            return FileFunctions.readFileFullyIntoBuffer(tmpDir + this.extFilename);
         }
     }
 
     public void writeOverride(byte[] data) throws IOException {
-        if (status == Extracted.NOT) {
-            // temp extract
+        if (!originalRead) {
+            // for the original CRC
             getContents();
         }
-        if (status == Extracted.TO_FILE) {
-            String tmpDir = parent.getTmpFolder();
-            FileOutputStream fos = new FileOutputStream(new File(tmpDir + this.extFilename));
-            fos.write(data);
-            fos.close();
+        if (this.data != null && this.data.length == data.length) {
+            // copy new in
+            System.arraycopy(data, 0, this.data, 0, data.length);
         } else {
-            if (this.data.length == data.length) {
-                // copy new in
-                System.arraycopy(data, 0, this.data, 0, data.length);
-            } else {
-                // make new array
-                this.data = null;
-                this.data = new byte[data.length];
-                System.arraycopy(data, 0, this.data, 0, data.length);
-            }
+            // make new array
+            this.data = new byte[data.length];
+            System.arraycopy(data, 0, this.data, 0, data.length);
         }
     }
 
     // returns null if no override
     public byte[] getOverrideContents() throws IOException {
-        if (status == Extracted.NOT) {
+        if (this.data == null) {
             return null;
         }
         return getContents();
     }
 
-    private enum Extracted {
-        NOT, TO_FILE, TO_RAM
-    }
-
 }
@@ -2,11 +2,12 @@ package com.dabomstew.pkromio.newnds;
 
 import com.dabomstew.pkromio.FileFunctions;
 import com.dabomstew.pkromio.RomFunctions;
-import com.dabomstew.pkromio.RootPath;
 import com.dabomstew.pkromio.exceptions.RomIOException;
 import cuecompressors.BLZCoder;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -40,13 +41,13 @@ public class NDSRom {
     private String romFilename;
     private RandomAccessFile baseRom;
     private boolean romOpen;
+    // read-only and memory-mapped; shared by all copies of this NDSRom (see NDSRom(NDSRom))
+    private ByteBuffer mappedRom;
     private Map<String, NDSFile> files;
     private Map<Integer, NDSFile> filesByID;
     private Map<Integer, NDSY9Entry> arm9overlaysByFileID;
     private NDSY9Entry[] arm9overlays;
     private byte[] fat;
-    private String tmpFolder;
-    private boolean writingEnabled;
     private boolean arm9_open, arm9_changed, arm9_has_footer;
     private boolean arm9_compressed;
     private int arm9_ramoffset;
@@ -63,26 +64,50 @@ public class NDSRom {
         this.romFilename = filename;
         this.baseRom = new RandomAccessFile(filename, "r");
         this.romOpen = true;
-        // TMP folder?
-        String rawFilename = new File(filename).getName();
-        String dataFolder = "tmp_" + rawFilename.substring(0, rawFilename.lastIndexOf('.'));
-        // remove nonsensical chars
-        dataFolder = dataFolder.replaceAll("[^A-Za-z0-9_]+", "");
-        File tmpFolder = new File(RootPath.path + dataFolder);
-        tmpFolder.mkdir();
-        if (tmpFolder.canWrite()) {
-            writingEnabled = true;
-            this.tmpFolder = RootPath.path + dataFolder + File.separator;
-            tmpFolder.deleteOnExit();
-        } else {
-            writingEnabled = false;
-        }
+        // The original contents of files are read straight from the mapping, and changed files are kept in RAM,
+        // so nothing needs to be extracted to disk. The mapping stays valid after the file is closed.
+        FileChannel channel = baseRom.getChannel();
+        this.mappedRom = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
         readFileSystem();
         arm9_open = false;
         arm9_changed = false;
         arm9_ramstored = null;
     }
 
+    /**
+     * Creates a copy of an NDSRom, which shares its parsed file system and memory-mapped ROM file,
+     * but none of its changes. So it can be used alongside the original and other copies.<br>
+     * Should be made before any changes are made to the original.
+     */
+    public NDSRom(NDSRom original) {
+        this.romCode = original.romCode;
+        this.version = original.version;
+        this.romFilename = original.romFilename;
+        this.romOpen = false; // only needed for saving
+        this.mappedRom = original.mappedRom;
+        this.fat = original.fat;
+        this.arm9_ramoffset = original.arm9_ramoffset;
+        this.originalArm9CRC = original.originalArm9CRC;
+
+        this.files = new HashMap<>();
+        this.filesByID = new HashMap<>();
+        for (NDSFile originalFile : original.files.values()) {
+            NDSFile nf = new NDSFile(this, originalFile);
+            files.put(nf.fullPath, nf);
+            filesByID.put(nf.fileID, nf);
+        }
+        this.arm9overlays = new NDSY9Entry[original.arm9overlays.length];
+        this.arm9overlaysByFileID = new HashMap<>();
+        for (int i = 0; i < arm9overlays.length; i++) {
+            NDSY9Entry overlay = new NDSY9Entry(this, original.arm9overlays[i]);
+            arm9overlays[i] = overlay;
+            arm9overlaysByFileID.put(overlay.fileID, overlay);
+        }
+        arm9_open = false;
+        arm9_changed = false;
+        arm9_ramstored = null;
+    }
+
     public void reopenROM() throws IOException {
         if (!this.romOpen) {
             this.baseRom = new RandomAccessFile(this.romFilename, "r");
@@ -433,15 +458,21 @@ public class NDSRom {
         closeROM();
     }
 
+    // copies from the current position of one file to the current position of the other, and moves both along
     private void copy(RandomAccessFile from, RandomAccessFile to, int bytes) throws IOException {
-        int sizeof_copybuf = Math.min(256 * 1024, bytes);
-        byte[] copybuf = new byte[sizeof_copybuf];
+        // transferTo() lets the OS copy the data directly, rather than through a buffer on the heap
+        FileChannel source = from.getChannel();
+        FileChannel target = to.getChannel();
+        long position = source.position();
         while (bytes > 0) {
-            int size2 = (bytes >= sizeof_copybuf) ? sizeof_copybuf : bytes;
-            int read = from.read(copybuf, 0, size2);
-            to.write(copybuf, 0, read);
-            bytes -= read;
+            long transferred = source.transferTo(position, bytes, target);
+            if (transferred <= 0) {
+                throw new EOFException();
+            }
+            position += transferred;
+            bytes -= (int) transferred;
         }
+        source.position(position);
     }
 
     // get rom code for opened rom
@@ -497,20 +528,17 @@ public class NDSRom {
     public byte[] getARM9() throws IOException {
         if (!arm9_open) {
             arm9_open = true;
-            this.reopenROM();
-            int arm9_offset = readFromFile(this.baseRom, 0x20, 4);
-            int arm9_size = readFromFile(this.baseRom, 0x2C, 4);
-            byte[] arm9 = new byte[arm9_size];
-            this.baseRom.seek(arm9_offset);
-            this.baseRom.readFully(arm9);
+            int arm9_offset = readFromMappedRom(0x20, 4);
+            int arm9_size = readFromMappedRom(0x2C, 4);
+            byte[] arm9 = readOriginalContents(arm9_offset, arm9_size);
             originalArm9CRC = FileFunctions.getCRC32(arm9);
             // footer check
-            int nitrocode = readFromFile(this.baseRom, 4);
+            int nitrocode = readFromMappedRom(arm9_offset + arm9_size, 4);
             if (nitrocode == 0xDEC00621) {
                 // found a footer
                 arm9_footer = new byte[12];
                 writeToByteArr(arm9_footer, 0, 4, 0xDEC00621);
-                this.baseRom.readFully(arm9_footer, 4, 8);
+                System.arraycopy(readOriginalContents(arm9_offset + arm9_size + 4, 8), 0, arm9_footer, 4, 8);
                 arm9_has_footer = true;
             } else {
                 arm9_has_footer = false;
@@ -555,28 +583,14 @@ public class NDSRom {
             }
 
             // Now actually make the copy or w/e
-            if (writingEnabled) {
-                File arm9file = new File(tmpFolder + "arm9.bin");
-                FileOutputStream fos = new FileOutputStream(arm9file);
-                fos.write(arm9);
-                fos.close();
-                arm9file.deleteOnExit();
-                this.arm9_ramstored = null;
-                return arm9;
-            } else {
-                this.arm9_ramstored = arm9;
-                byte[] newcopy = new byte[arm9.length];
-                System.arraycopy(arm9, 0, newcopy, 0, arm9.length);
-                return newcopy;
-            }
+            this.arm9_ramstored = arm9;
+            byte[] newcopy = new byte[arm9.length];
+            System.arraycopy(arm9, 0, newcopy, 0, arm9.length);
+            return newcopy;
         } else {
-            if (writingEnabled) {
-                return FileFunctions.readFileFullyIntoBuffer(tmpFolder + "arm9.bin");
-            } else {
-                byte[] newcopy = new byte[this.arm9_ramstored.length];
-                System.arraycopy(this.arm9_ramstored, 0, newcopy, 0, this.arm9_ramstored.length);
-                return newcopy;
-            }
+            byte[] newcopy = new byte[this.arm9_ramstored.length];
+            System.arraycopy(this.arm9_ramstored, 0, newcopy, 0, this.arm9_ramstored.length);
+            return newcopy;
         }
     }
 
@@ -598,20 +612,14 @@ public class NDSRom {
             getARM9();
         }
         arm9_changed = true;
-        if (writingEnabled) {
-            FileOutputStream fos = new FileOutputStream(new File(tmpFolder + "arm9.bin"));
-            fos.write(arm9);
-            fos.close();
+        if (this.arm9_ramstored.length == arm9.length) {
+            // copy new in
+            System.arraycopy(arm9, 0, this.arm9_ramstored, 0, arm9.length);
         } else {
-            if (this.arm9_ramstored.length == arm9.length) {
-                // copy new in
-                System.arraycopy(arm9, 0, this.arm9_ramstored, 0, arm9.length);
-            } else {
-                // make new array
-                this.arm9_ramstored = null;
-                this.arm9_ramstored = new byte[arm9.length];
-                System.arraycopy(arm9, 0, this.arm9_ramstored, 0, arm9.length);
-            }
+            // make new array
+            this.arm9_ramstored = null;
+            this.arm9_ramstored = new byte[arm9.length];
+            System.arraycopy(arm9, 0, this.arm9_ramstored, 0, arm9.length);
         }
     }
 
@@ -667,16 +675,20 @@ public class NDSRom {
         }
     }
 
-    public String getTmpFolder() {
-        return tmpFolder;
-    }
-
-    public RandomAccessFile getBaseRom() {
-        return baseRom;
+    /**
+     * Reads a range of the original ROM file, from the memory mapping. Always returns a new array.
+     */
+    byte[] readOriginalContents(int offset, int size) {
+        byte[] buf = new byte[size];
+        // a duplicate has its own position, so copies sharing the mapping can read from it at the same time
+        ByteBuffer view = mappedRom.duplicate();
+        view.position(offset);
+        view.get(buf);
+        return buf;
     }
 
-    public boolean isWritingEnabled() {
-        return writingEnabled;
+    private int readFromMappedRom(int offset, int size) {
+        return readFromByteArr(readOriginalContents(offset, size), 0, size);
     }
 
     private int readFromByteArr(byte[] data, int offset, int size) {
@@ -3,10 +3,7 @@ package com.dabomstew.pkromio.newnds;
 import com.dabomstew.pkromio.FileFunctions;
 import cuecompressors.BLZCoder;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.RandomAccessFile;
 
 /*----------------------------------------------------------------------------*/
 /*--  NDSY9Entry.java - an entry in the arm9 overlay system                 --*/
@@ -40,8 +37,7 @@ public class NDSY9Entry {
     public int static_start, static_end;
     public int compressed_size;
     public int compress_flag;
-    private Extracted status = Extracted.NOT;
-    private String extFilename;
+    private boolean changed = false;
     public byte[] data;
     public long originalCRC;
     private boolean decompressed_data = false;
@@ -50,77 +46,66 @@ public class NDSY9Entry {
         this.parent = parent;
     }
 
+    /**
+     * Copies the location, overlay table entry and original CRC of an overlay into another {@link NDSRom},
+     * but not its contents.
+     */
+    public NDSY9Entry(NDSRom parent, NDSY9Entry original) {
+        this.parent = parent;
+        this.offset = original.offset;
+        this.size = original.size;
+        this.original_size = original.original_size;
+        this.fileID = original.fileID;
+        this.overlay_id = original.overlay_id;
+        this.ram_address = original.ram_address;
+        this.ram_size = original.ram_size;
+        this.bss_size = original.bss_size;
+        this.static_start = original.static_start;
+        this.static_end = original.static_end;
+        this.compressed_size = original.compressed_size;
+        this.compress_flag = original.compress_flag;
+        this.originalCRC = original.originalCRC;
+    }
+
     public byte[] getContents() throws IOException {
-        if (this.status == Extracted.NOT) {
+        if (this.data == null) {
             // extract file
-            parent.reopenROM();
-            RandomAccessFile rom = parent.getBaseRom();
-            byte[] buf = new byte[this.original_size];
-            rom.seek(this.offset);
-            rom.readFully(buf);
+            byte[] buf = parent.readOriginalContents(this.offset, this.original_size);
             originalCRC = FileFunctions.getCRC32(buf);
             // Compression?
             if (compress_flag != 0 && this.original_size == this.compressed_size && this.compressed_size != 0) {
                 buf = new BLZCoder(null).BLZ_DecodePub(buf, "overlay " + overlay_id);
                 decompressed_data = true;
             }
-            if (parent.isWritingEnabled()) {
-                // make a file
-                String tmpDir = parent.getTmpFolder();
-                String fullPath = String.format("overlay_%04d", overlay_id);
-                this.extFilename = fullPath.replaceAll("[^A-Za-z0-9_]+", "");
-                File tmpFile = new File(tmpDir + extFilename);
-                FileOutputStream fos = new FileOutputStream(tmpFile);
-                fos.write(buf);
-                fos.close();
-                tmpFile.deleteOnExit();
-                this.status = Extracted.TO_FILE;
-                this.data = null;
-                return buf;
-            } else {
-                this.status = Extracted.TO_RAM;
-                this.data = buf;
-                byte[] newcopy = new byte[buf.length];
-                System.arraycopy(buf, 0, newcopy, 0, buf.length);
-                return newcopy;
-            }
-        } else if (this.status == Extracted.TO_RAM) {
-            byte[] newcopy = new byte[this.data.length];
-            System.arraycopy(this.data, 0, newcopy, 0, this.data.length);
-            return newcopy;
-        } else {
-            String tmpDir = parent.getTmpFolder();
-            return FileFunctions.readFileFullyIntoBuffer(tmpDir + this.extFilename);
+            // kept even if unchanged, so it doesn't have to be decompressed again
+            this.data = buf;
         }
+        byte[] newcopy = new byte[this.data.length];
+        System.arraycopy(this.data, 0, newcopy, 0, this.data.length);
+        return newcopy;
     }
 
     public void writeOverride(byte[] data) throws IOException {
-        if (status == Extracted.NOT) {
+        if (this.data == null) {
             // temp extract
             getContents();
         }
+        changed = true;
         size = data.length;
-        if (status == Extracted.TO_FILE) {
-            String tmpDir = parent.getTmpFolder();
-            FileOutputStream fos = new FileOutputStream(new File(tmpDir + this.extFilename));
-            fos.write(data);
-            fos.close();
+        if (this.data.length == data.length) {
+            // copy new in
+            System.arraycopy(data, 0, this.data, 0, data.length);
         } else {
-            if (this.data.length == data.length) {
-                // copy new in
-                System.arraycopy(data, 0, this.data, 0, data.length);
-            } else {
-                // make new array
-                this.data = null;
-                this.data = new byte[data.length];
-                System.arraycopy(data, 0, this.data, 0, data.length);
-            }
+            // make new array
+            this.data = null;
+            this.data = new byte[data.length];
+            System.arraycopy(data, 0, this.data, 0, data.length);
         }
     }
 
     // returns null if no override
     public byte[] getOverrideContents() throws IOException {
-        if (status == Extracted.NOT) {
+        if (!changed) {
             return null;
         }
         byte[] buf = getContents();
@@ -132,8 +117,4 @@ public class NDSY9Entry {
         return buf;
     }
 
-    private enum Extracted {
-        NOT, TO_FILE, TO_RAM
-    }
-
 }
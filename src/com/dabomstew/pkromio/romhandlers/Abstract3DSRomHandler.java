@@ -35,6 +35,7 @@ import java.awt.image.BufferedImage;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
@@ -48,6 +49,33 @@ public abstract class Abstract3DSRomHandler extends AbstractRomHandler {
 	private NCCH gameUpdate;
 	private String loadedFN;
 
+	// GARCs which are only ever read, kept parsed so e.g. each Pokemon icon doesn't re-read the whole GARC
+	private final Map<String, GARCArchive> readOnlyGARCs = new HashMap<>();
+	// the GARCs read so far, by subpath and how they were parsed, so reading one again gives the same GARC
+	// as long as it is unchanged and its file has not been written since
+	private final Map<String, GARCArchive> readGARCs = new HashMap<>();
+	// the file each GARC was read from, as long as that file has not been written since,
+	// so writing back a GARC which is unchanged can be skipped
+	private final Map<GARCArchive, String> garcSources = new WeakHashMap<>();
+
+	// GARCs at least this big have their data stored off-heap in low-memory mode
+	private static final int OFF_HEAP_GARC_MIN_SIZE = 0x100000;
+	private boolean lowMemoryMode;
+
+	/**
+	 * Sets whether to keep as little as possible on the Java heap, so the game can be loaded even when the JVM
+	 * has not been given a lot of memory. Must be set before the ROM is loaded.<br>
+	 * In low-memory mode, romfs files are only kept in RAM once they have been changed, large GARCs have their
+	 * data stored off-heap, and there is no {@link Snapshot} support (since Snapshots keep all read files in RAM).
+	 */
+	public void setLowMemoryMode(boolean lowMemoryMode) {
+		this.lowMemoryMode = lowMemoryMode;
+	}
+
+	public boolean isLowMemoryMode() {
+		return lowMemoryMode;
+	}
+
 	@Override
 	public boolean loadRom(String filename) {
 		String productCode = getProductCodeFromFile(filename);
@@ -58,6 +86,7 @@ public abstract class Abstract3DSRomHandler extends AbstractRomHandler {
 		// Load inner rom
 		try {
 			baseRom = new NCCH(filename, productCode, titleId);
+			baseRom.setLowMemoryMode(lowMemoryMode);
 			if (!baseRom.isDecrypted()) {
 				throw new EncryptedROMException(filename);
 			}
@@ -69,6 +98,20 @@ public abstract class Abstract3DSRomHandler extends AbstractRomHandler {
 		return true;
 	}
 
+	@Override
+	public boolean hasSnapshotSupport() {
+		return !lowMemoryMode;
+	}
+
+	@Override
+	protected void setUpSnapshotCopier(ObjectGraphCopier copier) {
+		// Copies of the NCCHs as they were before any changes, which share the files they have read,
+		// so each file is only read from disk once.
+		copier.setCopyFunction(NCCH.class, NCCH::new);
+		// the data GARCs were read from is never written to, only their sub-files
+		copier.setCopyFunction(ByteBuffer.class, source -> source);
+	}
+
 	protected abstract boolean detect3DSRom(String productCode, String titleId);
 
 	@Override
@@ -76,6 +119,13 @@ public abstract class Abstract3DSRomHandler extends AbstractRomHandler {
 		return loadedFN;
 	}
 
+	@Override
+	public boolean hasConcurrentRandomizationSupport() {
+		// NCCH extracts files to a tmp folder named after the ROM file,
+		// which would be shared between all RomHandlers loading the same ROM.
+		return false;
+	}
+
 	protected abstract void loadedROM(String productCode, String titleId);
 
 
@@ -118,6 +168,7 @@ public abstract class Abstract3DSRomHandler extends AbstractRomHandler {
 		String titleId = getTitleIdFromFile(filename);
 		try {
 			gameUpdate = new NCCH(filename, productCode, titleId);
+			gameUpdate.setLowMemoryMode(lowMemoryMode);
 			if (!gameUpdate.isDecrypted()) {
 				throw new EncryptedROMException(filename);
 			}
@@ -128,6 +179,11 @@ public abstract class Abstract3DSRomHandler extends AbstractRomHandler {
 		} catch (IOException e) {
 			throw new RomIOException(e);
 		}
+		// the update replaces game files, so anything parsed from the old ones is out of date
+		markTrainersDirty();
+		markEncountersDirty();
+		readOnlyGARCs.clear();
+		readGARCs.clear();
 		this.loadedROM(baseRom.getProductCode(), baseRom.getTitleId());
 		return true;
 	}
@@ -135,6 +191,10 @@ public abstract class Abstract3DSRomHandler extends AbstractRomHandler {
 	@Override
 	public void removeGameUpdate() {
 		gameUpdate = null;
+		markTrainersDirty();
+		markEncountersDirty();
+		readOnlyGARCs.clear();
+		readGARCs.clear();
 		this.loadedROM(baseRom.getProductCode(), baseRom.getTitleId());
 	}
 
@@ -231,16 +291,88 @@ public abstract class Abstract3DSRomHandler extends AbstractRomHandler {
 	protected void writeCode(byte[] data) throws IOException {
 		baseRom.writeCode(data);
 	}
+
+	/**
+	 * Returns the GARC at the subpath. A GARC read the same way before is returned again, instead of parsing the
+	 * file again, as long as it is unchanged and its file has not been written since. Otherwise a newly parsed
+	 * GARC is returned, so changes which were not written are never seen by the next reader.
+	 */
 	protected GARCArchive readGARC(String subpath, boolean skipDecompression) throws IOException {
-		return new GARCArchive(readFile(subpath), skipDecompression);
+		String key = subpath + (skipDecompression ? ":raw" : ":decompressed");
+		GARCArchive garc = getCachedGARC(key);
+		if (garc == null) {
+			byte[] data = readFile(subpath);
+			garc = readGARC(subpath, key, new GARCArchive(data, skipDecompression), data.length);
+		}
+		return garc;
 	}
 
+	/**
+	 * Returns the GARC at the subpath, reusing an unchanged one like {@link #readGARC(String, boolean)}.
+	 */
 	protected GARCArchive readGARC(String subpath, List<Boolean> compressThese) throws IOException {
-		return new GARCArchive(readFile(subpath), compressThese);
+		String key = subpath + ":" + compressThese;
+		GARCArchive garc = getCachedGARC(key);
+		if (garc == null) {
+			byte[] data = readFile(subpath);
+			garc = readGARC(subpath, key, new GARCArchive(data, compressThese), data.length);
+		}
+		return garc;
+	}
+
+	private GARCArchive getCachedGARC(String key) {
+		GARCArchive garc = readGARCs.get(key);
+		if (garc != null && garc.isChanged()) {
+			readGARCs.remove(key);
+			return null;
+		}
+		return garc;
+	}
+
+	private GARCArchive readGARC(String subpath, String key, GARCArchive garc, int size) {
+		storeOffHeapIfLarge(garc, size);
+		garcSources.put(garc, subpath);
+		// low-memory mode keeps only changed files, so it can't keep every GARC parsed
+		if (!lowMemoryMode) {
+			readGARCs.put(key, garc);
+		}
+		return garc;
 	}
 
+	private void storeOffHeapIfLarge(GARCArchive garc, int size) {
+		if (lowMemoryMode && size >= OFF_HEAP_GARC_MIN_SIZE) {
+			garc.storeOffHeap();
+		}
+	}
+
+	/**
+	 * Returns the GARC at the subpath, parsing it only the first time it is asked for.<br>
+	 * The same GARCArchive is returned every time, so it must not be changed.
+	 */
+	protected GARCArchive readReadOnlyGARC(String subpath) throws IOException {
+		GARCArchive garc = readOnlyGARCs.get(subpath);
+		if (garc == null) {
+			// not one from readGARC(), which others may change
+			byte[] data = readFile(subpath);
+			garc = new GARCArchive(data, false);
+			storeOffHeapIfLarge(garc, data.length);
+			readOnlyGARCs.put(subpath, garc);
+		}
+		return garc;
+	}
+
+	/**
+	 * Writes the GARC to the subpath, unless it was read from there and is unchanged, so writing it would change
+	 * nothing. That saves packing it (and compressing its sub-files), and keeps the file out of the romfs changes.
+	 * GARCs the game update has a copy of are always written, so both copies stay the same.
+	 */
 	protected void writeGARC(String subpath, GARCArchive garc) throws IOException {
+		boolean inGameUpdate = gameUpdate != null && gameUpdate.hasFile(subpath);
+		if (!inGameUpdate && subpath.equals(garcSources.get(garc)) && !garc.isChanged()) {
+			return;
+		}
 		this.writeFile(subpath, garc.getBytes());
+		recordRewrittenArchive(subpath);
 	}
 
 	protected byte[] readFile(String location) throws IOException {
@@ -296,6 +428,10 @@ public abstract class Abstract3DSRomHandler extends AbstractRomHandler {
 			System.arraycopy(data, offset, newData, 0, length);
 			data = newData;
 		}
+		readOnlyGARCs.remove(location);
+		// GARCs read from the file no longer have the same contents as it
+		garcSources.values().removeIf(location::equals);
+		readGARCs.keySet().removeIf(key -> key.startsWith(location + ":"));
 		baseRom.writeFile(location, data);
 		if (gameUpdate != null && gameUpdate.hasFile(location)) {
 			gameUpdate.writeFile(location, data);
@@ -421,7 +557,7 @@ public abstract class Abstract3DSRomHandler extends AbstractRomHandler {
 		String GARCPath = getGARCPath("PokemonGraphics");
 		GARCArchive pokeGraphicsGARC;
 		try {
-			pokeGraphicsGARC = readGARC(GARCPath, false);
+			pokeGraphicsGARC = readReadOnlyGARC(GARCPath);
 		} catch (IOException e) {
 			throw new RomIOException(e);
 		}
@@ -436,7 +572,7 @@ public abstract class Abstract3DSRomHandler extends AbstractRomHandler {
 	public int getIconGARCSize() {
 		try {
 			String GARCPath = getGARCPath("PokemonGraphics");
-			GARCArchive pokeGraphicsGARC = readGARC(GARCPath, false);
+			GARCArchive pokeGraphicsGARC = readReadOnlyGARC(GARCPath);
 			return pokeGraphicsGARC.files.size();
 		} catch (IOException e) {
 			throw new RomIOException(e);
@@ -446,7 +582,7 @@ public abstract class Abstract3DSRomHandler extends AbstractRomHandler {
 	public BufferedImage getPokemonIcon(int iconIndex) {
 		try {
 			String GARCPath = getGARCPath("PokemonGraphics");
-			GARCArchive pokeGraphicsGARC = readGARC(GARCPath, false);
+			GARCArchive pokeGraphicsGARC = readReadOnlyGARC(GARCPath);
 
 			return getPokemonIcon(iconIndex, pokeGraphicsGARC, true, false);
 		} catch (IOException e) {
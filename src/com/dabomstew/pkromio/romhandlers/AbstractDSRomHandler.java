@@ -20,7 +20,10 @@ import java.io.PrintStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
  * An abstract base class for DS {@link RomHandler}s, which standardises common DS functions.
@@ -48,6 +51,12 @@ public abstract class AbstractDSRomHandler extends AbstractRomHandler {
     private int tcmCopyingPointersOffset = -1;
     protected final FreedSpace arm9FreedSpace = new FreedSpace();
 
+    // the file each NARC was read from, as long as that file has not been written since,
+    // so writing back a NARC which is unchanged can be skipped
+    private final Map<NARCArchive, String> narcSources = new WeakHashMap<>();
+    // the Pokemon palettes as they were loaded, to tell whether savePokemonPalettes() has anything to write
+    private final Map<Species, byte[]> loadedPaletteBytes = new HashMap<>();
+
     protected abstract boolean detectNDSRom(String ndsCode, byte version);
 
     @Override
@@ -67,6 +76,18 @@ public abstract class AbstractDSRomHandler extends AbstractRomHandler {
         return true;
     }
 
+    @Override
+    public boolean hasSnapshotSupport() {
+        return true;
+    }
+
+    @Override
+    protected void setUpSnapshotCopier(ObjectGraphCopier copier) {
+        // Each restored RomHandler gets a copy of the NDSRom as it was before any changes,
+        // all reading from the same memory-mapped ROM file.
+        copier.setCopyFunction(NDSRom.class, NDSRom::new);
+    }
+
     @Override
     public String loadedFilename() {
         return loadedFN;
@@ -144,11 +165,21 @@ public abstract class AbstractDSRomHandler extends AbstractRomHandler {
     }
 
     public NARCArchive readNARC(String subpath) throws IOException {
-        return new NARCArchive(readFile(subpath));
+        NARCArchive narc = new NARCArchive(readFile(subpath));
+        narcSources.put(narc, subpath);
+        return narc;
     }
 
+    /**
+     * Writes the NARC to the subpath, unless it was read from there and is unchanged, so writing it would change
+     * nothing. That saves packing it, and keeps the file out of the list of changed files when saving.
+     */
     public void writeNARC(String subpath, NARCArchive narc) throws IOException {
+        if (subpath.equals(narcSources.get(narc)) && !narc.isChanged()) {
+            return;
+        }
         this.writeFile(subpath, narc.getBytes());
+        recordRewrittenArchive(subpath);
     }
 
     protected static String getROMCodeFromFile(String filename) {
@@ -225,6 +256,8 @@ public abstract class AbstractDSRomHandler extends AbstractRomHandler {
             System.arraycopy(data, offset, newData, 0, length);
             data = newData;
         }
+        // NARCs read from the file no longer have the same contents as it
+        narcSources.values().removeIf(location::equals);
         baseRom.writeFile(location, data);
     }
 
@@ -537,6 +570,39 @@ public abstract class AbstractDSRomHandler extends AbstractRomHandler {
         return new Palette(paletteBytes);
     }
     
+    /**
+     * Remembers the Pokemon palettes as they were loaded; to be called after {@link #loadPokemonPalettes()}.
+     */
+    protected void rememberPokemonPalettes() {
+        loadedPaletteBytes.clear();
+        for (Species pk : getSpeciesSetInclFormes()) {
+            loadedPaletteBytes.put(pk, getPaletteBytes(pk));
+        }
+    }
+
+    /**
+     * Compares the palettes to the ones remembered when loading. This saves re-reading and packing
+     * the graphics NARCs, which is most of the time of saving when the palettes were not randomized.
+     */
+    @Override
+    protected boolean pokemonPalettesChanged() {
+        if (loadedPaletteBytes.isEmpty()) {
+            return true;
+        }
+        for (Species pk : getSpeciesSetInclFormes()) {
+            byte[] loaded = loadedPaletteBytes.get(pk);
+            if (loaded == null || !Arrays.equals(loaded, getPaletteBytes(pk))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private byte[] getPaletteBytes(Species pk) {
+        // the bytes are what would be written, so changes which don't survive writing don't count
+        return concatenate(pk.getNormalPalette().toBytes(), pk.getShinyPalette().toBytes());
+    }
+
     protected final void writePalette(NARCArchive NARC, int index, Palette palette) {
         byte[] paletteBytes = palette.toBytes();
         paletteBytes = concatenate(PALETTE_PREFIX_BYTES, paletteBytes);
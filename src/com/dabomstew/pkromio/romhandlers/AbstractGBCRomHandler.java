@@ -91,13 +91,7 @@ public abstract class AbstractGBCRomHandler extends AbstractGBRomHandler {
     }
 
     protected boolean isBankEmpty(int bank) {
-        byte unusedByte = this.getFreeSpaceByte();
-        for (int i = 0; i < GBConstants.bankSize; i++) {
-            if (rom[bank*GBConstants.bankSize + i] != unusedByte) {
-                return false;
-            }
-        }
-        return true;
+        return getFreeRunIndex().isFree(bank * GBConstants.bankSize, GBConstants.bankSize);
     }
 
     /**
@@ -463,12 +457,9 @@ public abstract class AbstractGBCRomHandler extends AbstractGBRomHandler {
      * @param frontMargin The amount of seemingly unused bytes to NOT free, at the front/start.
      */
     protected void freeUnusedSpaceBefore(int end, int frontMargin) {
-        int start = end;
         int minStart = bankOf(end) * GBConstants.bankSize;
-        while (rom[start] == getFreeSpaceByte() && start >= minStart) {
-            start--;
-        }
-        start++;
+        int runStart = getFreeRunIndex().getRunStart(end);
+        int start = runStart == -1 ? end + 1 : Math.max(runStart, minStart);
         start += frontMargin;
         if (start <= end) {
             freeSpaceBetween(start, end);
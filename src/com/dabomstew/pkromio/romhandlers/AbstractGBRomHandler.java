@@ -10,6 +10,7 @@ import com.dabomstew.pkromio.gamedata.ExpCurve;
 import com.dabomstew.pkromio.gamedata.Move;
 import com.dabomstew.pkromio.gamedata.Species;
 import com.dabomstew.pkromio.gamedata.Trainer;
+import com.dabomstew.pkromio.gbspace.FreeRunIndex;
 import com.dabomstew.pkromio.gbspace.FreedSpace;
 import com.dabomstew.pkromio.romhandlers.romentries.AbstractGBRomEntry;
 import com.dabomstew.pkromio.romhandlers.romentries.RomEntry;
@@ -35,6 +36,8 @@ public abstract class AbstractGBRomHandler extends AbstractRomHandler {
 
     protected boolean tmsReusable;
 
+    private FreeRunIndex freeRunIndex;
+
     @Override
     public boolean loadRom(String filename) {
         loadRomFile(filename);
@@ -55,12 +58,24 @@ public abstract class AbstractGBRomHandler extends AbstractRomHandler {
         this.actualCRC32 = FileFunctions.getCRC32(rom);
     }
 
+    @Override
+    public boolean hasSnapshotSupport() {
+        return true;
+    }
+
+    @Override
+    protected void setUpSnapshotCopier(ObjectGraphCopier copier) {
+        // originalRom is never changed after loading, so it can be shared by all restored RomHandlers
+        copier.share(originalRom);
+    }
+
     /**
      * Sets up various stuff which needs to be done after the ROM file has been loaded, but which is needed for loading
      * game data like {@link Species} and {@link Trainer}s. E.g. the {@link RomEntry} and text tables.
      * Expected to be overrided.
      */
     protected void midLoadingSetUp() {
+        freeRunIndex = null;
         initRomEntry();
         initTextTables();
     }
@@ -405,6 +420,9 @@ public abstract class AbstractGBRomHandler extends AbstractRomHandler {
 			writeByte(offset + i, getFreeSpaceByte());
 		}
         getFreedSpace().free(offset, length);
+        if (freeRunIndex != null) {
+            freeRunIndex.release(offset, length);
+        }
 	}
 
     /**
@@ -437,6 +455,9 @@ public abstract class AbstractGBRomHandler extends AbstractRomHandler {
         if (foundOffset == -1) {
             throw new RomIOException("ROM full. Can't find " + length + " free bytes anywhere.");
         }
+        if (freeRunIndex != null) {
+            freeRunIndex.consume(foundOffset, length);
+        }
 
         if (longAligned) {
             int shift = GBConstants.longSize - (foundOffset % GBConstants.longSize);
@@ -463,6 +484,26 @@ public abstract class AbstractGBRomHandler extends AbstractRomHandler {
 
     protected abstract FreedSpace getFreedSpace();
 
+    /**
+     * Logs all freeing and finding of space from now on to the given stream; see
+     * {@link FreedSpace#setTrace(PrintStream)}. Null stops logging.
+     */
+    public void setFreedSpaceTrace(PrintStream trace) {
+        getFreedSpace().setTrace(trace);
+    }
+
+    /**
+     * Returns an index of the runs of {@link #getFreeSpaceByte()} in the ROM, for finding unused space without
+     * scanning the ROM each time. It is built on first use, and kept up to date by {@link #freeSpace(int, int)}
+     * and {@link #findAndUnfreeSpace(int, boolean)}; code writing to free space in other ways must update it itself.
+     */
+    protected FreeRunIndex getFreeRunIndex() {
+        if (freeRunIndex == null) {
+            freeRunIndex = new FreeRunIndex(rom, getFreeSpaceByte());
+        }
+        return freeRunIndex;
+    }
+
 	protected abstract byte getFreeSpaceByte();
 
     @Override
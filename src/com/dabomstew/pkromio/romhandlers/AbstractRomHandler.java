@@ -46,6 +46,7 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -58,6 +59,16 @@ public abstract class AbstractRomHandler implements RomHandler {
 
     protected int perfectAccuracy = 100; // default
 
+    private final ParsedDataCache<Void, List<Trainer>> trainerCache =
+            new ParsedDataCache<>(ParsedDataCache::copyTrainers);
+    private final ParsedDataCache<Boolean, List<EncounterArea>> encounterCache =
+            new ParsedDataCache<>(ParsedDataCache::copyEncounterAreas);
+
+    private final Map<String, Long> lastSaveTimes = new LinkedHashMap<>();
+    // archives written since the ROM was loaded or last saved, and those of the last save
+    private final Set<String> rewrittenArchives = new LinkedHashSet<>();
+    private List<String> lastSaveRewrittenArchives = Collections.emptyList();
+
     private List<Type> starterTypeTriangle = null;
 
     /*
@@ -82,6 +93,46 @@ public abstract class AbstractRomHandler implements RomHandler {
         return SpeciesSet.unmodifiable(getSpeciesInclFormes());
     }
 
+    @Override
+    public int getParseCacheHits() {
+        return trainerCache.getHits() + encounterCache.getHits();
+    }
+
+    @Override
+    public int getParseCacheMisses() {
+        return trainerCache.getMisses() + encounterCache.getMisses();
+    }
+
+    /**
+     * Returns copies of the {@link Trainer}s, only using the parser if they have not been parsed
+     * since the last call to {@link #markTrainersDirty()}.
+     */
+    protected List<Trainer> getCachedTrainers(Supplier<List<Trainer>> parser) {
+        return trainerCache.get(parser);
+    }
+
+    /**
+     * To be called whenever the trainer data in the ROM changes, including the trainer names and classes.
+     */
+    protected void markTrainersDirty() {
+        trainerCache.markDirty();
+    }
+
+    /**
+     * Returns copies of the {@link EncounterArea}s, only using the parser if they have not been parsed
+     * since the last call to {@link #markEncountersDirty()}.
+     */
+    protected List<EncounterArea> getCachedEncounters(boolean useTimeOfDay, Supplier<List<EncounterArea>> parser) {
+        return encounterCache.get(useTimeOfDay, parser);
+    }
+
+    /**
+     * To be called whenever the wild encounter data in the ROM changes.
+     */
+    protected void markEncountersDirty() {
+        encounterCache.markDirty();
+    }
+
     @Override
     public List<EncounterArea> getSortedEncounters(boolean useTimeOfDay) {
         return getEncounters(useTimeOfDay);
@@ -414,6 +465,61 @@ public abstract class AbstractRomHandler implements RomHandler {
      * subclass.
      */
 
+    @Override
+    public boolean hasConcurrentRandomizationSupport() {
+        // DEFAULT: yes
+        return true;
+    }
+
+    @Override
+    public boolean hasSnapshotSupport() {
+        // DEFAULT: no
+        return false;
+    }
+
+    @Override
+    public Snapshot createSnapshot() {
+        if (!hasSnapshotSupport()) {
+            throw new UnsupportedOperationException("Snapshots not supported for this game.");
+        }
+        // A copy of this RomHandler before any changes, which each restored RomHandler is a copy of in turn,
+        // so the game data is only ever parsed once. Restoring is synchronized since copying the weak maps
+        // some RomHandlers have changes them.
+        AbstractRomHandler snapshot = copyForSnapshot();
+        return () -> {
+            synchronized (snapshot) {
+                return snapshot.copyForSnapshot();
+            }
+        };
+    }
+
+    /**
+     * Returns a deep copy of this RomHandler, with all the game data it has loaded, using an
+     * {@link ObjectGraphCopier}.
+     */
+    private AbstractRomHandler copyForSnapshot() {
+        ObjectGraphCopier copier = new ObjectGraphCopier();
+        setUpSnapshotCopier(copier);
+        return copier.copyInto(this, newInstance());
+    }
+
+    /**
+     * Returns a new RomHandler of the same class as this one, with no game loaded. Used for {@link Snapshot}s.
+     */
+    protected AbstractRomHandler newInstance() {
+        throw new UnsupportedOperationException("Snapshots not supported for this game.");
+    }
+
+    /**
+     * Sets up how the parts of this RomHandler which can't be copied field by field, e.g. because they wrap an
+     * open file, are copied for a {@link Snapshot}. Fields with things which are set up anew by the constructor
+     * and can't be copied should be transient instead.<br>
+     * Should be overridden along with {@link #hasSnapshotSupport()}.
+     */
+    protected void setUpSnapshotCopier(ObjectGraphCopier copier) {
+        // DEFAULT: everything can be copied
+    }
+
     @Override
     public boolean canChangeShopSizes() {
         // DEFAULT: no
@@ -776,11 +882,37 @@ public abstract class AbstractRomHandler implements RomHandler {
     // here for testing, please do not use otherwise
     public abstract void loadPokemonStats();
 
+    @Override
+    public Map<String, Long> getLastSaveTimes() {
+        return Collections.unmodifiableMap(lastSaveTimes);
+    }
+
+    @Override
+    public List<String> getLastSaveRewrittenArchives() {
+        return lastSaveRewrittenArchives;
+    }
+
+    /**
+     * Records that an archive (e.g. a NARC or GARC) was written to the ROM, for
+     * {@link #getLastSaveRewrittenArchives()}.
+     */
+    protected void recordRewrittenArchive(String name) {
+        rewrittenArchives.add(name);
+    }
+
     @Override
     public boolean saveRom(String filename, long seed, boolean saveAsDirectory) {
+        lastSaveTimes.clear();
         try {
+            long start = System.nanoTime();
             prepareSaveRom();
-            return saveAsDirectory ? saveRomDirectory(filename) : saveRomFile(filename, seed);
+            long prepared = System.nanoTime();
+            lastSaveTimes.put("prepare", prepared - start);
+            lastSaveRewrittenArchives = Collections.unmodifiableList(new ArrayList<>(rewrittenArchives));
+            rewrittenArchives.clear();
+            boolean saved = saveAsDirectory ? saveRomDirectory(filename) : saveRomFile(filename, seed);
+            lastSaveTimes.put("write", System.nanoTime() - prepared);
+            return saved;
         } catch (RomIOException e) {
             e.printStackTrace();
             return false;
@@ -794,7 +926,17 @@ public abstract class AbstractRomHandler implements RomHandler {
     protected void prepareSaveRom() {
         savePokemonStats();
         saveMoves();
-        savePokemonPalettes();
+        if (pokemonPalettesChanged()) {
+            savePokemonPalettes();
+        }
+    }
+
+    /**
+     * Returns whether any Pokemon palette may have changed since the ROM was loaded, i.e. whether
+     * {@link #savePokemonPalettes()} has anything to write. Handlers where that is costly should override this.
+     */
+    protected boolean pokemonPalettesChanged() {
+        return true;
     }
 
     public abstract void saveMoves();
@@ -70,6 +70,11 @@ public class Gen1RomHandler extends AbstractGBCRomHandler {
         }
     }
 
+    @Override
+    protected Gen1RomHandler newInstance() {
+        return new Gen1RomHandler();
+    }
+
     // Important RBY Data Structures
 
     private int[] pokeNumToRBYTable;
@@ -71,6 +71,11 @@ public class Gen2RomHandler extends AbstractGBCRomHandler {
         }
     }
 
+    @Override
+    protected Gen2RomHandler newInstance() {
+        return new Gen2RomHandler();
+    }
+
     private static List<Gen2RomEntry> roms;
 
     static {
@@ -72,6 +72,11 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
         }
     }
 
+    @Override
+    protected Gen3RomHandler newInstance() {
+        return new Gen3RomHandler();
+    }
+
     private static List<Gen3RomEntry> roms;
     private static final Map<String, Integer> TYPE_EFFECTIVENESS_POINTERS = initTypeEffectivenessPointerMap();
 
@@ -2499,7 +2504,8 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 		return RomFunctions.search(rom, minOffset, maxOffset, searchNeedle).stream().mapToInt(i -> i).toArray();
 	}
 
-    private RomFunctions.StringSizeDeterminer ssd = encodedText -> translateString(encodedText).length;
+    // transient, so Snapshots don't copy it, since it refers to this RomHandler
+    private transient RomFunctions.StringSizeDeterminer ssd = encodedText -> translateString(encodedText).length;
 
     @Override
     public int getTMCount() {
@@ -4658,11 +4664,7 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 		boolean freedAllUnused = false;
 
 		while (!freedAllUnused) {
-			byte[] searchNeedle = new byte[chunkLength];
-			for (int i = 0; i < chunkLength; i++) {
-				searchNeedle[i] = getFreeSpaceByte();
-			}
-			int foundOffset = RomFunctions.searchForFirst(rom, unusedSpaceOffset, searchNeedle);
+			int foundOffset = getFreeRunIndex().findFirst(chunkLength, unusedSpaceOffset);
 
 			if (foundOffset < unusedSpaceStartOffset) {
 				freedAllUnused = true;
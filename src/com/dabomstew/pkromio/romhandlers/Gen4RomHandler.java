@@ -59,6 +59,11 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 		}
 	}
 
+	@Override
+	protected Gen4RomHandler newInstance() {
+		return new Gen4RomHandler();
+	}
+
 	private static List<Gen4RomEntry> roms;
 
 	static {
@@ -80,6 +85,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 	private List<Item> items;
 	private NARCArchive pokeNarc, moveNarc;
 	private NARCArchive msgNarc;
+	private TextBankCache textBanks;
 	private NARCArchive scriptNarc;
 	private NARCArchive eventNarc;
 	private List<String> abilityNames;
@@ -120,9 +126,10 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 
 	@Override
 	protected void loadedROM(String romCode, byte version) {
-		this.romEntry = entryFor(romCode, version);
+		this.romEntry = new Gen4RomEntry(entryFor(romCode, version)); // clone so we can modify
 		try {
 			msgNarc = readNARC(romEntry.getFile("Text"));
+			textBanks = new TextBankCache(msgNarc, POKE_TEXT_CODEC);
 		} catch (IOException e) {
 			throw new RomIOException(e);
 		}
@@ -140,6 +147,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 		loadPokemonStats();
 		loadMoves();
 		loadPokemonPalettes();
+		rememberPokemonPalettes();
 		abilityNames = getStrings(romEntry.getIntValue("AbilityNamesTextOffset"));
 		loadedWildMapNames = false;
 
@@ -780,6 +788,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 	protected void prepareSaveRom() {
 		super.prepareSaveRom();
 		try {
+			textBanks.writeDirtyBanks();
 			writeNARC(romEntry.getFile("Text"), msgNarc);
 		} catch (IOException e) {
 			throw new RomIOException(e);
@@ -1301,6 +1310,10 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 
 	@Override
 	public List<EncounterArea> getEncounters(boolean useTimeOfDay) {
+		return getCachedEncounters(useTimeOfDay, () -> parseEncounters(useTimeOfDay));
+	}
+
+	private List<EncounterArea> parseEncounters(boolean useTimeOfDay) {
 		if (!loadedWildMapNames) {
 			loadWildMapNames();
 		}
@@ -1891,6 +1904,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 
 	@Override
 	public void setEncounters(boolean useTimeOfDay, List<EncounterArea> encounterAreas) {
+		markEncountersDirty();
 		try {
 			if (romEntry.getRomType() == Gen4Constants.Type_HGSS) {
 				setEncountersHGSS(useTimeOfDay, encounterAreas);
@@ -2658,6 +2672,10 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 
 	@Override
 	public List<Trainer> getTrainers() {
+		return getCachedTrainers(this::parseTrainers);
+	}
+
+	private List<Trainer> parseTrainers() {
 		List<Trainer> allTrainers = new ArrayList<>();
 		try {
 			NARCArchive trainers = this.readNARC(romEntry.getFile("TrainerData"));
@@ -2783,6 +2801,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 
 	@Override
 	public void setTrainers(List<Trainer> trainerData) {
+		markTrainersDirty();
 		if (romEntry.getRomType() == Gen4Constants.Type_HGSS) {
 			fixAbilitySlotValuesForHGSS(trainerData);
 		}
@@ -4051,13 +4070,31 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 		}
 	}
 
+	private static final TextBankCache.Codec POKE_TEXT_CODEC = new TextBankCache.Codec() {
+		@Override
+		public TextBankCache.Bank decode(byte[] data) {
+			PokeTextData pt = new PokeTextData(data);
+			pt.decrypt();
+			return new TextBankCache.Bank(pt.strlist, pt.compressFlag);
+		}
+
+		@Override
+		public byte[] encode(byte[] oldData, List<String> strings, boolean compressed) {
+			byte[] rawUnencrypted = TextToPoke.MakeFile(strings, compressed);
+
+			// make new encrypted name set
+			PokeTextData encrypt = new PokeTextData(rawUnencrypted);
+			encrypt.SetKey(0xD00E);
+			encrypt.encrypt();
+			return encrypt.get();
+		}
+	};
+
 	private boolean lastStringsCompressed = false;
 
 	private List<String> getStrings(int index) {
-		PokeTextData pt = new PokeTextData(msgNarc.files.get(index));
-		pt.decrypt();
-		lastStringsCompressed = pt.compressFlag;
-		return new ArrayList<>(pt.strlist);
+		lastStringsCompressed = textBanks.isCompressed(index);
+		return textBanks.getStrings(index);
 	}
 
 	private void setStrings(int index, List<String> newStrings) {
@@ -4065,15 +4102,8 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 	}
 
 	private void setStrings(int index, List<String> newStrings, boolean compressed) {
-		byte[] rawUnencrypted = TextToPoke.MakeFile(newStrings, compressed);
-
-		// make new encrypted name set
-		PokeTextData encrypt = new PokeTextData(rawUnencrypted);
-		encrypt.SetKey(0xD00E);
-		encrypt.encrypt();
-
-		// rewrite
-		msgNarc.files.set(index, encrypt.get());
+		// only encoded when saving, or when the strings are gotten again
+		textBanks.setStrings(index, newStrings, compressed);
 	}
 
 	@Override
@@ -4711,6 +4741,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 
 	@Override
 	public void setTrainerNames(List<String> trainerNames) {
+		markTrainersDirty();
 		List<String> oldTNames = getStrings(romEntry.getIntValue("TrainerNamesTextOffset"));
 		List<String> newTNames = new ArrayList<>(trainerNames);
 		for (int i = 0; i < newTNames.size(); i++) {
@@ -4743,6 +4774,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 
 	@Override
 	public void setTrainerClassNames(List<String> trainerClassNames) {
+		markTrainersDirty();
 		setStrings(romEntry.getIntValue("TrainerClassesTextOffset"), trainerClassNames);
 	}
 
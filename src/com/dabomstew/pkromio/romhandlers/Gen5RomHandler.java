@@ -64,6 +64,11 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
         }
     }
 
+    @Override
+    protected Gen5RomHandler newInstance() {
+        return new Gen5RomHandler();
+    }
+
     private static List<Gen5RomEntry> roms;
 
     static {
@@ -100,6 +105,7 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
     private Map<String, Long> actualFileCRC32s;
     
     private NARCArchive pokeNarc, moveNarc, stringsNarc, storyTextNarc, scriptNarc, shopNarc;
+    private TextBankCache stringsBanks, storyTextBanks;
 
     @Override
     protected int getARM9Offset() {
@@ -134,6 +140,8 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
         try {
             stringsNarc = readNARC(romEntry.getFile("TextStrings"));
             storyTextNarc = readNARC(romEntry.getFile("TextStory"));
+            stringsBanks = new TextBankCache(stringsNarc, PP_TXT_CODEC);
+            storyTextBanks = new TextBankCache(storyTextNarc, PP_TXT_CODEC);
         } catch (IOException e) {
             throw new RomIOException(e);
         }
@@ -154,6 +162,7 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
         loadPokemonStats();
         loadMoves();
         loadPokemonPalettes();
+        rememberPokemonPalettes();
 
         abilityNames = getStrings(false, romEntry.getIntValue("AbilityNamesTextOffset"));
         if (romEntry.getRomType() == Gen5Constants.Type_BW) {
@@ -448,6 +457,8 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
     protected void prepareSaveRom() {
         super.prepareSaveRom();
         try {
+            stringsBanks.writeDirtyBanks();
+            storyTextBanks.writeDirtyBanks();
             writeNARC(romEntry.getFile("TextStrings"), stringsNarc);
             writeNARC(romEntry.getFile("TextStory"), storyTextNarc);
         } catch (IOException e) {
@@ -758,6 +769,10 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 
     @Override
     public List<EncounterArea> getEncounters(boolean useTimeOfDay) {
+        return getCachedEncounters(useTimeOfDay, () -> parseEncounters(useTimeOfDay));
+    }
+
+    private List<EncounterArea> parseEncounters(boolean useTimeOfDay) {
         if (!loadedWildMapNames) {
             loadWildMapNames();
         }
@@ -843,6 +858,7 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 
     @Override
     public void setEncounters(boolean useTimeOfDay, List<EncounterArea> encounterAreas) {
+        markEncountersDirty();
         try {
             NARCArchive encounterNARC = readNARC(romEntry.getFile("WildPokemon"));
             Iterator<EncounterArea> areaIterator = encounterAreas.iterator();
@@ -1110,6 +1126,10 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 
     @Override
     public List<Trainer> getTrainers() {
+        return getCachedTrainers(this::parseTrainers);
+    }
+
+    private List<Trainer> parseTrainers() {
         List<Trainer> allTrainers = new ArrayList<>();
         try {
             NARCArchive trainers = this.readNARC(romEntry.getFile("TrainerData"));
@@ -1294,6 +1314,7 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 
     @Override
     public void setTrainers(List<Trainer> trainerData) {
+        markTrainersDirty();
         Iterator<Trainer> allTrainers = trainerData.iterator();
         try {
             NARCArchive trainers = this.readNARC(romEntry.getFile("TrainerData"));
@@ -2724,17 +2745,25 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
         }
     }
 
+    private static final TextBankCache.Codec PP_TXT_CODEC = new TextBankCache.Codec() {
+        @Override
+        public TextBankCache.Bank decode(byte[] data) {
+            return new TextBankCache.Bank(PPTxtHandler.readTexts(data), false);
+        }
+
+        @Override
+        public byte[] encode(byte[] oldData, List<String> strings, boolean compressed) {
+            return PPTxtHandler.saveEntry(oldData, strings);
+        }
+    };
+
     private List<String> getStrings(boolean isStoryText, int index) {
-        NARCArchive baseNARC = isStoryText ? storyTextNarc : stringsNarc;
-        byte[] rawFile = baseNARC.files.get(index);
-        return new ArrayList<>(PPTxtHandler.readTexts(rawFile));
+        return (isStoryText ? storyTextBanks : stringsBanks).getStrings(index);
     }
 
     private void setStrings(boolean isStoryText, int index, List<String> strings) {
-        NARCArchive baseNARC = isStoryText ? storyTextNarc : stringsNarc;
-        byte[] oldRawFile = baseNARC.files.get(index);
-        byte[] newRawFile = PPTxtHandler.saveEntry(oldRawFile, strings);
-        baseNARC.files.set(index, newRawFile);
+        // only encoded when saving, or when the strings are gotten again
+        (isStoryText ? storyTextBanks : stringsBanks).setStrings(index, strings, false);
     }
 
     @Override
@@ -3007,6 +3036,7 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 
     @Override
     public void setTrainerNames(List<String> trainerNames) {
+        markTrainersDirty();
         List<String> tnames = getStrings(false, romEntry.getIntValue("TrainerNamesTextOffset"));
         // Grab the mugshot names off the back of the list of trainer names
         // we got back
@@ -3067,6 +3097,7 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 
     @Override
     public void setTrainerClassNames(List<String> trainerClassNames) {
+        markTrainersDirty();
         if (romEntry.getRomType() == Gen5Constants.Type_BW2) {
             List<String> newTClasses = new ArrayList<>();
             List<String> newPWTClasses = new ArrayList<>();
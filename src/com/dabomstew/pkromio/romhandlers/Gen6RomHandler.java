@@ -61,6 +61,11 @@ public class Gen6RomHandler extends Abstract3DSRomHandler {
         }
     }
 
+    @Override
+    protected Gen6RomHandler newInstance() {
+        return new Gen6RomHandler();
+    }
+
     private static List<Gen6RomEntry> roms;
 
     static {
@@ -440,7 +445,7 @@ public class Gen6RomHandler extends Abstract3DSRomHandler {
     private void setStrings(GARCArchive textGARC, int index, List<String> strings) {
         byte[] oldRawFile = textGARC.files.get(index).get(0);
         try {
-            byte[] newRawFile = N3DSTxtHandler.saveEntry(oldRawFile, strings, romEntry.getRomType());
+            byte[] newRawFile = N3DSTxtHandler.saveEntry(oldRawFile, strings, true, romEntry.getRomType());
             textGARC.setFile(index, newRawFile);
         } catch (IOException e) {
             e.printStackTrace();
@@ -1086,6 +1091,10 @@ public class Gen6RomHandler extends Abstract3DSRomHandler {
 
     @Override
     public List<EncounterArea> getEncounters(boolean useTimeOfDay) {
+        return getCachedEncounters(useTimeOfDay, () -> parseEncounters(useTimeOfDay));
+    }
+
+    private List<EncounterArea> parseEncounters(boolean useTimeOfDay) {
         if (!loadedWildMapNames) {
             loadWildMapNames();
         }
@@ -1429,6 +1438,7 @@ public class Gen6RomHandler extends Abstract3DSRomHandler {
 
     @Override
     public void setEncounters(boolean useTimeOfDay, List<EncounterArea> encounterAreas) {
+        markEncountersDirty();
         try {
             if (romEntry.getRomType() == Gen6Constants.Type_ORAS) {
                 setEncountersORAS(encounterAreas);
@@ -1808,6 +1818,10 @@ public class Gen6RomHandler extends Abstract3DSRomHandler {
 
     @Override
     public List<Trainer> getTrainers() {
+        return getCachedTrainers(this::parseTrainers);
+    }
+
+    private List<Trainer> parseTrainers() {
         List<Trainer> allTrainers = new ArrayList<>();
         boolean isORAS = romEntry.getRomType() == Gen6Constants.Type_ORAS;
         try {
@@ -1957,6 +1971,7 @@ public class Gen6RomHandler extends Abstract3DSRomHandler {
 
     @Override
     public void setTrainers(List<Trainer> trainerData) {
+        markTrainersDirty();
         Iterator<Trainer> allTrainers = trainerData.iterator();
         boolean isORAS = romEntry.getRomType() == Gen6Constants.Type_ORAS;
         try {
@@ -2420,6 +2435,7 @@ public class Gen6RomHandler extends Abstract3DSRomHandler {
         System.arraycopy(modifiedScript, 0, boxLegendaryRoomData, Gen6Constants.boxLegendaryLocalScriptOffsetXY, modifiedScript.length);
         encounterGarc.setFile(Gen6Constants.boxLegendaryEncounterFileXY, boxLegendaryRoomData);
         writeGARC(romEntry.getFile("WildPokemon"), encounterGarc);
+        markEncountersDirty();
 
         // We also need to edit DllField.cro so that the hardcoded checks for
         // Xerneas's/Yveltal's ID will instead be checks for our randomized species ID.
@@ -2531,6 +2547,7 @@ public class Gen6RomHandler extends Abstract3DSRomHandler {
             System.arraycopy(modifiedScript, 0, seaSpiritsDenAreaFile, Gen6Constants.seaSpiritsDenLocalScriptOffsetXY, modifiedScript.length);
             encounterGarc.setFile(Gen6Constants.seaSpiritsDenEncounterFileXY, seaSpiritsDenAreaFile);
             writeGARC(romEntry.getFile("WildPokemon"), encounterGarc);
+            markEncountersDirty();
         } catch (IOException e) {
             throw new RomIOException(e);
         }
@@ -3257,6 +3274,7 @@ public class Gen6RomHandler extends Abstract3DSRomHandler {
 
     @Override
     public void setTrainerNames(List<String> trainerNames) {
+        markTrainersDirty();
         List<String> tnames = getStrings(false, romEntry.getIntValue("TrainerNamesTextOffset"));
         List<String> newTNames = new ArrayList<>(trainerNames);
         newTNames.add(0, tnames.get(0)); // the 0-entry, preserve it
@@ -3295,6 +3313,7 @@ public class Gen6RomHandler extends Abstract3DSRomHandler {
 
     @Override
     public void setTrainerClassNames(List<String> trainerClassNames) {
+        markTrainersDirty();
         setStrings(false, romEntry.getIntValue("TrainerClassesTextOffset"), trainerClassNames);
         try {
             writeStringsForAllLanguages(trainerClassNames, romEntry.getIntValue("TrainerClassesTextOffset"));
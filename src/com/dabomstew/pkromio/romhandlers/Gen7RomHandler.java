@@ -58,6 +58,11 @@ public class Gen7RomHandler extends Abstract3DSRomHandler {
             return detect3DSRomInner(getProductCodeFromFile(filename), getTitleIdFromFile(filename));
         }
     }
+
+    @Override
+    protected Gen7RomHandler newInstance() {
+        return new Gen7RomHandler();
+    }
     
     private static List<Gen7RomEntry> roms;
 
@@ -164,7 +169,7 @@ public class Gen7RomHandler extends Abstract3DSRomHandler {
     private void setStrings(GARCArchive textGARC, int index, List<String> strings) {
         byte[] oldRawFile = textGARC.files.get(index).get(0);
         try {
-            byte[] newRawFile = N3DSTxtHandler.saveEntry(oldRawFile, strings, romEntry.getRomType());
+            byte[] newRawFile = N3DSTxtHandler.saveEntry(oldRawFile, strings, true, romEntry.getRomType());
             textGARC.setFile(index, newRawFile);
         } catch (IOException e) {
             e.printStackTrace();
@@ -1193,6 +1198,10 @@ public class Gen7RomHandler extends Abstract3DSRomHandler {
 
     @Override
     public List<EncounterArea> getEncounters(boolean useTimeOfDay) {
+        return getCachedEncounters(useTimeOfDay, () -> parseEncounters(useTimeOfDay));
+    }
+
+    private List<EncounterArea> parseEncounters(boolean useTimeOfDay) {
         List<EncounterArea> encounterAreas = new ArrayList<>();
         for (AreaData areaData : areaDataList) {
             if (!areaData.hasTables) {
@@ -1309,6 +1318,7 @@ public class Gen7RomHandler extends Abstract3DSRomHandler {
 
     @Override
     public void setEncounters(boolean useTimeOfDay, List<EncounterArea> encounterAreas) {
+        markEncountersDirty();
         Iterator<EncounterArea> areaIterator = encounterAreas.iterator();
         for (AreaData areaData : areaDataList) {
             if (!areaData.hasTables) {
@@ -1523,6 +1533,10 @@ public class Gen7RomHandler extends Abstract3DSRomHandler {
 
     @Override
     public List<Trainer> getTrainers() {
+        return getCachedTrainers(this::parseTrainers);
+    }
+
+    private List<Trainer> parseTrainers() {
         List<Trainer> allTrainers = new ArrayList<>();
         try {
             GARCArchive trainers = this.readGARC(romEntry.getFile("TrainerData"),true);
@@ -1646,6 +1660,7 @@ public class Gen7RomHandler extends Abstract3DSRomHandler {
 
     @Override
     public void setTrainers(List<Trainer> trainerData) {
+        markTrainersDirty();
         Iterator<Trainer> allTrainers = trainerData.iterator();
         try {
             GARCArchive trainers = this.readGARC(romEntry.getFile("TrainerData"),true);
@@ -2873,6 +2888,7 @@ public class Gen7RomHandler extends Abstract3DSRomHandler {
 
     @Override
     public void setTrainerNames(List<String> trainerNames) {
+        markTrainersDirty();
         List<String> tnames = getStrings(false, romEntry.getIntValue("TrainerNamesTextOffset"));
         List<String> newTNames = new ArrayList<>(trainerNames);
         newTNames.add(0, tnames.get(0)); // the 0-entry, preserve it
@@ -2911,6 +2927,7 @@ public class Gen7RomHandler extends Abstract3DSRomHandler {
 
     @Override
     public void setTrainerClassNames(List<String> trainerClassNames) {
+        markTrainersDirty();
         setStrings(false, romEntry.getIntValue("TrainerClassesTextOffset"), trainerClassNames);
         try {
             writeStringsForAllLanguages(trainerClassNames, romEntry.getIntValue("TrainerClassesTextOffset"));
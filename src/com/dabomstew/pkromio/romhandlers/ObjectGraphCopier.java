@@ -0,0 +1,458 @@
+package com.dabomstew.pkromio.romhandlers;
+
+/*----------------------------------------------------------------------------*/
+/*--  ObjectGraphCopier.java - makes deep copies of whole object graphs,    --*/
+/*--                           like a RomHandler with all its game data.    --*/
+/*--                                                                        --*/
+/*--  Part of "Universal Pokemon Randomizer ZX" by the UPR-ZX team          --*/
+/*--  Pokemon and any associated names and the like are                     --*/
+/*--  trademark and (C) Nintendo 1996-2020.                                 --*/
+/*--                                                                        --*/
+/*--  This program is free software: you can redistribute it and/or modify  --*/
+/*--  it under the terms of the GNU General Public License as published by  --*/
+/*--  the Free Software Foundation, either version 3 of the License, or     --*/
+/*--  (at your option) any later version.                                   --*/
+/*--                                                                        --*/
+/*--  This program is distributed in the hope that it will be useful,       --*/
+/*--  but WITHOUT ANY WARRANTY; without even the implied warranty of        --*/
+/*--  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the          --*/
+/*--  GNU General Public License for more details.                          --*/
+/*--                                                                        --*/
+/*--  You should have received a copy of the GNU General Public License     --*/
+/*--  along with this program. If not, see <http://www.gnu.org/licenses/>.  --*/
+/*----------------------------------------------------------------------------*/
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Makes a deep copy of an object graph, field by field, like a {@link RomHandler} with all the game data it has
+ * parsed. Used for restoring {@link RomHandler.Snapshot}s without parsing the game again.<br>
+ * Objects which are reached several times are only copied once, so the copy is shared in the same way as the
+ * original, cycles included. Each copier makes a single copy; use a new one for every copy.
+ * <br><br>
+ * What is copied how:
+ * <ul>
+ *     <li>Strings, boxed primitives, enums, classes, and lambdas which capture nothing but such things are shared,
+ *     since they can't be changed.</li>
+ *     <li>Arrays, {@link BitSet}s, and the usual java.util collections and maps are copied, with their elements.
+ *     Unmodifiable views get an unmodifiable copy. A {@link HashSet} or {@link HashMap} copy gets the same capacity
+ *     as the original, so it iterates in the same order.</li>
+ *     <li>All other objects get a new instance of the same class, made without calling any constructor,
+ *     with copies of all their fields. Transient fields are not copied; they are left as they are in the object
+ *     given to {@link #copyInto(Object, Object)}, and at their default value in all other copies.</li>
+ *     <li>Objects of the classes given to {@link #setCopyFunction(Class, UnaryOperator)} are copied by that function,
+ *     and objects given to {@link #share(Object)} are not copied at all.</li>
+ * </ul>
+ * Any other JDK class, or a lambda capturing some state, can't be copied safely, and throws an
+ * {@link IllegalArgumentException}.
+ */
+public class ObjectGraphCopier {
+
+    private static final Set<Class<?>> IMMUTABLE_CLASSES = new HashSet<>(Arrays.asList(
+            String.class, Boolean.class, Byte.class, Character.class, Short.class, Integer.class, Long.class,
+            Float.class, Double.class, Class.class));
+
+    private static final Map<Class<?>, List<Field>> fieldsByClass = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Constructor<?>> allocatorsByClass = new ConcurrentHashMap<>();
+
+    private final Map<Object, Object> copies = new IdentityHashMap<>();
+    private final Map<Class<?>, UnaryOperator<Object>> copyFunctions = new LinkedHashMap<>();
+    // copying the fields of objects which have been instantiated
+    private final Deque<Runnable> pendingFields = new ArrayDeque<>();
+    // filling collections, which is left until all objects are complete, since hash codes and comparisons
+    // may depend on any of their fields
+    private final List<Runnable> pendingElements = new ArrayList<>();
+
+    /**
+     * Copies all objects of the class, and its subclasses, with the given function instead.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void setCopyFunction(Class<T> cls, UnaryOperator<T> copyFunction) {
+        copyFunctions.put(cls, (UnaryOperator<Object>) copyFunction);
+    }
+
+    /**
+     * Has the copy use the object itself, instead of copying it.
+     */
+    public void share(Object original) {
+        copies.put(original, original);
+    }
+
+    /**
+     * Copies the fields of the original into the given object, which must be of the same class, and is used
+     * as the copy of the original wherever it is referenced. The transient fields of the given object are left
+     * as they are.
+     *
+     * @return The given copy.
+     */
+    public <T> T copyInto(T original, T copy) {
+        if (original.getClass() != copy.getClass()) {
+            throw new IllegalArgumentException("Can't copy a " + original.getClass().getName() + " into a "
+                    + copy.getClass().getName() + ".");
+        }
+        copies.put(original, copy);
+        pendingFields.add(() -> copyFields(original, copy));
+        finish();
+        return copy;
+    }
+
+    /**
+     * Returns a deep copy of the original.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T copy(T original) {
+        T copy = (T) copyObject(original);
+        finish();
+        return copy;
+    }
+
+    private void finish() {
+        while (!pendingFields.isEmpty()) {
+            pendingFields.poll().run();
+        }
+        // innermost collections first, in case a collection is used as a key
+        for (int i = pendingElements.size() - 1; i >= 0; i--) {
+            pendingElements.get(i).run();
+        }
+        pendingElements.clear();
+    }
+
+    private Object copyObject(Object original) {
+        if (original == null) {
+            return null;
+        }
+        Object copy = copies.get(original);
+        if (copy != null) {
+            return copy;
+        }
+        Class<?> cls = original.getClass();
+        for (Map.Entry<Class<?>, UnaryOperator<Object>> entry : copyFunctions.entrySet()) {
+            if (entry.getKey().isInstance(original)) {
+                copy = entry.getValue().apply(original);
+                copies.put(original, copy);
+                return copy;
+            }
+        }
+        if (isImmutable(original)) {
+            return original;
+        }
+        if (isLambda(cls)) {
+            throw new IllegalArgumentException("Can't copy " + cls.getName() + ", a lambda capturing some state."
+                    + " It should be stored in a transient field.");
+        }
+        if (cls.isArray()) {
+            return copyArray(original);
+        }
+        if (isJdkClass(cls)) {
+            return copyJdkObject(original);
+        }
+
+        copy = instantiate(cls);
+        copies.put(original, copy);
+        Object finalCopy = copy;
+        pendingFields.add(() -> copyFields(original, finalCopy));
+        return copy;
+    }
+
+    private Object copyArray(Object original) {
+        Class<?> componentType = original.getClass().getComponentType();
+        int length = Array.getLength(original);
+        Object copy = Array.newInstance(componentType, length);
+        copies.put(original, copy);
+        if (componentType.isPrimitive()) {
+            System.arraycopy(original, 0, copy, 0, length);
+        } else {
+            Object[] originalElements = (Object[]) original;
+            Object[] copyElements = (Object[]) copy;
+            pendingFields.add(() -> {
+                for (int i = 0; i < length; i++) {
+                    copyElements[i] = copyObject(originalElements[i]);
+                }
+            });
+        }
+        return copy;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object copyJdkObject(Object original) {
+        Class<?> cls = original.getClass();
+        Object copy;
+        if (original instanceof BitSet) {
+            copy = ((BitSet) original).clone();
+        } else if (cls == ArrayList.class) {
+            copy = new ArrayList<>(((Collection<?>) original).size());
+        } else if (cls == LinkedList.class) {
+            copy = new LinkedList<>();
+        } else if (cls == ArrayDeque.class) {
+            copy = new ArrayDeque<>();
+        } else if (cls == HashSet.class) {
+            copy = new HashSet<>(capacityOf(original));
+        } else if (cls == LinkedHashSet.class) {
+            copy = new LinkedHashSet<>();
+        } else if (cls == TreeSet.class) {
+            copy = new TreeSet<>((Comparator) copyObject(((TreeSet<?>) original).comparator()));
+        } else if (cls == HashMap.class) {
+            copy = new HashMap<>(capacityOf(original));
+        } else if (cls == LinkedHashMap.class) {
+            copy = new LinkedHashMap<>();
+        } else if (cls == TreeMap.class) {
+            copy = new TreeMap<>((Comparator) copyObject(((TreeMap<?, ?>) original).comparator()));
+        } else if (cls == IdentityHashMap.class) {
+            copy = new IdentityHashMap<>();
+        } else if (cls == WeakHashMap.class) {
+            copy = new WeakHashMap<>();
+        } else if (cls == ConcurrentHashMap.class) {
+            copy = new ConcurrentHashMap<>();
+        } else if (original instanceof EnumSet) {
+            copy = ((EnumSet) original).clone();
+        } else if (original instanceof EnumMap) {
+            copy = new EnumMap<>((EnumMap) original);
+            copies.put(original, copy);
+            EnumMap copyMap = (EnumMap) copy;
+            pendingFields.add(() -> copyMap.replaceAll((key, value) -> copyObject(value)));
+            return copy;
+        } else if (cls.getName().startsWith("java.util.Collections$Empty")) {
+            return original;
+        } else if (cls.getName().startsWith("java.util.Collections$Unmodifiable")
+                || cls.getName().equals("java.util.Arrays$ArrayList")) {
+            return copyView(original);
+        } else {
+            throw new IllegalArgumentException("Can't copy a " + cls.getName() + ".");
+        }
+        copies.put(original, copy);
+        if (original instanceof Collection) {
+            copyElements((Collection<?>) original, (Collection<Object>) copy);
+        } else if (original instanceof Map) {
+            copyEntries((Map<?, ?>) original, (Map<Object, Object>) copy);
+        }
+        return copy;
+    }
+
+    /**
+     * Copies a view of some other collection, which can't be reached from here, so the copy is a view of a
+     * copy of its elements instead.
+     */
+    @SuppressWarnings("unchecked")
+    private Object copyView(Object original) {
+        Object copy;
+        if (original instanceof List) {
+            List<Object> elements = new ArrayList<>();
+            copy = original.getClass().getName().equals("java.util.Arrays$ArrayList")
+                    ? fixedSizeView(original, elements) : Collections.unmodifiableList(elements);
+            copyElements((List<?>) original, elements);
+        } else if (original instanceof SortedSet) {
+            SortedSet<Object> elements = new TreeSet<>((Comparator<Object>)
+                    copyObject(((SortedSet<?>) original).comparator()));
+            copy = Collections.unmodifiableSortedSet(elements);
+            copyElements((SortedSet<?>) original, elements);
+        } else if (original instanceof Set) {
+            Set<Object> elements = new LinkedHashSet<>();
+            copy = Collections.unmodifiableSet(elements);
+            copyElements((Set<?>) original, elements);
+        } else if (original instanceof SortedMap) {
+            SortedMap<Object, Object> entries = new TreeMap<>((Comparator<Object>)
+                    copyObject(((SortedMap<?, ?>) original).comparator()));
+            copy = Collections.unmodifiableSortedMap(entries);
+            copyEntries((SortedMap<?, ?>) original, entries);
+        } else if (original instanceof Map) {
+            Map<Object, Object> entries = new LinkedHashMap<>();
+            copy = Collections.unmodifiableMap(entries);
+            copyEntries((Map<?, ?>) original, entries);
+        } else {
+            List<Object> elements = new ArrayList<>();
+            copy = Collections.unmodifiableCollection(elements);
+            copyElements((Collection<?>) original, elements);
+        }
+        copies.put(original, copy);
+        return copy;
+    }
+
+    /**
+     * Arrays.asList() of a copy of the elements; it is filled in place once they are copied.
+     */
+    private List<Object> fixedSizeView(Object original, List<Object> elements) {
+        Object[] array = new Object[((List<?>) original).size()];
+        pendingElements.add(() -> elements.toArray(array));
+        return Arrays.asList(array);
+    }
+
+    private void copyElements(Collection<?> original, Collection<Object> copy) {
+        List<Object> elements = new ArrayList<>(original.size());
+        pendingFields.add(() -> {
+            for (Object element : original) {
+                elements.add(copyObject(element));
+            }
+        });
+        pendingElements.add(() -> copy.addAll(elements));
+    }
+
+    private void copyEntries(Map<?, ?> original, Map<Object, Object> copy) {
+        List<Object> keys = new ArrayList<>(original.size());
+        List<Object> values = new ArrayList<>(original.size());
+        pendingFields.add(() -> {
+            for (Map.Entry<?, ?> entry : original.entrySet()) {
+                keys.add(copyObject(entry.getKey()));
+                values.add(copyObject(entry.getValue()));
+            }
+        });
+        pendingElements.add(() -> {
+            for (int i = 0; i < keys.size(); i++) {
+                copy.put(keys.get(i), values.get(i));
+            }
+        });
+    }
+
+    private void copyFields(Object original, Object copy) {
+        try {
+            for (Field field : getFields(original.getClass())) {
+                field.set(copy, copyObject(field.get(original)));
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Returns all non-static, non-transient fields of the class and its superclasses.
+     */
+    private static List<Field> getFields(Class<?> cls) {
+        return fieldsByClass.computeIfAbsent(cls, c -> {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> current = c; current != Object.class; current = current.getSuperclass()) {
+                boolean jdkClass = isJdkClass(current);
+                for (Field field : current.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+                        continue;
+                    }
+                    if (jdkClass) {
+                        // e.g. AbstractMap, which only has transient fields, is fine, but not much else is
+                        throw new IllegalArgumentException("Can't copy " + c.getName() + ", since it extends "
+                                + current.getName() + ".");
+                    }
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+            return fields;
+        });
+    }
+
+    /**
+     * Returns the number of buckets of a {@link HashSet} or {@link HashMap}, which decides the order it iterates in
+     * along with the order its elements were added in. The only way to get it without opening up java.util is
+     * serializing, where it is the first int written.
+     */
+    private static int capacityOf(Object hashSetOrMap) {
+        try (CapacityReader reader = new CapacityReader(hashSetOrMap)) {
+            reader.writeObject(hashSetOrMap);
+            if (reader.capacity != -1) {
+                return reader.capacity;
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Can't find the capacity of a " + hashSetOrMap.getClass().getName()
+                    + ".", e);
+        }
+        throw new IllegalArgumentException("Can't find the capacity of a " + hashSetOrMap.getClass().getName() + ".");
+    }
+
+    /**
+     * Serializes a {@link HashSet} or {@link HashMap} with nulls in place of everything it refers to, so the
+     * contents needn't be {@link java.io.Serializable}, and remembers the first int written.
+     */
+    private static class CapacityReader extends ObjectOutputStream {
+        private final Object root;
+        private int capacity = -1;
+
+        CapacityReader(Object root) throws IOException {
+            super(new ByteArrayOutputStream());
+            this.root = root;
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            return obj == root ? obj : null;
+        }
+
+        @Override
+        public void writeInt(int val) throws IOException {
+            if (capacity == -1) {
+                capacity = val;
+            }
+            super.writeInt(val);
+        }
+    }
+
+    private static boolean isJdkClass(Class<?> cls) {
+        String name = cls.getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("sun.")
+                || name.startsWith("jdk.");
+    }
+
+    private static boolean isImmutable(Object o) {
+        Class<?> cls = o.getClass();
+        if (IMMUTABLE_CLASSES.contains(cls) || o instanceof Enum) {
+            return true;
+        }
+        if (!isLambda(cls)) {
+            return false;
+        }
+        // the lambdas of the JDK, like Comparator.comparing(), only capture other functions
+        if (isJdkClass(cls)) {
+            return true;
+        }
+        try {
+            for (Field field : cls.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                field.setAccessible(true);
+                Object captured = field.get(o);
+                if (captured != null && !isImmutable(captured)) {
+                    return false;
+                }
+            }
+        } catch (IllegalAccessException | RuntimeException e) {
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isLambda(Class<?> cls) {
+        return cls.isSynthetic() && cls.getName().contains("$$Lambda");
+    }
+
+    private static Object instantiate(Class<?> cls) {
+        try {
+            return allocatorsByClass.computeIfAbsent(cls, ObjectGraphCopier::createAllocator).newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Can't instantiate " + cls.getName() + ".", e);
+        }
+    }
+
+    /**
+     * Returns a constructor making instances of the class without running any of its constructors, like
+     * deserialization does. The JDK only has this in sun.reflect.ReflectionFactory, which is exported for just
+     * this purpose (see JEP 260), but is looked up reflectively so compiling doesn't depend on it.
+     */
+    private static Constructor<?> createAllocator(Class<?> cls) {
+        try {
+            Class<?> factoryClass = Class.forName("sun.reflect.ReflectionFactory");
+            Object factory = factoryClass.getMethod("getReflectionFactory").invoke(null);
+            Constructor<?> allocator = (Constructor<?>) factoryClass
+                    .getMethod("newConstructorForSerialization", Class.class, Constructor.class)
+                    .invoke(factory, cls, Object.class.getDeclaredConstructor());
+            allocator.setAccessible(true);
+            return allocator;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Can't instantiate " + cls.getName() + ".", e);
+        }
+    }
+}
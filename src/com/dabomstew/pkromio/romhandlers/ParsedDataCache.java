@@ -0,0 +1,118 @@
+package com.dabomstew.pkromio.romhandlers;
+
+/*----------------------------------------------------------------------------*/
+/*--  ParsedDataCache.java - holds game data parsed from a ROM, so it only  --*/
+/*--                         has to be parsed once.                         --*/
+/*--                                                                        --*/
+/*--  Part of "Universal Pokemon Randomizer ZX" by the UPR-ZX team          --*/
+/*--  Pokemon and any associated names and the like are                     --*/
+/*--  trademark and (C) Nintendo 1996-2020.                                 --*/
+/*--                                                                        --*/
+/*--  This program is free software: you can redistribute it and/or modify  --*/
+/*--  it under the terms of the GNU General Public License as published by  --*/
+/*--  the Free Software Foundation, either version 3 of the License, or     --*/
+/*--  (at your option) any later version.                                   --*/
+/*--                                                                        --*/
+/*--  This program is distributed in the hope that it will be useful,       --*/
+/*--  but WITHOUT ANY WARRANTY; without even the implied warranty of        --*/
+/*--  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the          --*/
+/*--  GNU General Public License for more details.                          --*/
+/*--                                                                        --*/
+/*--  You should have received a copy of the GNU General Public License     --*/
+/*--  along with this program. If not, see <http://www.gnu.org/licenses/>.  --*/
+/*----------------------------------------------------------------------------*/
+
+import com.dabomstew.pkromio.gamedata.Encounter;
+import com.dabomstew.pkromio.gamedata.EncounterArea;
+import com.dabomstew.pkromio.gamedata.Trainer;
+
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Holds game data parsed from a ROM, like the {@link Trainer}s or {@link EncounterArea}s, so it only has to be
+ * parsed once instead of on every call to its getter.<br>
+ * The getters return fresh objects which the caller is free to change, so copies of the cached data are handed out;
+ * changing them does not change the cache. The ROM data itself is only changed through the corresponding setters,
+ * which must call {@link #markDirty()}, so the data is parsed again the next time it is asked for.
+ *
+ * @param <K> Any parameter the parsing depends on, e.g. whether to use time of day for encounters.
+ * @param <V> The parsed data.
+ */
+class ParsedDataCache<K, V> {
+
+    private final UnaryOperator<V> copier;
+    private final Map<K, V> parsed = new HashMap<>();
+    private int hits;
+    private int misses;
+
+    /**
+     * @param copier Makes a copy of the parsed data, deep enough that changes to the copy
+     *               can't affect the original.
+     */
+    ParsedDataCache(UnaryOperator<V> copier) {
+        this.copier = copier;
+    }
+
+    /**
+     * Returns a copy of the data parsed for the given key, parsing it first if it is not in the cache.
+     */
+    V get(K key, Supplier<V> parser) {
+        V value = parsed.get(key);
+        if (value == null) {
+            misses++;
+            value = parser.get();
+            parsed.put(key, value);
+        } else {
+            hits++;
+        }
+        return copier.apply(value);
+    }
+
+    /**
+     * Returns a copy of the parsed data, parsing it first if it is not in the cache.
+     * For data which does not depend on any parameter.
+     */
+    V get(Supplier<V> parser) {
+        return get(null, parser);
+    }
+
+    /**
+     * Throws away all cached data, because the underlying ROM data has changed.
+     */
+    void markDirty() {
+        parsed.clear();
+    }
+
+    int getHits() {
+        return hits;
+    }
+
+    int getMisses() {
+        return misses;
+    }
+
+    static List<Trainer> copyTrainers(List<Trainer> original) {
+        List<Trainer> copy = new ArrayList<>(original.size());
+        for (Trainer tr : original) {
+            copy.add(new Trainer(tr));
+        }
+        return copy;
+    }
+
+    static List<EncounterArea> copyEncounterAreas(List<EncounterArea> original) {
+        // Some games share Encounter objects between areas (e.g. HGSS rod encounters by time of day),
+        // so the copies have to be shared in the same way.
+        Map<Encounter, Encounter> copiedEncounters = new IdentityHashMap<>();
+        List<EncounterArea> copy = new ArrayList<>(original.size());
+        for (EncounterArea area : original) {
+            List<Encounter> encounters = new ArrayList<>(area.size());
+            for (Encounter enc : area) {
+                encounters.add(copiedEncounters.computeIfAbsent(enc, Encounter::new));
+            }
+            copy.add(new EncounterArea(area, encounters));
+        }
+        return copy;
+    }
+}
@@ -66,6 +66,19 @@ public interface RomHandler {
         public abstract boolean isLoadable(String filename);
     }
 
+    /**
+     * The state of a RomHandler right after it has loaded a game, from which new RomHandlers with the same game
+     * loaded can be made, without loading the game from disk again. See {@link #createSnapshot()}.
+     */
+    interface Snapshot {
+        /**
+         * Returns a new RomHandler, with the game loaded just as it was when the snapshot was taken.<br>
+         * If the game has {@link #hasConcurrentRandomizationSupport()}, this may be called from several threads
+         * at once.
+         */
+        RomHandler restore();
+    }
+
     // =======================
     // Basic load/save methods
     // =======================
@@ -76,6 +89,22 @@ public interface RomHandler {
 
     String loadedFilename();
 
+    /**
+     * Returns whether several RomHandlers for the same game may be loaded, edited and saved at the same time,
+     * from different threads.
+     */
+    boolean hasConcurrentRandomizationSupport();
+
+    boolean hasSnapshotSupport();
+
+    /**
+     * Takes a {@link Snapshot} of this RomHandler, to be restored instead of loading the game again from disk.
+     * The Snapshot holds a copy of all game data parsed so far, so restoring it does not parse the game again.<br>
+     * Must be called right after loading the game (and any game update), before any changes are made to it.
+     * The RomHandler itself can still be used and changed as normal afterwards; this does not affect the snapshot.
+     */
+    Snapshot createSnapshot();
+
     // =============================================================
     // Methods relating to game updates for the 3DS and Switch games
     // =============================================================
@@ -100,6 +129,31 @@ public interface RomHandler {
      */
     boolean isRomValid(PrintStream logStream);
 
+    /**
+     * Returns how many times parsed data (e.g. from {@link #getTrainers()} or {@link #getEncounters(boolean)})
+     * could be copied from the cache, instead of being parsed from the ROM again.
+     */
+    int getParseCacheHits();
+
+    /**
+     * Returns how many times data (e.g. from {@link #getTrainers()} or {@link #getEncounters(boolean)})
+     * had to be parsed from the ROM, because it was not cached or had been changed since.
+     */
+    int getParseCacheMisses();
+
+    /**
+     * Returns how long each step of the last call to {@link #saveRom(String, long, boolean)} took,
+     * in nanoseconds, in the order they were run. Empty if the Rom has not been saved.
+     */
+    Map<String, Long> getLastSaveTimes();
+
+    /**
+     * Returns the archives (e.g. NARCs or GARCs) which were rewritten for the last call to
+     * {@link #saveRom(String, long, boolean)}, i.e. written since the Rom was loaded or last saved, in the order
+     * they were first written. Archives which were unchanged are not rewritten, and so not included.
+     */
+    List<String> getLastSaveRewrittenArchives();
+
     // ======================================================
     // Methods for retrieving a list of Species objects.
     // Note that for many of these lists, index 0 is null.
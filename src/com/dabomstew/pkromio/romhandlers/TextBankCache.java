@@ -0,0 +1,122 @@
+package com.dabomstew.pkromio.romhandlers;
+
+/*----------------------------------------------------------------------------*/
+/*--  TextBankCache.java - keeps the text banks of a DS text NARC decoded,  --*/
+/*--                       and encodes changed ones only when saving.       --*/
+/*--                                                                        --*/
+/*--  Part of "Universal Pokemon Randomizer ZX" by the UPR-ZX team          --*/
+/*--  Pokemon and any associated names and the like are                     --*/
+/*--  trademark and (C) Nintendo 1996-2020.                                 --*/
+/*--                                                                        --*/
+/*--  This program is free software: you can redistribute it and/or modify  --*/
+/*--  it under the terms of the GNU General Public License as published by  --*/
+/*--  the Free Software Foundation, either version 3 of the License, or     --*/
+/*--  (at your option) any later version.                                   --*/
+/*--                                                                        --*/
+/*--  This program is distributed in the hope that it will be useful,       --*/
+/*--  but WITHOUT ANY WARRANTY; without even the implied warranty of        --*/
+/*--  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the          --*/
+/*--  GNU General Public License for more details.                          --*/
+/*--                                                                        --*/
+/*--  You should have received a copy of the GNU General Public License     --*/
+/*--  along with this program. If not, see <http://www.gnu.org/licenses/>.  --*/
+/*----------------------------------------------------------------------------*/
+
+import com.dabomstew.pkromio.newnds.NARCArchive;
+
+import java.util.*;
+
+/**
+ * Keeps the text banks (files) of a text {@link NARCArchive} decoded, so each bank is only decrypted once,
+ * however many times its strings are gotten.<br>
+ * Setting the strings of a bank only marks it as dirty; the dirty banks are encoded back into the NARC by
+ * {@link #writeDirtyBanks()}, which must be called before the NARC is written. A bank set several times is thus
+ * only encoded once.<br>
+ * Since encoding and decoding again is not always lossless (e.g. characters not in the table are dropped),
+ * getting the strings of a dirty bank encodes it first, and then decodes the result, just like it would be
+ * without the cache.
+ */
+class TextBankCache {
+
+    interface Codec {
+        /**
+         * Decodes the data of a bank.
+         */
+        Bank decode(byte[] data);
+
+        /**
+         * Encodes new strings for a bank, whose current data is oldData.
+         */
+        byte[] encode(byte[] oldData, List<String> strings, boolean compressed);
+    }
+
+    static class Bank {
+        private final List<String> strings;
+        private final boolean compressed;
+
+        /**
+         * @param compressed Whether the strings were/are to be compressed, in formats which support that.
+         */
+        Bank(List<String> strings, boolean compressed) {
+            this.strings = Collections.unmodifiableList(new ArrayList<>(strings));
+            this.compressed = compressed;
+        }
+    }
+
+    private final NARCArchive narc;
+    private final Codec codec;
+    private final Map<Integer, Bank> decoded = new HashMap<>();
+    private final Map<Integer, Bank> dirty = new TreeMap<>();
+
+    TextBankCache(NARCArchive narc, Codec codec) {
+        this.narc = narc;
+        this.codec = codec;
+    }
+
+    /**
+     * Returns a new, modifiable list of the strings in the bank.
+     */
+    List<String> getStrings(int index) {
+        return new ArrayList<>(getBank(index).strings);
+    }
+
+    /**
+     * Returns whether the strings in the bank are compressed.
+     */
+    boolean isCompressed(int index) {
+        return getBank(index).compressed;
+    }
+
+    void setStrings(int index, List<String> strings, boolean compressed) {
+        decoded.remove(index);
+        dirty.put(index, new Bank(strings, compressed));
+    }
+
+    /**
+     * Encodes all dirty banks into the NARC.
+     */
+    void writeDirtyBanks() {
+        for (int index : new ArrayList<>(dirty.keySet())) {
+            writeBank(index);
+        }
+    }
+
+    private Bank getBank(int index) {
+        Bank bank = decoded.get(index);
+        if (bank == null) {
+            writeBank(index);
+            bank = codec.decode(narc.files.get(index));
+            decoded.put(index, bank);
+        }
+        return bank;
+    }
+
+    private void writeBank(int index) {
+        Bank bank = dirty.remove(index);
+        if (bank != null) {
+            // the codec may change the list it is given, so it gets its own copy
+            narc.files.set(index, codec.encode(narc.files.get(index), new ArrayList<>(bank.strings), bank.compressed));
+        }
+    }
+
+}
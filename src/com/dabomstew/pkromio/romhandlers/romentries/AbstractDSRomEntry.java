@@ -75,6 +75,17 @@ public abstract class AbstractDSRomEntry extends RomEntry {
         super(name);
     }
 
+    public AbstractDSRomEntry(AbstractDSRomEntry original) {
+        super(original);
+        this.arm9ExpectedCRC32 = original.arm9ExpectedCRC32;
+        this.staticPokemonSupport = original.staticPokemonSupport;
+        this.copyStaticPokemon = original.copyStaticPokemon;
+        this.copyRoamingPokemon = original.copyRoamingPokemon;
+        files.putAll(original.files);
+        overlayExpectedCRC32s.putAll(original.overlayExpectedCRC32s);
+        staticPokemon.addAll(original.staticPokemon);
+    }
+
     public long getArm9ExpectedCRC32() {
         return arm9ExpectedCRC32;
     }
@@ -179,6 +179,18 @@ public class Gen4RomEntry extends AbstractDSRomEntry {
         super(name);
     }
 
+    public Gen4RomEntry(Gen4RomEntry original) {
+        super(original);
+        this.ignoreGameCornerStatics = original.ignoreGameCornerStatics;
+        this.copyText = original.copyText;
+        roamingPokemon.addAll(original.roamingPokemon);
+        tmTexts.putAll(original.tmTexts);
+        tmTextsGameCorner.putAll(original.tmTextsGameCorner);
+        tmScriptOffsetsFrontier.putAll(original.tmScriptOffsetsFrontier);
+        tmTextsFrontier.putAll(original.tmTextsFrontier);
+        marillCryScriptEntries.addAll(original.marillCryScriptEntries);
+    }
+
     @Override
     protected void setRomType(String s) {
         if (s.equalsIgnoreCase("DP")) {
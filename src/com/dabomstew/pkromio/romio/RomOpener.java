@@ -66,6 +66,15 @@ public class RomOpener {
     private Map<String, String> gameUpdates = new HashMap<>();
     private boolean extraMemoryAvailable;
 
+    /**
+     * The max heap size which is enough to open 3DS games normally. The launcher gives the JVM a bit more.
+     */
+    public static final long EXTRA_MEMORY_MIN_HEAP = 3L << 30;
+    /**
+     * The least max heap size 3DS games can be opened with, in low-memory mode.
+     */
+    public static final long LOW_MEMORY_MODE_MIN_HEAP = 768L << 20;
+
     /**
      * Creates a RomOpener, allowing ROMs of all Generations to be opened.
      */
@@ -93,6 +102,11 @@ public class RomOpener {
         this.gameUpdates = gameUpdates;
     }
 
+    /**
+     * Sets whether the JVM has been given enough memory to open 3DS games normally. If not, they are opened in
+     * low-memory mode (see {@link Abstract3DSRomHandler#setLowMemoryMode(boolean)}), unless even that wouldn't fit
+     * in the max heap size.
+     */
     public void setExtraMemoryAvailable(boolean extraMemoryAvailable) {
         this.extraMemoryAvailable = extraMemoryAvailable;
     }
@@ -112,7 +126,10 @@ public class RomOpener {
 
                 // TODO: this instanceof is not pretty
                 if (!extraMemoryAvailable && romHandler instanceof Abstract3DSRomHandler) {
-                    return Results.failure(FailType.EXTRA_MEMORY_NOT_AVAILABLE);
+                    if (Runtime.getRuntime().maxMemory() < LOW_MEMORY_MODE_MIN_HEAP) {
+                        return Results.failure(FailType.EXTRA_MEMORY_NOT_AVAILABLE);
+                    }
+                    ((Abstract3DSRomHandler) romHandler).setLowMemoryMode(true);
                 }
 
                 try {
@@ -32,6 +32,13 @@ public final class DSCmp {
     public static final int HUFF8 = 0x28;
     public static final int RLE = 0x30;
 
+    // Matches are searched for the same way as in
+    // https://github.com/pleonex/tinke/blob/master/Plugins/DSDecmp/DSDecmp/Utils/LZUtil.cs#L19
+    // i.e. the farthest of the longest ones is used, and the one right before is never used,
+    // only with hash chains instead of going through the whole window.
+    private static final int MIN_DISP = 2;
+    private static final int MAX_DISP = 0x1000;
+
     // https://github.com/pleonex/tinke/blob/master/Plugins/DSDecmp/DSDecmp/Formats/Nitro/LZ10.cs#L173
     public static byte[] compressLZ10(byte[] decompressed) {
         ByteArrayOutputStream compressed = new ByteArrayOutputStream();
@@ -47,6 +54,7 @@ public final class DSCmp {
             compressed.write(getBytes24(decompressed.length), 0, 3);
 
         int curIn = 0;
+        LZMatchFinder matchFinder = new LZMatchFinder(decompressed, decompressed.length, MAX_DISP);
 
         byte[] outBuffer = new byte[17];
         outBuffer[0] = 0;
@@ -61,10 +69,9 @@ public final class DSCmp {
                 numBlocks = 0;
             }
 
-            int[] occInfo = getOccurenceInfo(decompressed, curIn, Math.min(decompressed.length - curIn, 0x12),
-                    Math.min(curIn, 0x1000));
-            int occLength = occInfo[0];
-            int occDisp = occInfo[1];
+            int occLength = matchFinder.findFarthest(curIn, Math.min(decompressed.length - curIn, 0x12),
+                    MIN_DISP);
+            int occDisp = matchFinder.getDistance();
 
             if (occLength < 3)
                 outBuffer[lenBuffer++] = decompressed[curIn++];
@@ -101,6 +108,7 @@ public final class DSCmp {
             compressed.write(getBytes24(decompressed.length), 0, 3);
 
         int curIn = 0;
+        LZMatchFinder matchFinder = new LZMatchFinder(decompressed, decompressed.length, MAX_DISP);
 
         byte[] outBuffer = new byte[33];
         outBuffer[0] = 0;
@@ -115,10 +123,9 @@ public final class DSCmp {
                 numBlocks = 0;
             }
 
-            int[] occInfo = getOccurenceInfo(decompressed, curIn, Math.min(decompressed.length - curIn, 0x10110),
-                    Math.min(curIn, 0x1000));
-            int occLength = occInfo[0];
-            int occDisp = occInfo[1];
+            int occLength = matchFinder.findFarthest(curIn, Math.min(decompressed.length - curIn, 0x10110),
+                    MIN_DISP);
+            int occDisp = matchFinder.getDistance();
 
             if (occLength < 3)
                 outBuffer[lenBuffer++] = decompressed[curIn++];
@@ -151,36 +158,6 @@ public final class DSCmp {
         return compressed.toByteArray();
     }
 
-    // https://github.com/pleonex/tinke/blob/master/Plugins/DSDecmp/DSDecmp/Utils/LZUtil.cs#L19
-    private static int[] getOccurenceInfo(byte[] decompressed, int current, int pending, int finished) {
-        if (pending == 0)
-            return new int[] { 0, 0 };
-
-        int disp = 0;
-        int length = 0;
-
-        for (int i = 0; i < finished - 1; i++) {
-            int pendingOffset = current - finished + i;
-            int pendingLength = 0;
-
-            for (int j = 0; j < pending; j++) {
-                if (decompressed[pendingOffset + j] != decompressed[current + j])
-                    break;
-                pendingLength++;
-            }
-
-            if (pendingLength > length) {
-                length = pendingLength;
-                disp = finished - i;
-
-                if (length == pending)
-                    break;
-            }
-        }
-
-        return new int[] { length, disp };
-    }
-
     private static byte[] getBytes(int val) {
         byte[] bs = new byte[Integer.BYTES];
 
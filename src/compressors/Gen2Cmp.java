@@ -3,11 +3,11 @@ package compressors;
 import compressors.gen2.Gen2Compressor;
 import compressors.gen2.Gen2FillCompressor;
 import compressors.gen2.Gen2NullCompressor;
+import compressors.gen2.Gen2OptimalCompressor;
 import compressors.gen2.Gen2SinglePassCompressor;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
+import java.util.stream.IntStream;
 
 /**
  * Pokémon Gen 2 compressor. The algorithm used is "LC_LZ3", via FuSoYa's Lunar Compress.
@@ -16,6 +16,10 @@ import java.util.List;
  * However, it is not identical to the compressor GameFreak had. As such, decompressing from a vanilla ROM,
  * and then recompressing using this will NOT give you the bytes originally in the ROM.<br>
  * This generally compresses better/gives you fewer bytes.
+ * <br><br>
+ * Where Lunar Compress can't be used, all {@link #COMPRESSORS} are run in parallel (on the common fork-join pool),
+ * and the shortest result is used. Results are cached by the content of the uncompressed data, since the same
+ * images are often compressed several times, e.g. when randomizing more than once in the same session.
  */
 public class Gen2Cmp {
 
@@ -44,10 +48,43 @@ public class Gen2Cmp {
 
     public static final List<Gen2Compressor> COMPRESSORS = initCompressors();
 
+    private static final int CACHE_SIZE = 2048;
+
+    /**
+     * Key for the cache, comparing the uncompressed data by content.
+     */
+    private static class CacheKey {
+        private final byte[] data;
+        private final int hash;
+
+        CacheKey(byte[] data) {
+            this.data = data.clone();
+            this.hash = Arrays.hashCode(data);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CacheKey && hash == ((CacheKey) o).hash && Arrays.equals(data, ((CacheKey) o).data);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final Map<CacheKey, byte[]> cache = new LinkedHashMap<CacheKey, byte[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, byte[]> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
     private static List<Gen2Compressor> initCompressors() {
         List<Gen2Compressor> l = new ArrayList<>();
         l.add(new Gen2NullCompressor());
         l.add(new Gen2FillCompressor());
+        l.add(new Gen2OptimalCompressor());
         l.addAll(Gen2SinglePassCompressor.ALL_OPTIONS);
         return Collections.unmodifiableList(l);
     }
@@ -59,11 +96,36 @@ public class Gen2Cmp {
             return lunarCompress(uncompressed);
         }
 
+        CacheKey key = new CacheKey(uncompressed);
+        byte[] cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null) {
+            return cached.clone();
+        }
+
+        byte[] bestCompressed = javaCompress(uncompressed);
+        synchronized (cache) {
+            cache.put(key, bestCompressed);
+        }
+        return bestCompressed.clone();
+    }
+
+    /**
+     * Compresses the data with each of the {@link #COMPRESSORS} in parallel, and returns the shortest result.
+     * Among equally short results, the one from the compressor first in the list is returned,
+     * so the result does not depend on which compressor finishes first.
+     */
+    public static byte[] javaCompress(byte[] uncompressed) {
         byte[] bitFlipped = flipBits(uncompressed);
 
-        byte[] bestCompressed = new byte[uncompressed.length * 2];
-        for (Gen2Compressor cmp : COMPRESSORS) {
-            byte[] compressed = cmp.compress(uncompressed, bitFlipped);
+        byte[][] results = new byte[COMPRESSORS.size()][];
+        IntStream.range(0, results.length).parallel()
+                .forEach(i -> results[i] = COMPRESSORS.get(i).compress(uncompressed, bitFlipped));
+
+        byte[] bestCompressed = results[0];
+        for (byte[] compressed : results) {
             if (compressed.length < bestCompressed.length) {
                 bestCompressed = compressed;
             }
@@ -71,6 +133,15 @@ public class Gen2Cmp {
         return bestCompressed;
     }
 
+    /**
+     * Empties the cache of compressed data.
+     */
+    public static void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
     public static byte[] flipBits(byte[] data) {
         byte[] bitFlipped = new byte[data.length];
         for (int i = 0; i < data.length; i++) {
@@ -0,0 +1,194 @@
+package compressors;
+
+import java.util.Arrays;
+
+/**
+ * Finds LZ matches in a byte array using hash chains, for the LZ compressors ({@link DSCmp},
+ * {@link cuecompressors.BLZCoder}).
+ * <br><br>
+ * Every position is hashed by its first 3 bytes, and each hash is the head of a chain going through all earlier
+ * positions with that hash. So instead of comparing against every position in the window, only the positions
+ * starting with the same 3 bytes are compared against. Since no LZ format here encodes matches shorter than 3 bytes,
+ * this finds the exact same matches as a brute force search would, as long as the same tie-breaking is used.
+ * Both tie-breaking rules in use are supported, by {@link #findFarthest(int, int, int)}
+ * and {@link #findNearest(int, int, int)}.
+ * <br><br>
+ * Positions are added to the chains lazily, so searching may go forwards and backwards,
+ * but never further back than the window.
+ */
+public class LZMatchFinder {
+
+    public static final int MIN_MATCH = 3;
+
+    private static final int MAX_HASH_BITS = 16;
+
+    private final byte[] data;
+    private final int end;
+    private final int maxDistance;
+
+    private final int hashShift;
+    private final int[] head;
+    private final int[] prev;
+    private final int prevMask;
+    private int inserted;
+
+    // distances of the candidates for the last search, nearest first
+    private final int[] candidates;
+    private int distance;
+
+    /**
+     * @param data The data to find matches in.
+     * @param end Where the data ends; matches never go past this.
+     * @param maxDistance The maximum distance back a match may start.
+     */
+    public LZMatchFinder(byte[] data, int end, int maxDistance) {
+        this.data = data;
+        this.end = end;
+        this.maxDistance = maxDistance;
+
+        // small inputs get small tables, since DSCmp is called for lots of small files
+        int sizeBits = 32 - Integer.numberOfLeadingZeros(Math.max(end, 0xFF));
+        int hashBits = Math.min(MAX_HASH_BITS, sizeBits);
+        this.hashShift = 32 - hashBits;
+        this.head = new int[1 << hashBits];
+        Arrays.fill(head, -1);
+        // The positions we follow in a chain are all within maxDistance, but searching may have gone ahead
+        // a bit before coming back, so the ring has to be somewhat bigger than the window. Or just as big as
+        // the data, if that's smaller.
+        int ringSize = Math.min(Integer.highestOneBit(maxDistance) << 2, 1 << sizeBits);
+        this.prev = new int[ringSize];
+        this.prevMask = ringSize - 1;
+        this.candidates = new int[maxDistance + 1];
+    }
+
+    /**
+     * Returns the distance of the match last found.
+     */
+    public int getDistance() {
+        return distance;
+    }
+
+    /**
+     * Finds the longest match for the data at position, going by the same rules as a brute force search from the
+     * farthest position to the nearest, which keeps the first (farthest) longest match.<br>
+     * Matches may overlap the position, as the LZ10/LZ11 formats allow.
+     *
+     * @param position The position to find a match for.
+     * @param maxLength The maximum length of the match. Must not go past the end.
+     * @param minDistance The minimum distance back a match may start.
+     * @return The length of the match, which is at least {@link #MIN_MATCH}, or 0 if there is none that long.
+     * The distance can be gotten from {@link #getDistance()}; it is 0 if there is no match.
+     */
+    public int findFarthest(int position, int maxLength, int minDistance) {
+        int count = findCandidates(position, minDistance);
+        int bestLength = 0;
+        distance = 0;
+        for (int i = count - 1; i >= 0; i--) {
+            int candidateDistance = candidates[i];
+            int length = matchLength(position - candidateDistance, position, maxLength, bestLength);
+            if (length > bestLength) {
+                bestLength = length;
+                distance = candidateDistance;
+                if (bestLength == maxLength) {
+                    break;
+                }
+            }
+        }
+        return foundMatch(bestLength);
+    }
+
+    /**
+     * Finds the longest match for the data at position, going by the same rules as a brute force search from the
+     * nearest position to the farthest, which keeps the first (nearest) longest match.<br>
+     * Matches never overlap the position, as the BLZ format requires.
+     *
+     * @param position The position to find a match for.
+     * @param maxLength The maximum length of the match. Must not go past the end.
+     * @param minDistance The minimum distance back a match may start.
+     * @return The length of the match, which is at least {@link #MIN_MATCH}, or 0 if there is none that long.
+     * The distance can be gotten from {@link #getDistance()}; it is 0 if there is no match.
+     */
+    public int findNearest(int position, int maxLength, int minDistance) {
+        int count = findCandidates(position, minDistance);
+        int bestLength = 0;
+        distance = 0;
+        for (int i = 0; i < count; i++) {
+            int candidateDistance = candidates[i];
+            int length = matchLength(position - candidateDistance, position,
+                    Math.min(maxLength, candidateDistance), bestLength);
+            if (length > bestLength) {
+                bestLength = length;
+                distance = candidateDistance;
+                if (bestLength == maxLength) {
+                    break;
+                }
+            }
+        }
+        return foundMatch(bestLength);
+    }
+
+    /**
+     * Returns the length of the match found, or 0 if it is shorter than {@link #MIN_MATCH}. Such short matches
+     * are only found by chance, when a candidate's first 3 bytes merely have the same hash, so they are not the
+     * ones a brute force search would find; none of the LZ formats here can encode them anyway.
+     */
+    private int foundMatch(int length) {
+        if (length < MIN_MATCH) {
+            distance = 0;
+            return 0;
+        }
+        return length;
+    }
+
+    /**
+     * Returns how long the match between from and position is, or 0 if it can't be longer than toBeat.
+     */
+    private int matchLength(int from, int position, int maxLength, int toBeat) {
+        if (toBeat >= maxLength || (toBeat > 0 && data[from + toBeat] != data[position + toBeat])) {
+            return 0;
+        }
+        int length = 0;
+        while (length < maxLength && data[from + length] == data[position + length]) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Puts the distances of all positions in the window with the same hash as position into {@link #candidates},
+     * nearest first, and returns how many there are.
+     */
+    private int findCandidates(int position, int minDistance) {
+        if (position + MIN_MATCH > end) {
+            return 0;
+        }
+        insertUpTo(position);
+        int count = 0;
+        int candidate = head[hash(position)];
+        while (candidate >= 0) {
+            int candidateDistance = position - candidate;
+            if (candidateDistance > maxDistance) {
+                break;
+            }
+            if (candidateDistance >= minDistance) {
+                candidates[count++] = candidateDistance;
+            }
+            candidate = prev[candidate & prevMask];
+        }
+        return count;
+    }
+
+    private void insertUpTo(int position) {
+        int last = Math.min(position, end - MIN_MATCH + 1);
+        for (; inserted < last; inserted++) {
+            int h = hash(inserted);
+            prev[inserted & prevMask] = head[h];
+            head[h] = inserted;
+        }
+    }
+
+    private int hash(int position) {
+        int value = (data[position] & 0xFF) << 16 | (data[position + 1] & 0xFF) << 8 | (data[position + 2] & 0xFF);
+        return (value * 0x9E3779B1) >>> hashShift;
+    }
+}
@@ -102,7 +102,7 @@ public abstract class Gen2Compressor {
             if (chunk.count < SHORT_COMMAND_COUNT) { // short header
                 board[size++] = (byte) ((chunk.command.bits << 5) + ((chunk.count - 1) & 0b11111));
             } else { // long header (i.e. command 111 / "Long length")
-                board[size++] = (byte) (0b11100000 + (chunk.command.bits << 2) + (chunk.count >>> 8));
+                board[size++] = (byte) (0b11100000 + (chunk.command.bits << 2) + ((chunk.count - 1) >>> 8));
                 board[size++] = (byte) ((chunk.count - 1) & 0xFF);
             }
             switch (chunk.command) {
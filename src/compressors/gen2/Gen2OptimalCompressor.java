@@ -0,0 +1,180 @@
+package compressors.gen2;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the smallest possible compression of the data, within the commands considered,
+ * by optimal parsing: for each position, going backwards from the end, the cheapest way to encode
+ * everything from there on is found, given the cheapest ways for all later positions.<br>
+ * (<a href=https://sneslab.net/wiki/LZ3>Documentation for the compression format</a>).
+ * <br><br>
+ * At each position, every fill, a direct copy of every length, and the longest repeats of each kind are considered,
+ * cut off at every length. For repeats, both the longest one overall and the longest one close enough for a
+ * one-byte offset are considered.
+ */
+public class Gen2OptimalCompressor extends Gen2Compressor {
+
+    private static final Command[] REPEAT_COMMANDS = {Command.REPEAT, Command.BIT_REVERSE_REPEAT,
+            Command.BACKWARDS_REPEAT};
+
+    /**
+     * The longest match of a repeat command at some position, from one source.
+     */
+    private static class Match {
+        final int length;
+        final int source;
+
+        Match(int length, int source) {
+            this.length = length;
+            this.source = source;
+        }
+    }
+
+    @Override
+    public byte[] compress(byte[] uncompressed, byte[] bitFlipped) {
+        int n = uncompressed.length;
+        int[] cost = new int[n + 1];
+        Chunk[] choice = new Chunk[n];
+        cost[n] = 1; // the terminator
+
+        for (int pos = n - 1; pos >= 0; pos--) {
+            int max = Math.min(MAX_COMMAND_COUNT, n - pos);
+
+            // direct copy
+            int bestCost = Integer.MAX_VALUE;
+            Command bestCommand = null;
+            int bestCount = 0;
+            int bestValue = 0;
+            for (int count = 1; count <= max; count++) {
+                int c = headerSize(count) + count + cost[pos + count];
+                if (c < bestCost) {
+                    bestCost = c;
+                    bestCommand = Command.DIRECT_COPY;
+                    bestCount = count;
+                    bestValue = 0;
+                }
+            }
+
+            // fills
+            byte first = uncompressed[pos];
+            int byteRun = runLength(uncompressed, pos, max, 1);
+            Command byteFill = first == 0 ? Command.ZERO_FILL : Command.BYTE_FILL;
+            int byteFillPayload = first == 0 ? 0 : 1;
+            for (int count = 1; count <= byteRun; count++) {
+                int c = headerSize(count) + byteFillPayload + cost[pos + count];
+                if (c < bestCost) {
+                    bestCost = c;
+                    bestCommand = byteFill;
+                    bestCount = count;
+                    bestValue = byteFill == Command.ZERO_FILL ? 0 : first;
+                }
+            }
+            if (max >= 2) {
+                int wordRun = runLength(uncompressed, pos, max, 2);
+                int word = ((first & 0xFF) << 8) + (uncompressed[pos + 1] & 0xFF);
+                for (int count = 2; count <= wordRun; count++) {
+                    int c = headerSize(count) + 2 + cost[pos + count];
+                    if (c < bestCost) {
+                        bestCost = c;
+                        bestCommand = Command.WORD_FILL;
+                        bestCount = count;
+                        bestValue = word;
+                    }
+                }
+            }
+
+            // repeats
+            for (Command command : REPEAT_COMMANDS) {
+                for (boolean near : new boolean[]{false, true}) {
+                    Match match = findLongestMatch(uncompressed, bitFlipped, pos, max, command, near);
+                    if (match == null) {
+                        continue;
+                    }
+                    boolean relative = match.source + LOOKBACK_LIMIT >= pos;
+                    int payload = relative ? 1 : 2;
+                    int value = relative ? match.source - pos : match.source;
+                    for (int count = 1; count <= match.length; count++) {
+                        int c = headerSize(count) + payload + cost[pos + count];
+                        if (c < bestCost) {
+                            bestCost = c;
+                            bestCommand = command;
+                            bestCount = count;
+                            bestValue = value;
+                        }
+                    }
+                }
+            }
+
+            cost[pos] = bestCost;
+            choice[pos] = new Chunk(bestCommand, bestCount, bestValue);
+        }
+
+        List<Chunk> chunks = new ArrayList<>();
+        for (int pos = 0; pos < n; pos += choice[pos].count) {
+            chunks.add(choice[pos]);
+        }
+        return chunksToBytes(chunks, uncompressed);
+    }
+
+    /**
+     * The size of a chunk header, as written by {@link #chunksToBytes(List, byte[])}.
+     */
+    private static int headerSize(int count) {
+        return count < SHORT_COMMAND_COUNT ? 1 : 2;
+    }
+
+    /**
+     * Returns how many bytes from pos on repeat with the given period, at most max.
+     */
+    private static int runLength(byte[] data, int pos, int max, int period) {
+        int length = period;
+        while (length < max && data[pos + length] == data[pos + length - period]) {
+            length++;
+        }
+        return Math.min(length, max);
+    }
+
+    /**
+     * Finds the longest match for a repeat command at pos, preferring the earliest source among equally long ones.
+     *
+     * @param near Whether to only look at sources close enough for a one-byte offset.
+     * @return The match, or null if there is none.
+     */
+    private static Match findLongestMatch(byte[] data, byte[] bitFlipped, int pos, int max, Command command,
+                                          boolean near) {
+        byte[] source = command == Command.BIT_REVERSE_REPEAT ? bitFlipped : data;
+        int start = near ? Math.max(0, pos - LOOKBACK_LIMIT) : 0;
+        int bestLength = 0;
+        int bestSource = 0;
+        for (int src = start; src < pos; src++) {
+            if (source[src] != data[pos]) {
+                continue;
+            }
+            int length = 0;
+            if (command == Command.BACKWARDS_REPEAT) {
+                int limit = Math.min(max, src + 1);
+                while (length < limit && source[src - length] == data[pos + length]) {
+                    length++;
+                }
+            } else {
+                while (length < max && source[src + length] == data[pos + length]) {
+                    length++;
+                }
+            }
+            if (length > bestLength) {
+                bestLength = length;
+                bestSource = src;
+                if (length == max) {
+                    break;
+                }
+            }
+        }
+        return bestLength == 0 ? null : new Match(bestLength, bestSource);
+    }
+
+    @Override
+    public String toString() {
+        return "Optimal";
+    }
+}
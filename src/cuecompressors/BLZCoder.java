@@ -7,6 +7,7 @@ import java.nio.ByteOrder;
 import java.util.Arrays;
 
 import com.dabomstew.pkromio.FileFunctions;
+import compressors.LZMatchFinder;
 
 /*----------------------------------------------------------------------------*/
 /*--  BLZCoder.java - Bottom LZ coding for Nintendo GBA/DS/3DS              --*/
@@ -432,13 +433,15 @@ public class BLZCoder {
     }
 
     private BLZResult BLZ_Encode(byte[] data, int mode) {
-        int[] raw_buffer, pak_buffer, new_buffer;
+        byte[] raw_buffer;
+        int[] pak_buffer, new_buffer;
         int raw_len, pak_len;
 
         new_len = 0;
 
-        raw_buffer = prepareData(data);
-        raw_len = raw_buffer.length - 3;
+        // a byte per byte is enough for encoding, and the raw buffer gets inverted in place
+        raw_buffer = data.clone();
+        raw_len = raw_buffer.length;
 
         pak_buffer = null;
         pak_len = BLZ_MAXIM + 1;
@@ -452,7 +455,7 @@ public class BLZCoder {
         return new BLZResult(pak_buffer, pak_len);
     }
 
-    private int[] BLZ_Code(int[] raw_buffer, int raw_len, int best) {
+    private int[] BLZ_Code(byte[] raw_buffer, int raw_len, int best) {
         int[] pak_buffer, tmp;
         int pak, raw, raw_end, flg = 0;
         int pak_len, inc_len, hdr_len, enc_len, len;
@@ -479,6 +482,7 @@ public class BLZCoder {
         pak = 0;
         raw = 0;
         raw_end = raw_new;
+        LZMatchFinder matchFinder = new LZMatchFinder(raw_buffer, raw_end, BLZ_N);
 
         mask = 0;
         while (raw < raw_end) {
@@ -487,7 +491,7 @@ public class BLZCoder {
                 mask = BLZ_MASK;
             }
 
-            SearchPair sl1 = SEARCH(pos_best, raw_buffer, raw, raw_end);
+            SearchPair sl1 = SEARCH(pos_best, matchFinder, raw, raw_end);
             len_best = sl1.l;
             pos_best = sl1.p;
 
@@ -496,11 +500,11 @@ public class BLZCoder {
                 if (len_best > BLZ_THRESHOLD) {
                     if (raw + len_best < raw_end) {
                         raw += len_best;
-                        SearchPair sl2 = SEARCH(pos_next, raw_buffer, raw, raw_end);
+                        SearchPair sl2 = SEARCH(pos_next, matchFinder, raw, raw_end);
                         len_next = sl2.l;
                         pos_next = sl2.p;
                         raw -= (len_best - 1);
-                        SearchPair sl3 = SEARCH(pos_post, raw_buffer, raw, raw_end);
+                        SearchPair sl3 = SEARCH(pos_post, matchFinder, raw, raw_end);
                         len_post = sl3.l;
                         pos_post = sl3.p;
                         raw--;
@@ -525,7 +529,7 @@ public class BLZCoder {
                 pak_buffer[pak++] = ((len_best - (BLZ_THRESHOLD + 1)) << 4) | ((pos_best - 3) >>> 8);
                 pak_buffer[pak++] = (pos_best - 3) & 0xFF;
             } else {
-                pak_buffer[pak++] = raw_buffer[raw++];
+                pak_buffer[pak++] = raw_buffer[raw++] & 0xFF;
             }
 
             if (pak + raw_len - raw < pak_tmp + raw_tmp) {
@@ -550,7 +554,7 @@ public class BLZCoder {
             raw_end = raw_len;
 
             while (raw < raw_end) {
-                pak_buffer[pak] = raw_buffer[raw];
+                pak_buffer[pak] = raw_buffer[raw] & 0xFF;
             }
 
             while ((pak & 3) > 0) {
@@ -564,7 +568,7 @@ public class BLZCoder {
         } else {
             tmp = new int[raw_tmp + pak_tmp + 11];
             for (len = 0; len < raw_tmp; len++) {
-                tmp[len] = raw_buffer[len];
+                tmp[len] = raw_buffer[len] & 0xFF;
             }
             for (len = 0; len < pak_tmp; len++) {
                 tmp[raw_tmp + len] = pak_buffer[len + pak_len - pak_tmp];
@@ -613,6 +617,7 @@ public class BLZCoder {
             return Arrays.copyOfRange(outBuf.array(),0,outBuf.position());
         }
 
+        LZMatchFinder matchFinder = new LZMatchFinder(data, data.length, 0x1000);
         ByteBuffer blockBuf = ByteBuffer.allocate((8 * 4) + 1);
         blockBuf.put((byte)0);
         int bufferedBlocks = 0;
@@ -624,16 +629,10 @@ public class BLZCoder {
                 bufferedBlocks = 0;
             }
 
-            int oldLength = Math.min(inBuf.position(),0x1000);
-            LengthDispPair pair =
-                    getOccurrenceLength(
-                            inBuf,
-                            inBuf.position(),
-                            Math.min(data.length - inBuf.position(), 0x10110),
-                            inBuf.position() - oldLength,
-                            oldLength);
-            int length = pair.length;
-            int disp = pair.disp;
+            // the farthest of the longest matches, never the one right before
+            int length = matchFinder.findFarthest(inBuf.position(),
+                    Math.min(data.length - inBuf.position(), 0x10110), 2);
+            int disp = matchFinder.getDistance();
 
             if (length < 3) {
                 blockBuf.put(inBuf.get());
@@ -668,44 +667,6 @@ public class BLZCoder {
         return Arrays.copyOfRange(outBuf.array(),0,outBuf.position());
     }
 
-    private LengthDispPair getOccurrenceLength(ByteBuffer buf, int newIndex, int newLength, int oldIndex, int oldLength) {
-        int disp = 0;
-        if (newLength == 0) {
-            return new LengthDispPair(0,0);
-        }
-        int maxLength = 0;
-
-        for (int i = 0; i < oldLength - 1; i++) {
-            int currentOldStart = oldIndex + i;
-            int currentLength = 0;
-
-            for (int j = 0; j < newLength; j++) {
-                if (buf.get(currentOldStart + j) != buf.get(newIndex + j)) break;
-                currentLength++;
-            }
-
-            if (currentLength > maxLength) {
-                maxLength = currentLength;
-                disp = oldLength - i;
-
-                if (maxLength == newLength) {
-                    break;
-                }
-            }
-        }
-        return new LengthDispPair(maxLength,disp);
-    }
-
-    private class LengthDispPair {
-        int length;
-        int disp;
-
-        LengthDispPair(int length, int disp) {
-            this.length = length;
-            this.disp = disp;
-        }
-    }
-
     private static class SearchPair {
         public int l;
         public int p;
@@ -716,31 +677,13 @@ public class BLZCoder {
         }
     }
 
-    private SearchPair SEARCH(int p, int[] raw_buffer, int raw, int raw_end) {
-        int l = BLZ_THRESHOLD;
-        int max = (raw >= BLZ_N) ? BLZ_N : raw;
-        for (int pos = 3; pos <= max; pos++) {
-            int len;
-            for (len = 0; len < BLZ_F; len++) {
-                if (raw + len == raw_end) {
-                    break;
-                }
-                if (len >= pos) {
-                    break;
-                }
-                if (raw_buffer[raw + len] != raw_buffer[raw + len - pos]) {
-                    break;
-                }
-            }
-
-            if (len > l) {
-                p = pos;
-                if ((l = len) == BLZ_F) {
-                    break;
-                }
-            }
+    private SearchPair SEARCH(int p, LZMatchFinder matchFinder, int raw, int raw_end) {
+        // same as going through the window nearest first, keeping the first longest non-overlapping match
+        int l = matchFinder.findNearest(raw, Math.min(BLZ_F, raw_end - raw), 3);
+        if (l > BLZ_THRESHOLD) {
+            return new SearchPair(l, matchFinder.getDistance());
         }
-        return new SearchPair(l, p);
+        return new SearchPair(BLZ_THRESHOLD, p);
     }
 
     private class BLZResult {
@@ -753,6 +696,19 @@ public class BLZCoder {
         int length;
     }
 
+    private void BLZ_Invert(byte[] buffer, int offset, int length) {
+        int bottom;
+        byte ch;
+
+        bottom = offset + length - 1;
+
+        while (offset < bottom) {
+            ch = buffer[offset];
+            buffer[offset++] = buffer[bottom];
+            buffer[bottom--] = ch;
+        }
+    }
+
     private void BLZ_Invert(int[] buffer, int offset, int length) {
         int bottom, ch;
 
@@ -39,13 +39,9 @@ public class N3DSTxtHandler {
     private static final int KEY_TEXTCLEAR = 0xBE01;
     private static final int KEY_TEXTWAIT = 0xBE02;
     private static final int KEY_TEXTNULL = 0xBDFF;
-    private static boolean remapChars = false;
-    private static boolean setEmptyText = false;
-    private static int romType;
+    private static final boolean SET_EMPTY_TEXT = false;
 
     public static List<String> readTexts(byte[] ds, boolean remapChars, int romType) {
-        N3DSTxtHandler.remapChars = remapChars;
-        N3DSTxtHandler.romType = romType;
         List<String> strings = new ArrayList<>();
         int numSections, numEntries, totalLength, initialKey, sectionDataOffset, sectionLength;
 
@@ -68,13 +64,14 @@ public class N3DSTxtHandler {
             entryOffsets[i] = readLong(ds, (i * 8) + sectionDataOffset + 4) + sectionDataOffset;
             entryLengths[i] = readShort(ds, (i * 8) + sectionDataOffset + 8);
             byte[] encEntryData = Arrays.copyOfRange(ds, entryOffsets[i], entryOffsets[i] + entryLengths[i]*2);
-            strings.add(getEntryString(cryptEntryData(encEntryData,getEntryKey(i))));
+            strings.add(getEntryString(cryptEntryData(encEntryData,getEntryKey(i)), remapChars, romType));
         }
 
         return strings;
     }
 
-    public static byte[] saveEntry(byte[] originalData, List<String> values, int romType) throws IOException {
+    public static byte[] saveEntry(byte[] originalData, List<String> values, boolean remapChars, int romType)
+            throws IOException {
         int key = KEY_BASE;
 
         ByteArrayOutputStream dataStream = new ByteArrayOutputStream();
@@ -83,10 +80,10 @@ public class N3DSTxtHandler {
         int dataOffset = 4 + values.size() * 8;
         for (int i = 0; i < values.size(); i++) {
             String text = values.get(i).trim();
-            if (text.length() == 0 && setEmptyText) {
+            if (text.length() == 0 && SET_EMPTY_TEXT) {
                 text = String.format("[~ %d]",i);
             }
-            byte[] decEntryData = getEntryData(text,romType);
+            byte[] decEntryData = getEntryData(text,remapChars,romType);
             byte[] encEntryData = cryptEntryData(decEntryData,key);
             offsetsBuf.putInt(dataOffset + dataStream.size());
             offsetsBuf.putShort((short)(encEntryData.length / 2));
@@ -132,7 +129,7 @@ public class N3DSTxtHandler {
         return fullArray;
     }
 
-    private static byte[] getEntryData(String entry, int romType) throws IOException {
+    private static byte[] getEntryData(String entry, boolean remapChars, int romType) throws IOException {
         if (entry == null) {
             return new byte[2];
         }
@@ -141,7 +138,7 @@ public class N3DSTxtHandler {
         int i = 0;
         while (i < entry.length()) {
             int val = entry.charAt(i++);
-            val = tryRemapChar(val);
+            val = tryRemapChar(val, remapChars);
 
             if (val == '[') {
                 int bracket = entry.indexOf("]",i);
@@ -190,7 +187,7 @@ public class N3DSTxtHandler {
         return key;
     }
 
-    private static String getEntryString(byte[] data) {
+    private static String getEntryString(byte[] data, boolean remapChars, int romType) {
         if (data == null) {
             return "";
         }
@@ -206,7 +203,7 @@ public class N3DSTxtHandler {
             switch (val) {
                 case KEY_VARIABLE:
                     RefInt refI = new RefInt(i);
-                    sb.append(getVariableString(data,refI));
+                    sb.append(getVariableString(data,refI,romType));
                     i = refI.val;
                     break;
                 case '\n':
@@ -219,7 +216,7 @@ public class N3DSTxtHandler {
                     sb.append("\\[");
                     break;
                 default:
-                    sb.append((char)tryUnmapChar(val));
+                    sb.append((char)tryUnmapChar(val, remapChars));
             }
         }
         return sb.toString();
@@ -314,7 +311,7 @@ public class N3DSTxtHandler {
         }
     }
 
-    private static String getVariableString(byte[] data, RefInt refI) {
+    private static String getVariableString(byte[] data, RefInt refI, int romType) {
         StringBuilder sb = new StringBuilder();
         int count = readShort(data,refI.val);
         refI.val += 2;
@@ -353,7 +350,7 @@ public class N3DSTxtHandler {
         return sb.toString();
     }
 
-    private static int tryRemapChar(int val) {
+    private static int tryRemapChar(int val, boolean remapChars) {
         if (!remapChars) {
             return val;
         }
@@ -371,7 +368,7 @@ public class N3DSTxtHandler {
         }
     }
 
-    private static int tryUnmapChar(int val) {
+    private static int tryUnmapChar(int val, boolean remapChars) {
         if (!remapChars) {
             return val;
         }
@@ -0,0 +1,137 @@
+package benchmark.com.dabomstew;
+
+import com.dabomstew.pkrandom.Json;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Compares JMH results (as written with "-rf json") to the baseline results, and lists the benchmarks which got
+ * slower or faster by more than a threshold. Exits with status 1 if any got slower, so it can fail a build.
+ * <br><br>
+ * A difference only counts if it is also bigger than the score errors of both results put together,
+ * so noisy benchmarks don't show up as regressions.
+ * <br><br>
+ * Usage: BenchmarkComparison &lt;results.json&gt; &lt;baseline.json&gt; [threshold, default 0.10]
+ */
+public class BenchmarkComparison {
+
+    private static final double DEFAULT_THRESHOLD = 0.10;
+
+    public static class Score {
+        private final String mode;
+        private final double score;
+        private final double error;
+        private final String unit;
+
+        Score(String mode, double score, double error, String unit) {
+            this.mode = mode;
+            this.score = score;
+            this.error = error;
+            this.unit = unit;
+        }
+
+        /**
+         * Returns how much worse this score is than the other, as a fraction; negative if it is better.
+         * For throughput a higher score is better, for all other modes a lower one.
+         */
+        public double worseBy(Score other) {
+            double ratio = score / other.score;
+            return mode.equals("thrpt") ? 1 / ratio - 1 : ratio - 1;
+        }
+
+        public boolean differsBeyondError(Score other) {
+            return Math.abs(score - other.score) > error + other.error;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <results.json> <baseline.json> [threshold]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+        Map<String, Score> results = read(new File(args[0]));
+        Map<String, Score> baseline = read(new File(args[1]));
+
+        int regressions = 0;
+        for (Map.Entry<String, Score> entry : results.entrySet()) {
+            Score result = entry.getValue();
+            Score base = baseline.get(entry.getKey());
+            if (base == null) {
+                System.out.printf("NEW       %-70s %12.3f %s%n", entry.getKey(), result.score, result.unit);
+                continue;
+            }
+            if (!base.unit.equals(result.unit)) {
+                System.out.printf("UNIT      %-70s %s vs. %s in the baseline%n", entry.getKey(), result.unit,
+                        base.unit);
+                continue;
+            }
+            double worseBy = result.worseBy(base);
+            String verdict = "";
+            if (Math.abs(worseBy) > threshold && result.differsBeyondError(base)) {
+                verdict = worseBy > 0 ? "SLOWER" : "FASTER";
+                if (worseBy > 0) {
+                    regressions++;
+                }
+            }
+            System.out.printf("%-9s %-70s %12.3f %s (baseline %.3f, %+.1f%%)%n", verdict, entry.getKey(),
+                    result.score, result.unit, base.score, worseBy * 100);
+        }
+        for (String key : baseline.keySet()) {
+            if (!results.containsKey(key)) {
+                System.out.printf("MISSING   %s%n", key);
+            }
+        }
+
+        System.out.println(regressions + " benchmark(s) slower than the baseline by more than "
+                + Math.round(threshold * 100) + "%");
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    /**
+     * Reads JMH JSON results. Each benchmark is keyed by its name followed by its parameters, e.g.
+     * "benchmark.compressors.CompressorBenchmark.lz10Compress" or
+     * "benchmark.com.dabomstew.pkromio.newnds.NARCArchiveBenchmark.parse fileCount=500".
+     */
+    public static Map<String, Score> read(File file) throws IOException {
+        String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        Object parsed;
+        try {
+            parsed = Json.parse(text.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IOException(file + " is not valid JSON: " + e.getMessage());
+        }
+        if (!(parsed instanceof List)) {
+            throw new IOException(file + " is not a JMH results array");
+        }
+
+        Map<String, Score> scores = new TreeMap<>();
+        for (Object o : (List<?>) parsed) {
+            Map<?, ?> result = (Map<?, ?>) o;
+            StringBuilder key = new StringBuilder(String.valueOf(result.get("benchmark")));
+            Object params = result.get("params");
+            if (params instanceof Map) {
+                for (Map.Entry<?, ?> param : new TreeMap<>((Map<?, ?>) params).entrySet()) {
+                    key.append(' ').append(param.getKey()).append('=').append(param.getValue());
+                }
+            }
+            Map<?, ?> metric = (Map<?, ?>) result.get("primaryMetric");
+            scores.put(key.toString(), new Score(String.valueOf(result.get("mode")), toDouble(metric.get("score")),
+                    toDouble(metric.get("scoreError")), String.valueOf(metric.get("scoreUnit"))));
+        }
+        return scores;
+    }
+
+    private static double toDouble(Object o) {
+        // JMH writes "NaN" for the error of benchmarks with too few iterations
+        if (o instanceof Number) {
+            return ((Number) o).doubleValue();
+        }
+        return o == null || o.equals("NaN") ? 0 : Double.parseDouble(o.toString());
+    }
+
+}
@@ -0,0 +1,582 @@
+package benchmark.com.dabomstew;
+
+import com.dabomstew.pkromio.constants.Gen4Constants;
+import com.dabomstew.pkromio.constants.GlobalConstants;
+import com.dabomstew.pkromio.constants.ItemIDs;
+import com.dabomstew.pkromio.gamedata.*;
+import com.dabomstew.pkromio.graphics.images.GBCImage;
+import com.dabomstew.pkromio.newnds.NARCArchive;
+import com.dabomstew.pkromio.romhandlers.RomHandler;
+import pptxt.PPTxtHandler;
+import thenewpoketext.PokeTextData;
+import thenewpoketext.TextToPoke;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+/**
+ * Synthetic data for the benchmarks, so they can run without any ROMs.<br>
+ * Everything is generated from a fixed seed, so each run of a benchmark works on the same data.
+ */
+public class BenchmarkFixtures {
+
+    public static final long SEED = 0x5EED;
+
+    // the size of the game made by createRomHandler(), which is that of Platinum
+    private static final int GAME_GENERATION = 4;
+    private static final int GAME_SPECIES = 493;
+    private static final int GAME_ABILITIES = 123;
+    private static final int GAME_MOVES = 467;
+    private static final int GAME_TUTORS = 38;
+    private static final int GAME_ITEMS = 536;
+    private static final int GAME_FIELD_ITEMS = 300;
+    private static final int GAME_SHOPS = 30;
+    private static final int GAME_PICKUP_ITEMS = 18;
+    private static final int GAME_TRAINERS = 900;
+    private static final int GAME_ENCOUNTER_AREAS = 180;
+    private static final int GAME_STATICS = 40;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Creates species numbered from 1, with random types and stats, grouped into evolution lines of one to three
+     * stages. Later stages get higher stats, like in the games.
+     */
+    public static List<Species> createSpecies(int count) {
+        return createSpecies(count, 7);
+    }
+
+    /**
+     * Like {@link #createSpecies(int)}, but only using the types of the given generation, and spreading the species
+     * over the generations up to it.
+     */
+    public static List<Species> createSpecies(int count, int generation) {
+        Random random = new Random(SEED);
+        List<Type> types = Type.getAllTypes(generation);
+        List<Species> species = new ArrayList<>(count);
+        Species previous = null;
+        int stagesLeft = 0;
+        for (int i = 1; i <= count; i++) {
+            Species sp = new Species(i);
+            sp.setName("Species" + i);
+            sp.setGeneration(1 + (i - 1) * generation / count);
+            sp.setPrimaryType(types.get(random.nextInt(types.size())));
+            if (random.nextBoolean()) {
+                Type secondary = types.get(random.nextInt(types.size()));
+                if (secondary != sp.getPrimaryType(false)) {
+                    sp.setSecondaryType(secondary);
+                }
+            }
+
+            boolean evolved = previous != null && stagesLeft > 0;
+            int base = evolved ? 45 + 15 * (3 - stagesLeft) : 30;
+            sp.setHp(base + random.nextInt(60));
+            sp.setAttack(base + random.nextInt(60));
+            sp.setDefense(base + random.nextInt(60));
+            sp.setSpatk(base + random.nextInt(60));
+            sp.setSpdef(base + random.nextInt(60));
+            sp.setSpeed(base + random.nextInt(60));
+
+            if (evolved) {
+                Evolution evo = new Evolution(previous, sp, EvolutionType.LEVEL, 16 + random.nextInt(30));
+                previous.getEvolutionsFrom().add(evo);
+                sp.getEvolutionsTo().add(evo);
+                stagesLeft--;
+            } else {
+                stagesLeft = random.nextInt(3);
+            }
+            previous = sp;
+            species.add(sp);
+        }
+        return species;
+    }
+
+    /**
+     * Creates a game the size of Platinum, to make a {@link test.com.dabomstew.pkrandom.randomizers.TestRomHandler}
+     * from: species (from {@link #createSpecies(int, int)}) with abilities, learnsets and TM/HM and tutor
+     * compatibility, moves, items, trainers, wild and static encounters, shops and pickup items.<br>
+     * Only what TestRomHandler copies from the RomHandler it is given can be asked for; anything else throws.
+     */
+    public static RomHandler createRomHandler() {
+        Random random = new Random(SEED);
+        Map<String, Object> answers = new HashMap<>();
+
+        List<Type> types = Type.getAllTypes(GAME_GENERATION);
+        List<Species> species = createSpecies(GAME_SPECIES, GAME_GENERATION);
+        ExpCurve[] curves = ExpCurve.values();
+        for (Species sp : species) {
+            sp.setAbility1(1 + random.nextInt(GAME_ABILITIES));
+            sp.setAbility2(random.nextBoolean() ? 1 + random.nextInt(GAME_ABILITIES) : 0);
+            sp.setGrowthCurve(curves[random.nextInt(curves.length)]);
+            sp.setCatchRate(3 + random.nextInt(253));
+            sp.setExpYield(40 + random.nextInt(200));
+            sp.setGenderRatio(random.nextInt(256));
+        }
+        List<Species> speciesInclFormes = new ArrayList<>(species);
+        speciesInclFormes.add(0, null);
+        answers.put("getSpeciesInclFormes", speciesInclFormes);
+        answers.put("getTypeTable", TypeTable.getVanillaGen2To5Table());
+        List<Species> starters = new ArrayList<>();
+        for (Species sp : species) {
+            if (starters.size() < 3 && sp.getEvolutionsTo().isEmpty() && !sp.getEvolutionsFrom().isEmpty()
+                    && !sp.getEvolutionsFrom().get(0).getTo().getEvolutionsFrom().isEmpty()) {
+                starters.add(sp);
+            }
+        }
+        answers.put("getStarters", starters);
+
+        List<Move> moves = createMoves(random, types);
+        answers.put("getMoves", moves);
+        answers.put("getMovesLearnt", createMovesLearnt(random, species));
+        answers.put("getEggMoves", createEggMoves(random, species));
+        List<Integer> moveNumbers = new ArrayList<>();
+        for (int i = 1; i <= GAME_MOVES; i++) {
+            moveNumbers.add(i);
+        }
+        Collections.shuffle(moveNumbers, random);
+        answers.put("getTMMoves", new ArrayList<>(moveNumbers.subList(0, Gen4Constants.tmCount)));
+        answers.put("getHMMoves", new ArrayList<>(moveNumbers.subList(Gen4Constants.tmCount,
+                Gen4Constants.tmCount + Gen4Constants.hmCount)));
+        answers.put("getMoveTutorMoves", new ArrayList<>(moveNumbers.subList(
+                Gen4Constants.tmCount + Gen4Constants.hmCount,
+                Gen4Constants.tmCount + Gen4Constants.hmCount + GAME_TUTORS)));
+        answers.put("getTMHMCompatibility", createCompatibility(random, species,
+                Gen4Constants.tmCount + Gen4Constants.hmCount));
+        answers.put("getMoveTutorCompatibility", createCompatibility(random, species, GAME_TUTORS));
+
+        List<Item> items = createItems(random);
+        answers.put("getItems", items);
+        answers.put("getEvolutionItems", itemSet(items, Gen4Constants.evolutionItems));
+        answers.put("getXItems", itemSet(items, GlobalConstants.xItems));
+        answers.put("getRegularShopItems", itemSet(items, GlobalConstants.regularShopItems));
+        answers.put("getOPShopItems", itemSet(items, Gen4Constants.opShopItems));
+        answers.put("getMegaStones", Collections.emptySet());
+        answers.put("getRequiredFieldTMs", itemSet(items, Gen4Constants.ptRequiredFieldTMs));
+        answers.put("getFieldItems", createFieldItems(random, items));
+        answers.put("getShops", createShops(random, items));
+        answers.put("getPickupItems", createPickupItems(random, items));
+
+        List<Trainer> trainers = createTrainers(random, species);
+        answers.put("getTrainers", trainers);
+        List<Integer> mainPlaythrough = new ArrayList<>();
+        List<Integer> eliteFour = new ArrayList<>();
+        for (Trainer tr : trainers) {
+            mainPlaythrough.add(tr.index);
+            if (tr.tag != null && (tr.tag.startsWith("ELITE") || tr.tag.equals("CHAMPION"))) {
+                eliteFour.add(tr.index);
+            }
+        }
+        answers.put("getMainPlaythroughTrainers", mainPlaythrough);
+        answers.put("getEliteFourTrainers", eliteFour);
+        answers.put("getGymAndEliteTypeThemes", Gen4Constants.gymAndEliteThemesPt);
+
+        answers.put("getEncounters", createEncounters(random, species));
+        answers.put("getStaticPokemon", createStatics(random, species));
+        answers.put("getMainGameLegendaries", Collections.emptyList());
+
+        answers.put("getBannedForWildEncounters", new SpeciesSet());
+        answers.put("getBannedForStaticPokemon", new SpeciesSet());
+        answers.put("getBannedFormesForTrainerPokemon", new SpeciesSet());
+        answers.put("getIrregularFormes", new SpeciesSet());
+
+        answers.put("generationOfPokemon", GAME_GENERATION);
+        answers.put("getROMType", Gen4Constants.Type_Plat);
+        answers.put("abilitiesPerSpecies", 2);
+        answers.put("miscTweaksAvailable", 0);
+        answers.put("getPerfectAccuracy", 101);
+        for (String name : new String[]{"hasMoveTutors", "canChangeStaticPokemon", "canTMsBeHeld",
+                "hasTypeEffectivenessSupport", "canAddPokemonToBossTrainers", "canAddPokemonToImportantTrainers",
+                "canAddPokemonToRegularTrainers"}) {
+            answers.put(name, true);
+        }
+        for (String name : new String[]{"altFormesCanHaveDifferentEvolutions", "hasTimeBasedEncounters",
+                "hasWildAltFormes", "hasStaticAltFormes", "forceSwapStaticMegaEvos", "hasMainGameLegendaries",
+                "isTMsReusable", "hasStarterAltFormes", "isYellow", "isORAS", "isUSUM",
+                "isTrainerPokemonAlwaysUseAbility1", "isTrainerPokemonUseBaseFormeAbilities"}) {
+            answers.put(name, false);
+        }
+
+        return (RomHandler) Proxy.newProxyInstance(RomHandler.class.getClassLoader(),
+                new Class<?>[]{RomHandler.class}, (proxy, method, args) -> {
+                    if (!answers.containsKey(method.getName())) {
+                        throw new UnsupportedOperationException(method.getName()
+                                + " is not part of the synthetic game");
+                    }
+                    return answers.get(method.getName());
+                });
+    }
+
+    private static List<Move> createMoves(Random random, List<Type> types) {
+        List<Move> moves = new ArrayList<>(GAME_MOVES + 1);
+        moves.add(null);
+        MoveCategory[] damaging = {MoveCategory.PHYSICAL, MoveCategory.SPECIAL};
+        for (int i = 1; i <= GAME_MOVES; i++) {
+            Move move = new Move();
+            move.name = "Move" + i;
+            move.number = i;
+            move.internalId = i;
+            move.type = types.get(random.nextInt(types.size()));
+            if (random.nextInt(4) == 0) {
+                move.category = MoveCategory.STATUS;
+            } else {
+                move.category = damaging[random.nextInt(2)];
+                move.power = 20 + 5 * random.nextInt(27);
+            }
+            move.pp = 5 + 5 * random.nextInt(8);
+            move.hitratio = random.nextInt(4) == 0 ? 70 + 5 * random.nextInt(6) : 100;
+            moves.add(move);
+        }
+        return moves;
+    }
+
+    /**
+     * Each species learns one or two moves at level 1, and 6 to 15 more up to level 70.
+     */
+    private static Map<Integer, List<MoveLearnt>> createMovesLearnt(Random random, List<Species> species) {
+        Map<Integer, List<MoveLearnt>> movesLearnt = new HashMap<>();
+        for (Species sp : species) {
+            List<MoveLearnt> learnt = new ArrayList<>();
+            int starting = 1 + random.nextInt(2);
+            for (int i = 0; i < starting; i++) {
+                learnt.add(new MoveLearnt(1 + random.nextInt(GAME_MOVES), 1));
+            }
+            int count = 6 + random.nextInt(10);
+            for (int i = 0; i < count; i++) {
+                learnt.add(new MoveLearnt(1 + random.nextInt(GAME_MOVES), 2 + i * 68 / count + random.nextInt(4)));
+            }
+            movesLearnt.put(sp.getNumber(), learnt);
+        }
+        return movesLearnt;
+    }
+
+    /**
+     * Species which don't evolve from anything get 4 to 10 egg moves.
+     */
+    private static Map<Integer, List<Integer>> createEggMoves(Random random, List<Species> species) {
+        Map<Integer, List<Integer>> eggMoves = new HashMap<>();
+        for (Species sp : species) {
+            if (sp.getEvolutionsTo().isEmpty()) {
+                List<Integer> moves = new ArrayList<>();
+                int count = 4 + random.nextInt(7);
+                for (int i = 0; i < count; i++) {
+                    moves.add(1 + random.nextInt(GAME_MOVES));
+                }
+                eggMoves.put(sp.getNumber(), moves);
+            }
+        }
+        return eggMoves;
+    }
+
+    /**
+     * Each species is compatible with about 40% of the moves; index 0 is unused, like in the games.
+     */
+    private static Map<Species, boolean[]> createCompatibility(Random random, List<Species> species, int count) {
+        Map<Species, boolean[]> compatibility = new HashMap<>();
+        for (Species sp : species) {
+            boolean[] flags = new boolean[count + 1];
+            for (int i = 1; i <= count; i++) {
+                flags[i] = random.nextInt(5) < 2;
+            }
+            compatibility.put(sp, flags);
+        }
+        return compatibility;
+    }
+
+    /**
+     * Creates the items, by id, with the TMs and HMs where they are in Gen 4; index 0 is null.
+     */
+    private static List<Item> createItems(Random random) {
+        List<Item> items = new ArrayList<>(GAME_ITEMS + 1);
+        items.add(null);
+        for (int id = 1; id <= GAME_ITEMS; id++) {
+            Item item = new Item(id, "Item" + id);
+            item.setTM(id >= ItemIDs.tm01 && id <= ItemIDs.hm08);
+            item.setAllowed(id < ItemIDs.hm01 || id > ItemIDs.hm08);
+            item.setBad(random.nextInt(10) == 0);
+            items.add(item);
+        }
+        return items;
+    }
+
+    private static Set<Item> itemSet(List<Item> items, Collection<Integer> ids) {
+        Set<Item> set = new HashSet<>();
+        for (int id : ids) {
+            if (id < items.size() && items.get(id) != null) {
+                set.add(items.get(id));
+            }
+        }
+        return set;
+    }
+
+    /**
+     * Creates field items, a fifth of them TMs.
+     */
+    private static List<Item> createFieldItems(Random random, List<Item> items) {
+        List<Item> fieldItems = new ArrayList<>();
+        for (int i = 0; i < GAME_FIELD_ITEMS; i++) {
+            if (random.nextInt(5) == 0) {
+                fieldItems.add(items.get(ItemIDs.tm01 + random.nextInt(Gen4Constants.tmCount)));
+            } else {
+                fieldItems.add(items.get(1 + random.nextInt(ItemIDs.tm01 - 1)));
+            }
+        }
+        return fieldItems;
+    }
+
+    private static List<Shop> createShops(Random random, List<Item> items) {
+        List<Shop> shops = new ArrayList<>();
+        for (int i = 0; i < GAME_SHOPS; i++) {
+            Shop shop = new Shop();
+            shop.setName("Shop" + i);
+            shop.setMainGame(true);
+            shop.setSpecialShop(i % 3 == 0);
+            List<Item> shopItems = new ArrayList<>();
+            int count = 4 + random.nextInt(12);
+            for (int j = 0; j < count; j++) {
+                shopItems.add(items.get(1 + random.nextInt(ItemIDs.tm01 - 1)));
+            }
+            shop.setItems(shopItems);
+            shops.add(shop);
+        }
+        return shops;
+    }
+
+    private static List<PickupItem> createPickupItems(Random random, List<Item> items) {
+        List<PickupItem> pickupItems = new ArrayList<>();
+        for (int i = 0; i < GAME_PICKUP_ITEMS; i++) {
+            PickupItem pickupItem = new PickupItem(items.get(1 + random.nextInt(ItemIDs.tm01 - 1)));
+            for (int slot = 0; slot < PickupItem.PROBABILITY_SLOTS; slot++) {
+                pickupItem.getProbabilities()[slot] = random.nextInt(31);
+            }
+            pickupItems.add(pickupItem);
+        }
+        return pickupItems;
+    }
+
+    /**
+     * Creates trainers with one to six Pokemon, getting stronger through the game. The first ones are the gym
+     * leaders and their gym trainers, then the Elite Four and Champion.
+     */
+    private static List<Trainer> createTrainers(Random random, List<Species> species) {
+        List<Trainer> trainers = new ArrayList<>();
+        for (int i = 1; i <= GAME_TRAINERS; i++) {
+            Trainer tr = new Trainer();
+            tr.index = i;
+            tr.name = "Trainer" + i;
+            tr.trainerclass = 1 + random.nextInt(100);
+            int level;
+            if (i <= 8 * 4) {
+                int gym = 1 + (i - 1) / 4;
+                tr.tag = "GYM" + gym + ((i - 1) % 4 == 3 ? "-LEADER" : "");
+                level = 8 + gym * 7;
+            } else if (i <= 8 * 4 + 5) {
+                int elite = i - 8 * 4;
+                tr.tag = elite == 5 ? "CHAMPION" : "ELITE" + elite;
+                level = 60 + elite * 2;
+            } else {
+                level = 3 + (i * 60 / GAME_TRAINERS);
+            }
+            int count = tr.tag != null ? 3 + random.nextInt(4) : 1 + random.nextInt(6);
+            for (int j = 0; j < count; j++) {
+                TrainerPokemon tp = new TrainerPokemon();
+                tp.setSpecies(species.get(random.nextInt(species.size())));
+                tp.setLevel(Math.max(2, level - 3 + random.nextInt(7)));
+                tp.setAbilitySlot(1);
+                tr.pokemon.add(tp);
+            }
+            trainers.add(tr);
+        }
+        return trainers;
+    }
+
+    /**
+     * Creates areas of 12 walking, or 5 surfing or fishing, encounters, at levels rising through the game.
+     */
+    private static List<EncounterArea> createEncounters(Random random, List<Species> species) {
+        List<EncounterArea> areas = new ArrayList<>();
+        EncounterType[] kinds = {EncounterType.WALKING, EncounterType.SURFING, EncounterType.FISHING};
+        for (int i = 0; i < GAME_ENCOUNTER_AREAS; i++) {
+            EncounterArea area = new EncounterArea();
+            EncounterType kind = kinds[i % 3];
+            area.setIdentifiers("Area" + i, i / 3, kind, "Location" + i / 3);
+            area.setRate(kind == EncounterType.WALKING ? 10 : 30);
+            int level = 2 + i * 55 / GAME_ENCOUNTER_AREAS;
+            int count = kind == EncounterType.WALKING ? 12 : 5;
+            for (int j = 0; j < count; j++) {
+                Encounter enc = new Encounter();
+                enc.setSpecies(species.get(random.nextInt(species.size())));
+                enc.setLevel(level + random.nextInt(3));
+                enc.setMaxLevel(kind == EncounterType.WALKING ? 0 : enc.getLevel() + 5);
+                area.add(enc);
+            }
+            areas.add(area);
+        }
+        return areas;
+    }
+
+    private static List<StaticEncounter> createStatics(Random random, List<Species> species) {
+        List<StaticEncounter> statics = new ArrayList<>();
+        for (int i = 0; i < GAME_STATICS; i++) {
+            StaticEncounter se = new StaticEncounter(species.get(random.nextInt(species.size())));
+            se.setLevel(5 + random.nextInt(66));
+            statics.add(se);
+        }
+        return statics;
+    }
+
+    /**
+     * Creates files of random sizes up to maxSize, which compress somewhat like real game data;
+     * runs of repeated bytes and repeated short sequences, mixed with noise.
+     */
+    public static byte[][] createFiles(int count, int maxSize) {
+        Random random = new Random(SEED);
+        byte[][] files = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            files[i] = createCompressibleData(random, 1 + random.nextInt(maxSize));
+        }
+        return files;
+    }
+
+    public static byte[] createCompressibleData(int size) {
+        return createCompressibleData(new Random(SEED), size);
+    }
+
+    private static byte[] createCompressibleData(Random random, int size) {
+        byte[] data = new byte[size];
+        int i = 0;
+        while (i < size) {
+            int runLength = Math.min(size - i, 1 + random.nextInt(24));
+            int kind = random.nextInt(3);
+            if (kind == 1 && i == 0) {
+                kind = 2; // nothing to copy yet
+            }
+            switch (kind) {
+                case 0: // run of a single byte
+                    byte b = (byte) random.nextInt(4);
+                    for (int j = 0; j < runLength; j++) {
+                        data[i++] = b;
+                    }
+                    break;
+                case 1: // copy of earlier data
+                    int from = random.nextInt(i);
+                    for (int j = 0; j < runLength; j++) {
+                        data[i++] = data[from + j];
+                    }
+                    break;
+                default: // noise
+                    for (int j = 0; j < runLength; j++) {
+                        data[i++] = (byte) random.nextInt(256);
+                    }
+                    break;
+            }
+        }
+        return data;
+    }
+
+    public static byte[] createNARC(byte[][] files) throws IOException {
+        NARCArchive narc = new NARCArchive();
+        for (byte[] file : files) {
+            narc.files.add(file);
+        }
+        return narc.getBytes();
+    }
+
+    /**
+     * Creates a 2bpp image of the given size in tiles, with shapes to compress like a Pokemon sprite.
+     */
+    public static GBCImage createGBCImage(int widthInTiles, int heightInTiles) {
+        GBCImage image = new GBCImage.Builder(widthInTiles, heightInTiles, GBCImage.DEFAULT_PALETTE).build();
+        int width = image.getWidth();
+        int height = image.getHeight();
+        Random random = new Random(SEED);
+        int cx = width / 2;
+        int cy = height / 2;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int dx = x - cx;
+                int dy = y - cy;
+                int distance = dx * dx + dy * dy;
+                int color = distance > cx * cy ? 0 : distance > cx * cy / 2 ? 1 + random.nextInt(2) : 3;
+                image.setColor(x, y, color);
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Creates lines of text like the games', with words, punctuation and line breaks.
+     *
+     * @param lineBreak How a line break is written in the texts of the generation, e.g. "\\n" in Gen 4.
+     */
+    public static List<String> createTexts(int count, String lineBreak) {
+        Random random = new Random(SEED);
+        String[] words = {"POKéMON", "trainer", "the", "battle", "you", "a", "wild", "appeared", "used", "Go",
+                "It", "super", "effective", "fainted", "Professor", "route", "gym", "badge", "item", "got"};
+        List<String> texts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder sb = new StringBuilder();
+            int wordCount = 2 + random.nextInt(20);
+            for (int j = 0; j < wordCount; j++) {
+                if (j != 0) {
+                    sb.append(j % 6 == 0 ? lineBreak : " ");
+                }
+                sb.append(words[random.nextInt(words.length)]);
+            }
+            sb.append(random.nextBoolean() ? "!" : ".");
+            texts.add(sb.toString());
+        }
+        return texts;
+    }
+
+    /**
+     * Encodes texts as an encrypted Gen 4 text file, the way the Gen 4 ROM handler does.
+     */
+    public static byte[] createGen4TextFile(List<String> texts) {
+        PokeTextData encrypt = new PokeTextData(TextToPoke.MakeFile(texts, false));
+        encrypt.SetKey(0xD00E);
+        encrypt.encrypt();
+        return encrypt.get();
+    }
+
+    /**
+     * Encodes texts as a Gen 5 text file, with a single language section.
+     */
+    public static byte[] createGen5TextFile(List<String> texts) {
+        return PPTxtHandler.saveEntry(createBlankGen5TextFile(texts.size()), new ArrayList<>(texts));
+    }
+
+    /**
+     * Creates a Gen 5 text file with the given number of entries, each only holding the end-of-text character.
+     * Its "encrypted" characters are all 0, so each entry's key is 0xFFFF.
+     */
+    private static byte[] createBlankGen5TextFile(int entryCount) {
+        int sectionOffset = 0x10;
+        int sectionSize = 4 + 8 * entryCount + 2 * entryCount;
+        sectionSize += sectionSize % 4;
+        byte[] data = new byte[sectionOffset + sectionSize];
+        writeWord(data, 0, 1);
+        writeWord(data, 2, entryCount);
+        writeLong(data, 4, sectionSize);
+        writeLong(data, 12, sectionOffset);
+        writeLong(data, sectionOffset, sectionSize);
+        for (int i = 0; i < entryCount; i++) {
+            int entry = sectionOffset + 4 + 8 * i;
+            writeLong(data, entry, 4 + 8 * entryCount + 2 * i);
+            writeWord(data, entry + 4, 1);
+        }
+        return data;
+    }
+
+    private static void writeWord(byte[] data, int offset, int value) {
+        data[offset] = (byte) value;
+        data[offset + 1] = (byte) (value >> 8);
+    }
+
+    private static void writeLong(byte[] data, int offset, int value) {
+        writeWord(data, offset, value);
+        writeWord(data, offset + 2, value >> 16);
+    }
+
+}
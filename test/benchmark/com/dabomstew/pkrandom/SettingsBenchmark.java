@@ -0,0 +1,71 @@
+package benchmark.com.dabomstew.pkrandom;
+
+import com.dabomstew.pkrandom.Settings;
+import com.dabomstew.pkromio.gamedata.ExpCurve;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.UnsupportedEncodingException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing and reading settings strings, as done for each preset/log and by the batch and service modes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SettingsBenchmark {
+
+    private Settings settings;
+    private String settingsString;
+
+    @Setup
+    public void setUp() {
+        settings = createSettings();
+        settingsString = settings.toString();
+    }
+
+    /**
+     * Settings with most of the common options chosen, so most fields are non-default.
+     */
+    public static Settings createSettings() {
+        Settings settings = new Settings();
+        settings.setRomName("Benchmark");
+        settings.setSelectedEXPCurve(ExpCurve.MEDIUM_FAST);
+        settings.setBaseStatisticsMod(Settings.BaseStatisticsMod.RANDOM);
+        settings.setSpeciesTypesMod(Settings.SpeciesTypesMod.RANDOM_FOLLOW_EVOLUTIONS);
+        settings.setAbilitiesMod(Settings.AbilitiesMod.RANDOMIZE);
+        settings.setEvolutionsMod(Settings.EvolutionsMod.RANDOM);
+        settings.setStartersMod(Settings.StartersMod.RANDOM_WITH_TWO_EVOLUTIONS);
+        settings.setMovesetsMod(Settings.MovesetsMod.RANDOM_PREFER_SAME_TYPE);
+        settings.setTrainersMod(Settings.TrainersMod.RANDOM);
+        settings.setBetterTrainerMovesets(true);
+        settings.setRandomizeWildPokemon(true);
+        settings.setWildPokemonZoneMod(Settings.WildPokemonZoneMod.ENCOUNTER_SET);
+        settings.setSimilarStrengthEncounters(true);
+        settings.setStaticPokemonMod(Settings.StaticPokemonMod.RANDOM_MATCHING);
+        settings.setTmsMod(Settings.TMsMod.RANDOM);
+        settings.setTmsHmsCompatibilityMod(Settings.TMsHMsCompatibilityMod.RANDOM_PREFER_TYPE);
+        settings.setMoveTutorMovesMod(Settings.MoveTutorMovesMod.RANDOM);
+        settings.setMoveTutorsCompatibilityMod(Settings.MoveTutorsCompatibilityMod.RANDOM_PREFER_TYPE);
+        settings.setInGameTradesMod(Settings.InGameTradesMod.RANDOMIZE_GIVEN_AND_REQUESTED);
+        settings.setFieldItemsMod(Settings.FieldItemsMod.RANDOM_EVEN);
+        settings.setShopItemsMod(Settings.ShopItemsMod.RANDOM);
+        settings.setPickupItemsMod(Settings.PickupItemsMod.RANDOM);
+        settings.setTypeEffectivenessMod(Settings.TypeEffectivenessMod.RANDOM_BALANCED);
+        return settings;
+    }
+
+    @Benchmark
+    public String settingsToString() {
+        return settings.toString();
+    }
+
+    @Benchmark
+    public Settings settingsFromString() throws UnsupportedEncodingException {
+        return Settings.fromString(settingsString);
+    }
+
+}
@@ -0,0 +1,135 @@
+package benchmark.com.dabomstew.pkrandom.randomizers;
+
+import benchmark.com.dabomstew.BenchmarkFixtures;
+import benchmark.com.dabomstew.pkrandom.SettingsBenchmark;
+import com.dabomstew.pkrandom.Settings;
+import com.dabomstew.pkrandom.randomizers.*;
+import org.openjdk.jmh.annotations.*;
+import test.com.dabomstew.pkrandom.randomizers.TestRomHandler;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The main entry point of each {@link Randomizer} which works on a {@link TestRomHandler}, made from the synthetic
+ * game of {@link BenchmarkFixtures#createRomHandler()}.
+ * <br><br>
+ * Each invocation works on fresh copies of the game data, so every randomization starts from the
+ * same unrandomized game, with the same seed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class RandomizerBenchmark {
+
+    private TestRomHandler romHandler;
+    private Settings settings;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void createGame() {
+        romHandler = new TestRomHandler(BenchmarkFixtures.createRomHandler());
+        settings = SettingsBenchmark.createSettings();
+        // TestRomHandler only gives out the encounters split by time of day
+        settings.setUseTimeBasedEncounters(true);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepare() {
+        romHandler.prepare();
+        random = new Random(BenchmarkFixtures.SEED);
+    }
+
+    @TearDown(Level.Invocation)
+    public void reset() {
+        romHandler.reset();
+    }
+
+    @Benchmark
+    public boolean speciesBaseStats() {
+        SpeciesBaseStatRandomizer randomizer = new SpeciesBaseStatRandomizer(romHandler, settings, random);
+        randomizer.randomizeSpeciesStats();
+        return randomizer.isChangesMade();
+    }
+
+    @Benchmark
+    public boolean speciesTypes() {
+        SpeciesTypeRandomizer randomizer = new SpeciesTypeRandomizer(romHandler, settings, random);
+        randomizer.randomizeSpeciesTypes();
+        return randomizer.isChangesMade();
+    }
+
+    @Benchmark
+    public boolean evolutions() {
+        EvolutionRandomizer randomizer = new EvolutionRandomizer(romHandler, settings, random);
+        randomizer.randomizeEvolutions();
+        return randomizer.isChangesMade();
+    }
+
+    @Benchmark
+    public boolean starters() {
+        StarterRandomizer randomizer = new StarterRandomizer(romHandler, settings, random);
+        randomizer.randomizeStarters();
+        return randomizer.isChangesMade();
+    }
+
+    @Benchmark
+    public boolean staticPokemon() {
+        StaticPokemonRandomizer randomizer = new StaticPokemonRandomizer(romHandler, settings, random);
+        randomizer.randomizeStaticPokemon();
+        return randomizer.isChangesMade();
+    }
+
+    @Benchmark
+    public boolean trainerPokemon() {
+        TrainerPokemonRandomizer randomizer = new TrainerPokemonRandomizer(romHandler, settings, random);
+        randomizer.randomizeTrainerPokes();
+        return randomizer.isChangesMade();
+    }
+
+    @Benchmark
+    public boolean trainerMovesets() {
+        TrainerMovesetRandomizer randomizer = new TrainerMovesetRandomizer(romHandler, settings, random);
+        randomizer.randomizeTrainerMovesets();
+        return randomizer.isChangesMade();
+    }
+
+    @Benchmark
+    public boolean wildEncounters() {
+        WildEncounterRandomizer randomizer = new WildEncounterRandomizer(romHandler, settings, random);
+        randomizer.randomizeEncounters();
+        return randomizer.isChangesMade();
+    }
+
+    @Benchmark
+    public boolean fieldItems() {
+        ItemRandomizer randomizer = new ItemRandomizer(romHandler, settings, random);
+        randomizer.randomizeFieldItems();
+        return randomizer.isChangesMade();
+    }
+
+    @Benchmark
+    public boolean shopItems() {
+        ItemRandomizer randomizer = new ItemRandomizer(romHandler, settings, random);
+        randomizer.randomizeShopItems();
+        return randomizer.isChangesMade();
+    }
+
+    @Benchmark
+    public boolean pickupItems() {
+        ItemRandomizer randomizer = new ItemRandomizer(romHandler, settings, random);
+        randomizer.randomizePickupItems();
+        return randomizer.isChangesMade();
+    }
+
+    @Benchmark
+    public boolean typeEffectiveness() {
+        TypeEffectivenessRandomizer randomizer = new TypeEffectivenessRandomizer(romHandler, settings, random);
+        randomizer.randomizeTypeEffectiveness(true);
+        return randomizer.isChangesMade();
+    }
+
+}
@@ -0,0 +1,65 @@
+package benchmark.com.dabomstew.pkromio.ctr;
+
+import benchmark.com.dabomstew.BenchmarkFixtures;
+import com.dabomstew.pkromio.ctr.GARCArchive;
+import org.openjdk.jmh.annotations.*;
+import test.com.dabomstew.pkromio.ctr.GARCArchiveTest;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing GARCs, sized like the larger ones of the Gen 6/7 games.
+ * Sub-files are read lazily, so writing is measured both with none and with every sub-file gotten.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GARCArchiveBenchmark {
+
+    @Param({"500", "5000"})
+    public int fileCount;
+
+    private byte[] data;
+    private GARCArchive untouched;
+    private GARCArchive touched;
+
+    @Setup
+    public void setUp() throws IOException {
+        data = GARCArchiveTest.buildGARC(BenchmarkFixtures.createFiles(fileCount, 2048));
+        untouched = new GARCArchive(data, true);
+        touched = new GARCArchive(data, true);
+        for (int i = 0; i < fileCount; i++) {
+            touched.getFile(i);
+        }
+    }
+
+    @Benchmark
+    public GARCArchive parse() throws IOException {
+        return new GARCArchive(data, true);
+    }
+
+    @Benchmark
+    public byte[] parseAndGetAllFiles() throws IOException {
+        GARCArchive garc = new GARCArchive(data, true);
+        byte[] last = null;
+        for (int i = 0; i < fileCount; i++) {
+            last = garc.getFile(i);
+        }
+        return last;
+    }
+
+    @Benchmark
+    public byte[] getBytesUntouched() throws IOException {
+        return untouched.getBytes();
+    }
+
+    @Benchmark
+    public byte[] getBytesTouched() throws IOException {
+        return touched.getBytes();
+    }
+
+}
@@ -0,0 +1,114 @@
+package benchmark.com.dabomstew.pkromio.gamedata;
+
+import benchmark.com.dabomstew.BenchmarkFixtures;
+import com.dabomstew.pkromio.gamedata.Species;
+import com.dabomstew.pkromio.gamedata.SpeciesSet;
+import com.dabomstew.pkromio.gamedata.Type;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link SpeciesSet} filters the randomizers build their pools with, and picking from those pools.
+ * The species count covers a Gen 3-sized and a Gen 7-sized game (with formes).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpeciesSetBenchmark {
+
+    @Param({"400", "1200"})
+    public int speciesCount;
+
+    private List<Species> speciesList;
+    private SpeciesSet speciesSet;
+    private Random random;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        speciesList = BenchmarkFixtures.createSpecies(speciesCount);
+        speciesSet = SpeciesSet.unmodifiable(speciesList);
+        random = new Random(BenchmarkFixtures.SEED);
+    }
+
+    private Species nextSpecies() {
+        next = (next + 1) % speciesList.size();
+        return speciesList.get(next);
+    }
+
+    @Benchmark
+    public SpeciesSet copy() {
+        return new SpeciesSet(speciesSet);
+    }
+
+    @Benchmark
+    public SpeciesSet filterByType() {
+        return speciesSet.filterByType(Type.WATER, false);
+    }
+
+    @Benchmark
+    public Map<Type, SpeciesSet> sortByType() {
+        return speciesSet.sortByType(false);
+    }
+
+    @Benchmark
+    public SpeciesSet filterBasic() {
+        return speciesSet.filterBasic(false);
+    }
+
+    @Benchmark
+    public SpeciesSet filterFinalEvos() {
+        return speciesSet.filterFinalEvos(false);
+    }
+
+    @Benchmark
+    public SpeciesSet filterHasEvoStages() {
+        return speciesSet.filterHasEvoStages(1, 1, false);
+    }
+
+    @Benchmark
+    public SpeciesSet buildFullFamilies() {
+        return speciesSet.filter(sp -> sp.getNumber() % 10 == 0).buildFullFamilies(false);
+    }
+
+    @Benchmark
+    public SpeciesSet filterPredicate() {
+        return speciesSet.filter(sp -> sp.getBSTForPowerLevels() > 400);
+    }
+
+    @Benchmark
+    public Species getRandomSpecies() {
+        return speciesSet.getRandomSpecies(random);
+    }
+
+    /**
+     * Picks from an unchanging pool, like the wild encounter and trainer randomizers do.
+     */
+    @Benchmark
+    public Species getRandomSimilarStrengthSpecies() {
+        return speciesSet.getRandomSimilarStrengthSpecies(nextSpecies(), random);
+    }
+
+    @Benchmark
+    public Species getRandomSimilarStrengthSpeciesNotSame() {
+        return speciesSet.getRandomSimilarStrengthSpecies(nextSpecies(), true, random);
+    }
+
+    /**
+     * Picks from a pool which changes before each pick, like when the picked species are removed from it.
+     */
+    @Benchmark
+    public Species getRandomSimilarStrengthSpeciesChangingPool() {
+        SpeciesSet pool = new SpeciesSet(speciesSet);
+        pool.remove(nextSpecies());
+        return pool.getRandomSimilarStrengthSpecies(nextSpecies(), random);
+    }
+
+}
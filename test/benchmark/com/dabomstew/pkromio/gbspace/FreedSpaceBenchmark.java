@@ -0,0 +1,170 @@
+package benchmark.com.dabomstew.pkromio.gbspace;
+
+import benchmark.com.dabomstew.BenchmarkFixtures;
+import com.dabomstew.pkromio.gbspace.FreedSpace;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a trace of frees and allocations like that of saving a GB/GBA game; the original data of e.g. the
+ * trainers and movesets is freed, and new data is repointed into the freed space, freeing it again when
+ * it is repointed once more.
+ * <br><br>
+ * With "-p trace=&lt;file&gt;", a trace recorded from a real randomization by {@link FreedSpaceTraceRecorder} is
+ * replayed. Frees of data which the trace had allocated are replayed as frees of wherever that allocation ended
+ * up in the replay, so traces can be replayed with any {@link FreedSpace.Policy}. No recorded trace is checked in,
+ * since recording one needs a ROM; without one, a synthetic trace with the same kinds of operations is replayed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FreedSpaceBenchmark {
+
+    private static final String SYNTHETIC = "synthetic";
+
+    private static final int ORIGINAL_BLOCKS = 2000;
+    private static final int ALLOCATIONS = 6000;
+
+    private static final int FREE_ORIGINAL = 0;
+    private static final int ALLOCATE = 1;
+    private static final int FREE_ALLOCATED = 2;
+
+    @Param({"FIRST_FIT", "BEST_FIT"})
+    public FreedSpace.Policy policy;
+
+    @Param({SYNTHETIC})
+    public String trace;
+
+    // each op is {type, a, b, c}; FREE_ORIGINAL frees length b at a, ALLOCATE allocates length a (which was
+    // found at b when recorded), and FREE_ALLOCATED frees length b at c bytes into what op a allocated
+    private int[][] ops;
+
+    @Setup
+    public void setUp() throws IOException {
+        if (trace.equals(SYNTHETIC)) {
+            ops = createSyntheticTrace();
+        } else {
+            ops = readTrace(trace);
+            if (policy == FreedSpace.Policy.FIRST_FIT) {
+                checkReplayMatchesTrace();
+            }
+        }
+    }
+
+    private static int[][] createSyntheticTrace() {
+        Random random = new Random(BenchmarkFixtures.SEED);
+        List<int[]> ops = new ArrayList<>();
+        int offset = 0x100000;
+        for (int i = 0; i < ORIGINAL_BLOCKS; i++) {
+            int length = 8 + random.nextInt(248);
+            ops.add(new int[]{FREE_ORIGINAL, offset, length, 0});
+            offset += length + 1 + random.nextInt(64);
+        }
+        List<Integer> live = new ArrayList<>();
+        for (int i = 0; i < ALLOCATIONS; i++) {
+            if (!live.isEmpty() && random.nextInt(3) == 0) {
+                int op = live.remove(random.nextInt(live.size()));
+                ops.add(new int[]{FREE_ALLOCATED, op, ops.get(op)[1], 0});
+            }
+            live.add(ops.size());
+            ops.add(new int[]{ALLOCATE, 8 + random.nextInt(248), -1, 0});
+        }
+        return ops.toArray(new int[0][]);
+    }
+
+    /**
+     * Reads a trace in the format of {@link FreedSpace#setTrace(java.io.PrintStream)}, working out which frees
+     * are of space an earlier find returned.
+     */
+    private static int[][] readTrace(String fileName) throws IOException {
+        List<int[]> ops = new ArrayList<>();
+        // recorded offset -> {op, length} of the allocations which are still (at least partly) in use
+        TreeMap<Integer, int[]> allocations = new TreeMap<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.trim().split(" ");
+                if (parts[0].equals("free")) {
+                    int start = Integer.parseInt(parts[1]);
+                    int length = Integer.parseInt(parts[2]);
+                    Map.Entry<Integer, int[]> allocation = allocations.floorEntry(start);
+                    if (allocation != null && start < allocation.getKey() + allocation.getValue()[1]) {
+                        int offsetInto = start - allocation.getKey();
+                        ops.add(new int[]{FREE_ALLOCATED, allocation.getValue()[0], length, offsetInto});
+                        if (offsetInto == 0 && length == allocation.getValue()[1]) {
+                            allocations.remove(allocation.getKey());
+                        }
+                    } else {
+                        ops.add(new int[]{FREE_ORIGINAL, start, length, 0});
+                    }
+                } else if (parts[0].equals("find")) {
+                    int length = Integer.parseInt(parts[1]);
+                    int found = Integer.parseInt(parts[2]);
+                    if (found != -1) {
+                        // whatever was allocated there before has been freed since
+                        Map.Entry<Integer, int[]> before = allocations.lowerEntry(found);
+                        if (before != null && found < before.getKey() + before.getValue()[1]) {
+                            allocations.remove(before.getKey());
+                        }
+                        allocations.subMap(found, found + length).clear();
+                        allocations.put(found, new int[]{ops.size(), length});
+                    }
+                    ops.add(new int[]{ALLOCATE, length, found, 0});
+                } else if (!parts[0].isEmpty()) {
+                    throw new IOException("Unknown trace line: " + line);
+                }
+            }
+        }
+        return ops.toArray(new int[0][]);
+    }
+
+    /**
+     * The trace was recorded with first fit, so replaying it with first fit must find the same offsets.
+     */
+    private void checkReplayMatchesTrace() {
+        int[] allocated = replay(new FreedSpace(FreedSpace.Policy.FIRST_FIT));
+        for (int i = 0; i < ops.length; i++) {
+            if (ops[i][0] == ALLOCATE && allocated[i] != ops[i][2]) {
+                throw new IllegalStateException("Replaying op " + i + " of the trace found " + allocated[i]
+                        + " instead of " + ops[i][2] + "; was it recorded with a first-fit FreedSpace?");
+            }
+        }
+    }
+
+    @Benchmark
+    public FreedSpace replay() {
+        FreedSpace freedSpace = new FreedSpace(policy);
+        replay(freedSpace);
+        return freedSpace;
+    }
+
+    private int[] replay(FreedSpace freedSpace) {
+        int[] allocated = new int[ops.length];
+        for (int i = 0; i < ops.length; i++) {
+            int[] op = ops[i];
+            switch (op[0]) {
+                case FREE_ORIGINAL:
+                    freedSpace.free(op[1], op[2]);
+                    break;
+                case ALLOCATE:
+                    allocated[i] = freedSpace.findAndUnfree(op[1]);
+                    break;
+                case FREE_ALLOCATED:
+                    if (allocated[op[1]] != -1) {
+                        freedSpace.free(allocated[op[1]] + op[3], op[2]);
+                    }
+                    break;
+            }
+        }
+        return allocated;
+    }
+
+}
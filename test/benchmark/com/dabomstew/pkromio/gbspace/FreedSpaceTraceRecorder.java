@@ -0,0 +1,54 @@
+package benchmark.com.dabomstew.pkromio.gbspace;
+
+import benchmark.com.dabomstew.BenchmarkFixtures;
+import com.dabomstew.pkrandom.GameRandomizer;
+import com.dabomstew.pkrandom.Settings;
+import com.dabomstew.pkrandom.customnames.CustomNamesSet;
+import com.dabomstew.pkrandom.log.LogFile;
+import com.dabomstew.pkromio.romhandlers.Gen3RomHandler;
+import com.dabomstew.pkromio.romhandlers.RomHandler;
+import com.dabomstew.pkromio.romio.RomOpener;
+
+import java.io.*;
+import java.util.ResourceBundle;
+
+/**
+ * Records a trace for {@link FreedSpaceBenchmark} to replay: randomizes a Gen 3 ROM with the given settings,
+ * and writes every free and find of its FreedSpace to the trace file. The randomized ROM itself is thrown away.
+ * <br><br>
+ * Usage: {@code FreedSpaceTraceRecorder <Gen 3 ROM> <settings file (.rnqs)> <trace file> [seed]}
+ */
+public class FreedSpaceTraceRecorder {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: FreedSpaceTraceRecorder <Gen 3 ROM> <settings file> <trace file> [seed]");
+            System.exit(2);
+        }
+        RomOpener.Results opened = new RomOpener().openRomFile(new File(args[0]));
+        if (!opened.wasOpeningSuccessful() || !(opened.getRomHandler() instanceof Gen3RomHandler)) {
+            System.err.println(args[0] + " is not a Gen 3 ROM which can be opened.");
+            System.exit(1);
+        }
+        RomHandler romHandler = opened.getRomHandler();
+
+        Settings settings;
+        try (FileInputStream in = new FileInputStream(args[1])) {
+            settings = Settings.read(in);
+        }
+        settings.setCustomNames(CustomNamesSet.readNamesFromFile());
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : BenchmarkFixtures.SEED;
+
+        File output = File.createTempFile("freedspace", "." + romHandler.getDefaultExtension());
+        output.deleteOnExit();
+        ResourceBundle bundle = ResourceBundle.getBundle("com/dabomstew/pkrandom/gui/Bundle");
+        try (PrintStream trace = new PrintStream(new BufferedOutputStream(new FileOutputStream(args[2])))) {
+            ((Gen3RomHandler) romHandler).setFreedSpaceTrace(trace);
+            GameRandomizer.Results results = new GameRandomizer(settings, null, romHandler, bundle, false)
+                    .randomize(output.getAbsolutePath(), LogFile.discarding(), seed);
+            if (!results.wasSaveSuccessful()) {
+                throw new IOException("Randomizing failed", results.getException());
+            }
+        }
+    }
+}
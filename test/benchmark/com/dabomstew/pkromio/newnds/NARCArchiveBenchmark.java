@@ -0,0 +1,43 @@
+package benchmark.com.dabomstew.pkromio.newnds;
+
+import benchmark.com.dabomstew.BenchmarkFixtures;
+import com.dabomstew.pkromio.newnds.NARCArchive;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing NARCs, sized like the larger ones of the Gen 4/5 games (e.g. the species graphics).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NARCArchiveBenchmark {
+
+    @Param({"500", "5000"})
+    public int fileCount;
+
+    private byte[] data;
+    private NARCArchive narc;
+
+    @Setup
+    public void setUp() throws IOException {
+        data = BenchmarkFixtures.createNARC(BenchmarkFixtures.createFiles(fileCount, 2048));
+        narc = new NARCArchive(data);
+    }
+
+    @Benchmark
+    public NARCArchive parse() throws IOException {
+        return new NARCArchive(data);
+    }
+
+    @Benchmark
+    public byte[] getBytes() throws IOException {
+        return narc.getBytes();
+    }
+
+}
@@ -0,0 +1,118 @@
+package benchmark.compressors;
+
+import benchmark.com.dabomstew.BenchmarkFixtures;
+import com.dabomstew.pkromio.graphics.images.GBCImage;
+import compressors.*;
+import cuecompressors.BLZCoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The compressors and decompressors used when reading and writing the games.
+ * Sizes are those of typical compressed files; Gen 1/2 sprites, and NDS/3DS overlays and archive members.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressorBenchmark {
+
+    private static final int GEN2_SIZE = 0x310; // a 7x7 tile sprite
+    private static final int LZ_SIZE = 0x8000;
+    private static final int BLZ_SIZE = 0x20000;
+
+    private byte[] gen2Data;
+    private byte[] gen2Compressed;
+    private GBCImage gen1Image;
+    private byte[] gen1Compressed;
+    private byte[] lzData;
+    private byte[] lz10Compressed;
+    private byte[] lz11Compressed;
+    private byte[] blzData;
+    private byte[] blzCompressed;
+
+    @Setup
+    public void setUp() {
+        gen2Data = BenchmarkFixtures.createCompressibleData(GEN2_SIZE);
+        gen2Compressed = Gen2Cmp.javaCompress(gen2Data);
+        gen1Image = BenchmarkFixtures.createGBCImage(7, 7);
+        gen1Compressed = Gen1Cmp.compress(gen1Image);
+        lzData = BenchmarkFixtures.createCompressibleData(LZ_SIZE);
+        byte[] lz10 = DSCmp.compressLZ10(lzData);
+        // padded like in the ROM, since the LZ10 decompressor reads past the end of the compressed data
+        lz10Compressed = Arrays.copyOf(lz10, lz10.length + 8);
+        lz11Compressed = DSCmp.compressLZ11(lzData);
+        blzData = BenchmarkFixtures.createCompressibleData(BLZ_SIZE);
+        blzCompressed = new BLZCoder(null).BLZ_EncodePub(blzData, false, false, "benchmark");
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearCache() {
+        Gen2Cmp.clearCache();
+    }
+
+    @Benchmark
+    public byte[] gen1Compress() {
+        return Gen1Cmp.compress(gen1Image);
+    }
+
+    @Benchmark
+    public byte[] gen1Decompress() {
+        Gen1Decmp decmp = new Gen1Decmp(gen1Compressed, 0);
+        decmp.decompress();
+        return decmp.getData();
+    }
+
+    /**
+     * Without the cache; with it, only the first compression of some data would be measured.
+     */
+    @Benchmark
+    public byte[] gen2Compress() {
+        return Gen2Cmp.javaCompress(gen2Data);
+    }
+
+    @Benchmark
+    public byte[] gen2CompressCached() {
+        return Gen2Cmp.compress(gen2Data);
+    }
+
+    @Benchmark
+    public byte[] gen2Decompress() {
+        return Gen2Decmp.decompress(gen2Compressed, 0);
+    }
+
+    @Benchmark
+    public byte[] lz10Compress() {
+        return DSCmp.compressLZ10(lzData);
+    }
+
+    @Benchmark
+    public byte[] lz11Compress() {
+        return DSCmp.compressLZ11(lzData);
+    }
+
+    @Benchmark
+    public byte[] lz10Decompress() {
+        return DSDecmp.Decompress(lz10Compressed);
+    }
+
+    @Benchmark
+    public byte[] lz11Decompress() {
+        return DSDecmp.Decompress(lz11Compressed);
+    }
+
+    @Benchmark
+    public byte[] blzEncode() {
+        return new BLZCoder(null).BLZ_EncodePub(blzData, false, false, "benchmark");
+    }
+
+    @Benchmark
+    public byte[] blzDecode() {
+        return new BLZCoder(null).BLZ_DecodePub(Arrays.copyOf(blzCompressed, blzCompressed.length), "benchmark");
+    }
+
+}
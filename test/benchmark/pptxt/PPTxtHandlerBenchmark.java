@@ -0,0 +1,44 @@
+package benchmark.pptxt;
+
+import benchmark.com.dabomstew.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.*;
+import pptxt.PPTxtHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing a Gen 5 text file, sized like one of the bigger ones (e.g. the species names).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PPTxtHandlerBenchmark {
+
+    private static final int TEXT_COUNT = 500;
+
+    private List<String> texts;
+    private byte[] data;
+
+    @Setup
+    public void setUp() {
+        texts = BenchmarkFixtures.createTexts(TEXT_COUNT, "\\xFFFE");
+        data = BenchmarkFixtures.createGen5TextFile(texts);
+    }
+
+    @Benchmark
+    public List<String> readTexts() {
+        return PPTxtHandler.readTexts(data);
+    }
+
+    @Benchmark
+    public byte[] saveEntry() {
+        // saveEntry() replaces the strings in the list it is given
+        return PPTxtHandler.saveEntry(data, new ArrayList<>(texts));
+    }
+
+}
@@ -0,0 +1,48 @@
+package benchmark.thenewpoketext;
+
+import benchmark.com.dabomstew.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.*;
+import thenewpoketext.PokeTextData;
+import thenewpoketext.TextToPoke;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding and encoding a Gen 4 text file, sized like one of the bigger ones (e.g. the species names).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PokeTextDataBenchmark {
+
+    private static final int TEXT_COUNT = 500;
+
+    private List<String> texts;
+    private byte[] data;
+
+    @Setup
+    public void setUp() {
+        texts = BenchmarkFixtures.createTexts(TEXT_COUNT, "\\n");
+        data = BenchmarkFixtures.createGen4TextFile(texts);
+    }
+
+    @Benchmark
+    public List<String> decode() {
+        PokeTextData pt = new PokeTextData(data);
+        pt.decrypt();
+        return pt.strlist;
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        PokeTextData encrypt = new PokeTextData(TextToPoke.MakeFile(texts, false));
+        encrypt.SetKey(0xD00E);
+        encrypt.encrypt();
+        return encrypt.get();
+    }
+
+}
@@ -0,0 +1,76 @@
+package test.com.dabomstew.pkrandom;
+
+import com.dabomstew.pkrandom.BatchRandomizer;
+import com.dabomstew.pkrandom.GameRandomizer;
+import com.dabomstew.pkrandom.Settings;
+import com.dabomstew.pkromio.romhandlers.RomHandler;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import test.com.dabomstew.pkromio.romhandlers.RomHandlerTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchRandomizerTest extends RomHandlerTest {
+
+    private static final ResourceBundle BUNDLE = ResourceBundle.getBundle("com/dabomstew/pkrandom/gui/Bundle");
+    private static final int JOB_COUNT = 4;
+
+    @ParameterizedTest
+    @MethodSource("getRomNames")
+    public void batchOutputIsIdenticalToSequentialOutput(String romName) throws IOException, InterruptedException {
+        Path dir = Files.createTempDirectory("batchtest");
+        Settings settings = createSettings();
+
+        List<BatchRandomizer.Job> jobs = new ArrayList<>();
+        List<Path> sequentialPaths = new ArrayList<>();
+        for (int i = 0; i < JOB_COUNT; i++) {
+            long seed = RND.nextLong();
+            jobs.add(new BatchRandomizer.Job(seed, dir.resolve("batch" + i).toString(), false));
+
+            Path sequentialPath = dir.resolve("sequential" + i);
+            sequentialPaths.add(sequentialPath);
+            loadROM(romName);
+            GameRandomizer.Results results = new GameRandomizer(settings, null, romHandler, BUNDLE, false)
+                    .randomize(sequentialPath.toString(), new PrintStream(new ByteArrayOutputStream()), seed);
+            assertTrue(results.wasSaveSuccessful());
+        }
+
+        loadROM(romName);
+        RomHandler baseline = romHandler;
+        // loadROM() sets a field, so the workers have to take turns loading
+        BatchRandomizer batchRandomizer = new BatchRandomizer(settings, null, baseline, () -> {
+            synchronized (this) {
+                loadROM(romName);
+                return romHandler;
+            }
+        }, BUNDLE, false, 2);
+        BatchRandomizer.Report report = batchRandomizer.run(jobs, null);
+
+        assertEquals(JOB_COUNT, report.getSuccessfulCount());
+        for (int i = 0; i < JOB_COUNT; i++) {
+            byte[] expected = Files.readAllBytes(sequentialPaths.get(i));
+            byte[] actual = Files.readAllBytes(Paths.get(jobs.get(i).getFilename()));
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    private static Settings createSettings() {
+        Settings settings = new Settings();
+        settings.setStartersMod(Settings.StartersMod.COMPLETELY_RANDOM);
+        settings.setMovesetsMod(Settings.MovesetsMod.RANDOM_PREFER_SAME_TYPE);
+        settings.setTrainersMod(Settings.TrainersMod.RANDOM);
+        settings.setRandomizeWildPokemon(true);
+        return settings;
+    }
+
+}
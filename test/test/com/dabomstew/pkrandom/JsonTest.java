@@ -0,0 +1,47 @@
+package test.com.dabomstew.pkrandom;
+
+import com.dabomstew.pkrandom.Json;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonTest {
+
+    @Test
+    public void writtenJsonIsParsedBackTheSame() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        object.put("name", "a \"quoted\"\nline\\");
+        object.put("count", 42L);
+        object.put("rate", 0.5);
+        object.put("ok", true);
+        object.put("nothing", null);
+        object.put("list", Arrays.asList(1L, "two", new LinkedHashMap<>()));
+
+        assertEquals(object, Json.parse(Json.write(object)));
+    }
+
+    @Test
+    public void parsesEscapesAndNesting() {
+        Object parsed = Json.parse(" {\"a\": [1, -2.5e1, \"\\u0041\\t\"], \"b\": {\"c\": false}} ");
+        Map<?, ?> object = (Map<?, ?>) parsed;
+        List<?> a = (List<?>) object.get("a");
+        assertEquals(1L, a.get(0));
+        assertEquals(-25.0, a.get(1));
+        assertEquals("A\t", a.get(2));
+        assertEquals(false, ((Map<?, ?>) object.get("b")).get("c"));
+    }
+
+    @Test
+    public void invalidJsonThrows() {
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("{\"a\": }"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("[1, 2"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("\"unterminated"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("{} extra"));
+    }
+
+}
@@ -0,0 +1,108 @@
+package test.com.dabomstew.pkrandom;
+
+import com.dabomstew.pkrandom.StageProfiler;
+import com.dabomstew.pkrandom.random.RandomSource;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StageProfilerTest {
+
+    @Test
+    public void nestedStagesArePrefixedAndComeAfterTheirOuterStage() {
+        StageProfiler profiler = new StageProfiler(new RandomSource());
+        profiler.run("outer", () -> {
+            profiler.run("inner", () -> {});
+            profiler.record("measured", 5);
+        });
+        profiler.run("second", () -> {});
+
+        List<StageProfiler.Stage> stages = profiler.getStages();
+        assertEquals(4, stages.size());
+        assertEquals("outer", stages.get(0).getName());
+        assertEquals("outer/inner", stages.get(1).getName());
+        assertEquals(1, stages.get(1).getDepth());
+        assertEquals("outer/measured", stages.get(2).getName());
+        assertEquals(5, stages.get(2).getNanos());
+        assertEquals("second", stages.get(3).getName());
+        assertEquals(0, stages.get(3).getDepth());
+    }
+
+    @Test
+    public void rngCallsAreCountedPerStage() {
+        RandomSource randomSource = new RandomSource();
+        randomSource.seed(0);
+        StageProfiler profiler = new StageProfiler(randomSource);
+        profiler.run("first", () -> {
+            randomSource.getNonCosmetic().nextInt(10);
+            randomSource.getNonCosmetic().nextInt(10);
+            randomSource.getCosmetic().nextBoolean();
+        });
+        profiler.run("second", () -> randomSource.getNonCosmetic().nextDouble());
+
+        StageProfiler.Stage first = profiler.getStages().get(0);
+        assertEquals(2, first.getRngCallsNonCosmetic());
+        assertEquals(1, first.getRngCallsCosmetic());
+        StageProfiler.Stage second = profiler.getStages().get(1);
+        assertEquals(1, second.getRngCallsNonCosmetic());
+        assertEquals(0, second.getRngCallsCosmetic());
+    }
+
+    @Test
+    public void stageIsRecordedEvenIfItThrows() {
+        StageProfiler profiler = new StageProfiler(new RandomSource());
+        assertThrows(IllegalStateException.class, () -> profiler.run("failing", () -> {
+            throw new IllegalStateException();
+        }));
+        profiler.run("after", () -> {});
+
+        assertEquals("failing", profiler.getStages().get(0).getName());
+        assertEquals("after", profiler.getStages().get(1).getName());
+    }
+
+    @Test
+    public void countersGoToTheInnermostRunningStage() {
+        StageProfiler profiler = new StageProfiler(new RandomSource());
+        profiler.count("ignored", 1);
+        profiler.run("outer", () -> {
+            profiler.run("inner", () -> {
+                profiler.count("tries", 2);
+                profiler.count("tries", 3);
+            });
+            profiler.count("backtracks", 4);
+        });
+
+        StageProfiler.Stage outer = profiler.getStages().get(0);
+        StageProfiler.Stage inner = profiler.getStages().get(1);
+        assertEquals(Collections.singletonMap("backtracks", 4L), outer.getCounters());
+        assertEquals(Collections.singletonMap("tries", 5L), inner.getCounters());
+        assertTrue(profiler.toJson().contains("\"counters\": {\"tries\": 5}"));
+    }
+
+    @Test
+    public void jsonHasOneObjectPerStage() {
+        StageProfiler profiler = new StageProfiler(new RandomSource());
+        assertEquals("[]", profiler.toJson());
+        profiler.run("a \"quoted\" stage", () -> {});
+        profiler.run("other", () -> {});
+
+        String json = profiler.toJson();
+        assertTrue(json.startsWith("[") && json.endsWith("]"));
+        assertTrue(json.contains("\"name\": \"a \\\"quoted\\\" stage\""));
+        assertTrue(json.contains("\"name\": \"other\""));
+        assertEquals(2, json.split("\"rngCallsNonCosmetic\"").length - 1);
+    }
+    @Test
+    public void peakHeapUsedIncludesWhatWasInUseAtTheEndOfAStage() {
+        StageProfiler profiler = new StageProfiler(new RandomSource());
+        byte[][] held = new byte[1][];
+        profiler.run("a", () -> held[0] = new byte[32 << 20]);
+        held[0] = null;
+        System.gc();
+        assertTrue(profiler.getPeakHeapUsed() >= 32 << 20);
+    }
+
+}
@@ -0,0 +1,74 @@
+package test.com.dabomstew.pkrandom.cli;
+
+import com.dabomstew.pkrandom.cli.BatchManifest;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchManifestTest {
+
+    @Test
+    public void csvManifestWithHeaderAndSeedRange() throws IOException {
+        BatchManifest manifest = readManifest("manifest.csv",
+                "settings,rom,seed,output,log\n" +
+                "# comment\n" +
+                "a.rnqs,\"Emerald, U.gba\",5..7,out/em.gba,true\n");
+
+        List<BatchManifest.Entry> entries = manifest.getEntries();
+        assertEquals(1, entries.size());
+        BatchManifest.Entry entry = entries.get(0);
+        assertEquals("Emerald, U.gba", entry.getRomFile().getName());
+        assertEquals(Arrays.asList(5L, 6L, 7L), entry.getSeeds());
+        assertTrue(entry.getOutputPath(6).endsWith("em6.gba"));
+        assertTrue(entry.isSaveLog());
+    }
+
+    @Test
+    public void jsonLinesManifestWithSeedPlaceholder() throws IOException {
+        BatchManifest manifest = readManifest("manifest.json",
+                "{\"settings\": \"a.rnqs\", \"rom\": \"x.gba\", \"seed\": 12, \"output\": \"o{seed}.gba\"}\n" +
+                "{\"settings\": \"b.rnqs\", \"rom\": \"y.gba\", \"output\": \"p.gba\", \"log\": true}\n");
+
+        List<BatchManifest.Entry> entries = manifest.getEntries();
+        assertEquals(2, entries.size());
+        assertEquals(Arrays.asList(12L), entries.get(0).getSeeds());
+        assertTrue(entries.get(0).getOutputPath(12).endsWith("o12.gba"));
+        assertFalse(entries.get(0).isSaveLog());
+        assertEquals(1, entries.get(1).getSeeds().size());
+        assertTrue(entries.get(1).isSaveLog());
+    }
+
+    @Test
+    public void relativePathsAreRelativeToManifest() throws IOException {
+        BatchManifest manifest = readManifest("manifest.json",
+                "[{\"settings\": \"a.rnqs\", \"rom\": \"x.gba\", \"seed\": 1, \"output\": \"o.gba\"}]");
+        BatchManifest.Entry entry = manifest.getEntries().get(0);
+        assertEquals(lastManifest.getAbsoluteFile().getParentFile(), entry.getSettingsFile().getParentFile());
+    }
+
+    @Test
+    public void malformedEntriesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> readManifest("manifest.csv", "a.rnqs,x.gba,1\n"));
+        assertThrows(IllegalArgumentException.class, () -> readManifest("manifest.csv", "a.rnqs,x.gba,9..3,o.gba\n"));
+        assertThrows(IllegalArgumentException.class, () -> readManifest("manifest.csv", "a.rnqs,x.gba,abc,o.gba\n"));
+        assertThrows(IllegalArgumentException.class, () -> readManifest("manifest.json", "[{\"rom\": \"x.gba\"}]"));
+    }
+
+    private File lastManifest;
+
+    private BatchManifest readManifest(String name, String contents) throws IOException {
+        Path dir = Files.createTempDirectory("manifesttest");
+        lastManifest = dir.resolve(name).toFile();
+        Files.write(lastManifest.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+        return BatchManifest.read(lastManifest);
+    }
+
+}
@@ -0,0 +1,178 @@
+package test.com.dabomstew.pkrandom.cli;
+
+import com.dabomstew.pkrandom.GameRandomizer;
+import com.dabomstew.pkrandom.Json;
+import com.dabomstew.pkrandom.Settings;
+import com.dabomstew.pkrandom.cli.RandomizerServer;
+import com.dabomstew.pkrandom.customnames.CustomNamesSet;
+import com.dabomstew.pkromio.gamedata.ExpCurve;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import test.com.dabomstew.pkromio.romhandlers.RomHandlerTest;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RandomizerServerTest extends RomHandlerTest {
+
+    private static final ResourceBundle BUNDLE = ResourceBundle.getBundle("com/dabomstew/pkrandom/gui/Bundle");
+    private static final String TEST_ROMS_PATH = "test/roms";
+
+    private RandomizerServer server;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = new RandomizerServer(0, 2, 4, 2, new CustomNamesSet(), BUNDLE);
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() throws InterruptedException {
+        server.stop();
+    }
+
+    @Test
+    public void invalidJobIsRejected() throws IOException {
+        assertEquals(400, request("POST", "/jobs", "{\"rom\": 1}").code);
+        assertEquals(400, request("POST", "/jobs", "not json").code);
+    }
+
+    @Test
+    public void unknownJobIsNotFound() throws IOException {
+        assertEquals(404, request("GET", "/jobs/12345", null).code);
+    }
+
+    @Test
+    public void postWithoutJsonContentTypeIsRejected() throws IOException {
+        assertEquals(415, request("POST", "/jobs", "{\"rom\": 1}", "text/plain").code);
+        assertEquals(415, request("POST", "/shutdown", "", "application/x-www-form-urlencoded").code);
+        assertEquals(200, request("GET", "/stats", null).code);
+    }
+
+    @Test
+    public void requestToOtherHostIsRejected() throws IOException {
+        assertEquals(403, rawRequest("GET /stats HTTP/1.1\r\nHost: attacker.example:" + server.getPort()));
+        assertEquals(403, rawRequest("POST /shutdown HTTP/1.1\r\nHost: attacker.example\r\n"
+                + "Content-Type: application/json\r\nContent-Length: 0"));
+        assertEquals(200, rawRequest("GET /stats HTTP/1.1\r\nHost: 127.0.0.1:" + server.getPort()));
+        assertEquals(200, rawRequest("GET /stats HTTP/1.1\r\nHost: [::1]"));
+    }
+
+    @Test
+    public void requestFromWebPageIsRejected() throws IOException {
+        assertEquals(403, rawRequest("POST /shutdown HTTP/1.1\r\nHost: localhost\r\n"
+                + "Origin: http://attacker.example\r\nContent-Type: application/json\r\nContent-Length: 0"));
+        assertEquals(200, request("GET", "/stats", null).code);
+    }
+
+    @Test
+    public void jobWithMissingRomFails() throws IOException {
+        Response response = request("POST", "/jobs?wait=true",
+                "{\"settings\": \"AAAA\", \"rom\": \"does/not/exist.gba\", \"output\": \"out.gba\", \"seed\": 1}");
+        assertEquals(200, response.code);
+        assertEquals("failed", response.body.get("status"));
+        assertNotNull(response.body.get("error"));
+
+        Response stats = request("GET", "/stats", null);
+        assertEquals(1L, stats.body.get("finished"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getRomNames")
+    public void jobOutputIsIdenticalToDirectOutput(String romName) throws IOException {
+        Path dir = Files.createTempDirectory("servertest");
+        loadROM(romName);
+        Settings settings = new Settings();
+        settings.setSelectedEXPCurve(ExpCurve.MEDIUM_FAST);
+        settings.setRomName(romHandler.getROMName());
+        settings.setStartersMod(Settings.StartersMod.COMPLETELY_RANDOM);
+        settings.setRandomizeWildPokemon(true);
+        String settingsString = settings.toString();
+        long seed = RND.nextLong();
+
+        Settings directSettings = Settings.fromString(settingsString);
+        directSettings.setCustomNames(new CustomNamesSet());
+        directSettings.tweakForRom(romHandler);
+        Path directPath = dir.resolve("direct" + "." + romHandler.getDefaultExtension());
+        GameRandomizer.Results results = new GameRandomizer(directSettings, null, romHandler, BUNDLE, false)
+                .randomize(directPath.toString(), new PrintStream(new ByteArrayOutputStream()), seed);
+        assertTrue(results.wasSaveSuccessful());
+
+        Map<String, Object> job = new LinkedHashMap<>();
+        job.put("settings", settingsString);
+        job.put("rom", TEST_ROMS_PATH + "/" + romName + getGenerationOf(romName).getFileSuffix());
+        job.put("output", dir.resolve("served." + romHandler.getDefaultExtension()).toString());
+        job.put("seed", seed);
+        Response response = request("POST", "/jobs?wait=true", Json.write(job));
+        assertEquals("succeeded", response.body.get("status"), String.valueOf(response.body.get("error")));
+        assertEquals(String.format("%08X", results.getCheckValue()), response.body.get("checkValue"));
+        assertArrayEquals(Files.readAllBytes(directPath), Files.readAllBytes(Paths.get((String) job.get("output"))));
+    }
+
+    private static class Response {
+        private final int code;
+        private final Map<?, ?> body;
+
+        Response(int code, Map<?, ?> body) {
+            this.code = code;
+            this.body = body;
+        }
+    }
+
+    private Response request(String method, String path, String body) throws IOException {
+        return request(method, path, body, "application/json");
+    }
+
+    private Response request(String method, String path, String body, String contentType) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path)
+                .openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setRequestProperty("Content-Type", contentType);
+            connection.setDoOutput(true);
+            try (OutputStream os = connection.getOutputStream()) {
+                os.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int code = connection.getResponseCode();
+        try (InputStream is = code < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            byte[] buf = new byte[4096];
+            int read;
+            while ((read = is.read(buf)) != -1) {
+                baos.write(buf, 0, read);
+            }
+            return new Response(code, (Map<?, ?>) Json.parse(new String(baos.toByteArray(), StandardCharsets.UTF_8)));
+        }
+    }
+
+    /**
+     * Sends a request with headers HttpURLConnection won't set, like Host and Origin, and returns the status code.
+     */
+    private int rawRequest(String requestLineAndHeaders) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            OutputStream os = socket.getOutputStream();
+            os.write((requestLineAndHeaders + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            os.flush();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.US_ASCII));
+            return Integer.parseInt(reader.readLine().split(" ")[1]);
+        }
+    }
+
+}
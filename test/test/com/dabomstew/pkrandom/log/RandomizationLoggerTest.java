@@ -0,0 +1,117 @@
+package test.com.dabomstew.pkrandom.log;
+
+import com.dabomstew.pkrandom.GameRandomizer;
+import com.dabomstew.pkrandom.Json;
+import com.dabomstew.pkrandom.Settings;
+import com.dabomstew.pkrandom.log.RandomizationLogger;
+import com.dabomstew.pkromio.gamedata.ExpCurve;
+import com.dabomstew.pkromio.romhandlers.RomHandler;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import test.com.dabomstew.pkromio.romhandlers.RomHandlerTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RandomizationLoggerTest extends RomHandlerTest {
+
+    private static final ResourceBundle BUNDLE = ResourceBundle.getBundle("com/dabomstew/pkrandom/gui/Bundle");
+
+    @ParameterizedTest
+    @MethodSource("getRomNames")
+    public void logRenderedInParallelIsIdenticalToSerialLog(String romName) throws IOException {
+        Path dir = Files.createTempDirectory("loggertest");
+        long seed = RND.nextLong();
+
+        String[] serial = randomizeAndLog(romName, dir.resolve("serial").toString(), seed, 1);
+        String[] parallel = randomizeAndLog(romName, dir.resolve("parallel").toString(), seed, 4);
+
+        // the statistics section has times and memory use, which differ from run to run
+        assertEquals(beforeStatistics(serial[0]), beforeStatistics(parallel[0]));
+        assertEquals(withoutType(serial[1], "statistics"), withoutType(parallel[1], "statistics"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getRomNames")
+    public void structuredLogHasHeaderRecordsAndEnd(String romName) throws IOException {
+        Path dir = Files.createTempDirectory("loggertest");
+        String[] logs = randomizeAndLog(romName, dir.resolve("records").toString(), RND.nextLong(), 1);
+
+        List<Map<?, ?>> records = new ArrayList<>();
+        for (String line : logs[1].split("\n")) {
+            records.add((Map<?, ?>) Json.parse(line));
+        }
+        Map<?, ?> header = records.get(0);
+        assertEquals("header", header.get("type"));
+        assertEquals((long) RandomizationLogger.RECORDS_SCHEMA_VERSION, header.get("schemaVersion"));
+        assertEquals(romHandler.getROMName(), header.get("game"));
+        assertEquals("end", records.get(records.size() - 1).get("type"));
+
+        long trainerRecords = records.stream().filter(r -> "trainer".equals(r.get("type"))).count();
+        assertEquals(romHandler.getTrainers().size(), trainerRecords);
+        assertTrue(records.stream().anyMatch(r -> "encounterArea".equals(r.get("type"))));
+        assertTrue(records.stream().anyMatch(r -> "moveset".equals(r.get("type"))));
+    }
+
+    /**
+     * Returns the text log and the structured log.
+     */
+    private String[] randomizeAndLog(String romName, String filename, long seed, int renderThreads)
+            throws IOException {
+        loadROM(romName);
+        GameRandomizer randomizer = new GameRandomizer(createSettings(romHandler), null, romHandler, BUNDLE, false);
+        randomizer.setLogRenderThreads(renderThreads);
+        ByteArrayOutputStream logBaos = new ByteArrayOutputStream();
+        PrintStream log = new PrintStream(logBaos, false, "UTF-8");
+        ByteArrayOutputStream recordsBaos = new ByteArrayOutputStream();
+        PrintStream records = new PrintStream(recordsBaos, false, "UTF-8");
+        GameRandomizer.Results results = randomizer.randomize(filename, log, records, seed);
+        log.close();
+        records.close();
+        assertTrue(results.wasSaveSuccessful());
+        assertTrue(results.wasLogSuccessful());
+        return new String[]{new String(logBaos.toByteArray(), StandardCharsets.UTF_8),
+                new String(recordsBaos.toByteArray(), StandardCharsets.UTF_8)};
+    }
+
+    private static String withoutType(String records, String type) {
+        StringBuilder sb = new StringBuilder();
+        for (String line : records.split("\n")) {
+            if (!type.equals(((Map<?, ?>) Json.parse(line)).get("type"))) {
+                sb.append(line).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String beforeStatistics(String log) {
+        String title = String.format(BUNDLE.getString("Log.sectionTitle"),
+                BUNDLE.getString("Log.stat.title"), BUNDLE.getString("Log.stat.shortcut"));
+        int index = log.indexOf(title);
+        assertNotEquals(-1, index);
+        return log.substring(0, index);
+    }
+
+    private static Settings createSettings(RomHandler romHandler) {
+        Settings settings = new Settings();
+        settings.setRomName(romHandler.getROMName());
+        settings.setSelectedEXPCurve(ExpCurve.MEDIUM_FAST);
+        settings.setSpeciesTypesMod(Settings.SpeciesTypesMod.RANDOM_FOLLOW_EVOLUTIONS);
+        settings.setMovesetsMod(Settings.MovesetsMod.RANDOM_PREFER_SAME_TYPE);
+        settings.setTrainersMod(Settings.TrainersMod.RANDOM);
+        settings.setRandomizeWildPokemon(true);
+        settings.setTmsHmsCompatibilityMod(Settings.TMsHMsCompatibilityMod.RANDOM_PREFER_TYPE);
+        return settings;
+    }
+
+}
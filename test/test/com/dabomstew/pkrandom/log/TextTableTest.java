@@ -0,0 +1,54 @@
+package test.com.dabomstew.pkrandom.log;
+
+import com.dabomstew.pkrandom.log.TextTable;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TextTableTest {
+
+    private static final String NL = System.lineSeparator();
+
+    @Test
+    public void cellsArePaddedToTheirColumn() {
+        TextTable table = new TextTable(3);
+        table.setColumnAlignments(TextTable.Alignment.RIGHT, 2);
+        table.addRow("a", "bb", "1");
+        table.addRow("ccc", "d", "100");
+
+        assertEquals("a  |bb|  1" + NL + "ccc|d |100" + NL, table.toString());
+    }
+
+    @Test
+    public void addCellFillsColumnsIndependentlyUntilEvenedOut() {
+        TextTable table = new TextTable(2);
+        table.addCell(0, "a");
+        table.addCell(1, "x");
+        table.addCell(1, "y");
+        table.evenOut();
+        table.addCell(0, "b");
+        table.addCell(1, "z");
+
+        assertEquals("a|x" + NL + " |y" + NL + "b|z" + NL, table.toString());
+    }
+
+    @Test
+    public void printGivesSameTextAsToString() throws UnsupportedEncodingException {
+        TextTable table = new TextTable(2);
+        for (int i = 0; i < 100; i++) {
+            table.addCell(0, "row" + i);
+            table.addCell(1, Integer.toString(i * i));
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PrintStream ps = new PrintStream(baos, false, "UTF-8");
+        table.print(ps);
+        ps.close();
+
+        assertEquals(table.toString(), new String(baos.toByteArray(), java.nio.charset.StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,58 @@
+package test.com.dabomstew.pkrandom.random;
+
+import com.dabomstew.pkrandom.random.AliasSampler;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AliasSamplerTest {
+
+    private static final int PICKS = 200000;
+
+    @Test
+    public void picksInProportionToWeights() {
+        double[] weights = {1, 3, 0.5, 5.5};
+        int[] counts = countPicks(new AliasSampler(weights, weights.length), weights.length);
+        for (int i = 0; i < weights.length; i++) {
+            double expected = weights[i] / 10.0;
+            assertEquals(expected, (double) counts[i] / PICKS, 0.01, "index " + i);
+        }
+    }
+
+    @Test
+    public void neverPicksZeroWeights() {
+        double[] weights = {0, 2, 0, 1, 0};
+        int[] counts = countPicks(new AliasSampler(weights, weights.length), weights.length);
+        assertEquals(0, counts[0]);
+        assertEquals(0, counts[2]);
+        assertEquals(0, counts[4]);
+    }
+
+    @Test
+    public void onlyUsesTheFirstCountWeights() {
+        double[] weights = {1, 1, 100};
+        int[] counts = countPicks(new AliasSampler(weights, 2), weights.length);
+        assertEquals(0, counts[2]);
+        assertEquals(0.5, (double) counts[0] / PICKS, 0.01);
+    }
+
+    @Test
+    public void invalidWeightsThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new AliasSampler(new double[0], 0));
+        assertThrows(IllegalArgumentException.class, () -> new AliasSampler(new double[]{0, 0}, 2));
+        assertThrows(IllegalArgumentException.class, () -> new AliasSampler(new double[]{1, -1}, 2));
+    }
+
+    private int[] countPicks(AliasSampler sampler, int size) {
+        Random random = new Random(123);
+        int[] counts = new int[size];
+        for (int i = 0; i < PICKS; i++) {
+            int picked = sampler.sample(random);
+            assertTrue(picked >= 0 && picked < size, "picked " + picked);
+            counts[picked]++;
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,155 @@
+package test.com.dabomstew.pkromio.ctr;
+
+import com.dabomstew.pkromio.ctr.GARCArchive;
+import cuecompressors.BLZCoder;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GARCArchiveTest {
+
+    @Test
+    public void untouchedGARCIsWrittenBackUnchanged() throws IOException {
+        byte[] data = buildGARC(new byte[][]{{1, 2, 3, 4, 5}, {9, 9}, {7, 7, 7, 7}});
+        GARCArchive garc = new GARCArchive(data, true);
+        assertArrayEquals(data, garc.getBytes());
+    }
+
+    @Test
+    public void setFileOnlyChangesThatFile() throws IOException {
+        GARCArchive garc = new GARCArchive(buildGARC(new byte[][]{{1, 2, 3, 4, 5}, {9, 9}, {7, 7, 7, 7}}), true);
+        garc.setFile(1, new byte[]{5, 5, 5});
+
+        GARCArchive written = new GARCArchive(garc.getBytes(), true);
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, written.getFile(0));
+        assertArrayEquals(new byte[]{5, 5, 5}, written.getFile(1));
+        assertArrayEquals(new byte[]{7, 7, 7, 7}, written.getFile(2));
+    }
+
+    @Test
+    public void changesToGottenFileAreWritten() throws IOException {
+        GARCArchive garc = new GARCArchive(buildGARC(new byte[][]{{1, 2, 3, 4}}), true);
+        garc.getFile(0)[2] = 42;
+
+        GARCArchive written = new GARCArchive(garc.getBytes(), true);
+        assertArrayEquals(new byte[]{1, 2, 42, 4}, written.getFile(0));
+    }
+
+    @Test
+    public void compressedFileIsDecompressedWhenGotten() throws IOException {
+        byte[] uncompressed = new byte[0x300];
+        for (int i = 0; i < uncompressed.length; i++) {
+            uncompressed[i] = (byte) (i % 7);
+        }
+        byte[] compressed = new BLZCoder(null).BLZ_EncodePub(uncompressed, false, false, "GARC");
+        byte[] data = buildGARC(new byte[][]{compressed, compressed});
+
+        GARCArchive garc = new GARCArchive(data, false);
+        assertArrayEquals(uncompressed, garc.getFile(1));
+        for (Map.Entry<Integer, byte[]> entry : garc.getDirectory(0).entrySet()) {
+            assertArrayEquals(uncompressed, entry.getValue());
+        }
+
+        GARCArchive written = new GARCArchive(garc.getBytes(), false);
+        assertArrayEquals(uncompressed, written.getFile(0));
+        assertArrayEquals(uncompressed, written.getFile(1));
+    }
+
+    @Test
+    public void offHeapGARCReadsAndWritesTheSame() throws IOException {
+        byte[] data = buildGARC(new byte[][]{{1, 2, 3}, {4, 5, 6, 7, 8}});
+        GARCArchive garc = new GARCArchive(data, true);
+        garc.storeOffHeap();
+        assertArrayEquals(data, garc.getBytes());
+        assertArrayEquals(new byte[]{4, 5, 6, 7, 8}, garc.getFile(1));
+
+        garc.setFile(0, new byte[]{9});
+        GARCArchive written = new GARCArchive(garc.getBytes(), true);
+        assertArrayEquals(new byte[]{9}, written.getFile(0));
+        assertArrayEquals(new byte[]{4, 5, 6, 7, 8}, written.getFile(1));
+    }
+
+    @Test
+    public void gottenButUnchangedGARCIsNotChanged() throws IOException {
+        GARCArchive garc = new GARCArchive(buildGARC(new byte[][]{{1, 2, 3, 4}, {9, 9}}), true);
+        assertFalse(garc.isChanged());
+        garc.getFile(0)[2] = 3;
+        garc.getFile(1);
+        assertFalse(garc.isChanged());
+    }
+
+    @Test
+    public void editedOrSetFileMakesGARCChanged() throws IOException {
+        GARCArchive edited = new GARCArchive(buildGARC(new byte[][]{{1, 2, 3, 4}, {9, 9}}), true);
+        edited.getFile(1)[0] = 8;
+        assertTrue(edited.isChanged());
+
+        GARCArchive set = new GARCArchive(buildGARC(new byte[][]{{1, 2, 3, 4}, {9, 9}}), true);
+        set.setFile(0, new byte[]{1, 2, 3, 4});
+        assertTrue(set.isChanged());
+    }
+
+    @Test
+    public void unchangedCompressedFileIsWrittenAsItWasRead() throws IOException {
+        byte[] uncompressed = new byte[0x300];
+        for (int i = 0; i < uncompressed.length; i++) {
+            uncompressed[i] = (byte) (i % 7);
+        }
+        byte[] compressed = new BLZCoder(null).BLZ_EncodePub(uncompressed, false, false, "GARC");
+        byte[] data = buildGARC(new byte[][]{compressed});
+
+        GARCArchive garc = new GARCArchive(data, false);
+        garc.getFile(0);
+        assertFalse(garc.isChanged());
+        assertArrayEquals(data, garc.getBytes());
+
+        garc.getFile(0)[0x100] = 42;
+        assertTrue(garc.isChanged());
+    }
+
+    /**
+     * Builds a version 4 GARC, with one sub-file per directory.
+     */
+    public static byte[] buildGARC(byte[][] files) {
+        int fatoSize = 12 + 4 * files.length;
+        int fatbSize = 12 + 16 * files.length;
+        int payloadSize = 0;
+        int largest = 0;
+        for (byte[] file : files) {
+            payloadSize += padded(file.length);
+            largest = Math.max(largest, file.length);
+        }
+        int dataOffset = 0x1C + fatoSize + fatbSize + 12;
+
+        ByteBuffer buf = ByteBuffer.allocate(dataOffset + payloadSize).order(ByteOrder.LITTLE_ENDIAN);
+        buf.put("CRAG".getBytes()).putInt(0x1C).putShort((short) 0xFEFF).putShort((short) 0x0400).putInt(4)
+                .putInt(dataOffset).putInt(dataOffset + payloadSize).putInt(largest);
+        buf.put("OTAF".getBytes()).putInt(fatoSize).putShort((short) files.length).putShort((short) 0xFFFF);
+        for (int i = 0; i < files.length; i++) {
+            buf.putInt(i * 16);
+        }
+        buf.put("BTAF".getBytes()).putInt(fatbSize).putInt(files.length);
+        int offset = 0;
+        for (byte[] file : files) {
+            buf.putInt(1).putInt(offset).putInt(offset + padded(file.length)).putInt(file.length);
+            offset += padded(file.length);
+        }
+        buf.put("BMIF".getBytes()).putInt(12).putInt(payloadSize);
+        for (byte[] file : files) {
+            buf.put(file);
+            for (int i = file.length; i < padded(file.length); i++) {
+                buf.put((byte) 0xFF);
+            }
+        }
+        return buf.array();
+    }
+
+    private static int padded(int length) {
+        return (length + 3) & ~3;
+    }
+}
@@ -0,0 +1,114 @@
+package test.com.dabomstew.pkromio.gamedata;
+
+import com.dabomstew.pkromio.gamedata.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EvolutionGraphTest {
+
+    private static final int SPECIES_COUNT = 60;
+
+    @Test
+    public void matchesWalkingTheEvolutionsAsTheyAreAddedAndRemoved() {
+        Random random = new Random(1);
+        List<Species> species = createSpecies();
+        Predicate<Species> evolvesLater = sp -> sp.getNumber() % 3 == 0;
+        EvolutionGraph graph = new EvolutionGraph(species, evolvesLater);
+        List<Evolution> added = new ArrayList<>();
+
+        for (int step = 0; step < 400; step++) {
+            if (!added.isEmpty() && random.nextInt(3) == 0) {
+                graph.remove(added.remove(random.nextInt(added.size())));
+            } else {
+                Species from = species.get(random.nextInt(SPECIES_COUNT));
+                Species to = species.get(random.nextInt(SPECIES_COUNT));
+                assertEquals(from.equals(to) || canEvolveInto(to, from), graph.createsCycle(from, to));
+                if (!graph.createsCycle(from, to) && !evolvesInto(from, to)) {
+                    Evolution evo = new Evolution(from, to, EvolutionType.LEVEL, 1);
+                    graph.add(evo);
+                    added.add(evo);
+                }
+            }
+
+            for (Species sp : species) {
+                assertEquals(preEvolutionStages(sp), graph.getPreEvolutionStages(sp));
+                assertEquals(evolutionStages(sp, evolvesLater), graph.getEvolutionStages(sp));
+            }
+        }
+    }
+
+    @Test
+    public void addingAndRemovingChangesTheEvolutionsOfTheSpecies() {
+        List<Species> species = createSpecies();
+        EvolutionGraph graph = new EvolutionGraph(species, sp -> false);
+        Evolution evo = new Evolution(species.get(0), species.get(1), EvolutionType.LEVEL, 1);
+
+        graph.add(evo);
+        assertEquals(Collections.singletonList(evo), species.get(0).getEvolutionsFrom());
+        assertEquals(Collections.singletonList(evo), species.get(1).getEvolutionsTo());
+        assertTrue(graph.createsCycle(species.get(1), species.get(0)));
+
+        graph.remove(evo);
+        assertTrue(species.get(0).getEvolutionsFrom().isEmpty());
+        assertTrue(species.get(1).getEvolutionsTo().isEmpty());
+        assertFalse(graph.createsCycle(species.get(1), species.get(0)));
+        assertEquals(0, graph.getEvolutionStages(species.get(0)));
+        assertEquals(0, graph.getPreEvolutionStages(species.get(1)));
+    }
+
+    @Test
+    public void speciesNotInTheGraphAreRejected() {
+        EvolutionGraph graph = new EvolutionGraph(createSpecies(), sp -> false);
+        assertThrows(IllegalArgumentException.class,
+                () -> graph.getEvolutionStages(new Species(SPECIES_COUNT + 1)));
+    }
+
+    private static List<Species> createSpecies() {
+        List<Species> species = new ArrayList<>();
+        for (int i = 1; i <= SPECIES_COUNT; i++) {
+            species.add(new Species(i));
+        }
+        return species;
+    }
+
+    private static boolean evolvesInto(Species from, Species to) {
+        for (Evolution evo : from.getEvolutionsFrom()) {
+            if (evo.getTo().equals(to)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean canEvolveInto(Species from, Species to) {
+        for (Evolution evo : from.getEvolutionsFrom()) {
+            if (evo.getTo().equals(to) || canEvolveInto(evo.getTo(), to)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int preEvolutionStages(Species sp) {
+        int stages = 0;
+        for (Evolution evo : sp.getEvolutionsTo()) {
+            stages = Math.max(stages, preEvolutionStages(evo.getFrom()) + 1);
+        }
+        return stages;
+    }
+
+    private static int evolutionStages(Species sp, Predicate<Species> evolvesLater) {
+        if (sp.getEvolutionsFrom().isEmpty()) {
+            return evolvesLater.test(sp) ? 1 : 0;
+        }
+        int stages = 0;
+        for (Evolution evo : sp.getEvolutionsFrom()) {
+            stages = Math.max(stages, evolutionStages(evo.getTo(), evolvesLater) + 1);
+        }
+        return stages;
+    }
+}
@@ -0,0 +1,131 @@
+package test.com.dabomstew.pkromio.gamedata;
+
+import com.dabomstew.pkromio.gamedata.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LearnsetIndexTest {
+
+    private static final int SPECIES_COUNT = 100;
+    private static final int MOVE_COUNT = 400;
+
+    @Test
+    public void levelUpMovesMatchFilteringTheLearnsets() {
+        Random random = new Random(1);
+        Map<Integer, List<MoveLearnt>> movesLearnt = createMovesLearnt(random);
+        LearnsetIndex index = new LearnsetIndex(movesLearnt, new HashMap<>(), new ArrayList<>(), null, null);
+
+        for (Map.Entry<Integer, List<MoveLearnt>> entry : movesLearnt.entrySet()) {
+            for (int level = 1; level <= 100; level++) {
+                for (boolean withLevelZero : new boolean[]{false, true}) {
+                    List<Integer> expected = new ArrayList<>();
+                    for (MoveLearnt ml : entry.getValue()) {
+                        if (ml.level <= level && (ml.level != 0 || withLevelZero)) {
+                            expected.add(ml.move);
+                        }
+                    }
+                    assertEquals(expected, toList(index.getLevelUpMoves(entry.getKey(), level, withLevelZero)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void levelUpMovesOfUnknownSpeciesAreEmpty() {
+        LearnsetIndex index = new LearnsetIndex(new HashMap<>(), new HashMap<>(), new ArrayList<>(), null, null);
+        assertEquals(0, index.getLevelUpMoves(1, 100, true).length);
+    }
+
+    @Test
+    public void tmCompatibilityUsesTheFirstTMOfEachMove() {
+        Species sp = new Species(1);
+        // the move 10 is on the TMs at index 0 and 2, and only the first one is compatible
+        List<Integer> tmMoves = Arrays.asList(10, 20, 10, 30);
+        Map<Species, boolean[]> tmCompat = new HashMap<>();
+        tmCompat.put(sp, new boolean[]{false, true, false, false, true});
+        LearnsetIndex index = new LearnsetIndex(new HashMap<>(), tmCompat, tmMoves, null, null);
+
+        BitSet expected = new BitSet();
+        expected.set(0);
+        expected.set(2);
+        expected.set(3);
+        assertEquals(expected, index.getTMCompatibility(sp));
+    }
+
+    @Test
+    public void tutorCompatibilityMatchesTheCompatibilityArrays() {
+        Random random = new Random(2);
+        List<Integer> tutorMoves = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            tutorMoves.add(1 + i);
+        }
+        Map<Species, boolean[]> tutorCompat = new HashMap<>();
+        for (int i = 1; i <= SPECIES_COUNT; i++) {
+            boolean[] flags = new boolean[tutorMoves.size() + 1];
+            for (int j = 1; j < flags.length; j++) {
+                flags[j] = random.nextBoolean();
+            }
+            tutorCompat.put(new Species(i), flags);
+        }
+        LearnsetIndex index = new LearnsetIndex(new HashMap<>(), new HashMap<>(), new ArrayList<>(), tutorCompat,
+                tutorMoves);
+
+        for (Map.Entry<Species, boolean[]> entry : tutorCompat.entrySet()) {
+            BitSet bits = index.getTutorCompatibility(entry.getKey());
+            for (int i = 0; i < tutorMoves.size(); i++) {
+                assertEquals(entry.getValue()[i + 1], bits.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void preEvolutionsAreNearestFirst() {
+        Species first = new Species(1);
+        Species second = new Species(2);
+        Species third = new Species(3);
+        evolve(first, second);
+        evolve(second, third);
+
+        assertArrayEquals(new Species[]{second, first}, new LearnsetIndex(new HashMap<>(), new HashMap<>(),
+                new ArrayList<>(), null, null).getPreEvolutions(third));
+        assertEquals(0, new LearnsetIndex(new HashMap<>(), new HashMap<>(), new ArrayList<>(), null, null)
+                .getPreEvolutions(first).length);
+    }
+
+    private static void evolve(Species from, Species to) {
+        Evolution evo = new Evolution(from, to, EvolutionType.LEVEL, 20);
+        from.getEvolutionsFrom().add(evo);
+        to.getEvolutionsTo().add(evo);
+    }
+
+    private static Map<Integer, List<MoveLearnt>> createMovesLearnt(Random random) {
+        Map<Integer, List<MoveLearnt>> movesLearnt = new HashMap<>();
+        for (int i = 1; i <= SPECIES_COUNT; i++) {
+            List<MoveLearnt> learnt = new ArrayList<>();
+            int level = 1;
+            for (int j = 0; j < 20; j++) {
+                // mostly sorted learnsets with some level-0 moves first, like in the games, but not always
+                if (j < 2 && random.nextBoolean()) {
+                    learnt.add(new MoveLearnt(1 + random.nextInt(MOVE_COUNT), 0));
+                } else {
+                    level = i % 5 == 0 ? random.nextInt(101) : Math.min(100, level + random.nextInt(6));
+                    learnt.add(new MoveLearnt(1 + random.nextInt(MOVE_COUNT), level));
+                }
+            }
+            movesLearnt.put(i, learnt);
+        }
+        return movesLearnt;
+    }
+
+    private static List<Integer> toList(int[] array) {
+        List<Integer> list = new ArrayList<>();
+        for (int i : array) {
+            list.add(i);
+        }
+        return list;
+    }
+
+}
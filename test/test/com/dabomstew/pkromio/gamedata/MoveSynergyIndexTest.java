@@ -0,0 +1,134 @@
+package test.com.dabomstew.pkromio.gamedata;
+
+import com.dabomstew.pkromio.constants.AbilityIDs;
+import com.dabomstew.pkromio.gamedata.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveSynergyIndexTest {
+
+    private static final int MOVE_COUNT = 700;
+    private static final int GENERATION = 7;
+    private static final int PERFECT_ACCURACY = 101;
+
+    @Test
+    public void moveRowsMatchMoveSynergy() {
+        Random random = new Random(1);
+        List<Move> moves = createMoves(random);
+        TypeTable typeTable = TypeTable.getVanillaGen6PlusTable();
+        MoveSynergyIndex index = new MoveSynergyIndex(moves, GENERATION, PERFECT_ACCURACY, typeTable);
+
+        for (int i = 0; i < 50; i++) {
+            Move mv1 = moves.get(1 + random.nextInt(MOVE_COUNT - 1));
+            List<Move> pool = createPool(moves, random);
+            byte[] row = index.getMoveRow(mv1);
+            assertEquals(MoveSynergy.getMoveSynergy(mv1, pool, GENERATION),
+                    filter(pool, row, MoveSynergyIndex.HARD_SYNERGY));
+            assertEquals(MoveSynergy.getSoftMoveSynergy(mv1, pool, typeTable),
+                    filter(pool, row, MoveSynergyIndex.SOFT_SYNERGY));
+            assertEquals(MoveSynergy.getHardMoveAntiSynergy(mv1, pool),
+                    filter(pool, row, MoveSynergyIndex.HARD_ANTI_SYNERGY));
+            assertEquals(MoveSynergy.getSoftMoveAntiSynergy(mv1, pool),
+                    filter(pool, row, MoveSynergyIndex.SOFT_ANTI_SYNERGY));
+        }
+    }
+
+    @Test
+    public void abilityRowsMatchMoveSynergy() {
+        Random random = new Random(2);
+        List<Move> moves = createMoves(random);
+        MoveSynergyIndex index = new MoveSynergyIndex(moves, GENERATION, PERFECT_ACCURACY,
+                TypeTable.getVanillaGen6PlusTable());
+
+        int[] abilities = {AbilityIDs.technician, AbilityIDs.skillLink, AbilityIDs.ironFist, AbilityIDs.sheerForce,
+                AbilityIDs.noGuard, AbilityIDs.sereneGrace, AbilityIDs.drizzle, AbilityIDs.levitate};
+        for (int ability : abilities) {
+            Type type1 = Type.values()[random.nextInt(Type.values().length)];
+            Type type2 = random.nextBoolean() ? null : Type.values()[random.nextInt(Type.values().length)];
+            List<Move> pool = createPool(moves, random);
+            byte[] row = index.getAbilityRow(ability, type1, type2);
+            assertEquals(MoveSynergy.getHardAbilityMoveSynergy(ability, type1, type2, pool, GENERATION,
+                    PERFECT_ACCURACY), filter(pool, row, MoveSynergyIndex.HARD_SYNERGY));
+            assertEquals(MoveSynergy.getSoftAbilityMoveSynergy(ability, pool, type1, type2),
+                    filter(pool, row, MoveSynergyIndex.SOFT_SYNERGY));
+            assertEquals(MoveSynergy.getHardAbilityMoveAntiSynergy(ability, pool),
+                    filter(pool, row, MoveSynergyIndex.HARD_ANTI_SYNERGY));
+            assertEquals(MoveSynergy.getSoftAbilityMoveAntiSynergy(ability, pool),
+                    filter(pool, row, MoveSynergyIndex.SOFT_ANTI_SYNERGY));
+        }
+    }
+
+    @Test
+    public void statRowsMatchMoveSynergy() {
+        Random random = new Random(3);
+        List<Move> moves = createMoves(random);
+        MoveSynergyIndex index = new MoveSynergyIndex(moves, GENERATION, PERFECT_ACCURACY,
+                TypeTable.getVanillaGen6PlusTable());
+
+        for (int i = 1; i <= 20; i++) {
+            Species sp = new Species(i);
+            sp.setHp(20 + random.nextInt(150));
+            sp.setAttack(20 + random.nextInt(150));
+            sp.setDefense(20 + random.nextInt(150));
+            sp.setSpatk(20 + random.nextInt(150));
+            sp.setSpdef(20 + random.nextInt(150));
+            sp.setSpeed(20 + random.nextInt(150));
+            List<Move> pool = createPool(moves, random);
+            byte[] row = index.getStatRow(sp);
+            assertEquals(MoveSynergy.getStatMoveSynergy(sp, pool), filter(pool, row, MoveSynergyIndex.SOFT_SYNERGY));
+            assertEquals(MoveSynergy.getStatMoveAntiSynergy(sp, pool),
+                    filter(pool, row, MoveSynergyIndex.SOFT_ANTI_SYNERGY));
+        }
+    }
+
+    private static List<Move> filter(List<Move> pool, byte[] row, int flag) {
+        return pool.stream().filter(mv -> MoveSynergyIndex.has(row, mv, flag)).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns a distinct random part of the moves, in random order, like a trainer Pokemon's move pool.
+     */
+    private static List<Move> createPool(List<Move> moves, Random random) {
+        List<Move> pool = new ArrayList<>(moves.subList(1, moves.size()));
+        java.util.Collections.shuffle(pool, random);
+        return new ArrayList<>(pool.subList(0, 20 + random.nextInt(80)));
+    }
+
+    /**
+     * Creates moves with random data, by number, with a null at index 0 like {@code RomHandler.getMoves()}.
+     */
+    private static List<Move> createMoves(Random random) {
+        List<Move> moves = new ArrayList<>();
+        moves.add(null);
+        for (int i = 1; i < MOVE_COUNT; i++) {
+            Move mv = new Move();
+            mv.number = i;
+            mv.name = "Move" + i;
+            mv.type = Type.values()[random.nextInt(Type.values().length)];
+            mv.category = MoveCategory.values()[random.nextInt(MoveCategory.values().length)];
+            mv.power = mv.category == MoveCategory.STATUS ? 0 : 10 * (1 + random.nextInt(15));
+            mv.hitratio = random.nextBoolean() ? 100 : 50 + random.nextInt(50);
+            mv.priority = random.nextInt(8) == 0 ? 1 : 0;
+            mv.flinchPercentChance = random.nextInt(6) == 0 ? 30 : 0;
+            mv.statusType = random.nextInt(4) == 0 ?
+                    StatusType.values()[random.nextInt(StatusType.values().length)] : StatusType.NONE;
+            mv.statChangeMoveType = StatChangeMoveType.values()[random.nextInt(StatChangeMoveType.values().length)];
+            if (mv.statChangeMoveType != StatChangeMoveType.NONE_OR_UNKNOWN) {
+                mv.statChanges[0].type = StatChangeType.values()[1 + random.nextInt(StatChangeType.values().length - 1)];
+                mv.statChanges[0].stages = random.nextBoolean() ? 1 + random.nextInt(2) : -1 - random.nextInt(2);
+                mv.statChanges[0].percentChance = random.nextBoolean() ? 100 : 10;
+            }
+            mv.makesContact = random.nextBoolean();
+            mv.isPunchMove = random.nextInt(10) == 0;
+            mv.recoilPercent = random.nextInt(10) == 0 ? 33 : 0;
+            moves.add(mv);
+        }
+        return moves;
+    }
+}
@@ -204,4 +204,139 @@ public class SpeciesSetTest {
             }
         }
     }
+
+    @Test
+    public void getRandomSimilarStrengthNeverPicksRemovedSpecies() {
+        SpeciesSet specs = new SpeciesSet();
+        for (int i = 0; i < 100; i++) {
+            specs.add(speciesWithBST(i, 300 + i));
+        }
+        Species match = speciesWithBST(1000, 350);
+        specs.getRandomSimilarStrengthSpecies(match, random); // so the set has been used for this before
+
+        specs.removeIf(sp -> sp.getBSTForPowerLevels() >= 330 && sp.getBSTForPowerLevels() <= 370);
+        for (int i = 0; i < 1000; i++) {
+            Species pick = specs.getRandomSimilarStrengthSpecies(match, random);
+            assertTrue(specs.contains(pick));
+        }
+    }
+
+    @Test
+    public void getRandomSimilarStrengthUsesChangedBaseStats() {
+        SpeciesSet specs = new SpeciesSet();
+        for (int i = 0; i < 100; i++) {
+            specs.add(speciesWithBST(i, 100));
+        }
+        Species match = speciesWithBST(1000, 600);
+        specs.getRandomSimilarStrengthSpecies(match, random); // so the set has been used for this before
+
+        Species strong = speciesWithBST(0, 600);
+        for (Species sp : specs) {
+            if (sp.getNumber() < 10) {
+                sp.setHp(strong.getHp());
+            }
+        }
+        for (int i = 0; i < 1000; i++) {
+            Species pick = specs.getRandomSimilarStrengthSpecies(match, random);
+            assertEquals(600, pick.getBSTForPowerLevels());
+        }
+    }
+
+    @Test
+    public void iteratesLikeAHashSetBuiltTheSameWay() {
+        List<Species> species = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            species.add(new Species(i * 7));
+        }
+        Collections.shuffle(species, random);
+        SpeciesSet specs = new SpeciesSet();
+        Set<Species> hashSet = new HashSet<>();
+        specs.addAll(species);
+        hashSet.addAll(species);
+        specs.removeIf(sp -> sp.getNumber() % 3 == 0);
+        hashSet.removeIf(sp -> sp.getNumber() % 3 == 0);
+        assertEquals(new ArrayList<>(hashSet), new ArrayList<>(specs));
+        assertEquals(new ArrayList<>(new HashSet<>(hashSet)), new ArrayList<>(new SpeciesSet(specs)));
+    }
+
+    @Test
+    public void getRandomSpeciesPicksTheSameAsBefore() {
+        // the picks of SpeciesSet when it was a HashSet, which seeds must keep giving
+        List<Species> species = new ArrayList<>();
+        for (int i = 1; i <= 150; i++) {
+            species.add(new Species(i * 7));
+        }
+        Collections.shuffle(species, new Random(3));
+        SpeciesSet specs = new SpeciesSet();
+        specs.addAll(species);
+        specs.removeIf(sp -> sp.getNumber() % 5 == 0);
+        SpeciesSet copy = new SpeciesSet(specs);
+        Random seeded = new Random(42);
+
+        int[] expected = {329, 231, 322, 826, 672, 917, 616, 301};
+        for (int number : expected) {
+            assertEquals(number, specs.getRandomSpecies(seeded).getNumber());
+        }
+        int[] expectedRemoved = {903, 273, 119, 21, 392, 882, 791, 868};
+        for (int number : expectedRemoved) {
+            assertEquals(number, copy.getRandomSpecies(seeded, true).getNumber());
+        }
+        assertEquals(specs.size() - expectedRemoved.length, copy.size());
+    }
+
+    @Test
+    public void getRandomSimilarStrengthPicksTheSameAsBefore() {
+        // the picks of SpeciesSet when it was a HashSet, which seeds must keep giving
+        SpeciesSet specs = new SpeciesSet();
+        for (int i = 1; i <= 300; i++) {
+            specs.add(speciesWithBST(i, 200 + (i * 37) % 400));
+        }
+        Species match = speciesWithBST(1000, 350);
+        Species inSet = specs.iterator().next();
+        Random seeded = new Random(42);
+
+        int[] expected = {198, 120, 48, 185, 48, 239, 188, 185};
+        for (int i = 0; i < expected.length; i++) {
+            Species pick = i % 2 == 0 ? specs.getRandomSimilarStrengthSpecies(match, seeded)
+                    : specs.getRandomSimilarStrengthSpecies(inSet, true, seeded);
+            assertEquals(expected[i], pick.getNumber());
+        }
+    }
+
+    @Test
+    public void setOperationsBetweenSpeciesSetsWork() {
+        SpeciesSet evens = new SpeciesSet();
+        SpeciesSet thirds = new SpeciesSet();
+        for (int i = 0; i < 300; i++) {
+            Species sp = new Species(i);
+            if (i % 2 == 0) {
+                evens.add(sp);
+            }
+            if (i % 3 == 0) {
+                thirds.add(sp);
+            }
+        }
+
+        SpeciesSet sixths = new SpeciesSet(evens);
+        sixths.retainAll(thirds);
+        assertEquals(50, sixths.size());
+        assertTrue(sixths.stream().allMatch(sp -> sp.getNumber() % 6 == 0));
+
+        SpeciesSet evensNotThirds = new SpeciesSet(evens);
+        evensNotThirds.removeAll(thirds);
+        assertEquals(100, evensNotThirds.size());
+        assertFalse(evensNotThirds.containsAny(thirds));
+
+        SpeciesSet either = new SpeciesSet(evens);
+        either.addAll(thirds);
+        assertEquals(200, either.size());
+        assertEquals(150, evens.size()); // the copies don't affect the original
+    }
+
+    private static Species speciesWithBST(int number, int bst) {
+        Species species = new Species(number);
+        species.setName("BST" + bst);
+        species.setHp(bst);
+        return species;
+    }
 }
@@ -0,0 +1,107 @@
+package test.com.dabomstew.pkromio.gbspace;
+
+import com.dabomstew.pkromio.RomFunctions;
+import com.dabomstew.pkromio.gbspace.FreeRunIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import test.com.dabomstew.pkromio.romhandlers.RomHandlerTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FreeRunIndexTest extends RomHandlerTest {
+
+    private static final int[] NEEDLE_LENGTHS = {2, 5, 0x10, 0x100, 0x1000};
+
+    @ParameterizedTest
+    @MethodSource("getRomNames")
+    public void findFirstGivesSameOffsetsAsSearchingTheRom(String romName) throws IOException {
+        byte[] rom = Files.readAllBytes(Paths.get("test/roms/" + romName
+                + getGenerationOf(romName).getFileSuffix()));
+        byte freeSpaceByte = getGenerationNumberOf(romName) == 3 ? (byte) 0xFF : 0x00;
+        FreeRunIndex index = new FreeRunIndex(rom, freeSpaceByte);
+
+        for (int length : NEEDLE_LENGTHS) {
+            byte[] needle = new byte[length];
+            Arrays.fill(needle, freeSpaceByte);
+            for (int from = 0; from < rom.length; from += 0x4321) {
+                assertEquals(RomFunctions.searchForFirst(rom, from, needle), index.findFirst(length, from),
+                        "length=" + length + ", from=0x" + Integer.toHexString(from));
+            }
+        }
+    }
+
+    @Test
+    public void findFirstRespectsAlignment() {
+        byte[] rom = {1, 0, 0, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0};
+        FreeRunIndex index = new FreeRunIndex(rom, (byte) 0);
+        assertEquals(1, index.findFirst(5, 0));
+        assertEquals(8, index.findFirst(5, 0, 4));
+        assertEquals(2, index.findFirst(3, 0, 2));
+        assertEquals(-1, index.findFirst(7, 0, 4));
+    }
+
+    @Test
+    public void consumeAndReleaseUpdateTheRuns() {
+        byte[] rom = new byte[16];
+        FreeRunIndex index = new FreeRunIndex(rom, (byte) 0);
+        assertEquals(1, index.getRunCount());
+
+        index.consume(4, 4);
+        assertEquals(2, index.getRunCount());
+        assertEquals(8, index.findFirst(5, 0));
+        assertFalse(index.isFree(3, 2));
+        assertEquals(-1, index.getRunStart(5));
+
+        index.release(4, 4);
+        assertEquals(1, index.getRunCount());
+        assertEquals(0, index.findFirst(16, 0));
+    }
+
+    @Test
+    public void findFirstGivesSameOffsetsAsScanningAfterConsumingAndReleasing() {
+        Random random = new Random(5);
+        byte[] rom = new byte[0x800];
+        for (int i = 0; i < rom.length; i++) {
+            rom[i] = (byte) (random.nextInt(4) == 0 ? 1 : 0);
+        }
+        FreeRunIndex index = new FreeRunIndex(rom, (byte) 0);
+        for (int i = 0; i < 2000; i++) {
+            int offset = random.nextInt(rom.length - 0x20);
+            int length = 1 + random.nextInt(0x20);
+            if (random.nextBoolean()) {
+                index.consume(offset, length);
+                Arrays.fill(rom, offset, offset + length, (byte) 1);
+            } else {
+                index.release(offset, length);
+                Arrays.fill(rom, offset, offset + length, (byte) 0);
+            }
+            int from = random.nextInt(rom.length);
+            int alignment = 1 << random.nextInt(3);
+            int needed = 1 + random.nextInt(0x40);
+            assertEquals(scanForFirst(rom, needed, from, alignment), index.findFirst(needed, from, alignment),
+                    "length=" + needed + ", from=0x" + Integer.toHexString(from) + ", alignment=" + alignment);
+        }
+    }
+
+    private static int scanForFirst(byte[] rom, int length, int from, int alignment) {
+        int start = (from + alignment - 1) / alignment * alignment;
+        for (; start + length <= rom.length; start += alignment) {
+            int end = start;
+            while (end < start + length && rom[end] == 0) {
+                end++;
+            }
+            if (end == start + length) {
+                return start;
+            }
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,151 @@
+package test.com.dabomstew.pkromio.gbspace;
+
+import com.dabomstew.pkromio.gbspace.BankDividedFreedSpace;
+import com.dabomstew.pkromio.gbspace.FreedSpace;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FreedSpaceTest {
+
+    @Test
+    public void adjacentFreedChunksAreMerged() {
+        FreedSpace fs = new FreedSpace();
+        fs.free(0, 4);
+        fs.free(8, 4);
+        fs.free(4, 4);
+        assertEquals(1, fs.getChunkCount());
+        assertEquals(12, fs.getLargestChunkLength());
+        assertEquals(0, fs.findAndUnfree(12));
+        assertEquals(0, fs.getLengthSum());
+    }
+
+    @Test
+    public void freeingOverlappingSpaceThrows() {
+        FreedSpace fs = new FreedSpace();
+        fs.free(4, 4);
+        assertThrows(RuntimeException.class, () -> fs.free(2, 3));
+        assertThrows(RuntimeException.class, () -> fs.free(7, 2));
+        assertThrows(RuntimeException.class, () -> fs.free(5, 1));
+    }
+
+    @Test
+    public void firstFitUsesTheFirstFittingChunk() {
+        FreedSpace fs = new FreedSpace(FreedSpace.Policy.FIRST_FIT);
+        fs.free(0, 2);
+        fs.free(10, 8);
+        fs.free(20, 4);
+        assertEquals(10, fs.findAndUnfree(3));
+        assertEquals(13, fs.findAndUnfree(3));
+        assertEquals(20, fs.findAndUnfree(3));
+    }
+
+    @Test
+    public void bestFitUsesTheShortestFittingChunk() {
+        FreedSpace fs = new FreedSpace(FreedSpace.Policy.BEST_FIT);
+        fs.free(0, 2);
+        fs.free(10, 8);
+        fs.free(20, 4);
+        fs.free(30, 4);
+        assertEquals(20, fs.findAndUnfree(3));
+        assertEquals(30, fs.findAndUnfree(4));
+        assertEquals(10, fs.findAndUnfree(4));
+        assertEquals(-1, fs.findAndUnfree(5));
+    }
+
+    @Test
+    public void bestFitInBankUsesTheShortestFittingChunkInThatBank() {
+        BankDividedFreedSpace fs = new BankDividedFreedSpace(16, 2, new int[0], FreedSpace.Policy.BEST_FIT);
+        fs.free(0, 8);
+        fs.free(10, 3);
+        fs.free(20, 2);
+        assertEquals(10, fs.findAndUnfreeInBank(2, 0));
+        assertEquals(20, fs.findAndUnfreeInBank(2, 1));
+        assertEquals(-1, fs.findAndUnfreeInBank(2, 1));
+    }
+
+    @Test
+    public void metricsFollowFreeingAndUnfreeing() {
+        FreedSpace fs = new FreedSpace();
+        assertEquals(0, fs.getFragmentation());
+        assertEquals(0, fs.getUtilization());
+        fs.free(0, 6);
+        fs.free(10, 2);
+        assertEquals(8, fs.getLengthSum());
+        assertEquals(0.25, fs.getFragmentation(), 1e-9);
+        fs.findAndUnfree(2);
+        assertEquals(0.25, fs.getUtilization(), 1e-9);
+        assertEquals(1.0 / 3, fs.getFragmentation(), 1e-9);
+    }
+
+
+    @Test
+    public void firstFitFindsTheSameAsGoingThroughAllChunks() {
+        // a byte map of what is freed, in 4 banks of which bank 1 is reserved
+        int bankSize = 256;
+        boolean[] freed = new boolean[4 * bankSize];
+        BankDividedFreedSpace fs = new BankDividedFreedSpace(bankSize, 4, new int[]{1});
+        Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            int length = 1 + random.nextInt(24);
+            if (random.nextBoolean()) {
+                int bank = random.nextInt(4);
+                int start = bank * bankSize + random.nextInt(bankSize - length + 1);
+                if (!isAnyFreed(freed, start, length)) {
+                    fs.free(start, length);
+                    Arrays.fill(freed, start, start + length, true);
+                }
+            } else {
+                int found;
+                if (random.nextBoolean()) {
+                    int bank = random.nextInt(4);
+                    found = fs.findAndUnfreeInBank(length, bank);
+                    assertEquals(firstFit(freed, length, bank * bankSize, (bank + 1) * bankSize, bankSize), found);
+                } else {
+                    found = fs.findAndUnfree(length);
+                    int expected = firstFit(freed, length, 0, bankSize, bankSize);
+                    if (expected == -1) {
+                        expected = firstFit(freed, length, 2 * bankSize, freed.length, bankSize);
+                    }
+                    assertEquals(expected, found);
+                }
+                if (found != -1) {
+                    Arrays.fill(freed, found, found + length, false);
+                }
+            }
+        }
+    }
+
+    private static boolean isAnyFreed(boolean[] freed, int start, int length) {
+        for (int i = start; i < start + length; i++) {
+            if (freed[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the first start in [from, to) of a freed run of the given length which is all in one bank,
+     * and which is not preceded by freed bytes in the same bank (i.e. where a chunk starts), or -1.
+     */
+    private static int firstFit(boolean[] freed, int length, int from, int to, int bankSize) {
+        for (int start = from; start < to; start++) {
+            if (!freed[start] || (start % bankSize != 0 && freed[start - 1])) {
+                continue;
+            }
+            int end = start;
+            while (end < freed.length && freed[end] && (end == start || end % bankSize != 0)) {
+                end++;
+            }
+            if (end - start >= length) {
+                return start;
+            }
+        }
+        return -1;
+    }
+
+}
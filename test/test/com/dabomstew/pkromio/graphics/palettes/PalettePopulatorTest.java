@@ -0,0 +1,61 @@
+package test.com.dabomstew.pkromio.graphics.palettes;
+
+import com.dabomstew.pkromio.graphics.palettes.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PalettePopulatorTest {
+
+    private static final String DESCRIPTION_BODY = "5,4,3,2/0,15,14,0/0,7,6,8;0,9,8-8/0,11,10,0/13";
+
+    @Test
+    public void onlyDescribedSlotsAreChanged() {
+        Palette original = new Palette(16, Color.BLACK);
+        Palette palette = populate(new Palette(original), 1);
+
+        // slot 0, 11 and 15 (1, 12 and 16 in the description) aren't in any part
+        assertEquals(Color.BLACK, palette.get(0));
+        assertEquals(Color.BLACK, palette.get(11));
+        assertEquals(Color.BLACK, palette.get(15));
+        for (int slot : new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 13, 14}) {
+            assertFalse(palette.get(slot).equals(Color.BLACK), "slot " + slot);
+        }
+    }
+
+    @Test
+    public void sameSeedGivesSamePalette() {
+        Palette a = populate(new Palette(), 2);
+        Palette b = populate(new Palette(), 2);
+        assertArrayEquals(a.toBytes(), b.toBytes());
+    }
+
+    @Test
+    public void shadesGoFromLightToDark() {
+        Palette palette = populate(new Palette(16, Color.BLACK), 3);
+        // the first part, slots 5,4,3,2 (4,3,2,1 here), is a single color from light to dark
+        int[] slots = {4, 3, 2, 1};
+        for (int i = 1; i < slots.length; i++) {
+            int lighter = sum(palette.get(slots[i - 1]));
+            int darker = sum(palette.get(slots[i]));
+            assertTrue(lighter >= darker, lighter + " < " + darker);
+        }
+    }
+
+    private static Palette populate(Palette palette, long seed) {
+        Random random = new Random(seed);
+        PalettePopulator pp = new PalettePopulator(random);
+        for (PalettePartDescription part : PalettePartDescription.allFrom(DESCRIPTION_BODY)) {
+            if (!part.isBlank()) {
+                pp.populatePartFromBaseColor(palette, part, new Color(0x4080C0), LightDarkMode.DEFAULT);
+            }
+        }
+        return palette;
+    }
+
+    private static int sum(Color color) {
+        return color.getComp(0) + color.getComp(1) + color.getComp(2);
+    }
+}
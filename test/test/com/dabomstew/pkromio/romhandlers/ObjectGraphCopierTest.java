@@ -0,0 +1,194 @@
+package test.com.dabomstew.pkromio.romhandlers;
+
+import com.dabomstew.pkromio.romhandlers.ObjectGraphCopier;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ObjectGraphCopierTest {
+
+    private static class Node {
+        private final String name;
+        private int value;
+        private Node next;
+        private final List<Node> children = new ArrayList<>();
+        private transient String cached;
+
+        Node(String name, int value) {
+            this.name = name;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Node && ((Node) o).name.equals(name) && ((Node) o).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode() * 31 + value;
+        }
+    }
+
+    private static class Holder {
+        private Object held;
+    }
+
+    @Test
+    public void copyHasTheSameValuesButNoSharedMutableObjects() {
+        Node original = new Node("a", 1);
+        original.children.add(new Node("b", 2));
+        int[] array = new int[]{1, 2, 3};
+        Holder holder = new Holder();
+        holder.held = array;
+
+        Node copy = new ObjectGraphCopier().copy(original);
+        assertNotSame(original, copy);
+        assertEquals(original, copy);
+        assertNotSame(original.children, copy.children);
+        assertNotSame(original.children.get(0), copy.children.get(0));
+        assertEquals(original.children, copy.children);
+        assertSame(original.name, copy.name);
+
+        Holder holderCopy = new ObjectGraphCopier().copy(holder);
+        assertNotSame(array, holderCopy.held);
+        assertArrayEquals(array, (int[]) holderCopy.held);
+    }
+
+    @Test
+    public void sharingAndCyclesArePreserved() {
+        Node first = new Node("a", 1);
+        Node second = new Node("b", 2);
+        first.next = second;
+        second.next = first;
+        first.children.add(second);
+        first.children.add(first);
+
+        Node copy = new ObjectGraphCopier().copy(first);
+        assertSame(copy, copy.next.next);
+        assertSame(copy.next, copy.children.get(0));
+        assertSame(copy, copy.children.get(1));
+    }
+
+    @Test
+    public void hashedCollectionsWorkWithCopiedKeys() {
+        // the fields of the keys are only copied after the map is reached
+        Node key = new Node("a", 1);
+        Map<Node, Node> map = new HashMap<>();
+        Set<Node> set = new TreeSet<>(Comparator.comparing((Node n) -> n.name));
+        key.next = new Node("b", 2);
+        Holder holder = new Holder();
+        holder.held = Arrays.asList(map, set);
+        key.children.add(new Node("c", 3));
+        map.put(key, key.next);
+        set.add(key);
+        set.add(key.next);
+
+        @SuppressWarnings("unchecked")
+        List<Object> copy = (List<Object>) new ObjectGraphCopier().copy(holder).held;
+        @SuppressWarnings("unchecked")
+        Map<Node, Node> mapCopy = (Map<Node, Node>) copy.get(0);
+        @SuppressWarnings("unchecked")
+        Set<Node> setCopy = (Set<Node>) copy.get(1);
+        Node keyCopy = mapCopy.keySet().iterator().next();
+        assertNotSame(key, keyCopy);
+        assertSame(keyCopy.next, mapCopy.get(keyCopy));
+        assertTrue(setCopy.contains(keyCopy));
+        assertEquals(2, setCopy.size());
+    }
+
+    @Test
+    public void hashedCollectionsIterateInTheSameOrder() {
+        // after growing and shrinking, a HashSet with these elements made from scratch would be smaller
+        Set<Integer> set = new HashSet<>();
+        Map<Integer, Integer> map = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            set.add(i * 37);
+            map.put(i * 37, i);
+        }
+        set.removeIf(i -> i > 200);
+        map.keySet().removeIf(i -> i > 200);
+        Holder holder = new Holder();
+        holder.held = Arrays.asList(set, map);
+
+        List<?> copy = (List<?>) new ObjectGraphCopier().copy(holder).held;
+        assertEquals(new ArrayList<>(set), new ArrayList<>((Set<?>) copy.get(0)));
+        assertEquals(new ArrayList<>(map.keySet()), new ArrayList<>(((Map<?, ?>) copy.get(1)).keySet()));
+    }
+
+    @Test
+    public void unmodifiableViewsStayUnmodifiable() {
+        Holder holder = new Holder();
+        holder.held = Collections.unmodifiableList(new ArrayList<>(Collections.singletonList(new Node("a", 1))));
+
+        List<?> copy = (List<?>) new ObjectGraphCopier().copy(holder).held;
+        assertEquals(holder.held, copy);
+        assertThrows(UnsupportedOperationException.class, () -> copy.remove(0));
+    }
+
+    @Test
+    public void copyIntoKeepsTransientFieldsOfTheTarget() {
+        Node original = new Node("a", 1);
+        original.cached = "original";
+        original.next = original;
+        Node target = new Node("a", 0);
+        target.cached = "target";
+
+        Node copy = new ObjectGraphCopier().copyInto(original, target);
+        assertSame(target, copy);
+        assertEquals(1, copy.value);
+        assertEquals("target", copy.cached);
+        assertSame(target, copy.next);
+    }
+
+    @Test
+    public void copyFunctionsAreUsed() {
+        Node original = new Node("a", 1);
+        original.children.add(new Node("b", 2));
+        Holder holder = new Holder();
+        holder.held = original;
+
+        ObjectGraphCopier copier = new ObjectGraphCopier();
+        copier.setCopyFunction(Node.class, node -> new Node(node.name, -1));
+        Node copy = (Node) copier.copy(holder).held;
+        assertEquals(-1, copy.value);
+        assertTrue(copy.children.isEmpty());
+    }
+
+    @Test
+    public void sharedObjectsAreNotCopied() {
+        Node shared = new Node("a", 1);
+        Node other = new Node("b", 2);
+        Holder holder = new Holder();
+        holder.held = new ArrayList<>(Arrays.asList(shared, other));
+
+        ObjectGraphCopier copier = new ObjectGraphCopier();
+        copier.share(shared);
+        List<?> copy = (List<?>) copier.copy(holder).held;
+        assertSame(shared, copy.get(0));
+        assertNotSame(other, copy.get(1));
+    }
+
+    @Test
+    public void lambdasCapturingStateAreNotCopied() {
+        Holder holder = new Holder();
+        Supplier<String> nonCapturing = () -> "a";
+        holder.held = nonCapturing;
+        assertSame(nonCapturing, new ObjectGraphCopier().copy(holder).held);
+
+        Node node = new Node("a", 1);
+        holder.held = (Supplier<String>) () -> node.name;
+        assertThrows(IllegalArgumentException.class, () -> new ObjectGraphCopier().copy(holder));
+    }
+
+    @Test
+    public void unknownJdkClassesAreNotCopied() {
+        Holder holder = new Holder();
+        holder.held = new Random();
+        assertThrows(IllegalArgumentException.class, () -> new ObjectGraphCopier().copy(holder));
+    }
+
+}
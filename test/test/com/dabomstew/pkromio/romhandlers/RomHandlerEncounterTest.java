@@ -1,6 +1,7 @@
 package test.com.dabomstew.pkromio.romhandlers;
 
 import com.dabomstew.pkromio.constants.*;
+import com.dabomstew.pkromio.gamedata.Encounter;
 import com.dabomstew.pkromio.gamedata.EncounterArea;
 import com.dabomstew.pkromio.romhandlers.*;
 import org.junit.jupiter.api.Disabled;
@@ -52,6 +53,23 @@ public class RomHandlerEncounterTest extends RomHandlerTest {
         assertEquals(before, romHandler.getEncounters(true));
     }
 
+    @ParameterizedTest
+    @MethodSource("getRomNames")
+    public void encountersAreOnlyParsedAgainAfterBeingSet(String romName) {
+        assumeTrue(getGenerationNumberOf(romName) >= 4);
+        loadROM(romName);
+        int misses = romHandler.getParseCacheMisses();
+        List<EncounterArea> encounterAreas = romHandler.getEncounters(true);
+        Encounter changed = encounterAreas.get(0).get(0);
+        changed.setLevel(changed.getLevel() + 1);
+        assertNotEquals(encounterAreas, romHandler.getEncounters(true));
+        assertEquals(misses + 1, romHandler.getParseCacheMisses());
+
+        romHandler.setEncounters(true, romHandler.getEncounters(true));
+        romHandler.getEncounters(true);
+        assertEquals(misses + 2, romHandler.getParseCacheMisses());
+    }
+
     /**
      * This test checks whether you've accidentally broken the reading of encounters
      * by comparing the current output with logged output in text files. <br>
@@ -6,22 +6,31 @@ import com.dabomstew.pkromio.gamedata.GenRestrictions;
 import com.dabomstew.pkromio.gamedata.MegaEvolution;
 import com.dabomstew.pkromio.gamedata.Species;
 import com.dabomstew.pkromio.gamedata.SpeciesSet;
+import com.dabomstew.pkromio.romhandlers.*;
 import com.dabomstew.pkromio.romhandlers.romentries.RomEntry;
 import com.dabomstew.pkromio.services.RestrictedSpeciesService;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 public class RomHandlerMiscTest extends RomHandlerTest {
 
+    private static final AtomicInteger PARSES = new AtomicInteger();
+
     @ParameterizedTest
     @MethodSource("getRomNames")
     public void loadingDoesNotGiveNullRomHandler(String romName) {
@@ -366,4 +375,182 @@ public class RomHandlerMiscTest extends RomHandlerTest {
         }
     }
 
+    @ParameterizedTest
+    @MethodSource("getRomNames")
+    public void restoredSnapshotSavesSameRomAsOriginal(String romName) throws IOException {
+        loadROM(romName);
+        assumeTrue(romHandler.hasSnapshotSupport());
+        RomHandler.Snapshot snapshot = romHandler.createSnapshot();
+        Path dir = Files.createTempDirectory("snapshottest");
+        Path originalPath = dir.resolve("original");
+        Path restoredPath = dir.resolve("restored");
+
+        long seed = RND.nextLong();
+        assertTrue(romHandler.saveRom(originalPath.toString(), seed, false));
+        RomHandler restored = snapshot.restore();
+        assertTrue(restored.saveRom(restoredPath.toString(), seed, false));
+
+        assertArrayEquals(Files.readAllBytes(originalPath), Files.readAllBytes(restoredPath));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getRomNames")
+    public void restoredSnapshotIsUnaffectedByChangesToOriginal(String romName) throws IOException {
+        loadROM(romName);
+        assumeTrue(romHandler.hasSnapshotSupport());
+        RomHandler.Snapshot snapshot = romHandler.createSnapshot();
+        int originalHp = romHandler.getSpecies().get(1).getHp();
+
+        romHandler.getSpecies().get(1).setHp(originalHp == 1 ? 2 : 1);
+        Path dir = Files.createTempDirectory("snapshottest");
+        assertTrue(romHandler.saveRom(dir.resolve("changed").toString(), RND.nextLong(), false));
+
+        RomHandler restored = snapshot.restore();
+        assertEquals(originalHp, restored.getSpecies().get(1).getHp());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getRomNames")
+    public void restoredSnapshotHasSameDiagnosticsAsFreshlyLoaded(String romName) {
+        loadROM(romName);
+        assumeTrue(romHandler.hasSnapshotSupport());
+        RomHandler restored = romHandler.createSnapshot().restore();
+
+        // the diagnostics list the original CRCs of the files read while loading, which go into every log
+        ByteArrayOutputStream fresh = new ByteArrayOutputStream();
+        romHandler.printRomDiagnostics(new PrintStream(fresh));
+        ByteArrayOutputStream fromSnapshot = new ByteArrayOutputStream();
+        restored.printRomDiagnostics(new PrintStream(fromSnapshot));
+        assertEquals(fresh.toString(), fromSnapshot.toString());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getRomNames")
+    public void restoringSnapshotDoesNotParseTheGameAgain(String romName) {
+        Generation gen = getGenerationOf(romName);
+        RomHandler counting = createParseCountingRomHandler(gen.getNumber());
+        counting.loadRom(TEST_ROMS_PATH + "/" + romName + gen.getFileSuffix());
+        assumeTrue(counting.hasSnapshotSupport());
+        RomHandler.Snapshot snapshot = counting.createSnapshot();
+
+        int parses = PARSES.get();
+        RomHandler restored = snapshot.restore();
+        assertEquals(parses, PARSES.get());
+        assertEquals(counting.getClass(), restored.getClass());
+        assertEquals(counting.getSpecies().size(), restored.getSpecies().size());
+        assertEquals(counting.getTrainers().size(), restored.getTrainers().size());
+    }
+
+    private static RomHandler createParseCountingRomHandler(int generation) {
+        switch (generation) {
+            case 1:
+                return new ParseCountingGen1RomHandler();
+            case 2:
+                return new ParseCountingGen2RomHandler();
+            case 3:
+                return new ParseCountingGen3RomHandler();
+            case 4:
+                return new ParseCountingGen4RomHandler();
+            case 5:
+                return new ParseCountingGen5RomHandler();
+            case 6:
+                return new ParseCountingGen6RomHandler();
+            case 7:
+                return new ParseCountingGen7RomHandler();
+            default:
+                throw new IllegalArgumentException("Unknown generation " + generation);
+        }
+    }
+
+    private static class ParseCountingGen1RomHandler extends Gen1RomHandler {
+        @Override
+        protected void loadGameData() {
+            PARSES.incrementAndGet();
+            super.loadGameData();
+        }
+
+        @Override
+        protected Gen1RomHandler newInstance() {
+            return new ParseCountingGen1RomHandler();
+        }
+    }
+
+    private static class ParseCountingGen2RomHandler extends Gen2RomHandler {
+        @Override
+        protected void loadGameData() {
+            PARSES.incrementAndGet();
+            super.loadGameData();
+        }
+
+        @Override
+        protected Gen2RomHandler newInstance() {
+            return new ParseCountingGen2RomHandler();
+        }
+    }
+
+    private static class ParseCountingGen3RomHandler extends Gen3RomHandler {
+        @Override
+        protected void loadGameData() {
+            PARSES.incrementAndGet();
+            super.loadGameData();
+        }
+
+        @Override
+        protected Gen3RomHandler newInstance() {
+            return new ParseCountingGen3RomHandler();
+        }
+    }
+
+    private static class ParseCountingGen4RomHandler extends Gen4RomHandler {
+        @Override
+        protected void loadedROM(String romCode, byte version) {
+            PARSES.incrementAndGet();
+            super.loadedROM(romCode, version);
+        }
+
+        @Override
+        protected Gen4RomHandler newInstance() {
+            return new ParseCountingGen4RomHandler();
+        }
+    }
+
+    private static class ParseCountingGen5RomHandler extends Gen5RomHandler {
+        @Override
+        protected void loadedROM(String romCode, byte version) {
+            PARSES.incrementAndGet();
+            super.loadedROM(romCode, version);
+        }
+
+        @Override
+        protected Gen5RomHandler newInstance() {
+            return new ParseCountingGen5RomHandler();
+        }
+    }
+
+    private static class ParseCountingGen6RomHandler extends Gen6RomHandler {
+        @Override
+        protected void loadedROM(String productCode, String titleId) {
+            PARSES.incrementAndGet();
+            super.loadedROM(productCode, titleId);
+        }
+
+        @Override
+        protected Gen6RomHandler newInstance() {
+            return new ParseCountingGen6RomHandler();
+        }
+    }
+
+    private static class ParseCountingGen7RomHandler extends Gen7RomHandler {
+        @Override
+        protected void loadedROM(String productCode, String titleId) {
+            PARSES.incrementAndGet();
+            super.loadedROM(productCode, titleId);
+        }
+
+        @Override
+        protected Gen7RomHandler newInstance() {
+            return new ParseCountingGen7RomHandler();
+        }
+    }
+
 }
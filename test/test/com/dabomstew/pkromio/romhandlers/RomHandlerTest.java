@@ -26,7 +26,7 @@ public class RomHandlerTest {
 
     protected static final Random RND = new Random();
 
-    private static final String TEST_ROMS_PATH = "test/roms";
+    protected static final String TEST_ROMS_PATH = "test/roms";
     private static final String LAST_DOT_REGEX = "\\.+(?![^.]*\\.)";
 
     public static String[] getRomNames() {
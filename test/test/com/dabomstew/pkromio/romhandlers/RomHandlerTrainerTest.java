@@ -8,6 +8,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -61,6 +62,39 @@ public class RomHandlerTrainerTest extends RomHandlerTest {
         assertEquals(before, romHandler.getTrainers());
     }
 
+    @ParameterizedTest
+    @MethodSource("getRomNames")
+    public void changingGottenTrainersDoesNotChangeTrainersGottenLater(String romName) {
+        assumeTrue(getGenerationNumberOf(romName) >= 4);
+        loadROM(romName);
+        Trainer changed = romHandler.getTrainers().get(0);
+        int pokemonCount = changed.pokemon.size();
+        int level = changed.pokemon.get(0).getLevel();
+        changed.pokemon.get(0).setLevel(level + 1);
+        changed.pokemon.add(changed.pokemon.get(0).copy());
+
+        Trainer gottenLater = romHandler.getTrainers().get(0);
+        assertEquals(pokemonCount, gottenLater.pokemon.size());
+        assertEquals(level, gottenLater.pokemon.get(0).getLevel());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getRomNames")
+    public void trainersAreOnlyParsedAgainAfterBeingSet(String romName) {
+        assumeTrue(getGenerationNumberOf(romName) >= 4);
+        loadROM(romName);
+        int misses = romHandler.getParseCacheMisses();
+        List<Trainer> trainers = romHandler.getTrainers();
+        romHandler.getTrainers();
+        assertEquals(misses + 1, romHandler.getParseCacheMisses());
+
+        trainers.get(0).pokemon.get(0).setLevel(trainers.get(0).pokemon.get(0).getLevel() + 1);
+        romHandler.setTrainers(trainers);
+        List<Trainer> after = romHandler.getTrainers();
+        assertEquals(misses + 2, romHandler.getParseCacheMisses());
+        assertEquals(trainers.get(0).pokemon.get(0).getLevel(), after.get(0).pokemon.get(0).getLevel());
+    }
+
     @ParameterizedTest
     @MethodSource("getRomNames")
     public void trainersDoNotChangeWithLoadAndSave(String romName) {
@@ -401,6 +435,21 @@ public class RomHandlerTrainerTest extends RomHandlerTest {
         assertEquals(before, romHandler.getTrainerNames());
     }
 
+    @ParameterizedTest
+    @MethodSource("getRomNames")
+    public void trainerNamesCanBeSetSeveralTimesBeforeSaving(String romName) {
+        assumeTrue(getGenerationNumberOf(romName) >= 4);
+        loadROM(romName);
+        List<String> trainerNames = romHandler.getTrainerNames();
+        List<String> reversed = new ArrayList<>(trainerNames);
+        Collections.reverse(reversed);
+        romHandler.setTrainerNames(reversed);
+        assertEquals(reversed, romHandler.getTrainerNames());
+        romHandler.setTrainerNames(reversed);
+        romHandler.setTrainerNames(trainerNames);
+        assertEquals(trainerNames, romHandler.getTrainerNames());
+    }
+
     @ParameterizedTest
     @MethodSource("getRomNames")
     public void trainerClassNamesAreNotEmpty(String romName) {
@@ -0,0 +1,172 @@
+package test.compressors;
+
+import com.dabomstew.pkromio.graphics.images.GBCImage;
+import compressors.DSCmp;
+import compressors.DSDecmp;
+import cuecompressors.BLZCoder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static test.compressors.CmpTestConstants.IN_ADDRESS;
+import static test.compressors.CmpTestConstants.TEST_FILE_NAMES;
+
+public class DSCmpTest {
+
+    // The output of the brute force match searches LZMatchFinder replaced, for the inputs below.
+    // The compressed bytes must never change, since they end up in randomized ROMs.
+    private static final String TEXT_LZ10 = "10900100005461636B6C652C20005761746572204775006E617070656172650164212075736564800400456D6265722C"
+            + "202C18202E0A7023F036207769796C40362009200E203B2E0A204280201F506F6B656D6F6EC2004B20652E0A2C20F054"
+            + "6EFE204A30A1208C5035208A70A830C32E7F0A5054803130DE506D60E4F008A0957F2C609FB08A711B210C313B800A11"
+            + "1BC37135608E7261696E015CC0B5602C515180A82C20";
+    private static final String TEXT_LZ11 = "11900100005461636B6C652C20005761746572204775006E617070656172650164212075736564A00400456D6265722C"
+            + "202C18202E0A902300203677696CF360364009400E403B2E0A4042401F01506F6B656D6F6E204B8740652E0A2C200020"
+            + "54404A50A1F9408C7035408A90A850C32E0A7054FDA03150DE706D80E4001008C0952C809FFFD08A911B410C513BA00A"
+            + "311B9135808E0D7261696E215CE0B52C715180A0A82C20";
+    private static final String TEXT_BLZ = "445134F0C007302E614F5119116152F03F600710EFFC4002200E104C302E0A45209390CFCD40C6002CA07088A03A50AB"
+            + "90B3C0FB0D402E0A16400840A6802FE00660F91D904B702C416057617443008B47756E77696C6420004070088026203E"
+            + "502E0A02102A30CF506F6B656D6F6E2000547261696E65720E308061707065617265640021202C20456D626500722C20"
+            + "7573656420005461636B6C652C2000FFA8000009E8000000";
+    private static final String TEXT_BLZ_BEST = "445134F0C007302E614F51191152F06E3F600710DFFC4002200E104C302E0A45209390CFCD40C6002CA07088A03A50AB"
+            + "90B3C0FB0D402E0A16400840A6802FE00660F91D904B702C416057617443008B47756E77696C6420004070088026203E"
+            + "502E0A02102A30CF506F6B656D6F6E2000547261696E65720E308061707065617265640021202C20456D626500722C20"
+            + "7573656420005461636B6C652C2000FFA8000009E8000000";
+    private static final String RUNS_LZ10 = "1000030008E6010000A001FC733A03850001020304F004301370F3F01DF02CE027600E46683B85FEA058F06590742BF0"
+            + "84F03AFFB0A5C0C9F00EF020F032F044F056F068FFF07AF08CF09EF0B0F0C2F0D4F0E6F0F8C0F10AF11CF6A03B069BBB"
+            + "FDF1345210F2044213F21E422D1FF238870247D944CE8DF027F260A0276755F04F42927564229EF027F027C0F027E232";
+    private static final String RUNS_LZ11 = "1100030008E6010000C001FC733A02850001020304007004F3C000C01D007027600E466885FEDEC05800D0472B00B084"
+            + "0050A0E0C91000F00EF607A03B069BBB00913400820400821E421F004238D944CE8D020027559800804F7564429E0350"
+            + "2700";
+    private static final String RUNS_BLZ = "E6C7D0FC733A851BC08425F045F031F0F310A0600E46176885FE0A4038F012F02B0770B80FF0021061F10CC00FF00FF0"
+            + "0FF00FF0FF0FF00FF00FF00FF00FF00FF00FF00FF0FF0FF00FF00FF015F0F6A03B060F9BBB0000099003300000007017"
+            + "6012F017C025F025F00D70257020D0FFD944CE8D0D3025F025F025F0F020C0756404200D405503101F59074002200203"
+            + "0400010003FFFFFF9F00000B60020000";
+    private static final String RUNS_BLZ_BEST = "E6C7D0FC733A85081BC025F045F031F0F310A0600E2F466885FE0A4038F012F02B7007700FF0021061F10CC00FF00FF0"
+            + "0FF0FF0FF00FF00FF00FF00FF00FF00FF00FF0FF0FF00FF00FF00FF015F0F6A03B1F069BBB0AA0000330000000681760"
+            + "12F017C025F025F00D70257020D0FFD944CE8D0D3025F025F025F0F020C0756404200D405503101F5907400220020304"
+            + "000100039B00000864020000";
+
+
+    public static String[] getImageNames() {
+        return TEST_FILE_NAMES;
+    }
+
+    @ParameterizedTest
+    @MethodSource("getImageNames")
+    public void lz10CompressedImageDecompressesToSameBytes(String name) throws IOException {
+        byte[] uncompressed = new GBCImage.Builder(new File(IN_ADDRESS + "/" + name + ".png")).build().toBytes();
+        assertArrayEquals(uncompressed, decompress(DSCmp.compressLZ10(uncompressed)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getImageNames")
+    public void lz11CompressedImageDecompressesToSameBytes(String name) throws IOException {
+        byte[] uncompressed = new GBCImage.Builder(new File(IN_ADDRESS + "/" + name + ".png")).build().toBytes();
+        assertArrayEquals(uncompressed, decompress(DSCmp.compressLZ11(uncompressed)));
+    }
+
+    @Test
+    public void compressedLongRepeatsDecompressToSameBytes() {
+        // long runs and repeats further back than the window, to get matches of all lengths and distances
+        Random random = new Random(0);
+        byte[] uncompressed = new byte[0x30000];
+        int i = 0;
+        while (i < uncompressed.length) {
+            int length = Math.min(uncompressed.length - i, 1 + random.nextInt(0x200));
+            if (i > 0x2000 && random.nextBoolean()) {
+                int from = i - 1 - random.nextInt(0x2000);
+                for (int j = 0; j < length; j++) {
+                    uncompressed[i + j] = uncompressed[from + j];
+                }
+            } else if (random.nextBoolean()) {
+                for (int j = 0; j < length; j++) {
+                    uncompressed[i + j] = (byte) random.nextInt(256);
+                }
+            }
+            i += length;
+        }
+        assertArrayEquals(uncompressed, decompress(DSCmp.compressLZ10(uncompressed)));
+        assertArrayEquals(uncompressed, decompress(DSCmp.compressLZ11(uncompressed)));
+    }
+
+    @Test
+    public void lz10CompressesToSameBytesAsBefore() {
+        assertArrayEquals(fromHex(TEXT_LZ10), DSCmp.compressLZ10(textInput()));
+        assertArrayEquals(fromHex(RUNS_LZ10), DSCmp.compressLZ10(runsInput()));
+    }
+
+    @Test
+    public void lz11CompressesToSameBytesAsBefore() {
+        assertArrayEquals(fromHex(TEXT_LZ11), DSCmp.compressLZ11(textInput()));
+        assertArrayEquals(fromHex(RUNS_LZ11), DSCmp.compressLZ11(runsInput()));
+    }
+
+    @Test
+    public void blzCompressesToSameBytesAsBefore() {
+        assertArrayEquals(fromHex(TEXT_BLZ), new BLZCoder(null).BLZ_EncodePub(textInput(), false, false, "text"));
+        assertArrayEquals(fromHex(RUNS_BLZ), new BLZCoder(null).BLZ_EncodePub(runsInput(), false, false, "runs"));
+        assertArrayEquals(fromHex(TEXT_BLZ_BEST), new BLZCoder(null).BLZ_EncodePub(textInput(), false, true, "text"));
+        assertArrayEquals(fromHex(RUNS_BLZ_BEST), new BLZCoder(null).BLZ_EncodePub(runsInput(), false, true, "runs"));
+    }
+
+    /**
+     * Text-like data, with lots of short matches at all sorts of distances.
+     */
+    private static byte[] textInput() {
+        String[] words = {"Pokemon ", "Trainer ", "wild ", "appeared! ", "used ", "Tackle", "Ember", "Water Gun", ", ",
+                ".\n"};
+        Random random = new Random(1);
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 400) {
+            sb.append(words[random.nextInt(words.length)]);
+        }
+        return sb.substring(0, 400).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Repeats, short random runs, a repeating pattern, and a long run of zeros, for matches which overlap
+     * the position and which are longer than LZ11's short lengths.
+     */
+    private static byte[] runsInput() {
+        Random random = new Random(2);
+        byte[] data = new byte[768];
+        int i = 0;
+        while (i < data.length) {
+            int kind = i >= 200 && i < 500 ? 3 : random.nextInt(3);
+            int length = Math.min(data.length - i,
+                    kind == 3 ? 300 : kind == 1 ? 1 + random.nextInt(4) : 3 + random.nextInt(30));
+            for (int j = 0; j < length; j++) {
+                if (kind == 0 && i > 64) {
+                    data[i + j] = data[i - 40 + j];
+                } else if (kind == 1) {
+                    data[i + j] = (byte) random.nextInt(256);
+                } else if (kind == 2) {
+                    data[i + j] = (byte) (j % 5);
+                }
+            }
+            i += length;
+        }
+        return data;
+    }
+
+    private static byte[] fromHex(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        }
+        return bytes;
+    }
+
+    private static byte[] decompress(byte[] compressed) {
+        // the decompressor reads the whole last flag block, so it needs some padding after, like in a ROM
+        return DSDecmp.Decompress(Arrays.copyOf(compressed, compressed.length + 0x20));
+    }
+
+}
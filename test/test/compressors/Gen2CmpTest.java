@@ -4,6 +4,7 @@ import com.dabomstew.pkromio.graphics.images.GBCImage;
 import compressors.Gen2Cmp;
 import compressors.Gen2Decmp;
 import compressors.gen2.Gen2Compressor;
+import compressors.gen2.Gen2OptimalCompressor;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
@@ -13,6 +14,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static test.compressors.CmpTestConstants.IN_ADDRESS;
 import static test.compressors.CmpTestConstants.TEST_FILE_NAMES;
@@ -83,4 +85,32 @@ public class Gen2CmpTest {
                 ((double) compressed.length) / ((double) uncompressed.length));
     }
 
+    @ParameterizedTest
+    @MethodSource("getImageNames")
+    public void testOptimalCompressorIsNeverWorseOnImage(String name) throws IOException {
+        GBCImage bim = new GBCImage.Builder(new File(IN_ADDRESS + "/" + name + ".png")).columnMode(true).build();
+
+        byte[] uncompressed = bim.toBytes();
+        byte[] bitFlipped = Gen2Cmp.flipBits(uncompressed);
+        int optimalLength = new Gen2OptimalCompressor().compress(uncompressed, bitFlipped).length;
+        for (Gen2Compressor cmp : Gen2Cmp.COMPRESSORS) {
+            assertTrue(optimalLength <= cmp.compress(uncompressed, bitFlipped).length, cmp.toString());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("getImageNames")
+    public void testCachedCompressionIsSameAsUncachedOnImage(String name) throws IOException {
+        GBCImage bim = new GBCImage.Builder(new File(IN_ADDRESS + "/" + name + ".png")).columnMode(true).build();
+
+        byte[] uncompressed = bim.toBytes();
+        byte[] first = Gen2Cmp.compress(uncompressed);
+        first[0]++; // changing the returned array must not change the cache
+        byte[] cached = Gen2Cmp.compress(uncompressed);
+        Gen2Cmp.clearCache();
+        byte[] uncached = Gen2Cmp.compress(uncompressed);
+        assertArrayEquals(uncached, cached);
+        assertArrayEquals(uncompressed, Gen2Decmp.decompress(cached, 0));
+    }
+
 }